@@ -0,0 +1,52 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.core.McpResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code BaseMcpTool.invoke} template (validate, execute, wrap) on its own,
+ * for both the success and the validation-failure path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BaseMcpToolBenchmark {
+
+    private BenchmarkFixtures.StationLookupTool tool;
+    private Map<String, Object> validArguments;
+    private Map<String, Object> invalidArguments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tool = new BenchmarkFixtures.StationLookupTool();
+        validArguments = BenchmarkFixtures.stationArguments();
+        invalidArguments = Map.of("limit", 5);
+    }
+
+    @Benchmark
+    public McpResult<List<Map<String, Object>>> invokeSuccess() {
+        return tool.invoke(validArguments).block();
+    }
+
+    @Benchmark
+    public McpResult<List<Map<String, Object>>> invokeInvalidInput() {
+        return tool.invoke(invalidArguments).block();
+    }
+}
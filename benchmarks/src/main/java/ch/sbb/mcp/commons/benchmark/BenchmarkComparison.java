@@ -0,0 +1,112 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (baseline vs. candidate) and fails on regressions.
+ *
+ * <p>Both the primary metric and, when present, the normalized allocation rate
+ * ({@code gc.alloc.rate.norm} from {@code -prof gc}) are compared. A result is a regression
+ * when it is worse than the baseline by more than the threshold: slower for time-based modes,
+ * fewer operations for {@code thrpt}, more bytes per operation for allocations.</p>
+ *
+ * <p><strong>Usage:</strong></p>
+ * <pre>
+ * java -cp target/benchmarks.jar ch.sbb.mcp.commons.benchmark.BenchmarkComparison \
+ *     baseline.json current.json [thresholdPercent]
+ * </pre>
+ *
+ * <p>Exits with status 1 if at least one benchmark regressed, 2 on usage errors.</p>
+ */
+public final class BenchmarkComparison {
+
+    static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, JsonNode> current = index(mapper.readTree(Path.of(args[1]).toFile()));
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Delta");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-70s %14s%n", entry.getKey(), "(new)");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+
+            regressions += compare(entry.getKey(),
+                before.path("primaryMetric"), after.path("primaryMetric"), higherIsBetter, threshold);
+
+            JsonNode allocBefore = before.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            JsonNode allocAfter = after.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            if (!allocBefore.isMissingNode() && !allocAfter.isMissingNode()) {
+                regressions += compare("  " + ALLOCATION_METRIC, allocBefore, allocAfter, false, threshold);
+            }
+        }
+
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf(Locale.ROOT, "%-70s %14s%n", key, "(removed)");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf(Locale.ROOT, "%n%d metric(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf(Locale.ROOT, "%nNo regressions above %.1f%%%n", threshold);
+    }
+
+    private static int compare(String label, JsonNode before, JsonNode after, boolean higherIsBetter, double threshold) {
+        double baseScore = before.path("score").asDouble();
+        double score = after.path("score").asDouble();
+        String unit = after.path("scoreUnit").asText();
+        double delta = baseScore == 0.0 ? (score == 0.0 ? 0.0 : 100.0) : (score - baseScore) / baseScore * 100.0;
+        boolean regressed = higherIsBetter ? delta < -threshold : delta > threshold;
+
+        System.out.printf(Locale.ROOT, "%-70s %10.2f %-3s %10.2f %-3s %+8.1f%%%s%n",
+            label, baseScore, unit, score, unit, delta, regressed ? "  REGRESSION" : "");
+        return regressed ? 1 : 0;
+    }
+
+    /**
+     * Keys each result by benchmark name, mode and parameters so that
+     * parameterized runs are compared one-to-one.
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                .append(" [").append(result.path("mode").asText()).append(']');
+            JsonNode params = result.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
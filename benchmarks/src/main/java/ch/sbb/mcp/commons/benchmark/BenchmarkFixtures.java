@@ -0,0 +1,277 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.config.OptimizedJacksonConfig;
+import ch.sbb.mcp.commons.controller.BaseMcpController;
+import ch.sbb.mcp.commons.core.BaseMcpTool;
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.handler.McpResourceHandler;
+import ch.sbb.mcp.commons.prompts.McpPrompt;
+import ch.sbb.mcp.commons.prompts.McpPromptArgument;
+import ch.sbb.mcp.commons.prompts.McpPromptHandler;
+import ch.sbb.mcp.commons.prompts.McpPromptProvider;
+import ch.sbb.mcp.commons.prompts.McpPromptRegistry;
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import ch.sbb.mcp.commons.registry.McpToolRegistry;
+import ch.sbb.mcp.commons.resource.McpResource;
+import ch.sbb.mcp.commons.util.ArgumentExtractor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.support.GenericApplicationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared, Spring-free wiring of the MCP hot path for the JMH suites.
+ *
+ * <p>Builds a {@link McpToolRegistry}, {@link McpResourceHandler}, {@link McpPromptHandler}
+ * and a minimal {@link BaseMcpController} around a handful of synthetic tools, resources and
+ * prompts whose payloads resemble a typical journey lookup. Everything is created once per
+ * benchmark trial so that only the per-request work is measured.</p>
+ */
+public final class BenchmarkFixtures {
+
+    /** Number of synthetic tools registered in addition to {@link #STATION_TOOL}. */
+    public static final int FILLER_TOOL_COUNT = 24;
+
+    public static final String STATION_TOOL = "findStations";
+    public static final String RESOURCE_URI = "resource://service-calendar";
+    public static final String PROMPT_NAME = "plan-journey";
+
+    public static final String INPUT_SCHEMA = """
+        {"type":"object","properties":{"query":{"type":"string","description":"Station name or part of it"},\
+        "limit":{"type":"integer","minimum":1,"maximum":50,"default":10}},"required":["query"]}""";
+
+    public final ObjectMapper objectMapper;
+    public final GenericApplicationContext applicationContext;
+    public final McpToolRegistry toolRegistry;
+    public final McpResourceHandler resourceHandler;
+    public final McpPromptRegistry promptRegistry;
+    public final McpPromptHandler promptHandler;
+    public final BenchmarkMcpController controller;
+    public final StationLookupTool stationTool;
+
+    public BenchmarkFixtures() {
+        this.objectMapper = new OptimizedJacksonConfig().objectMapper();
+        this.stationTool = new StationLookupTool();
+
+        this.applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(STATION_TOOL, McpTool.class, () -> stationTool);
+        for (int i = 0; i < FILLER_TOOL_COUNT; i++) {
+            String name = "fillerTool" + i;
+            applicationContext.registerBean(name, McpTool.class, () -> new StaticTool(name));
+        }
+        applicationContext.registerBean("prompts", McpPromptProvider.class, JourneyPrompts::new);
+        applicationContext.refresh();
+
+        this.toolRegistry = new McpToolRegistry(applicationContext);
+        toolRegistry.init();
+
+        this.resourceHandler = new McpResourceHandler(List.of(new ServiceCalendarResource()), objectMapper);
+
+        this.promptRegistry = new McpPromptRegistry(applicationContext);
+        promptRegistry.init();
+        this.promptHandler = new McpPromptHandler(promptRegistry);
+
+        this.controller = new BenchmarkMcpController(toolRegistry, resourceHandler, promptHandler, objectMapper);
+    }
+
+    /**
+     * Releases the application context created for the fixtures.
+     */
+    public void close() {
+        applicationContext.close();
+    }
+
+    /**
+     * Arguments of a typical station lookup.
+     */
+    public static Map<String, Object> stationArguments() {
+        return Map.of("query", "Bern", "limit", 5);
+    }
+
+    /**
+     * A {@code tools/call} request for {@link #STATION_TOOL}.
+     */
+    public static McpRequest toolsCallRequest() {
+        return new McpRequest("2.0", 1, "tools/call",
+            Map.of("name", STATION_TOOL, "arguments", stationArguments()));
+    }
+
+    /**
+     * Controller exposing the protected request dispatch to the benchmarks.
+     */
+    public static final class BenchmarkMcpController extends BaseMcpController {
+
+        BenchmarkMcpController(
+                McpToolRegistry toolRegistry,
+                McpResourceHandler resourceHandler,
+                McpPromptHandler promptHandler,
+                ObjectMapper objectMapper) {
+            super(toolRegistry, resourceHandler, promptHandler, objectMapper);
+        }
+
+        public Mono<McpResponse> dispatch(McpRequest request) {
+            return processRequest(request);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Mono<McpResponse> handleToolsCall(McpRequest request) {
+            Map<String, Object> params = (Map<String, Object>) request.params();
+            String name = (String) params.get("name");
+            Map<String, Object> arguments = (Map<String, Object>) params.getOrDefault("arguments", Map.of());
+            return toolRegistry.invokeTool(name, arguments)
+                .map(result -> McpResponse.success(request.id(), Map.of(
+                    "content", List.of(Map.of("type", "text", "text", String.valueOf(result))))));
+        }
+
+        @Override
+        protected String getServerName() {
+            return "benchmark-mcp";
+        }
+
+        @Override
+        protected String getServerVersion() {
+            return "1.0.0";
+        }
+    }
+
+    /**
+     * Tool built on {@link BaseMcpTool} returning a small station list.
+     */
+    public static final class StationLookupTool extends BaseMcpTool<StationLookupTool.Input, List<Map<String, Object>>> {
+
+        record Input(String query, int limit) {}
+
+        private static final List<Map<String, Object>> STATIONS = List.of(
+            Map.of("id", "8507000", "name", "Bern", "latitude", 46.94883, "longitude", 7.43913),
+            Map.of("id", "8507100", "name", "Bern Wankdorf", "latitude", 46.96720, "longitude", 7.46611),
+            Map.of("id", "8507483", "name", "Bern Bümpliz Nord", "latitude", 46.94700, "longitude", 7.38700)
+        );
+
+        @Override
+        protected Input validateAndParse(Map<String, Object> args) {
+            String query = ArgumentExtractor.extractStringNullable(args, "query");
+            if (query == null || query.isBlank()) {
+                throw new IllegalArgumentException("Missing required parameter: query");
+            }
+            return new Input(query, ArgumentExtractor.extractInt(args, "limit", 10));
+        }
+
+        @Override
+        protected Mono<List<Map<String, Object>>> executeInternal(Input input) {
+            return Mono.just(STATIONS.size() > input.limit() ? STATIONS.subList(0, input.limit()) : STATIONS);
+        }
+
+        @Override
+        public String name() {
+            return STATION_TOOL;
+        }
+
+        @Override
+        public String summary() {
+            return "Find stations by name";
+        }
+
+        @Override
+        public String description() {
+            return "Searches the SBB station directory for stations whose name matches the query.";
+        }
+
+        @Override
+        public String inputSchema() {
+            return INPUT_SCHEMA;
+        }
+    }
+
+    /**
+     * Plain {@link McpTool} used to give the registry a realistic size.
+     */
+    static final class StaticTool implements McpTool<String> {
+
+        private final String name;
+
+        StaticTool(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String summary() {
+            return "Synthetic tool " + name;
+        }
+
+        @Override
+        public String description() {
+            return "Synthetic tool used to pad the registry to a production-like size.";
+        }
+
+        @Override
+        public String inputSchema() {
+            return INPUT_SCHEMA;
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments) {
+            return Mono.just(name);
+        }
+    }
+
+    static final class ServiceCalendarResource implements McpResource {
+
+        private static final Map<String, Object> CONTENT = Map.of(
+            "timetableYear", 2026,
+            "validFrom", "2025-12-14",
+            "validTo", "2026-12-12",
+            "holidays", List.of("2026-01-01", "2026-04-03", "2026-04-06", "2026-08-01", "2026-12-25")
+        );
+
+        @Override
+        public String getResourceName() {
+            return "Service Calendar";
+        }
+
+        @Override
+        public String getResourceDescription() {
+            return "Timetable validity and public holidays";
+        }
+
+        @Override
+        public String getResourceEndpoint() {
+            return "/mcp/service-calendar";
+        }
+
+        @Override
+        public String getResourceDataModel() {
+            return "ServiceCalendar";
+        }
+
+        @Override
+        public Mono<Object> readResource() {
+            return Mono.just(CONTENT);
+        }
+    }
+
+    static final class JourneyPrompts implements McpPromptProvider {
+
+        @Override
+        public List<McpPrompt> getPrompts() {
+            return List.of(new McpPrompt(
+                PROMPT_NAME,
+                "Plan a journey between two stations",
+                List.of(
+                    new McpPromptArgument("from", "Departure station", true),
+                    new McpPromptArgument("to", "Arrival station", true),
+                    new McpPromptArgument("date", "Travel date", false)
+                ),
+                "Find the best connection from {from} to {to} on {date}. Use findStations to resolve both stations first."
+            ));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end dispatch through {@code BaseMcpController.processRequest} for the most
+ * frequent JSON-RPC methods, including serialization of the response envelope with the
+ * {@link ch.sbb.mcp.commons.config.OptimizedJacksonConfig} mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBenchmark {
+
+    private BenchmarkFixtures fixtures;
+
+    private McpRequest initialize;
+    private McpRequest toolsList;
+    private McpRequest toolsCall;
+    private McpRequest resourcesRead;
+    private McpRequest promptsGet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        initialize = new McpRequest("2.0", 1, "initialize", Map.of());
+        toolsList = new McpRequest("2.0", 1, "tools/list", Map.of());
+        toolsCall = BenchmarkFixtures.toolsCallRequest();
+        resourcesRead = new McpRequest("2.0", 1, "resources/read",
+            Map.of("uri", BenchmarkFixtures.RESOURCE_URI));
+        promptsGet = new McpRequest("2.0", 1, "prompts/get",
+            Map.of("name", BenchmarkFixtures.PROMPT_NAME, "arguments", Map.of("from", "Bern", "to", "Zürich")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public byte[] initialize() throws Exception {
+        return roundTrip(initialize);
+    }
+
+    @Benchmark
+    public byte[] toolsList() throws Exception {
+        return roundTrip(toolsList);
+    }
+
+    @Benchmark
+    public byte[] toolsCall() throws Exception {
+        return roundTrip(toolsCall);
+    }
+
+    @Benchmark
+    public byte[] resourcesRead() throws Exception {
+        return roundTrip(resourcesRead);
+    }
+
+    @Benchmark
+    public byte[] promptsGet() throws Exception {
+        return roundTrip(promptsGet);
+    }
+
+    private byte[] roundTrip(McpRequest request) throws Exception {
+        McpResponse response = fixtures.controller.dispatch(request).block();
+        return fixtures.objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,70 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-RPC envelope encoding and decoding with the
+ * {@link ch.sbb.mcp.commons.config.OptimizedJacksonConfig} ObjectMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private ObjectMapper mapper;
+    private byte[] toolsCallJson;
+    private McpResponse toolsListResponse;
+    private McpResponse toolsCallResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixtures = new BenchmarkFixtures();
+        mapper = fixtures.objectMapper;
+        toolsCallJson = mapper.writeValueAsString(BenchmarkFixtures.toolsCallRequest())
+            .getBytes(StandardCharsets.UTF_8);
+        toolsListResponse = McpResponse.success(1, Map.of("tools", fixtures.toolRegistry.listTools()));
+        toolsCallResponse = fixtures.controller.dispatch(BenchmarkFixtures.toolsCallRequest()).block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public McpRequest readToolsCallRequest() throws Exception {
+        return mapper.readValue(toolsCallJson, McpRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeToolsListResponse() throws Exception {
+        return mapper.writeValueAsBytes(toolsListResponse);
+    }
+
+    @Benchmark
+    public byte[] writeToolsCallResponse() throws Exception {
+        return mapper.writeValueAsBytes(toolsCallResponse);
+    }
+}
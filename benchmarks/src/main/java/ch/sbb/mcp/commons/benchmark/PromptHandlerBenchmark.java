@@ -0,0 +1,59 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code McpPromptHandler.handlePromptsGet} including template substitution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptHandlerBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private McpRequest get;
+    private McpRequest list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        get = new McpRequest("2.0", 1, "prompts/get", Map.of(
+            "name", BenchmarkFixtures.PROMPT_NAME,
+            "arguments", Map.of("from", "Bern", "to", "Zürich HB", "date", "2026-10-15")));
+        list = new McpRequest("2.0", 1, "prompts/list", Map.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public McpResponse handlePromptsGet() {
+        return fixtures.promptHandler.handlePromptsGet(get).block();
+    }
+
+    @Benchmark
+    public McpResponse handlePromptsList() {
+        return fixtures.promptHandler.handlePromptsList(list).block();
+    }
+}
@@ -0,0 +1,136 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.ratelimit.SimpleRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of acquiring tokens for one hot client at 1, 8 and 64 threads: the CAS-based
+ * {@link SimpleRateLimiter} versus the former {@code synchronized} token bucket, which allocated an
+ * {@link Instant} and a {@link Duration} per call.
+ *
+ * <p>Both limiters are recreated per iteration and sized so that no acquisition is rejected, so
+ * the numbers measure the bucket update itself rather than exception handling.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final String CLIENT_ID = "client-1";
+
+    /** More tokens than any iteration consumes, far enough below {@code Integer.MAX_VALUE} to refill safely. */
+    private static final int TOKENS = 1_000_000_000;
+
+    private SimpleRateLimiter casLimiter;
+    private SynchronizedRateLimiter synchronizedLimiter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        casLimiter = new SimpleRateLimiter(TOKENS, Duration.ofMillis(1));
+        synchronizedLimiter = new SynchronizedRateLimiter(TOKENS, Duration.ofMillis(1));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean cas1Thread() {
+        return casLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean cas8Threads() {
+        return casLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean cas64Threads() {
+        return casLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean synchronized1Thread() {
+        return synchronizedLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean synchronized8Threads() {
+        return synchronizedLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean synchronized64Threads() {
+        return synchronizedLimiter.tryAcquire(CLIENT_ID);
+    }
+
+    /**
+     * The token bucket of {@link SimpleRateLimiter} before it was made lock-free.
+     */
+    static final class SynchronizedRateLimiter {
+
+        private final int maxTokens;
+        private final Duration refillInterval;
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        SynchronizedRateLimiter(int maxTokens, Duration refillInterval) {
+            this.maxTokens = maxTokens;
+            this.refillInterval = refillInterval;
+        }
+
+        boolean tryAcquire(String clientId) {
+            return buckets.computeIfAbsent(clientId, k -> new TokenBucket(maxTokens)).tryConsume();
+        }
+
+        private final class TokenBucket {
+            private final AtomicInteger tokens;
+            private volatile Instant lastRefill;
+
+            TokenBucket(int initialTokens) {
+                this.tokens = new AtomicInteger(initialTokens);
+                this.lastRefill = Instant.now();
+            }
+
+            synchronized boolean tryConsume() {
+                refillIfNeeded();
+                if (tokens.get() > 0) {
+                    tokens.decrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+
+            private void refillIfNeeded() {
+                Instant now = Instant.now();
+                Duration elapsed = Duration.between(lastRefill, now);
+                if (elapsed.compareTo(refillInterval) >= 0) {
+                    int tokensToAdd = (int) (elapsed.toMillis() / refillInterval.toMillis());
+                    tokens.set(Math.min(tokens.get() + tokensToAdd, maxTokens));
+                    lastRefill = now;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code McpResourceHandler.handleResourcesRead}, which serializes the resource content
+ * to an embedded JSON string on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceHandlerBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private McpRequest read;
+    private McpRequest readUnknown;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        read = new McpRequest("2.0", 1, "resources/read", Map.of("uri", BenchmarkFixtures.RESOURCE_URI));
+        readUnknown = new McpRequest("2.0", 1, "resources/read", Map.of("uri", "resource://unknown"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public McpResponse handleResourcesRead() {
+        return fixtures.resourceHandler.handleResourcesRead(read).block();
+    }
+
+    @Benchmark
+    public McpResponse handleResourcesReadNotFound() {
+        return fixtures.resourceHandler.handleResourcesRead(readUnknown).block();
+    }
+}
@@ -0,0 +1,83 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.JsonMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Encode/decode cost of the Redis session payload for the legacy JSON codec and the binary codec.
+ *
+ * <p>The payload size of each codec and session shape is printed once per trial
+ * ({@code payload size: ...} in the JMH output).</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionCodecBenchmark {
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    /** {@code minimal}: only the initialized flag; {@code typical}: a handful of client and journey attributes. */
+    @Param({"minimal", "typical"})
+    public String shape;
+
+    private McpSessionCodec sessionCodec;
+    private McpSession session;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionCodec = "binary".equals(codec) ? new BinaryMcpSessionCodec() : new JsonMcpSessionCodec();
+
+        Instant now = Instant.now();
+        session = new McpSession(UUID.randomUUID().toString(), now, new AtomicReference<>(now), new ConcurrentHashMap<>());
+        session.setInitialized();
+        if ("typical".equals(shape)) {
+            session.attributes().put("clientName", "journey-planner");
+            session.attributes().put("clientVersion", "2.4.1");
+            session.attributes().put("protocolVersion", "2025-03-26");
+            session.attributes().put("requestCount", 42);
+            session.attributes().put("lastToolCall", now);
+            session.attributes().put("recentStations", List.of("8507000", "8503000", "8505000"));
+            session.attributes().put("preferences", Map.of("language", "de", "maxTransfers", 2, "bikes", false));
+        }
+
+        encoded = sessionCodec.encode(session);
+        System.out.printf("%npayload size: codec=%s shape=%s bytes=%d%n", codec, shape, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return sessionCodec.encode(session);
+    }
+
+    @Benchmark
+    public McpSession decode() {
+        return sessionCodec.decode(encoded);
+    }
+}
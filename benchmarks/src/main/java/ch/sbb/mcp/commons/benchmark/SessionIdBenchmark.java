@@ -0,0 +1,47 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.session.McpSessionId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session ID validation as done for every Redis operation: the former {@code String.matches}
+ * regular expression versus {@link McpSessionId}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionIdBenchmark {
+
+    private static final String UUID_REGEX = "^[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}$";
+
+    private final String sessionId = UUID.randomUUID().toString();
+
+    @Benchmark
+    public boolean regex() {
+        return sessionId.matches(UUID_REGEX);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return McpSessionId.isValid(sessionId);
+    }
+
+    @Benchmark
+    public McpSessionId parse() {
+        return McpSessionId.parse(sessionId);
+    }
+}
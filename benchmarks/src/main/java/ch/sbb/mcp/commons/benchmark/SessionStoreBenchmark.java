@@ -0,0 +1,70 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.impl.InMemoryMcpSessionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InMemoryMcpSessionStore} per-request operations and the cleanup pass at
+ * production-like session counts. With nothing expired, cleanup should cost the same
+ * regardless of {@code sessions}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionStoreBenchmark {
+
+    @Param({"10000", "100000"})
+    public int sessions;
+
+    private InMemoryMcpSessionStore store;
+    private String[] sessionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new InMemoryMcpSessionStore(Duration.ofHours(1), new SimpleMeterRegistry());
+        sessionIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            McpSession session = store.createSession().block();
+            sessionIds[i] = session.sessionId();
+        }
+    }
+
+    @Benchmark
+    public Object touchSession() {
+        return store.touchSession(randomSessionId()).block();
+    }
+
+    @Benchmark
+    public Boolean isValidSession() {
+        return store.isValidSession(randomSessionId()).block();
+    }
+
+    @Benchmark
+    public void cleanupNothingExpired() {
+        store.cleanupExpiredSessions();
+    }
+
+    private String randomSessionId() {
+        return sessionIds[ThreadLocalRandom.current().nextInt(sessionIds.length)];
+    }
+}
@@ -0,0 +1,65 @@
+package ch.sbb.mcp.commons.benchmark;
+
+import ch.sbb.mcp.commons.registry.McpToolRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link McpToolRegistry} lookups and invocations, isolated from the controller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolRegistryBenchmark {
+
+    private BenchmarkFixtures fixtures;
+    private Map<String, Object> arguments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        arguments = BenchmarkFixtures.stationArguments();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Object invokeTool() {
+        return fixtures.toolRegistry.invokeTool(BenchmarkFixtures.STATION_TOOL, arguments).block();
+    }
+
+    @Benchmark
+    public List<McpToolRegistry.ToolInfo> listTools() {
+        return fixtures.toolRegistry.listTools();
+    }
+
+    @Benchmark
+    public byte[] listToolsSerialized() throws Exception {
+        return fixtures.objectMapper.writeValueAsBytes(Map.of("tools", fixtures.toolRegistry.listTools()));
+    }
+
+    @Benchmark
+    public byte[] toolsListPayload() {
+        return fixtures.toolRegistry.getToolsListPayload().bytes();
+    }
+}
@@ -0,0 +1,69 @@
+#!/bin/bash
+# JMH benchmark runner for sbb-mcp-commons
+# Builds the library and the benchmarks module, runs JMH with allocation profiling
+# and optionally compares the results against a stored baseline.
+#
+# Usage:
+#   scripts/benchmark.sh run [pattern]        Run benchmarks, write benchmarks/target/jmh-result.json
+#   scripts/benchmark.sh baseline [pattern]   Run benchmarks and store them as benchmarks/baseline.json
+#   scripts/benchmark.sh compare [pattern]    Run benchmarks and compare against benchmarks/baseline.json
+#
+# Environment:
+#   JMH_ARGS             Extra JMH arguments (e.g. "-f 3 -wi 5")
+#   REGRESSION_THRESHOLD Allowed regression in percent for compare mode (default: 10)
+
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+BENCH_DIR="${ROOT_DIR}/benchmarks"
+BENCH_JAR="${BENCH_DIR}/target/benchmarks.jar"
+RESULT_FILE="${BENCH_DIR}/target/jmh-result.json"
+BASELINE_FILE="${BENCH_DIR}/baseline.json"
+
+MODE="${1:-run}"
+PATTERN="${2:-.*}"
+THRESHOLD="${REGRESSION_THRESHOLD:-10}"
+
+case "$MODE" in
+    run|baseline|compare) ;;
+    *)
+        echo -e "${RED}Unknown mode: ${MODE} (expected run, baseline or compare)${NC}"
+        exit 2
+        ;;
+esac
+
+if [[ "$MODE" == "compare" && ! -f "$BASELINE_FILE" ]]; then
+    echo -e "${RED}No baseline found at ${BASELINE_FILE}. Run 'scripts/benchmark.sh baseline' first.${NC}"
+    exit 2
+fi
+
+echo -e "${YELLOW}Installing sbb-mcp-commons to local Maven repository...${NC}"
+(cd "$ROOT_DIR" && mvn -B -q install -DskipTests)
+
+echo -e "${YELLOW}Building benchmarks...${NC}"
+(cd "$BENCH_DIR" && mvn -B -q clean package)
+
+echo -e "${YELLOW}Running JMH (pattern: ${PATTERN})...${NC}"
+# shellcheck disable=SC2086
+java -jar "$BENCH_JAR" "$PATTERN" -prof gc -rf json -rff "$RESULT_FILE" $JMH_ARGS
+
+case "$MODE" in
+    baseline)
+        cp "$RESULT_FILE" "$BASELINE_FILE"
+        echo -e "${GREEN}✓ Baseline stored in ${BASELINE_FILE}${NC}"
+        ;;
+    compare)
+        java -cp "$BENCH_JAR" ch.sbb.mcp.commons.benchmark.BenchmarkComparison \
+            "$BASELINE_FILE" "$RESULT_FILE" "$THRESHOLD"
+        echo -e "${GREEN}✓ No regressions above ${THRESHOLD}%${NC}"
+        ;;
+    *)
+        echo -e "${GREEN}✓ Results written to ${RESULT_FILE}${NC}"
+        ;;
+esac
@@ -1,5 +1,7 @@
 package ch.sbb.mcp.commons.client;
 
+import ch.sbb.mcp.commons.ratelimit.AdaptiveConcurrencyLimiter;
+import ch.sbb.mcp.commons.ratelimit.SimpleRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -172,6 +174,44 @@ public abstract class BaseApiClient<ERROR_TYPE extends RuntimeException> {
         );
     }
     
+    /**
+     * Execute a request once the upstream rate limit allows it. Bursts above the limit are delayed
+     * by up to {@code maxWait} instead of failing; requests that would wait longer fail with
+     * {@link SimpleRateLimiter#RATE_LIMIT_EXCEEDED} without calling the upstream. The limit is
+     * tracked per client under {@link #getClientName()}.
+     *
+     * @param operation the operation to execute
+     * @param rateLimiter the limiter for the upstream
+     * @param maxWait longest acceptable delay
+     * @param <T> the response type
+     * @return Mono containing the response
+     */
+    protected <T> Mono<T> withRateLimit(Mono<T> operation, SimpleRateLimiter rateLimiter, Duration maxWait) {
+        return rateLimiter.acquire(getClientName(), maxWait)
+            .flatMap(permit -> {
+                if (!permit.granted()) {
+                    log.debug("[{}] Upstream rate limit exceeded", getClientName());
+                    return Mono.error(SimpleRateLimiter.RATE_LIMIT_EXCEEDED);
+                }
+                return operation;
+            });
+    }
+    
+    /**
+     * Execute a request under an adaptive concurrency limit for the upstream. When the upstream
+     * slows down, the limit shrinks and excess requests fail fast with an {@code OVERLOADED}
+     * {@link ch.sbb.mcp.commons.exception.McpException} instead of queueing in front of it.
+     * Errors mapped by {@link #mapError(Throwable)} are recognized as overload through their cause.
+     *
+     * @param operation the operation to execute
+     * @param concurrencyLimiter the limiter for the upstream
+     * @param <T> the response type
+     * @return Mono containing the response
+     */
+    protected <T> Mono<T> withAdaptiveLimit(Mono<T> operation, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return concurrencyLimiter.execute(operation);
+    }
+    
     /**
      * Map WebClient errors to domain-specific exceptions.
      * Subclasses must implement this to provide custom error handling.
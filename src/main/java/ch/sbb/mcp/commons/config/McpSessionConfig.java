@@ -1,5 +1,6 @@
 package ch.sbb.mcp.commons.config;
 
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -24,6 +25,8 @@ import java.time.Duration;
  *     enabled: true
  *     required: false
  *     timeout: 1h
+ *     max-sessions: 1000
+ *     eviction-policy: LRU
  * </pre>
  *
  * @see ch.sbb.mcp.commons.session.McpSessionStore
@@ -68,13 +71,25 @@ public class McpSessionConfig {
     /**
      * Maximum number of concurrent sessions.
      *
-     * <p>When this limit is reached, the oldest sessions will be evicted
-     * to make room for new ones.</p>
+     * <p>When this limit is reached, expired sessions are purged first and then
+     * the {@link #evictionPolicy} decides whether an existing session is evicted
+     * or the new one is rejected. A value of {@code 0} or less disables the limit.</p>
+     *
+     * <p>The limit applies per instance, to the in-memory and file stores. The Redis store is shared
+     * by all instances and uses the separate, opt-in {@code mcp.session.redis.max-sessions}
+     * (default {@code 0}, unbounded) instead.</p>
      *
      * <p>Default: 1000</p>
      */
     private int maxSessions = 1000;
 
+    /**
+     * Policy applied when {@link #maxSessions} is reached.
+     *
+     * <p>Default: {@link McpSessionEvictionPolicy#LRU}</p>
+     */
+    private McpSessionEvictionPolicy evictionPolicy = McpSessionEvictionPolicy.LRU;
+
     // Getters and setters
 
     public boolean isEnabled() {
@@ -108,4 +123,12 @@ public class McpSessionConfig {
     public void setMaxSessions(int maxSessions) {
         this.maxSessions = maxSessions;
     }
+
+    public McpSessionEvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(McpSessionEvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
 }
@@ -0,0 +1,134 @@
+package ch.sbb.mcp.commons.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for per-tool bulkheads.
+ *
+ * <p>A bulkhead limits the concurrent invocations of one tool, so a tool backed by a slow upstream
+ * cannot take every connection and event-loop slot from the others. A tool gets the limits from
+ * {@code tools.<name>}, otherwise from its {@link ch.sbb.mcp.commons.core.McpToolBulkhead}
+ * annotation, otherwise from {@code defaults}; without any of these it is not limited.</p>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * mcp:
+ *   tools:
+ *     bulkhead:
+ *       defaults:
+ *         max-concurrent: 50
+ *       tools:
+ *         findTrips:
+ *           max-concurrent: 10
+ *           max-queued: 50
+ *           queue-timeout: 2s
+ * </pre>
+ *
+ * @see ch.sbb.mcp.commons.registry.McpToolBulkheads
+ */
+@Configuration
+@ConfigurationProperties(prefix = "mcp.tools.bulkhead")
+public class McpToolBulkheadConfig {
+
+    /**
+     * Enable per-tool bulkheads.
+     *
+     * <p>Default: {@code true}; tools without configured limits are not affected.</p>
+     */
+    private boolean enabled = true;
+
+    /**
+     * Limits for tools without own limits, or {@code null} for none.
+     */
+    private Limits defaults;
+
+    /**
+     * Limits by tool name.
+     */
+    private Map<String, Limits> tools = new HashMap<>();
+
+    /**
+     * Concurrency limits of one tool.
+     */
+    public static class Limits {
+
+        /**
+         * Maximum number of invocations running at a time.
+         */
+        private int maxConcurrent = 10;
+
+        /**
+         * Maximum number of invocations waiting for a free slot.
+         */
+        private int maxQueued = 0;
+
+        /**
+         * Maximum time an invocation waits for a free slot.
+         */
+        private Duration queueTimeout = Duration.ofSeconds(1);
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, int maxQueued, Duration queueTimeout) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.queueTimeout = queueTimeout;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+    }
+
+    // Getters and setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limits> getTools() {
+        return tools;
+    }
+
+    public void setTools(Map<String, Limits> tools) {
+        this.tools = tools;
+    }
+}
@@ -0,0 +1,95 @@
+package ch.sbb.mcp.commons.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the tool result cache.
+ *
+ * <p>Caches the results of tools that do not modify state, keyed by the tool name and its
+ * normalized arguments. A tool is cached for {@code ttl.<name>}, otherwise for
+ * {@code default-ttl}; without either it is not cached. State-modifying tools are never cached.</p>
+ *
+ * <p>Cached results are shared between sessions, so only enable caching for tools whose result
+ * depends on nothing but their arguments.</p>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * mcp:
+ *   tools:
+ *     cache:
+ *       enabled: true
+ *       max-size: 10000
+ *       ttl:
+ *         getStation: 10m
+ *         searchPlaces: 1m
+ * </pre>
+ *
+ * @see ch.sbb.mcp.commons.registry.McpToolResultCache
+ */
+@Configuration
+@ConfigurationProperties(prefix = "mcp.tools.cache")
+public class McpToolCacheConfig {
+
+    /**
+     * Enable the tool result cache.
+     *
+     * <p>Default: {@code false}</p>
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached results over all tools.
+     *
+     * <p>Default: 10000</p>
+     */
+    private int maxSize = 10000;
+
+    /**
+     * Time-to-live for tools without an own TTL, or {@code null} to cache only the tools listed in {@code ttl}.
+     */
+    private Duration defaultTtl;
+
+    /**
+     * Time-to-live by tool name; {@code 0} disables caching for a tool.
+     */
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    // Getters and setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Map<String, Duration> getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Map<String, Duration> ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,173 @@
+package ch.sbb.mcp.commons.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for rate limiting tool invocations.
+ *
+ * <p>Limits apply in front of {@link ch.sbb.mcp.commons.registry.McpToolRegistry#invokeTool} on up
+ * to four levels; an invocation needs a token from every level that is configured:</p>
+ * <ul>
+ *   <li><strong>global</strong>: all invocations of this instance</li>
+ *   <li><strong>categories</strong>: all tools of a {@link ch.sbb.mcp.commons.core.McpTool#category()}</li>
+ *   <li><strong>tools</strong>: one tool by name, or {@code tool-default} for tools without own limit</li>
+ *   <li><strong>session</strong>: each session separately, for invocations with a session</li>
+ * </ul>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * mcp:
+ *   tools:
+ *     rate-limit:
+ *       enabled: true
+ *       global:
+ *         limit: 500
+ *         period: 1s
+ *       session:
+ *         limit: 60
+ *         period: 1m
+ *       categories:
+ *         routing:
+ *           limit: 100
+ *           period: 1s
+ *       tools:
+ *         findTrips:
+ *           limit: 20
+ *           period: 1s
+ * </pre>
+ *
+ * @see ch.sbb.mcp.commons.ratelimit.McpToolRateLimiter
+ */
+@Configuration
+@ConfigurationProperties(prefix = "mcp.tools.rate-limit")
+public class McpToolRateLimitConfig {
+
+    /**
+     * Enable rate limiting of tool invocations.
+     *
+     * <p>Default: {@code false}</p>
+     */
+    private boolean enabled = false;
+
+    /**
+     * Limit for all invocations of this instance, or {@code null} for none.
+     */
+    private Limit global;
+
+    /**
+     * Limit for each session, or {@code null} for none.
+     */
+    private Limit session;
+
+    /**
+     * Limit for each tool without an entry in {@link #tools}, or {@code null} for none.
+     */
+    private Limit toolDefault;
+
+    /**
+     * Limits by tool name.
+     */
+    private Map<String, Limit> tools = new HashMap<>();
+
+    /**
+     * Limits by tool category.
+     */
+    private Map<String, Limit> categories = new HashMap<>();
+
+    /**
+     * A token bucket allowing {@code limit} invocations per {@code period}, in bursts of up to
+     * {@code limit}.
+     */
+    public static class Limit {
+
+        private int limit;
+
+        private Duration period = Duration.ofSeconds(1);
+
+        public Limit() {
+        }
+
+        public Limit(int limit, Duration period) {
+            this.limit = limit;
+            this.period = period;
+        }
+
+        /**
+         * Returns the time in which one token is refilled.
+         */
+        public Duration refillInterval() {
+            return limit > 0 ? period.dividedBy(limit) : period;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+
+    // Getters and setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getGlobal() {
+        return global;
+    }
+
+    public void setGlobal(Limit global) {
+        this.global = global;
+    }
+
+    public Limit getSession() {
+        return session;
+    }
+
+    public void setSession(Limit session) {
+        this.session = session;
+    }
+
+    public Limit getToolDefault() {
+        return toolDefault;
+    }
+
+    public void setToolDefault(Limit toolDefault) {
+        this.toolDefault = toolDefault;
+    }
+
+    public Map<String, Limit> getTools() {
+        return tools;
+    }
+
+    public void setTools(Map<String, Limit> tools) {
+        this.tools = tools;
+    }
+
+    public Map<String, Limit> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Limit> categories) {
+        this.categories = categories;
+    }
+}
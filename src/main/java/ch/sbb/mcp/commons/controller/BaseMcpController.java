@@ -1,19 +1,29 @@
 package ch.sbb.mcp.commons.controller;
 
+import ch.sbb.mcp.commons.exception.McpException;
 import ch.sbb.mcp.commons.handler.McpResourceHandler;
 import ch.sbb.mcp.commons.prompts.McpPromptHandler;
 import ch.sbb.mcp.commons.protocol.McpRequest;
 import ch.sbb.mcp.commons.protocol.McpResponse;
 import ch.sbb.mcp.commons.registry.McpToolRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +34,7 @@ import java.util.Map;
  * <ul>
  *   <li>REST discovery endpoints for tools, resources, and prompts</li>
  *   <li>Core MCP protocol request handling</li>
+ *   <li>JSON-RPC 2.0 batch requests with bounded parallel dispatch</li>
  *   <li>Protocol version validation</li>
  *   <li>Standardized error handling</li>
  * </ul>
@@ -76,11 +87,25 @@ public abstract class BaseMcpController {
      */
     protected static final String SUPPORTED_PROTOCOL_VERSION = "2025-03-26";
 
+    /**
+     * Default maximum number of batch entries dispatched concurrently.
+     */
+    protected static final int DEFAULT_MAX_BATCH_PARALLELISM = 8;
+
+    /**
+     * Default maximum number of entries accepted in a single batch.
+     */
+    protected static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
     protected final McpToolRegistry toolRegistry;
     protected final McpResourceHandler resourceHandler;
     protected final McpPromptHandler promptHandler;
     protected final ObjectMapper objectMapper;
 
+    /** Whether tools/list can be answered from the registry's pre-rendered payload. */
+    private final boolean defaultToolsList;
+    private final boolean defaultToolsRest;
+
     /**
      * Constructor for base MCP controller.
      *
@@ -98,15 +123,51 @@ public abstract class BaseMcpController {
         this.resourceHandler = resourceHandler;
         this.promptHandler = promptHandler;
         this.objectMapper = objectMapper;
+        this.defaultToolsList = isDeclaredHere("handleToolsList", McpRequest.class);
+        this.defaultToolsRest = defaultToolsList && isDeclaredHere("listToolsRest");
+    }
+
+    private boolean isDeclaredHere(String methodName, Class<?>... parameterTypes) {
+        Method method = ReflectionUtils.findMethod(getClass(), methodName, parameterTypes);
+        return method != null && method.getDeclaringClass() == BaseMcpController.class;
     }
 
     /**
-     * REST endpoint to list all available MCP tools.
+     * REST endpoint to list all available MCP tools, with conditional request support.
+     *
+     * <p>Responses carry the ETag of the registered tool set; a matching {@code If-None-Match}
+     * header yields {@code 304 Not Modified} without a body. Unless {@link #listToolsRest()} or
+     * {@link #handleToolsList} is overridden, the registry's pre-encoded payload is written
+     * directly; otherwise the body is taken from {@link #listToolsRest()}. Subclasses whose tool
+     * list depends on more than the registered tools should override this method as well.</p>
+     *
+     * @param ifNoneMatch Optional ETag from a previous response
+     * @return Response containing the list of tools with their schemas
+     */
+    @GetMapping(value = "/tools", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> listToolsRestConditional(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        McpToolRegistry.ToolsListPayload payload = toolRegistry.getToolsListPayload();
+        if (payload.etag().equals(ifNoneMatch)) {
+            log.debug("REST: Tools not modified");
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.etag()).build());
+        }
+        if (defaultToolsRest) {
+            log.info("REST: Returning {} tools", payload.tools().size());
+            return Mono.just(ResponseEntity.ok()
+                .eTag(payload.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload.bytes()));
+        }
+        return listToolsRest().map(tools -> ResponseEntity.ok().eTag(payload.etag()).body(tools));
+    }
+
+    /**
+     * Lists all available MCP tools for the REST endpoint.
      * Provides a simple HTTP GET interface for tool discovery.
      *
      * @return Map containing list of tools with their schemas
      */
-    @GetMapping(value = "/tools", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<Map<String, Object>> listToolsRest() {
         log.debug("REST: Listing MCP tools");
         McpRequest request = new McpRequest("2.0", "rest", "tools/list", Map.of());
@@ -196,6 +257,10 @@ public abstract class BaseMcpController {
     /**
      * Handles the tools/list request.
      *
+     * <p>Unless this method is overridden, {@link #processRequest} answers tools/list with the
+     * registry's cached, pre-rendered payload embedded as raw JSON instead, so tool schemas are not
+     * re-serialized per request.</p>
+     *
      * @param request The MCP request
      * @return Mono containing the tools list response
      */
@@ -222,7 +287,9 @@ public abstract class BaseMcpController {
 
         return switch (request.method()) {
             case "initialize" -> handleInitialize(request);
-            case "tools/list" -> handleToolsList(request);
+            case "tools/list" -> defaultToolsList
+                ? Mono.just(McpResponse.success(request.id(), toolRegistry.getToolsListPayload().asRawValue()))
+                : handleToolsList(request);
             case "tools/call" -> handleToolsCall(request);
             case "resources/list" -> resourceHandler.handleResourcesList(request);
             case "resources/read" -> resourceHandler.handleResourcesRead(request);
@@ -236,6 +303,154 @@ public abstract class BaseMcpController {
         };
     }
 
+    /**
+     * Processes a raw JSON-RPC payload that is either a single request object or a batch array.
+     *
+     * <p>Server implementations can bind the POST body as {@link JsonNode} and delegate here to
+     * support both forms on the same endpoint. A single request yields a single {@link McpResponse};
+     * a batch yields a {@code List<McpResponse>} (see {@link #processBatch(List)}).</p>
+     *
+     * @param payload The parsed request body
+     * @return Mono containing either a single response or a list of responses
+     */
+    protected Mono<Object> processPayload(JsonNode payload) {
+        if (payload == null || !(payload.isObject() || payload.isArray())) {
+            return Mono.<Object>just(McpResponse.error(
+                null,
+                McpResponse.McpError.invalidRequest("Request must be a JSON object or array")
+            ));
+        }
+
+        if (payload.isObject()) {
+            McpRequest request = toRequest(payload);
+            if (request == null) {
+                return Mono.<Object>just(McpResponse.error(
+                    payload.hasNonNull("id") ? objectMapper.convertValue(payload.get("id"), Object.class) : null,
+                    McpResponse.McpError.invalidRequest("Invalid JSON-RPC 2.0 request")
+                ));
+            }
+            return processRequest(request).cast(Object.class);
+        }
+
+        List<McpRequest> requests = new ArrayList<>(payload.size());
+        for (JsonNode entry : payload) {
+            // Entries that cannot be mapped are kept as null and answered with an invalid request error
+            requests.add(entry.isObject() ? toRequest(entry) : null);
+        }
+        return processBatch(requests).cast(Object.class);
+    }
+
+    /**
+     * Processes a JSON-RPC 2.0 batch.
+     *
+     * <p>Each entry is dispatched through {@link #processRequest(McpRequest)} concurrently, bounded by
+     * {@link #getMaxBatchParallelism()}. Responses are returned in request order. Errors are isolated
+     * per entry: a failing entry yields an error response and never affects the others.</p>
+     *
+     * <p>As required by JSON-RPC 2.0:</p>
+     * <ul>
+     *   <li>An empty batch yields a single invalid request error</li>
+     *   <li>Notifications (valid requests without {@code id}) produce no response entry</li>
+     *   <li>If only notifications were sent, the returned list is empty and the caller should
+     *       answer without a body (e.g. HTTP 202)</li>
+     * </ul>
+     *
+     * @param requests The batch entries; {@code null} entries denote unparseable requests
+     * @return Mono containing the responses in request order
+     */
+    protected Mono<List<McpResponse>> processBatch(List<McpRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return Mono.just(List.of(McpResponse.error(
+                null,
+                McpResponse.McpError.invalidRequest("Batch must contain at least one request")
+            )));
+        }
+
+        int maxBatchSize = getMaxBatchSize();
+        if (requests.size() > maxBatchSize) {
+            return Mono.just(List.of(McpResponse.error(
+                null,
+                McpResponse.McpError.invalidRequest(
+                    "Batch size " + requests.size() + " exceeds maximum of " + maxBatchSize)
+            )));
+        }
+
+        log.debug("Processing JSON-RPC batch of {} requests", requests.size());
+        return Flux.fromIterable(requests)
+            .flatMapSequential(this::processBatchEntry, Math.max(1, getMaxBatchParallelism()))
+            .collectList();
+    }
+
+    /**
+     * Dispatches a single batch entry with error isolation.
+     */
+    private Mono<McpResponse> processBatchEntry(McpRequest request) {
+        if (request == null) {
+            return Mono.just(McpResponse.error(
+                null,
+                McpResponse.McpError.invalidRequest("Invalid JSON-RPC 2.0 request")
+            ));
+        }
+
+        boolean notification = request.isValid() && request.id() == null;
+        Mono<McpResponse> response = Mono.defer(() -> processRequest(request))
+            .onErrorResume(error -> {
+                if (error instanceof McpException mcpException && isShed(mcpException)) {
+                    log.debug("Batch entry {} ({}) shed: {}", request.id(), request.method(), error.getMessage());
+                    return Mono.just(McpResponse.error(
+                        request.id(),
+                        McpResponse.McpError.serverOverloaded(error.getMessage(), mcpException.getErrorCode())
+                    ));
+                }
+                log.error("Batch entry {} ({}) failed: {}", request.id(), request.method(), error.getMessage(), error);
+                return Mono.just(McpResponse.error(
+                    request.id(),
+                    McpResponse.McpError.internalError(error.getMessage())
+                ));
+            });
+
+        return notification ? response.then(Mono.empty()) : response;
+    }
+
+    /**
+     * Whether a request was rejected by a rate limit, bulkhead or concurrency limit rather than failed.
+     */
+    private static boolean isShed(McpException error) {
+        return error.getStatus() == HttpStatus.TOO_MANY_REQUESTS || error.getStatus() == HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    private McpRequest toRequest(JsonNode node) {
+        try {
+            return objectMapper.treeToValue(node, McpRequest.class);
+        } catch (Exception e) {
+            log.debug("Failed to map JSON-RPC request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the maximum number of batch entries dispatched concurrently.
+     *
+     * <p>Override to tune for the server's workload. Values below 1 are treated as 1
+     * (sequential dispatch).</p>
+     *
+     * @return The maximum batch parallelism (default: {@value #DEFAULT_MAX_BATCH_PARALLELISM})
+     */
+    protected int getMaxBatchParallelism() {
+        return DEFAULT_MAX_BATCH_PARALLELISM;
+    }
+
+    /**
+     * Returns the maximum number of entries accepted in a single batch.
+     *
+     * <p>Larger batches are rejected as a whole with an invalid request error.</p>
+     *
+     * @return The maximum batch size (default: {@value #DEFAULT_MAX_BATCH_SIZE})
+     */
+    protected int getMaxBatchSize() {
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
     /**
      * Handles tool invocation requests.
      *
@@ -0,0 +1,46 @@
+package ch.sbb.mcp.commons.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the concurrent invocations of an {@link McpTool} bean.
+ *
+ * <p>At most {@link #maxConcurrent()} invocations of the tool run at a time; up to
+ * {@link #maxQueued()} more wait for a free slot for at most {@link #queueTimeoutMillis()}.
+ * Invocations beyond that fail immediately. Properties under
+ * {@code mcp.tools.bulkhead.tools.<name>} take precedence over this annotation.</p>
+ *
+ * <pre>
+ * {@code
+ * @Component
+ * @McpToolBulkhead(maxConcurrent = 10, maxQueued = 50)
+ * public class FindTripsTool extends BaseMcpTool<TripQuery, List<Trip>> { ... }
+ * }
+ * </pre>
+ *
+ * @see ch.sbb.mcp.commons.config.McpToolBulkheadConfig
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface McpToolBulkhead {
+
+    /**
+     * Maximum number of invocations running at a time.
+     */
+    int maxConcurrent();
+
+    /**
+     * Maximum number of invocations waiting for a free slot.
+     */
+    int maxQueued() default 0;
+
+    /**
+     * Maximum time an invocation waits for a free slot, in milliseconds.
+     */
+    long queueTimeoutMillis() default 1000;
+}
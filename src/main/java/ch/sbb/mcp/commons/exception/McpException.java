@@ -24,7 +24,17 @@ public class McpException extends RuntimeException {
         this.status = status;
         this.errorCode = errorCode;
     }
-    
+
+    /**
+     * Creates an exception without suppressed exceptions and, unless {@code writableStackTrace}, without
+     * stack trace, so that a preallocated instance can be thrown repeatedly.
+     */
+    public McpException(String message, HttpStatus status, String errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+
     public HttpStatus getStatus() {
         return status;
     }
@@ -86,6 +96,17 @@ public class McpException extends RuntimeException {
         );
     }
     
+    /**
+     * Creates an exception for a session store that is at capacity and rejects new sessions.
+     */
+    public static McpException sessionLimitReached(int maxSessions) {
+        return new McpException(
+            String.format("Session limit of %d reached. Please try again later.", maxSessions),
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "SESSION_LIMIT_REACHED"
+        );
+    }
+    
     /**
      * Creates an exception for circuit breaker open state.
      */
@@ -26,7 +26,7 @@ public abstract class BaseToolHandler<INPUT, OUTPUT> {
      */
     public final Mono<OUTPUT> execute(Map<String, Object> arguments) {
         String toolName = getToolName();
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         return Mono.fromCallable(() -> {
             log.debug("[{}] Validating arguments: {}", toolName, arguments);
@@ -37,11 +37,11 @@ public abstract class BaseToolHandler<INPUT, OUTPUT> {
             return executeInternal(input);
         })
         .doOnSuccess(output -> {
-            long elapsed = System.currentTimeMillis() - startTime;
+            long elapsed = (System.nanoTime() - startTime) / 1_000_000;
             log.info("[{}] Completed successfully in {}ms", toolName, elapsed);
         })
         .doOnError(error -> {
-            long elapsed = System.currentTimeMillis() - startTime;
+            long elapsed = (System.nanoTime() - startTime) / 1_000_000;
             log.error("[{}] Failed after {}ms: {}", toolName, elapsed, error.getMessage(), error);
         });
     }
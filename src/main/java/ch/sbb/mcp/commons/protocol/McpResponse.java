@@ -2,6 +2,8 @@ package ch.sbb.mcp.commons.protocol;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Map;
+
 /**
  * MCP JSON-RPC 2.0 Response.
  * 
@@ -49,6 +51,8 @@ public record McpResponse(
         public static final int METHOD_NOT_FOUND = -32601;
         public static final int INVALID_PARAMS = -32602;
         public static final int INTERNAL_ERROR = -32603;
+        /** Implementation-defined server error: the request was shed and may be retried later. */
+        public static final int SERVER_OVERLOADED = -32000;
         
         public static McpError parseError(String message) {
             return new McpError(PARSE_ERROR, message, null);
@@ -69,5 +73,9 @@ public record McpResponse(
         public static McpError internalError(String message) {
             return new McpError(INTERNAL_ERROR, message, null);
         }
+        
+        public static McpError serverOverloaded(String message, String errorCode) {
+            return new McpError(SERVER_OVERLOADED, message, errorCode != null ? Map.of("errorCode", errorCode) : null);
+        }
     }
 }
@@ -0,0 +1,261 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import ch.sbb.mcp.commons.core.McpError;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to the observed latency of the protected calls (TCP Vegas style).
+ *
+ * <p>The limiter tracks the lowest round trip time seen (the latency without queueing) and, per
+ * completed call, estimates the calls queued at the backend as
+ * {@code limit * (1 - minRtt / rtt)}. The limit grows by one while fewer than {@value #ALPHA}
+ * calls are queued and shrinks by one above {@value #BETA}; a call that fails with a sign of
+ * overload (timeout, 429, 503, 504), or returns an {@link McpResult.Failure} with code
+ * {@code TIMEOUT}, {@code SERVICE_UNAVAILABLE} or {@code RATE_LIMITED}, cuts it multiplicatively by
+ * {@code backoffRatio}. The limit
+ * only grows while the calls actually use at least half of it. The latency baseline is re-measured
+ * every {@value #MIN_RTT_RESET_SAMPLES} samples, so the limiter follows a backend that became
+ * permanently slower or faster.</p>
+ *
+ * <p>Calls beyond the current limit are shed immediately with a preallocated {@link McpException}
+ * (status 503, code {@code OVERLOADED}), which keeps tail latency bounded when a backend degrades
+ * instead of queueing more work in front of it.</p>
+ *
+ * <p><strong>Thread Safety:</strong> This class is thread-safe. Acquiring takes a compare-and-set;
+ * samples update the limit under a lock that is only tried, so samples arriving while another one
+ * is applied are skipped.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /** Queued calls below which the limit grows. */
+    private static final int ALPHA = 3;
+
+    /** Queued calls above which the limit shrinks. */
+    private static final int BETA = 6;
+
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final McpException overloaded;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejections = new LongAdder();
+    private volatile int limit;
+
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    /** Guarded by {@link #sampleLock}. */
+    private double estimatedLimit;
+    private long minRtt = Long.MAX_VALUE;
+    private int samplesSinceReset;
+
+    /**
+     * Creates a limiter with the default limits.
+     *
+     * @param name Name of the protected backend or tool, used in the rejection message
+     */
+    public AdaptiveConcurrencyLimiter(String name) {
+        this(name, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_BACKOFF_RATIO);
+    }
+
+    /**
+     * Creates a limiter.
+     *
+     * @param name Name of the protected backend or tool, used in the rejection message
+     * @param initialLimit Concurrency limit before the first samples
+     * @param minLimit Lowest limit
+     * @param maxLimit Highest limit
+     * @param backoffRatio Factor applied to the limit when a call fails with a sign of overload
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for '" + name + "': min " + minLimit + ", max " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        this.overloaded = new McpException("'" + name + "' is overloaded. Please try again later.",
+                HttpStatus.SERVICE_UNAVAILABLE, "OVERLOADED", false);
+    }
+
+    /**
+     * Creates a limiter and registers its metrics, tagged with {@code limiter=name}:
+     * {@code mcp.concurrency.limit}, {@code mcp.concurrency.in-flight} and {@code mcp.concurrency.rejections}.
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      MeterRegistry meterRegistry) {
+        this(name, initialLimit, minLimit, maxLimit, backoffRatio);
+
+        Gauge.builder("mcp.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("Calls in progress under the adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.concurrency.rejections", rejections, LongAdder::sum)
+                .description("Calls shed by the adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a call under the limit, measuring its latency from subscription to termination.
+     *
+     * @param call the protected call, not yet subscribed
+     * @return the call, or an {@code OVERLOADED} error if the limit is reached
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            int inFlightAtStart = tryAcquire();
+            if (inFlightAtStart < 0) {
+                return Mono.error(overloaded);
+            }
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> onSample(System.nanoTime() - start, inFlightAtStart, isOverloadResult(result)))
+                    .doOnError(error -> onSample(System.nanoTime() - start, inFlightAtStart, isOverload(error)))
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Takes a slot if the limit allows. The caller must give it back with {@link #release()}.
+     *
+     * @return the calls in flight including this one, or -1 if the limit is reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejections.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot taken with {@link #tryAcquire()}.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Adapts the limit to a completed call.
+     *
+     * @param rttNanos latency of the call
+     * @param inFlightAtStart calls in flight when it started, as returned by {@link #tryAcquire()}
+     * @param overload whether the call failed with a sign of overload
+     */
+    public void onSample(long rttNanos, int inFlightAtStart, boolean overload) {
+        if (!sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            double estimate = estimatedLimit;
+            if (overload) {
+                estimate = estimate * backoffRatio;
+            } else if (rttNanos > 0) {
+                if (++samplesSinceReset >= MIN_RTT_RESET_SAMPLES) {
+                    samplesSinceReset = 0;
+                    minRtt = rttNanos;
+                }
+                minRtt = Math.min(minRtt, rttNanos);
+                // Only probe upwards while the limit is actually used
+                if (inFlightAtStart * 2 >= estimate) {
+                    double queued = estimate * (1 - (double) minRtt / rttNanos);
+                    if (queued < ALPHA) {
+                        estimate += 1;
+                    } else if (queued > BETA) {
+                        estimate -= 1;
+                    }
+                }
+            }
+            estimatedLimit = Math.clamp(estimate, minLimit, maxLimit);
+            limit = (int) estimatedLimit;
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the calls currently in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns whether an error, or one of its causes, indicates an overloaded backend rather than a
+     * failed call.
+     */
+    public static boolean isOverload(Throwable error) {
+        for (int depth = 0; error != null && depth < 4; depth++, error = error.getCause()) {
+            if (error instanceof TimeoutException) {
+                return true;
+            }
+            if (error instanceof McpException mcpException) {
+                return isOverload(mcpException.getStatus().value());
+            }
+            if (error instanceof WebClientResponseException responseException) {
+                return isOverload(responseException.getStatusCode().value());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a result is a failure that indicates an overloaded backend, as tools built on
+     * {@code BaseMcpTool} report errors as values rather than error signals.
+     */
+    public static boolean isOverloadResult(Object result) {
+        if (result instanceof McpResult.Failure<?> failure && failure.error() != null) {
+            McpError.ErrorCode code = failure.error().code();
+            return code == McpError.ErrorCode.TIMEOUT
+                    || code == McpError.ErrorCode.SERVICE_UNAVAILABLE
+                    || code == McpError.ErrorCode.RATE_LIMITED;
+        }
+        return false;
+    }
+
+    private static boolean isOverload(int status) {
+        return status == 429 || status == 503 || status == 504;
+    }
+}
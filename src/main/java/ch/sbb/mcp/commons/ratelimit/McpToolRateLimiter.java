@@ -0,0 +1,144 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import ch.sbb.mcp.commons.config.McpToolRateLimitConfig;
+import ch.sbb.mcp.commons.config.McpToolRateLimitConfig.Limit;
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.exception.McpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limit stage of {@link ch.sbb.mcp.commons.registry.McpToolRegistry#invokeTool}: global, per
+ * category, per tool and per session limits as configured in {@link McpToolRateLimitConfig}.
+ *
+ * <p>All limits applying to an invocation are checked in one pass, from the broadest to the
+ * narrowest. An invocation rejected by one limit returns the tokens it already took from the
+ * others, so a throttled tool does not use up the global or category budget. The limits that apply
+ * to a tool are resolved once per tool name.</p>
+ *
+ * <p>Each limit rejects with its own preallocated {@link McpException} (status 429, code
+ * {@code RATE_LIMIT_EXCEEDED}) naming the exceeded level, without capturing a stack trace.</p>
+ *
+ * <p><strong>Thread Safety:</strong> This class is thread-safe.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.rate-limit.enabled", havingValue = "true")
+public class McpToolRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(McpToolRateLimiter.class);
+
+    private static final String GLOBAL_KEY = "global";
+
+    private final Check global;
+    private final Check toolDefault;
+    private final Map<String, Check> tools = new HashMap<>();
+    private final Map<String, Check> categories = new HashMap<>();
+    private final SimpleRateLimiter sessionLimiter;
+    private final McpException sessionRejection;
+    private final ConcurrentHashMap<String, Check[]> checksByTool = new ConcurrentHashMap<>();
+
+    public McpToolRateLimiter(McpToolRateLimitConfig config) {
+        this.global = check(config.getGlobal(), GLOBAL_KEY, "Global rate limit exceeded");
+        this.toolDefault = config.getToolDefault() == null ? null : new Check(
+                limiter(config.getToolDefault()), null, rejection("Tool rate limit exceeded"));
+        config.getTools().forEach((name, limit) ->
+                tools.put(name, check(limit, name, "Rate limit of tool '" + name + "' exceeded")));
+        config.getCategories().forEach((category, limit) ->
+                categories.put(category, check(limit, category, "Rate limit of tool category '" + category + "' exceeded")));
+        Limit session = config.getSession();
+        this.sessionLimiter = session == null ? null : limiter(session);
+        this.sessionRejection = rejection("Session rate limit exceeded");
+
+        log.info("McpToolRateLimiter initialized: global={}, session={}, {} tool and {} category limits{}",
+                config.getGlobal() != null, session != null, tools.size(), categories.size(),
+                toolDefault != null ? ", default tool limit" : "");
+    }
+
+    /**
+     * Takes a token from every limit applying to an invocation of the tool.
+     *
+     * @param tool the invoked tool
+     * @param sessionId the session of the invocation, if any
+     * @return {@code null} if the invocation may proceed, otherwise the rejection of the exceeded limit
+     */
+    public McpException tryAcquire(McpTool<?> tool, Optional<String> sessionId) {
+        String toolName = tool.name();
+        Check[] checks = checksByTool.computeIfAbsent(toolName, name -> resolve(tool));
+        for (int i = 0; i < checks.length; i++) {
+            Check check = checks[i];
+            if (!check.limiter.tryAcquire(check.bucket(toolName))) {
+                release(checks, i, toolName);
+                return check.rejection;
+            }
+        }
+        if (sessionLimiter != null && sessionId.isPresent() && !sessionLimiter.tryAcquire(sessionId.get())) {
+            release(checks, checks.length, toolName);
+            return sessionRejection;
+        }
+        return null;
+    }
+
+    /**
+     * Forgets the limits resolved for the tools, e.g. after the tool set changed.
+     */
+    public void clearResolvedTools() {
+        checksByTool.clear();
+    }
+
+    private void release(Check[] checks, int acquired, String toolName) {
+        for (int i = 0; i < acquired; i++) {
+            checks[i].limiter.release(checks[i].bucket(toolName));
+        }
+    }
+
+    private Check[] resolve(McpTool<?> tool) {
+        List<Check> checks = new ArrayList<>(3);
+        if (global != null) {
+            checks.add(global);
+        }
+        Check category = categories.get(tool.category());
+        if (category != null) {
+            checks.add(category);
+        }
+        Check toolCheck = tools.get(tool.name());
+        if (toolCheck != null) {
+            checks.add(toolCheck);
+        } else if (toolDefault != null) {
+            checks.add(toolDefault);
+        }
+        return checks.toArray(Check[]::new);
+    }
+
+    private static Check check(Limit limit, String key, String message) {
+        return limit == null ? null : new Check(limiter(limit), key, rejection(message));
+    }
+
+    private static SimpleRateLimiter limiter(Limit limit) {
+        return new SimpleRateLimiter(limit.getLimit(), limit.refillInterval());
+    }
+
+    private static McpException rejection(String message) {
+        return new McpException(message + ". Please try again later.",
+                HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", false);
+    }
+
+    /**
+     * One limit: the bucket of {@code key} in {@code limiter}, or of the tool name if {@code key} is null.
+     */
+    private record Check(SimpleRateLimiter limiter, String key, McpException rejection) {
+
+        String bucket(String toolName) {
+            return key != null ? key : toolName;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a reactive rate limit acquisition.
+ *
+ * <p>Rejections are signalled by the shared {@link #REJECTED} instance rather than an error, so an
+ * overloaded limiter rejects without allocating or capturing a stack trace.</p>
+ *
+ * @param granted whether a token was acquired
+ * @param waited how long the caller was delayed until the token became available
+ */
+public record Permit(boolean granted, Duration waited) {
+
+    /** A token acquired without waiting. */
+    public static final Permit GRANTED = new Permit(true, Duration.ZERO);
+
+    /** No token available within the allowed wait, or too many callers already waiting. */
+    public static final Permit REJECTED = new Permit(false, Duration.ZERO);
+}
@@ -0,0 +1,295 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket rate limiter shared by all instances through Redis.
+ *
+ * <p>A {@link SimpleRateLimiter} limits each JVM separately, so {@code n} instances allow
+ * {@code n} times the intended rate. This limiter keeps one bucket per client in Redis
+ * ({@code mcp:ratelimit:<name>:<clientId>}, a hash of fractional tokens and the last refill time)
+ * with the same semantics: {@code maxTokens} burst, one token refilled every {@code refillInterval}.
+ * Buckets are refilled and drawn from by a Lua script that runs atomically on the server and reads
+ * the server clock, so instance clocks do not matter. Buckets expire once they would be full.</p>
+ *
+ * <p><strong>Leasing:</strong> To keep Redis off the hot path, an instance draws up to
+ * {@code leaseSize} tokens at once and hands them out locally with a compare-and-set. Only when the
+ * local lease of a client is used up does a request wait for Redis; concurrent requests of that
+ * client share one round trip. Requests that find the shared lease used up by the others draw
+ * another one, so a request is only limited when Redis itself grants no token. Tokens leased by an instance that the client stops calling are not
+ * returned, so larger leases trade accuracy for fewer round trips; a lease of 1 is exact. Used-up
+ * leases are dropped after every {@value #SWEEP_INTERVAL} newly leased clients.</p>
+ *
+ * <p><strong>Failure handling:</strong> If Redis fails or does not answer within
+ * {@code redisTimeout}, the request is decided by a local {@link SimpleRateLimiter} with the same
+ * limits, i.e. the limit degrades to per instance rather than failing open or closed.</p>
+ *
+ * <p><strong>Thread Safety:</strong> This class is thread-safe.</p>
+ */
+public class RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    public static final Duration DEFAULT_REDIS_TIMEOUT = Duration.ofMillis(500);
+
+    private static final String KEY_PREFIX = "mcp:ratelimit:";
+
+    /** New leased clients after which used-up leases are dropped. */
+    private static final int SWEEP_INTERVAL = 1024;
+
+    /**
+     * Refills the bucket to the server time and grants up to the requested number of whole tokens.
+     * KEYS[1] bucket, ARGV[1] capacity, ARGV[2] milliseconds per token, ARGV[3] requested tokens.
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local interval = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            if now > ts then
+                tokens = math.min(capacity, tokens + (now - ts) / interval)
+            end
+            local granted = math.min(tonumber(ARGV[3]), math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(math.max(now, ts)))
+            redis.call('PEXPIRE', KEYS[1], math.ceil((capacity - tokens) * interval) + 1000)
+            return granted
+            """, Long.class);
+
+    private final String keyPrefix;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final int maxTokens;
+    private final List<String> leaseArgs;
+    private final Duration redisTimeout;
+    private final SimpleRateLimiter fallback;
+    private final ConcurrentHashMap<String, AtomicInteger> leases = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Mono<Long>> pendingLeases = new ConcurrentHashMap<>();
+    private final AtomicInteger leasesSinceSweep = new AtomicInteger();
+
+    private final Counter leasesRequested;
+    private final Counter fallbackDecisions;
+
+    /**
+     * @param name limiter name, part of the Redis keys and metric tags; must be the same on all instances
+     * @param redisTemplate template for the shared Redis
+     * @param maxTokens maximum number of tokens (requests) allowed
+     * @param refillInterval time interval for refilling one token
+     * @param leaseSize tokens drawn from Redis at once
+     * @param meterRegistry registry for the limiter metrics
+     */
+    public RedisRateLimiter(String name, ReactiveStringRedisTemplate redisTemplate, int maxTokens,
+                            Duration refillInterval, int leaseSize, MeterRegistry meterRegistry) {
+        this(name, redisTemplate, maxTokens, refillInterval, leaseSize, DEFAULT_REDIS_TIMEOUT, meterRegistry);
+    }
+
+    public RedisRateLimiter(String name, ReactiveStringRedisTemplate redisTemplate, int maxTokens,
+                            Duration refillInterval, int leaseSize, Duration redisTimeout,
+                            MeterRegistry meterRegistry) {
+        if (leaseSize < 1) {
+            throw new IllegalArgumentException("Lease size must be at least 1: " + leaseSize);
+        }
+        if (refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("Refill interval must be positive: " + refillInterval);
+        }
+        this.keyPrefix = KEY_PREFIX + name + ':';
+        this.redisTemplate = redisTemplate;
+        this.maxTokens = maxTokens;
+        this.leaseArgs = List.of(
+                Integer.toString(maxTokens),
+                Double.toString(refillInterval.toNanos() / 1_000_000.0),
+                Integer.toString(Math.min(leaseSize, Math.max(maxTokens, 1))));
+        this.redisTimeout = redisTimeout;
+        this.fallback = new SimpleRateLimiter(name + "-fallback", maxTokens, refillInterval,
+                SimpleRateLimiter.DEFAULT_MAX_TRACKED_CLIENTS, meterRegistry);
+
+        this.leasesRequested = Counter.builder("mcp.ratelimit.leases")
+                .description("Token leases requested from Redis")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        this.fallbackDecisions = Counter.builder("mcp.ratelimit.fallback")
+                .description("Rate limit decisions taken locally because Redis was unavailable or could not be awaited")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        log.info("RedisRateLimiter '{}' initialized with {} tokens per {}, lease size: {}",
+                name, maxTokens, refillInterval, leaseArgs.get(2));
+    }
+
+    /**
+     * Attempts to acquire a token for the given client, blocking only when a new lease has to be
+     * drawn from Redis. Use {@link #tryAcquire(String)} in reactive code.
+     *
+     * <p>Never blocks a non-blocking (event-loop or parallel) thread: there, a client without a
+     * leased token is decided by the local fallback limiter, and a new lease is drawn in the
+     * background for its next requests.</p>
+     *
+     * @param clientId Client identifier (e.g., IP address, session ID)
+     * @throws ch.sbb.mcp.commons.exception.McpException if rate limit is exceeded
+     */
+    public void checkRateLimit(String clientId) {
+        if (consumeLeased(clientId)) {
+            return;
+        }
+        boolean acquired;
+        if (Schedulers.isInNonBlockingThread()) {
+            lease(clientId).subscribe(granted -> { }, error -> { });
+            fallbackDecisions.increment();
+            acquired = fallback.tryAcquire(clientId);
+        } else {
+            acquired = Boolean.TRUE.equals(tryAcquire(clientId).block());
+        }
+        if (!acquired) {
+            throw SimpleRateLimiter.RATE_LIMIT_EXCEEDED;
+        }
+    }
+
+    /**
+     * Attempts to acquire a token for the given client.
+     *
+     * @param clientId Client identifier
+     * @return emits true if a token was acquired, false if the client is rate limited; never fails
+     */
+    public Mono<Boolean> tryAcquire(String clientId) {
+        return Mono.defer(() -> {
+            if (consumeLeased(clientId)) {
+                return Mono.just(true);
+            }
+            return acquireLeased(clientId)
+                    .onErrorResume(error -> {
+                        fallbackDecisions.increment();
+                        log.debug("Rate limit lease for '{}' failed, deciding locally: {}", clientId, error.getMessage());
+                        return Mono.just(fallback.tryAcquire(clientId));
+                    });
+        });
+    }
+
+    /**
+     * Draws leases until a token could be taken from one, or Redis grants none.
+     */
+    private Mono<Boolean> acquireLeased(String clientId) {
+        return lease(clientId).flatMap(granted -> {
+            if (consumeLeased(clientId)) {
+                return Mono.just(true);
+            }
+            // Either the bucket is empty, or concurrent callers used up the shared lease
+            return granted > 0 ? acquireLeased(clientId) : Mono.just(false);
+        });
+    }
+
+    /**
+     * Draws a lease for a client from Redis, sharing one round trip between concurrent callers.
+     * Callers arriving once the reply is in draw a new lease rather than joining the spent one.
+     */
+    private Mono<Long> lease(String clientId) {
+        Mono<Long> pending = pendingLeases.get(clientId);
+        if (pending != null) {
+            return pending;
+        }
+        AtomicReference<Mono<Long>> self = new AtomicReference<>();
+        Mono<Long> created = Mono.defer(() -> redisTemplate
+                        .execute(LEASE_SCRIPT, List.of(keyPrefix + clientId), leaseArgs)
+                        .next())
+                .defaultIfEmpty(0L)
+                .timeout(redisTimeout)
+                .doOnNext(granted -> {
+                    pendingLeases.remove(clientId, self.get());
+                    leasesRequested.increment();
+                    if (granted > 0) {
+                        addLease(clientId, granted.intValue());
+                    }
+                })
+                .doOnError(error -> pendingLeases.remove(clientId, self.get()))
+                .cache();
+        self.set(created);
+        pending = pendingLeases.putIfAbsent(clientId, created);
+        return pending != null ? pending : created;
+    }
+
+    private void addLease(String clientId, int tokens) {
+        boolean[] created = new boolean[1];
+        leases.compute(clientId, (id, lease) -> {
+            if (lease == null) {
+                created[0] = true;
+                lease = new AtomicInteger();
+            }
+            lease.addAndGet(tokens);
+            return lease;
+        });
+        if (created[0] && leasesSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            leasesSinceSweep.set(0);
+            evictEmptyLeases();
+        }
+    }
+
+    /**
+     * Takes one locally leased token, if any.
+     */
+    private boolean consumeLeased(String clientId) {
+        AtomicInteger lease = leases.get(clientId);
+        if (lease == null) {
+            return false;
+        }
+        while (true) {
+            int tokens = lease.get();
+            if (tokens <= 0) {
+                return false;
+            }
+            if (lease.compareAndSet(tokens, tokens - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drops the local leases of all clients that have none left. Runs automatically after every
+     * {@value #SWEEP_INTERVAL} newly leased clients.
+     *
+     * @return the number of dropped entries
+     */
+    public int evictEmptyLeases() {
+        int[] evicted = new int[1];
+        for (String clientId : leases.keySet()) {
+            // Atomic with addLease, so tokens granted meanwhile are never dropped
+            leases.computeIfPresent(clientId, (id, lease) -> {
+                if (lease.get() > 0) {
+                    return lease;
+                }
+                evicted[0]++;
+                return null;
+            });
+        }
+        return evicted[0];
+    }
+
+    /**
+     * Returns the number of clients with a local lease, including used-up ones not yet dropped.
+     */
+    public int getLeasedClients() {
+        return leases.size();
+    }
+
+    /**
+     * Returns the maximum number of tokens of a bucket.
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+}
@@ -3,122 +3,374 @@ package ch.sbb.mcp.commons.ratelimit;
 import org.springframework.http.HttpStatus;
 
 import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Simple token bucket rate limiter for preventing DoS attacks.
- * 
+ *
  * <p>This implementation uses the token bucket algorithm to limit the rate of operations
  * per client identifier (e.g., IP address, session ID).</p>
- * 
+ *
+ * <p>Each bucket is a single {@code long} updated with compare-and-set: the theoretical arrival
+ * time (GCRA) in {@link System#nanoTime()} units. One token is refilled every {@code refillInterval},
+ * continuously rather than in whole intervals, and a full bucket allows a burst of {@code maxTokens}.
+ * Acquiring a token for a known client takes no lock and allocates nothing.</p>
+ *
+ * <p><strong>Memory:</strong> A bucket that has been full for longer than {@code refillInterval}
+ * behaves exactly like a new one, so such idle buckets are dropped by {@link #evictIdleBuckets()},
+ * which runs after every 1024 new clients. At most {@code maxTrackedClients} buckets are kept
+ * (default {@value #DEFAULT_MAX_TRACKED_CLIENTS}); beyond that, the fullest of a small sample of
+ * buckets is dropped for each new client. The limit is a soft bound: concurrent first requests of
+ * new clients may overshoot it by the number of concurrent callers. A bucket dropped while not yet
+ * full grants its client a fresh burst.</p>
+ *
+ * <p><strong>Reactive acquisition:</strong> {@link #acquire(String, Duration)} emits a {@link Permit}
+ * instead of throwing. A request that finds the bucket empty reserves the next free token and is
+ * delayed until it is due, as long as that is within {@code maxWait} and fewer than
+ * {@code maxWaiters} callers are already waiting; otherwise it gets {@link Permit#REJECTED}. A
+ * reserved token stays consumed if the caller cancels while waiting.</p>
+ *
  * <p><strong>Thread Safety:</strong> This class is thread-safe and uses concurrent data structures.</p>
  */
 public class SimpleRateLimiter {
-    
+
+    public static final int DEFAULT_MAX_TRACKED_CLIENTS = 100_000;
+
+    public static final int DEFAULT_MAX_WAITERS = 1000;
+
+    /**
+     * Thrown for every rejected request; preallocated without stack trace, as rejections are
+     * frequent exactly when the server is overloaded.
+     */
+    public static final McpException RATE_LIMIT_EXCEEDED = new McpException(
+        "Rate limit exceeded. Please try again later.",
+        HttpStatus.TOO_MANY_REQUESTS,
+        "RATE_LIMIT_EXCEEDED",
+        false
+    );
+
+    private static final Mono<Permit> GRANTED = Mono.just(Permit.GRANTED);
+    private static final Mono<Permit> REJECTED = Mono.just(Permit.REJECTED);
+
+    /** New buckets between two sweeps for idle buckets. */
+    private static final int SWEEP_INTERVAL = 1024;
+
+    /** Buckets inspected to choose a victim when the limit of tracked clients is reached. */
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
     private final int maxTokens;
-    private final Duration refillInterval;
-    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
-    
+    /** Nanoseconds per token. */
+    private final long emissionInterval;
+    /** Nanoseconds of backlog a full bucket absorbs: {@code maxTokens * emissionInterval}. */
+    private final long burstTolerance;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxTrackedClients;
+    private final AtomicInteger bucketsSinceSweep = new AtomicInteger();
+    private final LongAdder idleEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private final AtomicInteger waiters = new AtomicInteger();
+
     /**
      * Creates a new rate limiter.
-     * 
+     *
      * @param maxTokens Maximum number of tokens (requests) allowed
      * @param refillInterval Time interval for refilling tokens
      */
     public SimpleRateLimiter(int maxTokens, Duration refillInterval) {
+        this(maxTokens, refillInterval, DEFAULT_MAX_TRACKED_CLIENTS);
+    }
+
+    /**
+     * Creates a new rate limiter tracking a bounded number of clients.
+     *
+     * @param maxTokens Maximum number of tokens (requests) allowed
+     * @param refillInterval Time interval for refilling tokens
+     * @param maxTrackedClients Maximum number of client buckets kept
+     */
+    public SimpleRateLimiter(int maxTokens, Duration refillInterval, int maxTrackedClients) {
+        if (maxTrackedClients < 1) {
+            throw new IllegalArgumentException("Max tracked clients must be at least 1: " + maxTrackedClients);
+        }
+        this.maxTrackedClients = maxTrackedClients;
         this.maxTokens = maxTokens;
-        this.refillInterval = refillInterval;
+        this.emissionInterval = refillInterval.toNanos();
+        // Without tokens even an empty backlog exceeds the tolerance
+        this.burstTolerance = maxTokens > 0 ? saturatedMultiply(maxTokens, emissionInterval) : -1;
+    }
+
+    /**
+     * Creates a new rate limiter tracking a bounded number of clients and registers its metrics:
+     * {@code mcp.ratelimit.clients} (tracked clients), {@code mcp.ratelimit.waiters} (callers delayed
+     * by {@link #acquire(String, Duration)}) and {@code mcp.ratelimit.evictions} (dropped buckets,
+     * tagged {@code reason=idle|capacity}), all tagged with {@code limiter=name}.
+     *
+     * @param name Limiter name used as metric tag
+     * @param maxTokens Maximum number of tokens (requests) allowed
+     * @param refillInterval Time interval for refilling tokens
+     * @param maxTrackedClients Maximum number of client buckets kept
+     * @param meterRegistry Registry for the limiter metrics
+     */
+    public SimpleRateLimiter(String name, int maxTokens, Duration refillInterval, int maxTrackedClients,
+                             MeterRegistry meterRegistry) {
+        this(maxTokens, refillInterval, maxTrackedClients);
+
+        Gauge.builder("mcp.ratelimit.clients", buckets, Map::size)
+                .description("Clients with a tracked rate limit bucket")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.ratelimit.waiters", waiters, AtomicInteger::get)
+                .description("Callers waiting for a rate limit token")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.ratelimit.evictions", idleEvictions, LongAdder::sum)
+                .description("Rate limit buckets dropped")
+                .tag("limiter", name)
+                .tag("reason", "idle")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.ratelimit.evictions", capacityEvictions, LongAdder::sum)
+                .description("Rate limit buckets dropped")
+                .tag("limiter", name)
+                .tag("reason", "capacity")
+                .register(meterRegistry);
     }
-    
+
     /**
      * Attempts to acquire a token for the given client.
-     * 
+     *
      * @param clientId Client identifier (e.g., IP address, session ID)
      * @throws McpException if rate limit is exceeded
      */
     public void checkRateLimit(String clientId) {
-        TokenBucket bucket = buckets.computeIfAbsent(clientId, k -> new TokenBucket(maxTokens));
-        
-        if (!bucket.tryConsume()) {
-            throw new McpException(
-                "Rate limit exceeded. Please try again later.",
-                HttpStatus.TOO_MANY_REQUESTS,
-                "RATE_LIMIT_EXCEEDED"
-            );
+        if (!tryAcquire(clientId)) {
+            throw RATE_LIMIT_EXCEEDED;
         }
     }
-    
+
+    /**
+     * Attempts to acquire a token for the given client without throwing.
+     *
+     * @param clientId Client identifier
+     * @return true if a token was acquired, false if the client is rate limited
+     */
+    public boolean tryAcquire(String clientId) {
+        return reserve(clientId, 0, 0) == 0;
+    }
+
+    /**
+     * Acquires a token for the given client without waiting.
+     *
+     * @param clientId Client identifier
+     * @return emits {@link Permit#GRANTED} or {@link Permit#REJECTED}; never fails
+     */
+    public Mono<Permit> acquire(String clientId) {
+        return Mono.defer(() -> tryAcquire(clientId) ? GRANTED : REJECTED);
+    }
+
+    /**
+     * Acquires a token for the given client, waiting up to {@code maxWait} for it, with at most
+     * {@value #DEFAULT_MAX_WAITERS} callers of this limiter waiting at a time.
+     *
+     * @param clientId Client identifier
+     * @param maxWait Longest acceptable delay
+     * @return emits the permit once the token is due, or {@link Permit#REJECTED}; never fails
+     */
+    public Mono<Permit> acquire(String clientId, Duration maxWait) {
+        return acquire(clientId, maxWait, DEFAULT_MAX_WAITERS);
+    }
+
+    /**
+     * Acquires a token for the given client, waiting up to {@code maxWait} for it.
+     *
+     * @param clientId Client identifier
+     * @param maxWait Longest acceptable delay
+     * @param maxWaiters Callers of this limiter allowed to wait at a time
+     * @return emits the permit once the token is due, or {@link Permit#REJECTED}; never fails
+     */
+    public Mono<Permit> acquire(String clientId, Duration maxWait, int maxWaiters) {
+        long maxWaitNanos = maxWait.toNanos();
+        return Mono.defer(() -> {
+            long wait = reserve(clientId, maxWaitNanos, maxWaiters);
+            if (wait == 0) {
+                return GRANTED;
+            }
+            if (wait < 0) {
+                return REJECTED;
+            }
+            Duration delay = Duration.ofNanos(wait);
+            return Mono.delay(delay)
+                    .map(tick -> new Permit(true, delay))
+                    .doFinally(signal -> waiters.decrementAndGet());
+        });
+    }
+
     /**
      * Checks if a client is currently rate limited without consuming a token.
-     * 
+     *
      * @param clientId Client identifier
      * @return true if client is rate limited, false otherwise
      */
     public boolean isRateLimited(String clientId) {
-        TokenBucket bucket = buckets.get(clientId);
-        return bucket != null && bucket.getAvailableTokens() == 0;
+        AtomicLong bucket = buckets.get(clientId);
+        return bucket != null && availableTokens(bucket.get(), System.nanoTime()) == 0;
+    }
+
+    /**
+     * Returns a token just acquired with {@link #tryAcquire(String)}, e.g. because another limit
+     * rejected the same request.
+     *
+     * @param clientId Client identifier
+     */
+    void release(String clientId) {
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket != null) {
+            bucket.addAndGet(-emissionInterval);
+        }
     }
-    
+
     /**
      * Clears rate limit data for a specific client.
-     * 
+     *
      * @param clientId Client identifier
      */
     public void clearRateLimit(String clientId) {
         buckets.remove(clientId);
     }
-    
+
     /**
      * Clears all rate limit data.
      */
     public void clearAll() {
         buckets.clear();
     }
-    
+
+    /**
+     * Drops the buckets that have been full for longer than the refill interval. Their clients
+     * get a new, full bucket on their next request, which is exactly what they had.
+     *
+     * @return the number of dropped buckets
+     */
+    public int evictIdleBuckets() {
+        long idleSince = System.nanoTime() - emissionInterval;
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            if (entry.getValue().get() - idleSince <= 0 && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        idleEvictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Returns the number of callers currently waiting for a token.
+     */
+    public int getWaiters() {
+        return waiters.get();
+    }
+
+    /**
+     * Returns the number of clients with a tracked bucket.
+     */
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+
     /**
-     * Token bucket for a single client.
+     * Takes the next token of a client's bucket if it is due within {@code maxWaitNanos}. A delayed
+     * reservation is counted as a waiter, bounded by {@code maxWaiters} (a soft bound, like the
+     * tracked clients).
+     *
+     * @return 0 if the token is available now, the nanoseconds until it is due, or -1 if rejected
      */
-    private class TokenBucket {
-        private final AtomicInteger tokens;
-        private volatile Instant lastRefill;
-        
-        TokenBucket(int initialTokens) {
-            this.tokens = new AtomicInteger(initialTokens);
-            this.lastRefill = Instant.now();
+    private long reserve(String clientId, long maxWaitNanos, int maxWaiters) {
+        if (burstTolerance < 0) {
+            return -1;
+        }
+        AtomicLong bucket = buckets.get(clientId);
+        if (bucket == null) {
+            bucket = track(clientId);
         }
-        
-        synchronized boolean tryConsume() {
-            refillIfNeeded();
-            
-            int currentTokens = tokens.get();
-            if (currentTokens > 0) {
-                tokens.decrementAndGet();
-                return true;
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival - now, 0) + emissionInterval;
+            long wait = next - burstTolerance;
+            if (wait > 0 && (wait > maxWaitNanos || waiters.get() >= maxWaiters)) {
+                return -1;
             }
-            return false;
+            if (bucket.compareAndSet(arrival, now + next)) {
+                if (wait <= 0) {
+                    return 0;
+                }
+                waiters.incrementAndGet();
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Creates the bucket of a client seen for the first time, making room if needed.
+     */
+    private AtomicLong track(String clientId) {
+        if (bucketsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            bucketsSinceSweep.set(0);
+            evictIdleBuckets();
         }
-        
-        synchronized int getAvailableTokens() {
-            refillIfNeeded();
-            return tokens.get();
+        while (buckets.size() >= maxTrackedClients && evictFullest()) {
+            capacityEvictions.increment();
         }
-        
-        private void refillIfNeeded() {
-            Instant now = Instant.now();
-            Duration elapsed = Duration.between(lastRefill, now);
-            
-            if (elapsed.compareTo(refillInterval) >= 0) {
-                // Refill tokens
-                int tokensToAdd = (int) (elapsed.toMillis() / refillInterval.toMillis());
-                int currentTokens = tokens.get();
-                int newTokens = Math.min(currentTokens + tokensToAdd, maxTokens);
-                tokens.set(newTokens);
-                lastRefill = now;
+        return buckets.computeIfAbsent(clientId, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    /**
+     * Drops the bucket with the earliest theoretical arrival time, i.e. the most refilled one,
+     * among the first few buckets of the map.
+     *
+     * @return true if a bucket was dropped
+     */
+    private boolean evictFullest() {
+        Map.Entry<String, AtomicLong> victim = null;
+        long victimArrival = 0;
+        Iterator<Map.Entry<String, AtomicLong>> candidates = buckets.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && candidates.hasNext(); i++) {
+            Map.Entry<String, AtomicLong> candidate = candidates.next();
+            long arrival = candidate.getValue().get();
+            if (victim == null || arrival - victimArrival < 0) {
+                victim = candidate;
+                victimArrival = arrival;
             }
         }
+        return victim != null && buckets.remove(victim.getKey(), victim.getValue());
+    }
+
+    /**
+     * Returns the whole tokens left in a bucket with the given theoretical arrival time.
+     */
+    private int availableTokens(long arrival, long now) {
+        if (maxTokens <= 0 || emissionInterval <= 0) {
+            return Math.max(maxTokens, 0);
+        }
+        long backlog = Math.max(arrival - now, 0);
+        return Math.clamp((burstTolerance - backlog) / emissionInterval, 0, maxTokens);
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return high == 0 && low >= 0 ? low : Long.MAX_VALUE / 2;
     }
 }
@@ -0,0 +1,124 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.config.McpToolBulkheadConfig;
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.core.McpToolBulkhead;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead stage of {@link McpToolRegistry#invokeTool}: limits the concurrent invocations of each
+ * tool as configured in {@link McpToolBulkheadConfig} or with {@link McpToolBulkhead}.
+ *
+ * <p>Invocations beyond {@code max-concurrent} wait in a bounded queue without blocking a thread;
+ * invocations that find the queue full, or wait longer than {@code queue-timeout}, fail with a
+ * preallocated {@link ch.sbb.mcp.commons.exception.McpException} (status 503, code
+ * {@code BULKHEAD_FULL} or {@code BULKHEAD_TIMEOUT}).</p>
+ *
+ * <p>Metrics per limited tool, tagged {@code tool=<name>}: {@code mcp.tool.bulkhead.active},
+ * {@code mcp.tool.bulkhead.queued} and {@code mcp.tool.bulkhead.rejections}
+ * ({@code reason=full|timeout}).</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class McpToolBulkheads {
+
+    private static final Logger log = LoggerFactory.getLogger(McpToolBulkheads.class);
+
+    private final McpToolBulkheadConfig config;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Optional<ToolBulkhead>> bulkheads = new ConcurrentHashMap<>();
+
+    public McpToolBulkheads(McpToolBulkheadConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies the bulkhead of the tool, if it has one, to an invocation.
+     *
+     * @param tool the invoked tool
+     * @param invocation the invocation, not yet subscribed
+     * @return the invocation, subscribed once a slot is free
+     */
+    public <T> Mono<T> execute(McpTool<?> tool, Mono<T> invocation) {
+        Optional<ToolBulkhead> bulkhead = bulkheads.get(tool.name());
+        if (bulkhead == null) {
+            bulkhead = bulkheads.computeIfAbsent(tool.name(), name -> resolve(tool));
+        }
+        return bulkhead.isPresent() ? bulkhead.get().execute(invocation) : invocation;
+    }
+
+    /**
+     * Returns the number of running invocations of a tool, or 0 if it has no bulkhead.
+     */
+    public int getActive(String toolName) {
+        return bulkheads.getOrDefault(toolName, Optional.empty()).map(ToolBulkhead::active).orElse(0);
+    }
+
+    /**
+     * Returns the number of queued invocations of a tool, or 0 if it has no bulkhead.
+     */
+    public int getQueued(String toolName) {
+        return bulkheads.getOrDefault(toolName, Optional.empty()).map(ToolBulkhead::queued).orElse(0);
+    }
+
+    private Optional<ToolBulkhead> resolve(McpTool<?> tool) {
+        String name = tool.name();
+        McpToolBulkheadConfig.Limits limits = config.getTools().get(name);
+        if (limits == null) {
+            McpToolBulkhead annotation = AnnotationUtils.findAnnotation(AopUtils.getTargetClass(tool), McpToolBulkhead.class);
+            limits = annotation != null
+                    ? new McpToolBulkheadConfig.Limits(annotation.maxConcurrent(), annotation.maxQueued(),
+                            Duration.ofMillis(annotation.queueTimeoutMillis()))
+                    : config.getDefaults();
+        }
+        if (limits == null) {
+            return Optional.empty();
+        }
+
+        ToolBulkhead bulkhead = new ToolBulkhead(name, limits.getMaxConcurrent(), limits.getMaxQueued(),
+                limits.getQueueTimeout());
+        registerMetrics(name, bulkhead);
+        log.info("Bulkhead for tool '{}': {} concurrent, {} queued, queue timeout {}",
+                name, limits.getMaxConcurrent(), limits.getMaxQueued(), limits.getQueueTimeout());
+        return Optional.of(bulkhead);
+    }
+
+    private void registerMetrics(String toolName, ToolBulkhead bulkhead) {
+        Gauge.builder("mcp.tool.bulkhead.active", bulkhead, ToolBulkhead::active)
+                .description("Tool invocations running within the bulkhead")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.tool.bulkhead.queued", bulkhead, ToolBulkhead::queued)
+                .description("Tool invocations waiting for a bulkhead slot")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.tool.bulkhead.rejections", bulkhead.fullRejections, LongAdder::sum)
+                .description("Tool invocations rejected by the bulkhead")
+                .tag("tool", toolName)
+                .tag("reason", "full")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.tool.bulkhead.rejections", bulkhead.timeoutRejections, LongAdder::sum)
+                .description("Tool invocations rejected by the bulkhead")
+                .tag("tool", toolName)
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+    }
+}
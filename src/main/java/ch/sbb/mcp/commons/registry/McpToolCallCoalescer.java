@@ -0,0 +1,125 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.core.McpTool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight stage of {@link McpToolRegistry#invokeTool}: concurrent invocations of a tool that
+ * does not modify state, with equal arguments, share one in-flight invocation and its result.
+ *
+ * <p>Unlike {@link McpToolResultCache}, nothing outlives the invocation: once it terminates, the
+ * next call invokes the tool again, so results are never stale. Arguments are compared in the same
+ * canonical form as in {@link McpToolResultCache}. Tools that override
+ * {@link McpTool#invoke(Map, Optional)} may depend on the session and are only coalesced within
+ * a session.</p>
+ *
+ * <p>The shared invocation is subscribed once, independently of its callers, and runs to completion
+ * even if all of them cancel; its result or error is delivered to every caller still subscribed, and
+ * a caller joining meanwhile gets the same result instead of a new invocation. Enabled by default; disable with
+ * {@code mcp.tools.coalescing.enabled=false}.</p>
+ *
+ * <p>Metrics: {@code mcp.tool.coalesced} (invocations that joined an in-flight invocation) and
+ * {@code mcp.tool.coalescing.in-flight} (shared invocations in progress).</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class McpToolCallCoalescer {
+
+    private enum Scope { NONE, GLOBAL, SESSION }
+
+    private final ConcurrentHashMap<ToolCallKey, Mono<?>> calls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Scope> scopes = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public McpToolCallCoalescer(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("mcp.tool.coalesced", coalesced, LongAdder::sum)
+                .description("Tool invocations that shared an identical in-flight invocation")
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.tool.coalescing.in-flight", calls, Map::size)
+                .description("Shared tool invocations in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Joins an identical in-flight invocation, or starts one that later identical invocations can join.
+     *
+     * @param tool the invoked tool
+     * @param arguments the invocation arguments
+     * @param sessionId the session of the invocation, if any
+     * @param invocation creates the invocation; called on subscription, at most once per shared invocation
+     * @return the shared invocation
+     */
+    public Mono<?> execute(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId,
+                           Supplier<Mono<?>> invocation) {
+        Scope scope = scopes.get(tool.name());
+        if (scope == null) {
+            scope = scopes.computeIfAbsent(tool.name(), name -> resolve(tool));
+        }
+        if (scope == Scope.NONE) {
+            return invocation.get();
+        }
+
+        ToolCallKey key = scope == Scope.SESSION && sessionId.isPresent()
+                ? ToolCallKey.of(tool.name(), arguments, sessionId.get())
+                : ToolCallKey.of(tool.name(), arguments);
+        return Mono.defer(() -> {
+            Mono<?> call = calls.get(key);
+            if (call != null) {
+                coalesced.increment();
+                return call;
+            }
+            Mono<?> created = newCall(key, invocation);
+            call = calls.putIfAbsent(key, created);
+            if (call != null) {
+                coalesced.increment();
+                return call;
+            }
+            // Subscribed independently of the callers, so cancelling them does not cancel it
+            created.subscribe(result -> { }, error -> { });
+            return created;
+        });
+    }
+
+    /**
+     * Forgets how tools are coalesced, e.g. after the tool set changed.
+     */
+    public void clearResolvedTools() {
+        scopes.clear();
+    }
+
+    /**
+     * Returns the number of shared invocations in progress.
+     */
+    public int getInFlight() {
+        return calls.size();
+    }
+
+    private Mono<?> newCall(ToolCallKey key, Supplier<Mono<?>> invocation) {
+        AtomicReference<Mono<?>> self = new AtomicReference<>();
+        Mono<?> call = Mono.defer(invocation)
+                .doFinally(signal -> calls.remove(key, self.get()))
+                .cache();
+        self.set(call);
+        return call;
+    }
+
+    private static Scope resolve(McpTool<?> tool) {
+        if (tool.isStateModifying()) {
+            return Scope.NONE;
+        }
+        return ToolCallKey.dependsOnSession(tool) ? Scope.SESSION : Scope.GLOBAL;
+    }
+}
@@ -0,0 +1,74 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.ratelimit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive concurrency stage of {@link McpToolRegistry#invokeTool}: one
+ * {@link AdaptiveConcurrencyLimiter} per tool, named after the tool, so each tool's limit follows
+ * the latency of its own backend.
+ *
+ * <p>Enabled with {@code mcp.tools.adaptive-limit.enabled=true}. The limit applies inside the tool's
+ * bulkhead, so its latency samples and calls in flight cover only the tool call itself; bulkhead
+ * queueing and bulkhead rejections do not move it. Invocations over a tool's current limit fail
+ * immediately with a 503 {@code OVERLOADED} error.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.adaptive-limit.enabled", havingValue = "true")
+public class McpToolConcurrencyLimits {
+
+    private static final Logger log = LoggerFactory.getLogger(McpToolConcurrencyLimits.class);
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public McpToolConcurrencyLimits(
+            @Value("${mcp.tools.adaptive-limit.initial-limit:20}") int initialLimit,
+            @Value("${mcp.tools.adaptive-limit.min-limit:1}") int minLimit,
+            @Value("${mcp.tools.adaptive-limit.max-limit:200}") int maxLimit,
+            @Value("${mcp.tools.adaptive-limit.backoff-ratio:0.9}") double backoffRatio,
+            MeterRegistry meterRegistry) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.meterRegistry = meterRegistry;
+        log.info("Adaptive concurrency limits for tools: initial {}, min {}, max {}, backoff ratio {}",
+                initialLimit, minLimit, maxLimit, backoffRatio);
+    }
+
+    /**
+     * Runs an invocation under the adaptive limit of its tool.
+     *
+     * @param toolName the invoked tool
+     * @param invocation the invocation, not yet subscribed
+     * @return the invocation, or an {@code OVERLOADED} error if the tool's limit is reached
+     */
+    public <T> Mono<T> execute(String toolName, Mono<T> invocation) {
+        return limiter(toolName).execute(invocation);
+    }
+
+    /**
+     * Returns the limiter of a tool, creating it on first use.
+     */
+    public AdaptiveConcurrencyLimiter limiter(String toolName) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(toolName);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(toolName, name -> new AdaptiveConcurrencyLimiter(
+                    name, initialLimit, minLimit, maxLimit, backoffRatio, meterRegistry));
+        }
+        return limiter;
+    }
+}
@@ -0,0 +1,227 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.core.McpError;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.exception.McpException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer instrumentation of {@link McpToolRegistry#invokeTool}, tagged with {@code tool=<name>}:
+ * <ul>
+ *   <li>{@code mcp.tool.invocations} - timer with percentile histogram, tagged {@code outcome=success|error}</li>
+ *   <li>{@code mcp.tool.in-flight} - invocations currently subscribed</li>
+ *   <li>{@code mcp.tool.errors} - failed invocations, tagged {@code code=<McpError.ErrorCode>}</li>
+ *   <li>{@code mcp.tool.arguments.size} / {@code mcp.tool.response.size} - JSON payload sizes in bytes,
+ *       only with {@code mcp.tools.metrics.payload-sizes=true}</li>
+ * </ul>
+ *
+ * <p>A failure is either an {@link McpResult.Failure}, counted with its error code, or an error
+ * signal, mapped to the closest error code. Cancelled invocations leave the in-flight gauge but are
+ * not timed.</p>
+ *
+ * <p>All meters of a tool are registered on its first invocation; afterwards an invocation only
+ * reads {@link System#nanoTime()} and updates existing meters, without building tags or looking up
+ * meters. Measuring payload sizes serializes arguments and results once more and is therefore off
+ * by default.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class McpToolMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(McpToolMetrics.class);
+
+    private static final McpError.ErrorCode[] ERROR_CODES = McpError.ErrorCode.values();
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean payloadSizes;
+    private final ConcurrentHashMap<String, ToolMeters> metersByTool = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the instrumentation without payload size measurement.
+     */
+    public McpToolMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, null, false);
+    }
+
+    @Autowired
+    public McpToolMetrics(MeterRegistry meterRegistry,
+                          ObjectProvider<ObjectMapper> objectMapper,
+                          @Value("${mcp.tools.metrics.payload-sizes:false}") boolean payloadSizes) {
+        this(meterRegistry, payloadSizes ? objectMapper.getIfAvailable(ObjectMapper::new) : null, payloadSizes);
+    }
+
+    McpToolMetrics(MeterRegistry meterRegistry, ObjectMapper objectMapper, boolean payloadSizes) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.payloadSizes = payloadSizes && objectMapper != null;
+        log.info("McpToolMetrics initialized (payload sizes: {})", this.payloadSizes);
+    }
+
+    /**
+     * Instruments one invocation of a tool.
+     *
+     * @param toolName the invoked tool
+     * @param arguments the invocation arguments
+     * @param invocation the invocation, not yet subscribed
+     * @return the instrumented invocation
+     */
+    public <T> Mono<T> record(String toolName, Map<String, Object> arguments, Mono<T> invocation) {
+        ToolMeters meters = metersByTool.get(toolName);
+        if (meters == null) {
+            meters = metersByTool.computeIfAbsent(toolName, ToolMeters::new);
+        }
+        ToolMeters tool = meters;
+        return Mono.defer(() -> {
+            tool.inFlight.incrementAndGet();
+            if (payloadSizes) {
+                tool.recordSize(tool.argumentsSize, arguments);
+            }
+            long start = System.nanoTime();
+            return invocation
+                    .doOnSuccess(result -> tool.success(result, System.nanoTime() - start))
+                    .doOnError(error -> tool.failure(errorCode(error), System.nanoTime() - start))
+                    .doFinally(signal -> tool.inFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Maps an error signal of a tool to the closest MCP error code.
+     */
+    static McpError.ErrorCode errorCode(Throwable error) {
+        if (error instanceof McpException mcpException) {
+            return switch (mcpException.getStatus()) {
+                case TOO_MANY_REQUESTS -> McpError.ErrorCode.RATE_LIMITED;
+                case NOT_FOUND -> McpError.ErrorCode.NOT_FOUND;
+                case BAD_REQUEST -> McpError.ErrorCode.INVALID_INPUT;
+                case UNAUTHORIZED, FORBIDDEN -> McpError.ErrorCode.UNAUTHORIZED;
+                case BAD_GATEWAY -> McpError.ErrorCode.EXTERNAL_API_ERROR;
+                case GATEWAY_TIMEOUT -> McpError.ErrorCode.TIMEOUT;
+                case SERVICE_UNAVAILABLE -> McpError.ErrorCode.SERVICE_UNAVAILABLE;
+                default -> McpError.ErrorCode.INTERNAL_ERROR;
+            };
+        }
+        if (error instanceof IllegalArgumentException) {
+            return McpError.ErrorCode.INVALID_INPUT;
+        }
+        if (error instanceof TimeoutException) {
+            return McpError.ErrorCode.TIMEOUT;
+        }
+        return McpError.ErrorCode.INTERNAL_ERROR;
+    }
+
+    /**
+     * The meters of one tool.
+     */
+    private final class ToolMeters {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer successTimer;
+        private final Timer errorTimer;
+        private final Counter[] errors = new Counter[ERROR_CODES.length];
+        private final DistributionSummary argumentsSize;
+        private final DistributionSummary responseSize;
+
+        ToolMeters(String toolName) {
+            this.successTimer = timer(toolName, "success");
+            this.errorTimer = timer(toolName, "error");
+            for (McpError.ErrorCode code : ERROR_CODES) {
+                errors[code.ordinal()] = Counter.builder("mcp.tool.errors")
+                        .description("Failed tool invocations")
+                        .tag("tool", toolName)
+                        .tag("code", code.getCode())
+                        .register(meterRegistry);
+            }
+            Gauge.builder("mcp.tool.in-flight", inFlight, AtomicInteger::get)
+                    .description("Tool invocations in progress")
+                    .tag("tool", toolName)
+                    .register(meterRegistry);
+            this.argumentsSize = payloadSizes ? size("mcp.tool.arguments.size", "Tool argument size", toolName) : null;
+            this.responseSize = payloadSizes ? size("mcp.tool.response.size", "Tool result size", toolName) : null;
+        }
+
+        void success(Object result, long nanos) {
+            if (result instanceof McpResult.Failure<?> failure) {
+                McpError error = failure.error();
+                failure(error != null && error.code() != null ? error.code() : McpError.ErrorCode.INTERNAL_ERROR, nanos);
+                return;
+            }
+            successTimer.record(nanos, TimeUnit.NANOSECONDS);
+            if (payloadSizes && result != null) {
+                recordSize(responseSize, result instanceof McpResult.Success<?> success ? success.data() : result);
+            }
+        }
+
+        void failure(McpError.ErrorCode code, long nanos) {
+            errorTimer.record(nanos, TimeUnit.NANOSECONDS);
+            errors[code.ordinal()].increment();
+        }
+
+        void recordSize(DistributionSummary summary, Object payload) {
+            CountingOutputStream out = new CountingOutputStream();
+            try {
+                objectMapper.writeValue(out, payload);
+                summary.record(out.count);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not measure payload size: {}", e.getMessage());
+            }
+        }
+
+        private Timer timer(String toolName, String outcome) {
+            return Timer.builder("mcp.tool.invocations")
+                    .description("Tool invocation latency")
+                    .tag("tool", toolName)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary size(String name, String description, String toolName) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit("bytes")
+                    .tag("tool", toolName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Discards the written bytes, counting them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package ch.sbb.mcp.commons.registry;
 
 import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.exception.McpException;
+import ch.sbb.mcp.commons.ratelimit.McpToolRateLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,73 +13,247 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Registry for auto-discovering and managing MCP tools.
- * 
+ *
  * <p>Automatically discovers all Spring beans implementing {@link McpTool}
  * and provides methods for listing tools and invoking them.</p>
+ *
+ * <p>The {@code tools/list} payload is rendered once per tool set and cached as
+ * pre-encoded UTF-8 JSON with an ETag (see {@link #getToolsListPayload()}). It is only
+ * rebuilt when the tool set changes through {@link #init()}, {@link #registerTool(McpTool)}
+ * or {@link #unregisterTool(String)}.</p>
+ *
+ * <p>If a {@link McpToolRateLimiter} bean is present ({@code mcp.tools.rate-limit.enabled}),
+ * {@link #invokeTool(String, Map, Optional)} checks its limits before invoking a tool. A
+ * {@link McpToolBulkheads} bean (default) bounds the concurrent invocations of each tool, and
+ * within it a {@link McpToolConcurrencyLimits} bean ({@code mcp.tools.adaptive-limit.enabled})
+ * sheds invocations over a latency-based limit. A {@link McpToolResultCache} bean ({@code mcp.tools.cache.enabled})
+ * answers repeated invocations of tools that do not modify state without invoking them, and a
+ * {@link McpToolCallCoalescer} bean (default) lets concurrent identical invocations of such tools
+ * share one invocation. If a {@link McpToolMetrics} bean is present (default), every invocation,
+ * including rejected ones, is recorded.</p>
  */
 @Service
 public class McpToolRegistry {
-    
+
     private static final Logger log = LoggerFactory.getLogger(McpToolRegistry.class);
-    
+
+    /**
+     * Mapper used only to render the tools/list payload; tool metadata is plain strings
+     * and raw JSON schemas, so it does not depend on application-specific configuration.
+     */
+    private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper();
+
     private final ApplicationContext applicationContext;
-    private Map<String, McpTool<?>> tools;
-    
+    private volatile Map<String, McpTool<?>> tools = Collections.emptyMap();
+    private volatile ToolsListPayload toolsListPayload = ToolsListPayload.render(List.of());
+    private volatile McpToolRateLimiter rateLimiter;
+    private volatile McpToolMetrics metrics;
+    private volatile McpToolBulkheads bulkheads;
+    private volatile McpToolConcurrencyLimits concurrencyLimits;
+    private volatile McpToolResultCache resultCache;
+    private volatile McpToolCallCoalescer callCoalescer;
+
     public McpToolRegistry(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
     }
-    
+
     @PostConstruct
     public void init() {
         // Auto-discover all McpTool beans
-        tools = applicationContext.getBeansOfType(McpTool.class).values().stream()
+        Map<String, McpTool<?>> discovered = applicationContext.getBeansOfType(McpTool.class).values().stream()
             .collect(Collectors.toMap(
                 McpTool::name,
                 tool -> tool
             ));
-        
-        log.info("Discovered {} MCP tools: {}", tools.size(), tools.keySet());
+
+        replaceTools(discovered);
+        log.info("Discovered {} MCP tools: {}", discovered.size(), discovered.keySet());
+
+        Map<String, McpToolRateLimiter> rateLimiters = applicationContext.getBeansOfType(McpToolRateLimiter.class);
+        if (!rateLimiters.isEmpty()) {
+            rateLimiter = rateLimiters.values().iterator().next();
+            log.info("Rate limiting tool invocations");
+        }
+        Map<String, McpToolMetrics> toolMetrics = applicationContext.getBeansOfType(McpToolMetrics.class);
+        if (!toolMetrics.isEmpty()) {
+            metrics = toolMetrics.values().iterator().next();
+        }
+        Map<String, McpToolBulkheads> toolBulkheads = applicationContext.getBeansOfType(McpToolBulkheads.class);
+        if (!toolBulkheads.isEmpty()) {
+            bulkheads = toolBulkheads.values().iterator().next();
+        }
+        Map<String, McpToolConcurrencyLimits> limits = applicationContext.getBeansOfType(McpToolConcurrencyLimits.class);
+        if (!limits.isEmpty()) {
+            concurrencyLimits = limits.values().iterator().next();
+        }
+        Map<String, McpToolResultCache> caches = applicationContext.getBeansOfType(McpToolResultCache.class);
+        if (!caches.isEmpty()) {
+            resultCache = caches.values().iterator().next();
+        }
+        Map<String, McpToolCallCoalescer> coalescers = applicationContext.getBeansOfType(McpToolCallCoalescer.class);
+        if (!coalescers.isEmpty()) {
+            callCoalescer = coalescers.values().iterator().next();
+        }
     }
-    
+
     /**
-     * Get all registered tools.
+     * Registers a tool at runtime, replacing any tool with the same name.
+     *
+     * <p>Invalidates and re-renders the cached tools/list payload.</p>
+     *
+     * @param tool the tool to register
      */
-    public List<ToolInfo> listTools() {
-        return tools.values().stream()
+    public synchronized void registerTool(McpTool<?> tool) {
+        Map<String, McpTool<?>> updated = new HashMap<>(tools);
+        updated.put(tool.name(), tool);
+        replaceTools(updated);
+        log.info("Registered MCP tool: {}", tool.name());
+    }
+
+    /**
+     * Removes a tool at runtime.
+     *
+     * <p>Invalidates and re-renders the cached tools/list payload if the tool was registered.</p>
+     *
+     * @param toolName the name of the tool to remove
+     * @return true if the tool was registered
+     */
+    public synchronized boolean unregisterTool(String toolName) {
+        if (!tools.containsKey(toolName)) {
+            return false;
+        }
+        Map<String, McpTool<?>> updated = new HashMap<>(tools);
+        updated.remove(toolName);
+        replaceTools(updated);
+        log.info("Unregistered MCP tool: {}", toolName);
+        return true;
+    }
+
+    private synchronized void replaceTools(Map<String, McpTool<?>> newTools) {
+        List<ToolInfo> infos = newTools.values().stream()
             .map(tool -> new ToolInfo(
                 tool.name(),
                 tool.summary(),
                 tool.description(),
                 tool.inputSchema()
             ))
-            .collect(Collectors.toList());
+            .sorted(Comparator.comparing(ToolInfo::name))
+            .toList();
+
+        this.tools = Collections.unmodifiableMap(newTools);
+        this.toolsListPayload = ToolsListPayload.render(infos);
+        if (rateLimiter != null) {
+            rateLimiter.clearResolvedTools();
+        }
+        if (resultCache != null) {
+            resultCache.clear();
+        }
+        if (callCoalescer != null) {
+            callCoalescer.clearResolvedTools();
+        }
     }
-    
+
+    /**
+     * Get all registered tools, ordered by name.
+     *
+     * <p>Returns the cached, immutable list; no objects are created per call.</p>
+     */
+    public List<ToolInfo> listTools() {
+        return toolsListPayload.tools();
+    }
+
+    /**
+     * Get the pre-rendered tools/list result ({@code {"tools":[...]}}).
+     *
+     * @return the cached payload for the current tool set
+     */
+    public ToolsListPayload getToolsListPayload() {
+        return toolsListPayload;
+    }
+
     /**
      * Invoke a tool by name.
      */
     public Mono<?> invokeTool(String toolName, Map<String, Object> arguments) {
+        return invokeTool(toolName, arguments, Optional.empty());
+    }
+
+    /**
+     * Invoke a tool by name within an optional session.
+     *
+     * <p>Fails with an {@link McpException} (status 429) if a configured rate limit is exceeded;
+     * the tool is not subscribed in that case.</p>
+     */
+    public Mono<?> invokeTool(String toolName, Map<String, Object> arguments, Optional<String> sessionId) {
         McpTool<?> tool = tools.get(toolName);
         if (tool == null) {
             return Mono.error(new IllegalArgumentException("Tool not found: " + toolName));
         }
-        
-        return tool.invoke(arguments);
+
+        McpToolMetrics toolMetrics = metrics;
+        Mono<?> invocation = invoke(tool, arguments, sessionId);
+        return toolMetrics != null ? toolMetrics.record(toolName, arguments, invocation) : invocation;
+    }
+
+    private Mono<?> invoke(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId) {
+        McpToolRateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            return cacheOrCoalesce(tool, arguments, sessionId);
+        }
+        // Permits are taken per subscription, not when the pipeline is assembled
+        return Mono.defer(() -> {
+            McpException rejection = limiter.tryAcquire(tool, sessionId);
+            return rejection != null ? Mono.error(rejection) : cacheOrCoalesce(tool, arguments, sessionId);
+        });
+    }
+
+    private Mono<?> cacheOrCoalesce(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId) {
+        McpToolResultCache cache = resultCache;
+        return cache != null
+                ? cache.execute(tool, arguments, sessionId, () -> coalesce(tool, arguments, sessionId))
+                : coalesce(tool, arguments, sessionId);
     }
-    
+
+    private Mono<?> coalesce(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId) {
+        McpToolCallCoalescer coalescer = callCoalescer;
+        return coalescer != null
+                ? coalescer.execute(tool, arguments, sessionId, () -> execute(tool, arguments, sessionId))
+                : execute(tool, arguments, sessionId);
+    }
+
+    private Mono<?> execute(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId) {
+        Mono<?> invocation = sessionId.isPresent() ? tool.invoke(arguments, sessionId) : tool.invoke(arguments);
+        // The adaptive limit sits inside the bulkhead so it measures only the tool call, not queueing
+        McpToolConcurrencyLimits toolLimits = concurrencyLimits;
+        if (toolLimits != null) {
+            invocation = toolLimits.execute(tool.name(), invocation);
+        }
+        McpToolBulkheads toolBulkheads = bulkheads;
+        return toolBulkheads != null ? toolBulkheads.execute(tool, invocation) : invocation;
+    }
+
     /**
      * Check if a tool exists.
      */
     public boolean hasTool(String toolName) {
         return tools.containsKey(toolName);
     }
-    
+
     /**
      * Tool information for MCP clients.
      */
@@ -85,4 +264,87 @@ public class McpToolRegistry {
         @com.fasterxml.jackson.annotation.JsonRawValue
         String inputSchema
     ) {}
+
+    /**
+     * Pre-rendered tools/list result for one tool set.
+     *
+     * <p>Holds the tool metadata, its UTF-8 JSON encoding and a strong ETag derived from
+     * the content. Instances are immutable and shared between requests.</p>
+     */
+    public static final class ToolsListPayload {
+
+        private final List<ToolInfo> tools;
+        private final String json;
+        private final byte[] bytes;
+        private final String etag;
+        private final RawValue rawValue;
+
+        private ToolsListPayload(List<ToolInfo> tools, String json) {
+            this.tools = tools;
+            this.json = json;
+            this.bytes = json.getBytes(StandardCharsets.UTF_8);
+            this.etag = computeEtag(bytes);
+            this.rawValue = new RawValue(json);
+        }
+
+        static ToolsListPayload render(List<ToolInfo> tools) {
+            try {
+                return new ToolsListPayload(tools, PAYLOAD_MAPPER.writeValueAsString(Map.of("tools", tools)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to render tools/list payload", e);
+            }
+        }
+
+        private static String computeEtag(byte[] content) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+                return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                return "\"" + Integer.toHexString(Arrays.hashCode(content)) + "\"";
+            }
+        }
+
+        /**
+         * @return the tools in this payload, ordered by name
+         */
+        public List<ToolInfo> tools() {
+            return tools;
+        }
+
+        /**
+         * @return the payload as JSON text
+         */
+        public String json() {
+            return json;
+        }
+
+        /**
+         * Returns the UTF-8 encoded payload.
+         *
+         * <p>The array is shared between all callers to avoid copying on the hot path
+         * and must not be modified.</p>
+         *
+         * @return the payload as UTF-8 bytes
+         */
+        public byte[] bytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the strong ETag (quoted) identifying this payload
+         */
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * Returns the payload as a Jackson {@link RawValue}, so it can be embedded into a
+         * JSON-RPC response without re-serializing the tool schemas.
+         *
+         * @return the payload as raw JSON value
+         */
+        public RawValue asRawValue() {
+            return rawValue;
+        }
+    }
 }
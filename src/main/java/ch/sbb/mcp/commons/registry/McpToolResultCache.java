@@ -0,0 +1,149 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.config.McpToolCacheConfig;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.core.McpTool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Result cache stage of {@link McpToolRegistry#invokeTool}: answers repeated invocations of
+ * tools that do not modify state from a bounded local cache, as configured in {@link McpToolCacheConfig}.
+ *
+ * <p>Invocations are keyed by the tool name and a canonical form of their arguments, so argument
+ * order and numeric representation do not matter. Tools that override
+ * {@link McpTool#invoke(Map, Optional)} may depend on the session and are also keyed by session.
+ * Only successful, non-empty results are cached, never an {@link McpResult.Failure}; they are
+ * shared between callers and must not be mutated. The cache holds at most
+ * {@code max-size} results over all tools and evicts with W-TinyLFU, so frequently requested
+ * results survive a burst of one-off lookups.</p>
+ *
+ * <p>Metrics: {@code mcp.tool.cache.requests} per cached tool, tagged {@code tool=<name>} and
+ * {@code result=hit|miss}; {@code mcp.tool.cache.size} and {@code mcp.tool.cache.evictions}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.tools.cache.enabled", havingValue = "true")
+public class McpToolResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(McpToolResultCache.class);
+
+    /** Marks tools that are not cached. */
+    private static final ToolSettings NOT_CACHED = new ToolSettings(0, false, null, null);
+
+    private final McpToolCacheConfig config;
+    private final MeterRegistry meterRegistry;
+    private final TinyLfuCache<ToolCallKey, Object> cache;
+    private final ConcurrentHashMap<String, ToolSettings> settings = new ConcurrentHashMap<>();
+
+    public McpToolResultCache(McpToolCacheConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.cache = new TinyLfuCache<>(config.getMaxSize());
+
+        Gauge.builder("mcp.tool.cache.size", cache, TinyLfuCache::size)
+                .description("Tool results in the result cache")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("mcp.tool.cache.evictions", cache, TinyLfuCache::evictions)
+                .description("Tool results evicted from the result cache to stay within its size")
+                .register(meterRegistry);
+
+        log.info("Tool result cache: max size {}, default TTL {}, TTL by tool {}",
+                config.getMaxSize(), config.getDefaultTtl(), config.getTtl());
+    }
+
+    /**
+     * Answers an invocation from the cache, or runs it and caches its result. The cache is looked up
+     * on subscription, so each subscription is a separate request.
+     *
+     * @param tool the invoked tool
+     * @param arguments the invocation arguments
+     * @param sessionId the session of the invocation, if any
+     * @param invocation creates the invocation on a miss
+     * @return the cached result, or the invocation
+     */
+    public Mono<?> execute(McpTool<?> tool, Map<String, Object> arguments, Optional<String> sessionId,
+                           Supplier<Mono<?>> invocation) {
+        ToolSettings toolSettings = settings.get(tool.name());
+        if (toolSettings == null) {
+            toolSettings = settings.computeIfAbsent(tool.name(), name -> resolve(tool));
+        }
+        if (toolSettings == NOT_CACHED) {
+            return invocation.get();
+        }
+
+        ToolSettings cached = toolSettings;
+        return Mono.defer(() -> lookup(cached, tool.name(), arguments, sessionId, invocation));
+    }
+
+    private Mono<?> lookup(ToolSettings toolSettings, String toolName, Map<String, Object> arguments,
+                           Optional<String> sessionId, Supplier<Mono<?>> invocation) {
+        ToolCallKey key = toolSettings.sessionScoped && sessionId.isPresent()
+                ? ToolCallKey.of(toolName, arguments, sessionId.get())
+                : ToolCallKey.of(toolName, arguments);
+        Object cached = cache.get(key);
+        if (cached != null) {
+            toolSettings.hits.increment();
+            return Mono.just(cached);
+        }
+        toolSettings.misses.increment();
+        long ttlNanos = toolSettings.ttlNanos;
+        return invocation.get().doOnNext(result -> {
+            if (!(result instanceof McpResult.Failure<?>)) {
+                cache.put(key, result, ttlNanos);
+            }
+        });
+    }
+
+    /**
+     * Drops all cached results and resolved tool settings, e.g. after the tool set changed.
+     */
+    public void clear() {
+        settings.clear();
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of cached results.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private ToolSettings resolve(McpTool<?> tool) {
+        if (tool.isStateModifying()) {
+            return NOT_CACHED;
+        }
+        Duration ttl = config.getTtl().getOrDefault(tool.name(), config.getDefaultTtl());
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return NOT_CACHED;
+        }
+
+        log.info("Caching results of tool '{}' for {}", tool.name(), ttl);
+        return new ToolSettings(ttl.toNanos(), ToolCallKey.dependsOnSession(tool),
+                requests(tool.name(), "hit"), requests(tool.name(), "miss"));
+    }
+
+    private Counter requests(String toolName, String result) {
+        return Counter.builder("mcp.tool.cache.requests")
+                .description("Tool invocations looked up in the result cache")
+                .tag("tool", toolName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record ToolSettings(long ttlNanos, boolean sessionScoped, Counter hits, Counter misses) {}
+}
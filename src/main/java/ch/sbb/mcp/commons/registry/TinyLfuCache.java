@@ -0,0 +1,331 @@
+package ch.sbb.mcp.commons.registry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache with per-entry expiry and W-TinyLFU eviction.
+ *
+ * <p>New entries enter a small LRU window (1% of the capacity). Entries leaving the window compete
+ * for a place in the main area, a segmented LRU with a probation and a protected (80%) segment: the
+ * window's oldest entry only replaces the main area's eviction victim if it was requested more often,
+ * as estimated by a count-min sketch of 4-bit counters that is halved periodically. One-off lookups
+ * therefore cannot flush entries that are requested again and again.</p>
+ *
+ * <p>Expired entries are treated as absent and are evicted first.</p>
+ *
+ * <p><strong>Thread Safety:</strong> Lookups read a {@link ConcurrentHashMap}; the access order and
+ * the sketch are updated under a lock that lookups only try to take, so under contention some reads
+ * are not recorded, which only makes the frequency estimate slightly less precise.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+
+    /** Guarded by {@link #lock}. */
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    private final FrequencySketch sketch;
+    private final int maxWindow;
+    private final int maxMain;
+    private final int maxProtected;
+
+    TinyLfuCache(int maxSize) {
+        this(maxSize, System::nanoTime);
+    }
+
+    TinyLfuCache(int maxSize, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1: " + maxSize);
+        }
+        this.nanoClock = nanoClock;
+        this.maxWindow = Math.max(1, maxSize / 100);
+        this.maxMain = maxSize - maxWindow;
+        this.maxProtected = maxMain * 4 / 5;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    /**
+     * Returns the value for a key, or {@code null} if it is absent or expired.
+     */
+    V get(K key) {
+        Node<K, V> node = data.get(key);
+        V value = null;
+        if (node != null && node.expiresAtNanos - nanoClock.getAsLong() > 0) {
+            value = node.value;
+        }
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key.hashCode());
+                if (value != null) {
+                    onHit(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Adds or replaces a value, evicting entries if the cache is full.
+     *
+     * @param ttlNanos time until the value expires
+     */
+    void put(K key, V value, long ttlNanos) {
+        long expiresAt = nanoClock.getAsLong() + ttlNanos;
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                node.expiresAtNanos = expiresAt;
+                onHit(node);
+                return;
+            }
+            node = new Node<>(key, value, expiresAt);
+            data.put(key, node);
+            window.addLast(node);
+            node.segment = WINDOW;
+            if (window.size > maxWindow) {
+                admit(window.first());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            clear(window);
+            clear(probation);
+            clear(protectedSegment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return data.size();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Moves an entry leaving the window into the main area, or evicts it if it loses against the
+     * main area's victim.
+     */
+    private void admit(Node<K, V> candidate) {
+        window.remove(candidate);
+        if (probation.size + protectedSegment.size < maxMain) {
+            probation.addLast(candidate);
+            candidate.segment = PROBATION;
+            return;
+        }
+        AccessOrder<K, V> victimOrder = probation.size > 0 ? probation : protectedSegment;
+        Node<K, V> victim = victimOrder.first();
+        long now = nanoClock.getAsLong();
+        boolean admitted = victim != null && (victim.expiresAtNanos - now <= 0
+                || sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode()));
+        if (admitted) {
+            evict(victimOrder, victim);
+            probation.addLast(candidate);
+            candidate.segment = PROBATION;
+        } else {
+            candidate.segment = REMOVED;
+            data.remove(candidate.key, candidate);
+            evictions.increment();
+        }
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW -> window.moveToLast(node);
+            case PROBATION -> {
+                probation.remove(node);
+                protectedSegment.addLast(node);
+                node.segment = PROTECTED;
+                if (protectedSegment.size > maxProtected) {
+                    Node<K, V> demoted = protectedSegment.first();
+                    protectedSegment.remove(demoted);
+                    probation.addLast(demoted);
+                    demoted.segment = PROBATION;
+                }
+            }
+            case PROTECTED -> protectedSegment.moveToLast(node);
+            default -> {
+                // Evicted concurrently
+            }
+        }
+    }
+
+    private void clear(AccessOrder<K, V> order) {
+        for (Node<K, V> node = order.first(); node != null; node = order.first()) {
+            remove(order, node);
+        }
+    }
+
+    private void evict(AccessOrder<K, V> order, Node<K, V> node) {
+        remove(order, node);
+        evictions.increment();
+    }
+
+    private void remove(AccessOrder<K, V> order, Node<K, V> node) {
+        order.remove(node);
+        node.segment = REMOVED;
+        data.remove(node.key, node);
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        volatile V value;
+        volatile long expiresAtNanos;
+        /** Guarded by the cache lock, like the links. */
+        int segment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long expiresAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes from least to most recently used.
+     */
+    private static final class AccessOrder<K, V> {
+
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        int size;
+
+        Node<K, V> first() {
+            return head;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch with four 4-bit counters per key, halved after {@code 10 * maxSize} increments
+     * so that old popularity fades.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            int length = Integer.highestOneBit(Math.clamp(maxSize, 8, 1 << 24) - 1) << 1;
+            this.table = new long[length];
+            this.tableMask = length - 1;
+            this.sampleSize = 10 * Math.min(maxSize, 1 << 24);
+        }
+
+        int frequency(int keyHash) {
+            int hash = spread(keyHash);
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int offset = (start + i) << 2;
+                int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(int keyHash) {
+            int hash = spread(keyHash);
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
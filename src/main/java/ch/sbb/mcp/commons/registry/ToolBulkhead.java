@@ -0,0 +1,174 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.exception.McpException;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking bulkhead of one tool: a counting semaphore with a bounded FIFO of waiting invocations.
+ *
+ * <p>A finishing invocation hands its slot directly to the oldest waiter, which then runs on the
+ * finishing invocation's thread; no thread ever blocks. A waiter that times out or is cancelled
+ * leaves the queue, and a slot handed to a waiter that is cancelled at the same moment is released
+ * again.</p>
+ */
+final class ToolBulkhead {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final McpException full;
+    private final McpException timedOut;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    final LongAdder fullRejections = new LongAdder();
+    final LongAdder timeoutRejections = new LongAdder();
+
+    ToolBulkhead(String toolName, int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Max concurrent invocations of tool '" + toolName
+                    + "' must be at least 1: " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(maxQueued, 0);
+        this.queueTimeout = queueTimeout;
+        this.full = new McpException("Too many concurrent invocations of tool '" + toolName + "'. Please try again later.",
+                HttpStatus.SERVICE_UNAVAILABLE, "BULKHEAD_FULL", false);
+        this.timedOut = new McpException("Timed out waiting to invoke tool '" + toolName + "'. Please try again later.",
+                HttpStatus.SERVICE_UNAVAILABLE, "BULKHEAD_TIMEOUT", false);
+    }
+
+    /**
+     * Subscribes the invocation once a slot is free, releasing the slot when it terminates or is cancelled.
+     */
+    <T> Mono<T> execute(Mono<T> invocation) {
+        return Mono.defer(() -> {
+            if (tryAcquire()) {
+                return run(invocation);
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                fullRejections.increment();
+                return Mono.error(full);
+            }
+            Waiter waiter = new Waiter();
+            waiters.offer(waiter);
+            // A slot may have been released before the waiter was queued
+            drain();
+            return waiter.granted.asMono()
+                    .timeout(queueTimeout, Mono.defer(() -> {
+                        if (waiter.abandon()) {
+                            timeoutRejections.increment();
+                            return Mono.error(timedOut);
+                        }
+                        return Mono.just(Boolean.TRUE);
+                    }))
+                    .doOnCancel(() -> {
+                        if (!waiter.abandon()) {
+                            release();
+                        }
+                    })
+                    .then(run(invocation));
+        });
+    }
+
+    int active() {
+        return active.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private <T> Mono<T> run(Mono<T> invocation) {
+        return invocation.doFinally(signal -> release());
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        if (!handOff()) {
+            active.decrementAndGet();
+            drain();
+        }
+    }
+
+    /**
+     * Passes a slot held by the caller to the oldest waiter.
+     *
+     * @return true if a waiter took the slot
+     */
+    private boolean handOff() {
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.grant()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grants free slots to queued waiters.
+     */
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            if (!handOff()) {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * An invocation waiting for a slot.
+     */
+    private final class Waiter {
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.One<Boolean> granted = Sinks.one();
+
+        boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            granted.tryEmitValue(Boolean.TRUE);
+            return true;
+        }
+
+        /**
+         * @return true if the waiter left the queue without a slot, false if it already holds one
+         */
+        boolean abandon() {
+            if (state.compareAndSet(WAITING, ABANDONED)) {
+                queued.decrementAndGet();
+                waiters.remove(this);
+                return true;
+            }
+            return state.get() == ABANDONED;
+        }
+    }
+}
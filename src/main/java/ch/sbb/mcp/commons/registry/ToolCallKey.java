@@ -0,0 +1,171 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.core.McpTool;
+import org.springframework.aop.support.AopUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Identity of a tool call: the tool name and a canonical form of its arguments.
+ *
+ * <p>The canonical form does not depend on map ordering or on the numeric type a JSON number was
+ * parsed into ({@code 2}, {@code 2L} and {@code 2.0} are equal), so two calls that mean the same
+ * are equal. Strings are length-prefixed, which keeps the encoding unambiguous without escaping.
+ * The hash code is computed once, and equality compares the full canonical form, so hash
+ * collisions never mix up results.</p>
+ *
+ * <p>Arguments are expected to be JSON values (maps, lists, strings, numbers, booleans and
+ * {@code null}); other objects are represented by their class and {@code toString()}.</p>
+ */
+final class ToolCallKey {
+
+    private static final Comparator<Map.Entry<?, ?>> BY_KEY = Comparator.comparing(entry -> String.valueOf(entry.getKey()));
+
+    private final String toolName;
+    private final String arguments;
+    private final int hash;
+
+    private ToolCallKey(String toolName, String arguments) {
+        this.toolName = toolName;
+        this.arguments = arguments;
+        this.hash = 31 * toolName.hashCode() + arguments.hashCode();
+    }
+
+    static ToolCallKey of(String toolName, Map<String, Object> arguments) {
+        StringBuilder out = new StringBuilder(64);
+        append(out, arguments);
+        return new ToolCallKey(toolName, out.toString());
+    }
+
+    /**
+     * Creates the key of a call whose result may depend on the session, so that only calls of the
+     * same session are equal.
+     */
+    static ToolCallKey of(String toolName, Map<String, Object> arguments, String sessionId) {
+        StringBuilder out = new StringBuilder(64);
+        append(out, arguments);
+        out.append('@');
+        append(out, sessionId);
+        return new ToolCallKey(toolName, out.toString());
+    }
+
+    /**
+     * Returns whether calls of the tool may depend on the session, i.e. whether it overrides
+     * {@link McpTool#invoke(Map, Optional)}; such calls must only be shared within a session.
+     */
+    static boolean dependsOnSession(McpTool<?> tool) {
+        try {
+            Class<?> declaring = AopUtils.getTargetClass(tool)
+                    .getMethod("invoke", Map.class, Optional.class)
+                    .getDeclaringClass();
+            return declaring != McpTool.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    String toolName() {
+        return toolName;
+    }
+
+    private static void append(StringBuilder out, Object value) {
+        switch (value) {
+            case null -> out.append('n');
+            case String s -> appendString(out, s);
+            case Boolean b -> out.append(b ? 't' : 'f');
+            case Integer i -> appendLong(out, i);
+            case Long l -> appendLong(out, l);
+            case Short s -> appendLong(out, s);
+            case Byte b -> appendLong(out, b);
+            case Double d -> appendDouble(out, d);
+            case Float f -> appendDouble(out, f);
+            case BigInteger i -> appendDecimal(out, new BigDecimal(i));
+            case BigDecimal d -> appendDecimal(out, d);
+            case Map<?, ?> map -> appendMap(out, map);
+            case Collection<?> collection -> {
+                out.append('[');
+                for (Object element : collection) {
+                    append(out, element);
+                }
+                out.append(']');
+            }
+            case Object[] array -> {
+                out.append('[');
+                for (Object element : array) {
+                    append(out, element);
+                }
+                out.append(']');
+            }
+            default -> {
+                out.append('o');
+                appendString(out, value.getClass().getName());
+                appendString(out, value.toString());
+            }
+        }
+    }
+
+    private static void appendMap(StringBuilder out, Map<?, ?> map) {
+        Map.Entry<?, ?>[] entries = map.entrySet().toArray(new Map.Entry<?, ?>[0]);
+        Arrays.sort(entries, BY_KEY);
+        out.append('{');
+        for (Map.Entry<?, ?> entry : entries) {
+            appendString(out, String.valueOf(entry.getKey()));
+            append(out, entry.getValue());
+        }
+        out.append('}');
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('s').append(value.length()).append(':').append(value);
+    }
+
+    private static void appendLong(StringBuilder out, long value) {
+        out.append('i').append(value).append(';');
+    }
+
+    private static void appendDouble(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append('d').append(value).append(';');
+        } else if (value == Math.rint(value) && Math.abs(value) < 0x1p53) {
+            appendLong(out, (long) value);
+        } else {
+            appendDecimal(out, BigDecimal.valueOf(value));
+        }
+    }
+
+    private static void appendDecimal(StringBuilder out, BigDecimal value) {
+        BigDecimal normalized = value.stripTrailingZeros();
+        if (normalized.scale() <= 0 && normalized.precision() - normalized.scale() <= 18) {
+            appendLong(out, normalized.longValueExact());
+        } else {
+            out.append('d').append(normalized.toPlainString()).append(';');
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ToolCallKey other
+                && hash == other.hash
+                && toolName.equals(other.toolName)
+                && arguments.equals(other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toolName + arguments;
+    }
+}
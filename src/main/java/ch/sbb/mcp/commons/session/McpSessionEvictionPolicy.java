@@ -0,0 +1,21 @@
+package ch.sbb.mcp.commons.session;
+
+/**
+ * Admission policy applied by session stores when {@code mcp.session.max-sessions} is reached.
+ *
+ * <p>Configured via {@code mcp.session.eviction-policy}. Expired sessions are always purged
+ * first; the policy only decides what happens when the store is full of live sessions.</p>
+ *
+ * @see ch.sbb.mcp.commons.config.McpSessionConfig#getMaxSessions()
+ */
+public enum McpSessionEvictionPolicy {
+
+    /** Evict the least recently accessed session (by {@code lastAccessedAt}). */
+    LRU,
+
+    /** Evict the session that was created first, regardless of activity. */
+    OLDEST_FIRST,
+
+    /** Keep existing sessions and reject the new one. */
+    REJECT_NEW
+}
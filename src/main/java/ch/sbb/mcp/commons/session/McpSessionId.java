@@ -0,0 +1,154 @@
+package ch.sbb.mcp.commons.session;
+
+import java.util.UUID;
+
+/**
+ * Validated MCP session ID: a UUID in canonical lowercase form.
+ *
+ * <p>Session IDs arrive in the {@code Mcp-Session-Id} header and end up in Redis keys, so they are
+ * validated strictly: exactly 36 characters, lowercase hex digits with hyphens at positions 8, 13, 18
+ * and 23. Validation is a single pass over the characters without regular expressions or allocation.
+ * Parse the header once at the edge with {@link #parse(String)} and pass the result to
+ * {@link McpSessionStore#validateAndTouch(McpSessionId)}, which then skips its own validation.</p>
+ *
+ * <p>Instances hold the 128-bit value and the original string, so {@link #value()} does not
+ * allocate. Equality is based on the 128-bit value.</p>
+ */
+public final class McpSessionId {
+
+    private static final int LENGTH = 36;
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final String value;
+
+    private McpSessionId(long mostSignificantBits, long leastSignificantBits, String value) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.value = value;
+    }
+
+    /**
+     * Parses and validates a session ID.
+     *
+     * @param sessionId the session ID, e.g. from the {@code Mcp-Session-Id} header
+     * @return the validated session ID
+     * @throws IllegalArgumentException if the session ID is null, blank or not a lowercase UUID
+     */
+    public static McpSessionId parse(String sessionId) {
+        requireValid(sessionId);
+        long most = 0;
+        long least = 0;
+        int nibbles = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = hexValue(sessionId.charAt(i));
+            if (digit < 0) {
+                continue;
+            }
+            if (nibbles++ < 16) {
+                most = (most << 4) | digit;
+            } else {
+                least = (least << 4) | digit;
+            }
+        }
+        return new McpSessionId(most, least, sessionId);
+    }
+
+    /**
+     * Creates a session ID from a UUID.
+     *
+     * @param uuid the UUID
+     * @return the session ID
+     */
+    public static McpSessionId of(UUID uuid) {
+        return new McpSessionId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), uuid.toString());
+    }
+
+    /**
+     * Creates a random (version 4) session ID.
+     *
+     * @return a new session ID
+     */
+    public static McpSessionId random() {
+        return of(UUID.randomUUID());
+    }
+
+    /**
+     * Checks whether a string is a valid session ID, without allocating.
+     *
+     * @param sessionId the candidate session ID
+     * @return {@code true} if {@link #parse(String)} would accept it
+     */
+    public static boolean isValid(String sessionId) {
+        if (sessionId == null || sessionId.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = sessionId.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexValue(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates a session ID and returns it unchanged.
+     *
+     * @param sessionId the session ID
+     * @return the session ID
+     * @throws IllegalArgumentException if the session ID is null, blank or not a lowercase UUID
+     */
+    public static String requireValid(String sessionId) {
+        if (isValid(sessionId)) {
+            return sessionId;
+        }
+        if (sessionId == null || sessionId.isBlank()) {
+            throw new IllegalArgumentException("Session ID cannot be null or empty");
+        }
+        throw new IllegalArgumentException("Invalid session ID format. Expected UUID format: " + sessionId);
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the session ID in its canonical string form.
+     */
+    public String value() {
+        return value;
+    }
+
+    public UUID toUuid() {
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof McpSessionId id
+                && id.mostSignificantBits == mostSignificantBits
+                && id.leastSignificantBits == leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = mostSignificantBits ^ leastSignificantBits;
+        return (int) (hash >> 32) ^ (int) hash;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -2,6 +2,8 @@ package ch.sbb.mcp.commons.session;
 
 import reactor.core.publisher.Mono;
 
+import java.util.Objects;
+
 /**
  * Interface for managing MCP sessions with reactive operations.
  * 
@@ -15,6 +17,11 @@ import reactor.core.publisher.Mono;
  *   <li>{@link ch.sbb.mcp.commons.session.impl.RedisMcpSessionStore} - Distributed, Redis-backed storage</li>
  * </ul>
  * 
+ * <p><strong>Request handling:</strong> Use {@link #validateAndTouch(String)} to resolve the
+ * session of an incoming request. It replaces the {@code isValidSession}, {@code touchSession}
+ * and {@code getSession} sequence with a single store operation (one map lookup in memory,
+ * one round trip in Redis).
+ * 
  * <p><strong>Thread Safety:</strong> Implementations must be thread-safe and
  * support concurrent access from multiple threads.
  */
@@ -64,14 +71,43 @@ public interface McpSessionStore {
     /**
      * Checks if a session is valid (exists and not expired).
      * 
-     * <p>This is used for session validation on every request. A session is
-     * considered valid if it exists and has not exceeded its TTL.
+     * <p>A session is considered valid if it exists and has not exceeded its TTL.
+     * For per-request validation prefer {@link #validateAndTouch(String)}.
      * 
      * @param sessionId The unique session identifier
      * @return A {@link Mono} emitting {@code true} if valid, {@code false} otherwise
      */
     Mono<Boolean> isValidSession(String sessionId);
     
+    /**
+     * Validates a session, renews its TTL and returns it, as one operation.
+     * 
+     * <p>This is the primary per-request path. It is equivalent to {@link #isValidSession},
+     * followed by {@link #touchSession} and {@link #getSession} for valid sessions. The default
+     * implementation performs exactly that sequence; store implementations override it with a
+     * single lookup or round trip.
+     * 
+     * @param sessionId The unique session identifier
+     * @return A {@link Mono} emitting the touched session if it is valid, or empty otherwise
+     */
+    default Mono<McpSession> validateAndTouch(String sessionId) {
+        return isValidSession(sessionId)
+                .filter(Boolean::booleanValue)
+                .flatMap(valid -> touchSession(sessionId).then(getSession(sessionId)));
+    }
+    
+    /**
+     * Validates a session, renews its TTL and returns it, for a session ID already parsed at the edge.
+     * 
+     * <p>Equivalent to {@link #validateAndTouch(String)}; stores that check the ID format skip the check.
+     * 
+     * @param sessionId The parsed session identifier
+     * @return A {@link Mono} emitting the touched session if it is valid, or empty otherwise
+     */
+    default Mono<McpSession> validateAndTouch(McpSessionId sessionId) {
+        return validateAndTouch(sessionId.value());
+    }
+    
     /**
      * Gets the count of currently active sessions.
      * 
@@ -89,4 +125,44 @@ public interface McpSessionStore {
      * @return A {@link Mono} that completes when the save operation is done
      */
     Mono<Void> saveSession(McpSession session);
+
+    /**
+     * Sets a single attribute of a stored session.
+     *
+     * <p>Unlike {@link #saveSession}, only the given attribute is written, so concurrent updates
+     * of different attributes do not overwrite each other where the store supports it. The TTL
+     * is not renewed. The default implementation reads the session and saves it back.
+     *
+     * @param sessionId The unique session identifier
+     * @param key The attribute name
+     * @param value The attribute value, not {@code null}
+     * @return A {@link Mono} emitting {@code true} if the session exists, {@code false} otherwise
+     */
+    default Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        Objects.requireNonNull(value, "Attribute value cannot be null");
+        return getSession(sessionId)
+                .flatMap(session -> {
+                    session.attributes().put(key, value);
+                    return saveSession(session).thenReturn(true);
+                })
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Removes a single attribute of a stored session.
+     *
+     * <p>See {@link #setAttribute} for the write semantics.
+     *
+     * @param sessionId The unique session identifier
+     * @param key The attribute name
+     * @return A {@link Mono} emitting {@code true} if the session exists, {@code false} otherwise
+     */
+    default Mono<Boolean> removeAttribute(String sessionId, String key) {
+        return getSession(sessionId)
+                .flatMap(session -> {
+                    session.attributes().remove(key);
+                    return saveSession(session).thenReturn(true);
+                })
+                .defaultIfEmpty(false);
+    }
 }
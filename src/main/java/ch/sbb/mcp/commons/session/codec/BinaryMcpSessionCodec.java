@@ -0,0 +1,465 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compact binary {@link McpSessionCodec} using varints and a fixed type registry.
+ *
+ * <p><strong>Layout (version 1):</strong></p>
+ * <pre>
+ * magic (0xC5) | version (1)
+ * sessionId      : string
+ * createdAt      : instant
+ * lastAccessedAt : instant
+ * attributeCount : varint, followed by (key: string, value: tagged value) pairs
+ *
+ * string  = varint byte length + UTF-8 bytes
+ * instant = zigzag varlong epoch seconds + varint nanos
+ * value   = tag byte + payload, see the TAG_* constants
+ * </pre>
+ *
+ * <p>Attribute values are limited to the types in the registry: {@code null}, {@link Boolean},
+ * {@link Byte}, {@link Short}, {@link Integer}, {@link Long}, {@link Float}, {@link Double},
+ * {@link String}, {@link Instant}, {@link BigInteger}, {@link BigDecimal}, {@code byte[]},
+ * {@link List} and {@link Map} with {@link String} keys (nested up to {@value #MAX_DEPTH} levels).
+ * Lists decode as {@link ArrayList} and maps as {@link LinkedHashMap}. No class names are
+ * written or read, so decoding cannot instantiate arbitrary types.</p>
+ *
+ * <p>The magic byte is never the first byte of a JSON document, so payloads can be told apart
+ * from the {@link JsonMcpSessionCodec} format by {@link #canDecode(byte[])}.</p>
+ */
+public class BinaryMcpSessionCodec implements McpSessionCodec {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 1;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_TRUE = 1;
+    static final byte TAG_FALSE = 2;
+    static final byte TAG_BYTE = 3;
+    static final byte TAG_SHORT = 4;
+    static final byte TAG_INT = 5;
+    static final byte TAG_LONG = 6;
+    static final byte TAG_FLOAT = 7;
+    static final byte TAG_DOUBLE = 8;
+    static final byte TAG_STRING = 9;
+    static final byte TAG_INSTANT = 10;
+    static final byte TAG_BIG_INTEGER = 11;
+    static final byte TAG_BIG_DECIMAL = 12;
+    static final byte TAG_BYTES = 13;
+    static final byte TAG_LIST = 14;
+    static final byte TAG_MAP = 15;
+
+    /** Maximum nesting of lists and maps inside an attribute value. */
+    static final int MAX_DEPTH = 32;
+
+    @Override
+    public byte[] encode(McpSession session) {
+        Output out = new Output(64 + 32 * session.attributes().size());
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeString(session.sessionId());
+        out.writeInstant(session.createdAt());
+        out.writeInstant(session.lastAccessedAt().get());
+
+        // Snapshot: the attribute map may change concurrently while encoding
+        Object[] attributes = session.attributes().entrySet().toArray();
+        out.writeVarInt(attributes.length);
+        for (Object element : attributes) {
+            Map.Entry<?, ?> attribute = (Map.Entry<?, ?>) element;
+            out.writeString((String) attribute.getKey());
+            writeValue(out, attribute.getValue(), 0);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public McpSession decode(byte[] bytes) {
+        if (!canDecode(bytes)) {
+            throw new McpSessionCodecException("Not a binary session payload");
+        }
+        try {
+            return decodePayload(new Input(bytes));
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new McpSessionCodecException("Malformed binary session payload", e);
+        }
+    }
+
+    private static McpSession decodePayload(Input in) {
+        in.readByte();
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new McpSessionCodecException("Unsupported binary session version: " + version);
+        }
+
+        String sessionId = in.readString();
+        Instant createdAt = in.readInstant();
+        Instant lastAccessedAt = in.readInstant();
+        int count = in.readLength();
+        ConcurrentHashMap<String, Object> attributes = new ConcurrentHashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            String key = in.readString();
+            Object value = readValue(in, 0);
+            // ConcurrentHashMap rejects null values; a null attribute is equivalent to an absent one
+            if (value != null) {
+                attributes.put(key, value);
+            }
+        }
+        if (in.remaining() != 0) {
+            throw new McpSessionCodecException("Trailing bytes after binary session: " + in.remaining());
+        }
+        return new McpSession(sessionId, createdAt, new AtomicReference<>(lastAccessedAt), attributes);
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Encodes the value as {@code magic | version | tagged value}.
+     */
+    @Override
+    public byte[] encodeAttribute(Object value) {
+        Output out = new Output(32);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeValue(out, value, 0);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object decodeAttribute(byte[] bytes) {
+        if (!canDecodeAttribute(bytes)) {
+            throw new McpSessionCodecException("Not a binary attribute payload");
+        }
+        try {
+            Input in = new Input(bytes);
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new McpSessionCodecException("Unsupported binary attribute version: " + version);
+            }
+            Object value = readValue(in, 0);
+            if (in.remaining() != 0) {
+                throw new McpSessionCodecException("Trailing bytes after binary attribute: " + in.remaining());
+            }
+            return value;
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new McpSessionCodecException("Malformed binary attribute payload", e);
+        }
+    }
+
+    @Override
+    public boolean canDecodeAttribute(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == MAGIC;
+    }
+
+    private static void writeValue(Output out, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new McpSessionCodecException("Session attribute nested deeper than " + MAX_DEPTH + " levels");
+        }
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(TAG_STRING);
+            out.writeString(s);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TAG_INT);
+            out.writeVarLong(zigzag(i));
+        } else if (value instanceof Long l) {
+            out.writeByte(TAG_LONG);
+            out.writeVarLong(zigzag(l));
+        } else if (value instanceof Double d) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeFixedLong(Double.doubleToRawLongBits(d));
+        } else if (value instanceof Instant instant) {
+            out.writeByte(TAG_INSTANT);
+            out.writeInstant(instant);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            Object[] elements = list.toArray();
+            out.writeVarInt(elements.length);
+            for (Object element : elements) {
+                writeValue(out, element, depth + 1);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(TAG_MAP);
+            Object[] entries = map.entrySet().toArray();
+            out.writeVarInt(entries.length);
+            for (Object element : entries) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new McpSessionCodecException("Session attribute maps must have String keys, got: "
+                        + (entry.getKey() == null ? "null" : entry.getKey().getClass().getName()));
+                }
+                out.writeString(key);
+                writeValue(out, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof Float f) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFixedInt(Float.floatToRawIntBits(f));
+        } else if (value instanceof Short s) {
+            out.writeByte(TAG_SHORT);
+            out.writeVarLong(zigzag(s));
+        } else if (value instanceof Byte b) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte(b);
+        } else if (value instanceof BigInteger bigInteger) {
+            out.writeByte(TAG_BIG_INTEGER);
+            out.writeString(bigInteger.toString());
+        } else if (value instanceof BigDecimal bigDecimal) {
+            out.writeByte(TAG_BIG_DECIMAL);
+            out.writeString(bigDecimal.toString());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(TAG_BYTES);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes);
+        } else {
+            throw new McpSessionCodecException("Unsupported session attribute type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(Input in, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new McpSessionCodecException("Session attribute nested deeper than " + MAX_DEPTH + " levels");
+        }
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return (short) unzigzag(in.readVarLong());
+            case TAG_INT:
+                return (int) unzigzag(in.readVarLong());
+            case TAG_LONG:
+                return unzigzag(in.readVarLong());
+            case TAG_FLOAT:
+                return Float.intBitsToFloat(in.readFixedInt());
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(in.readFixedLong());
+            case TAG_STRING:
+                return in.readString();
+            case TAG_INSTANT:
+                return in.readInstant();
+            case TAG_BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case TAG_BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case TAG_BYTES:
+                return in.readBytes(in.readLength());
+            case TAG_LIST: {
+                int size = in.readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, depth + 1));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                int size = in.readLength();
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    String key = in.readString();
+                    map.put(key, readValue(in, depth + 1));
+                }
+                return map;
+            }
+            default:
+                throw new McpSessionCodecException("Unknown value tag in binary session: " + tag);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable output buffer.
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFixedInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeFixedLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            writeBytes(utf8);
+        }
+
+        void writeInstant(Instant instant) {
+            writeVarLong(zigzag(instant.getEpochSecond()));
+            writeVarInt(instant.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * Bounds-checked input reader; malformed payloads fail with {@link McpSessionCodecException}.
+     */
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+
+        private void require(int count) {
+            if (count > remaining()) {
+                throw new McpSessionCodecException("Truncated binary session payload");
+            }
+        }
+
+        byte readByte() {
+            require(1);
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new McpSessionCodecException("Malformed varint in binary session payload");
+        }
+
+        /**
+         * Reads a length or element count, rejecting values that cannot fit in the remaining payload.
+         */
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > remaining()) {
+                throw new McpSessionCodecException("Invalid length in binary session payload: " + length);
+            }
+            return (int) length;
+        }
+
+        int readFixedInt() {
+            require(4);
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readFixedLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Instant readInstant() {
+            long seconds = unzigzag(readVarLong());
+            long nanos = readVarLong();
+            if (nanos < 0 || nanos > 999_999_999L) {
+                throw new McpSessionCodecException("Invalid instant in binary session payload");
+            }
+            return Instant.ofEpochSecond(seconds, nanos);
+        }
+    }
+}
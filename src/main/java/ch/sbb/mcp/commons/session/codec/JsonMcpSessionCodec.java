@@ -0,0 +1,113 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Jackson JSON codec with polymorphic type information ({@code DefaultTyping.NON_FINAL}).
+ *
+ * <p>This is the format the Redis session store has always written. It stores class names next
+ * to every non-final value, which makes payloads large and slow to parse. It remains available
+ * to read existing sessions and as the write format during a rolling migration to
+ * {@link BinaryMcpSessionCodec}.</p>
+ */
+public class JsonMcpSessionCodec implements McpSessionCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonMcpSessionCodec() {
+        this.objectMapper = createObjectMapper();
+    }
+
+    /**
+     * Creates the object mapper used for the legacy session format.
+     *
+     * @return a mapper with Java time support and polymorphic type handling
+     */
+    static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.findAndRegisterModules();
+
+        // Enable polymorphic type handling for McpSession
+        objectMapper.activateDefaultTyping(
+            objectMapper.getPolymorphicTypeValidator(),
+            ObjectMapper.DefaultTyping.NON_FINAL,
+            JsonTypeInfo.As.PROPERTY
+        );
+        return objectMapper;
+    }
+
+    @Override
+    public byte[] encode(McpSession session) {
+        try {
+            return objectMapper.writeValueAsBytes(session);
+        } catch (IOException e) {
+            throw new McpSessionCodecException("Failed to encode session as JSON: " + session.sessionId(), e);
+        }
+    }
+
+    @Override
+    public McpSession decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, McpSession.class);
+        } catch (IOException e) {
+            throw new McpSessionCodecException("Failed to decode JSON session", e);
+        }
+    }
+
+    /**
+     * Accepts payloads that start with a JSON object or array, ignoring leading whitespace.
+     */
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b == '{' || b == '[') {
+                return true;
+            }
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public byte[] encodeAttribute(Object value) {
+        try {
+            return objectMapper.writerFor(Object.class).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new McpSessionCodecException("Failed to encode attribute as JSON", e);
+        }
+    }
+
+    @Override
+    public Object decodeAttribute(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            throw new McpSessionCodecException("Failed to decode JSON attribute", e);
+        }
+    }
+
+    /**
+     * Accepts payloads whose first byte can start a JSON value. Attribute values are written
+     * without leading whitespace.
+     */
+    @Override
+    public boolean canDecodeAttribute(byte[] bytes) {
+        if (bytes.length == 0) {
+            return false;
+        }
+        byte first = bytes[0];
+        return first == '{' || first == '[' || first == '"' || first == '-'
+                || (first >= '0' && first <= '9')
+                || first == 't' || first == 'f' || first == 'n';
+    }
+}
@@ -0,0 +1,74 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+
+/**
+ * Converts {@link McpSession} instances to and from their stored byte representation.
+ *
+ * <p>Codecs are pluggable: the Redis session store writes with one codec and reads with the
+ * first codec whose {@link #canDecode(byte[])} accepts the payload, so the storage format can
+ * be changed without invalidating existing sessions. The attribute methods do the same for single
+ * attribute values, which the hash session layout stores in separate fields.</p>
+ *
+ * <p><strong>Implementations:</strong></p>
+ * <ul>
+ *   <li>{@link JsonMcpSessionCodec} - Jackson JSON with embedded type information (legacy format)</li>
+ *   <li>{@link BinaryMcpSessionCodec} - Compact, versioned binary layout with a fixed type registry</li>
+ * </ul>
+ *
+ * <p><strong>Thread Safety:</strong> Implementations must be thread-safe.</p>
+ */
+public interface McpSessionCodec {
+
+    /**
+     * Encodes a session.
+     *
+     * @param session the session to encode
+     * @return the encoded session
+     * @throws McpSessionCodecException if the session cannot be encoded
+     */
+    byte[] encode(McpSession session);
+
+    /**
+     * Decodes a session.
+     *
+     * @param bytes the encoded session
+     * @return the decoded session
+     * @throws McpSessionCodecException if the payload is malformed
+     */
+    McpSession decode(byte[] bytes);
+
+    /**
+     * Checks whether the payload is in this codec's format, without fully decoding it.
+     *
+     * @param bytes the encoded session
+     * @return {@code true} if {@link #decode(byte[])} should be used for this payload
+     */
+    boolean canDecode(byte[] bytes);
+
+    /**
+     * Encodes a single attribute value, as stored in a field of the Redis hash session layout.
+     *
+     * @param value the attribute value
+     * @return the encoded value
+     * @throws McpSessionCodecException if the value cannot be encoded
+     */
+    byte[] encodeAttribute(Object value);
+
+    /**
+     * Decodes a single attribute value.
+     *
+     * @param bytes the encoded value
+     * @return the decoded value
+     * @throws McpSessionCodecException if the payload is malformed
+     */
+    Object decodeAttribute(byte[] bytes);
+
+    /**
+     * Checks whether an encoded attribute value is in this codec's format.
+     *
+     * @param bytes the encoded value
+     * @return {@code true} if {@link #decodeAttribute(byte[])} should be used for this payload
+     */
+    boolean canDecodeAttribute(byte[] bytes);
+}
@@ -0,0 +1,15 @@
+package ch.sbb.mcp.commons.session.codec;
+
+/**
+ * Thrown when an {@link McpSessionCodec} cannot encode or decode a session.
+ */
+public class McpSessionCodecException extends RuntimeException {
+
+    public McpSessionCodecException(String message) {
+        super(message);
+    }
+
+    public McpSessionCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
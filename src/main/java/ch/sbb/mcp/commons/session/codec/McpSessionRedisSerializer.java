@@ -0,0 +1,110 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+
+/**
+ * {@link RedisSerializer} for {@link McpSession} backed by {@link McpSessionCodec}s.
+ *
+ * <p>Sessions are always written with the configured write codec. When reading, the first codec
+ * (write codec first, then the additional read codecs in order) that
+ * {@linkplain McpSessionCodec#canDecode(byte[]) recognizes} the payload decodes it. This allows a
+ * rolling migration between formats:</p>
+ * <ol>
+ *   <li>Deploy with {@code mcp.session.codec=json}: all instances can already read binary payloads</li>
+ *   <li>Switch to {@code mcp.session.codec=binary}: new writes use the binary format, existing JSON
+ *       sessions stay readable until they expire or are rewritten</li>
+ * </ol>
+ */
+public class McpSessionRedisSerializer implements RedisSerializer<McpSession> {
+
+    private final McpSessionCodec writeCodec;
+    private final List<McpSessionCodec> readCodecs;
+
+    /**
+     * @param writeCodec codec used for writing (and tried first for reading)
+     * @param additionalReadCodecs further codecs accepted when reading
+     */
+    public McpSessionRedisSerializer(McpSessionCodec writeCodec, McpSessionCodec... additionalReadCodecs) {
+        this.writeCodec = writeCodec;
+        this.readCodecs = List.of(additionalReadCodecs);
+    }
+
+    @Override
+    public byte[] serialize(McpSession session) throws SerializationException {
+        if (session == null) {
+            return null;
+        }
+        try {
+            return writeCodec.encode(session);
+        } catch (McpSessionCodecException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public McpSession deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (writeCodec.canDecode(bytes)) {
+                return writeCodec.decode(bytes);
+            }
+            for (McpSessionCodec codec : readCodecs) {
+                if (codec.canDecode(bytes)) {
+                    return codec.decode(bytes);
+                }
+            }
+        } catch (McpSessionCodecException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+        throw new SerializationException("No session codec recognizes the stored payload");
+    }
+
+    /**
+     * Encodes a single attribute value with the write codec.
+     *
+     * @param value the attribute value
+     * @return the encoded value
+     * @throws SerializationException if the value cannot be encoded
+     */
+    public byte[] serializeAttribute(Object value) throws SerializationException {
+        try {
+            return writeCodec.encodeAttribute(value);
+        } catch (McpSessionCodecException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes a single attribute value with the first codec that recognizes it.
+     *
+     * @param bytes the encoded value
+     * @return the decoded value
+     * @throws SerializationException if no codec recognizes the value or it is malformed
+     */
+    public Object deserializeAttribute(byte[] bytes) throws SerializationException {
+        try {
+            if (writeCodec.canDecodeAttribute(bytes)) {
+                return writeCodec.decodeAttribute(bytes);
+            }
+            for (McpSessionCodec codec : readCodecs) {
+                if (codec.canDecodeAttribute(bytes)) {
+                    return codec.decodeAttribute(bytes);
+                }
+            }
+        } catch (McpSessionCodecException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+        throw new SerializationException("No session codec recognizes the stored attribute");
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return McpSession.class;
+    }
+}
@@ -1,12 +1,14 @@
 package ch.sbb.mcp.commons.session.config;
 
 import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.JsonMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionRedisSerializer;
 import ch.sbb.mcp.commons.session.health.McpSessionHealthIndicator;
+import ch.sbb.mcp.commons.session.impl.FileMcpSessionStore;
 import ch.sbb.mcp.commons.session.impl.InMemoryMcpSessionStore;
 import ch.sbb.mcp.commons.session.impl.RedisMcpSessionStore;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
@@ -20,69 +22,88 @@ import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Locale;
 
 /**
  * Auto-configuration for MCP session management.
  * 
  * <p>Automatically registers the appropriate {@link ch.sbb.mcp.commons.session.McpSessionStore}
  * implementation based on the availability of Redis Dependencies and configuration.
+ * Without Redis, {@code mcp.session.store} selects {@code memory} (default) or {@code file}
+ * ({@link FileMcpSessionStore}, sessions survive restarts).
  * 
  * <p>Also provides necessary infrastructure beans like Redis templates, Circuit Breakers,
  * and Retry polices if they are needed.
  */
 @AutoConfiguration
-@Import({InMemoryMcpSessionStore.class, RedisMcpSessionStore.class})
+@Import({InMemoryMcpSessionStore.class, FileMcpSessionStore.class, RedisMcpSessionStore.class})
 public class McpSessionAutoConfiguration {
 
     private static final Logger log = LoggerFactory.getLogger(McpSessionAutoConfiguration.class);
 
     /**
-     * Creates a ReactiveRedisTemplate specifically for McpSession objects.
+     * Creates the codec used to write sessions to Redis.
+     * 
+     * <p>Selected via {@code mcp.session.codec}: {@code json} (default, the legacy format with
+     * embedded type information) or {@code binary} (compact {@link BinaryMcpSessionCodec}).
+     * Both formats are always readable, so the setting can be switched in a rolling deployment.
+     * Define a {@link McpSessionCodec} bean to plug in a custom format.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public McpSessionCodec mcpSessionCodec(@Value("${mcp.session.codec:json}") String codec) {
+        return switch (codec.toLowerCase(Locale.ROOT)) {
+            case "json" -> new JsonMcpSessionCodec();
+            case "binary" -> new BinaryMcpSessionCodec();
+            default -> throw new IllegalArgumentException(
+                "Unknown mcp.session.codec '" + codec + "', expected 'json' or 'binary'");
+        };
+    }
+    
+    /**
+     * Creates the serializer for sessions and session attributes stored in Redis.
      * 
-     * <p>Uses Jackson serialization with polymorphic type handling to preserve
-     * type information during serialization/deserialization.
+     * <p>Values are written with the configured {@link McpSessionCodec} and read with whichever of
+     * the configured, binary and JSON codecs recognizes the stored payload.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public McpSessionRedisSerializer mcpSessionRedisSerializer(McpSessionCodec sessionCodec) {
+        return new McpSessionRedisSerializer(sessionCodec, new BinaryMcpSessionCodec(), new JsonMcpSessionCodec());
+    }
+    
+    /**
+     * Creates a ReactiveRedisTemplate specifically for McpSession objects.
      */
     @Bean
     @ConditionalOnBean(ReactiveRedisConnectionFactory.class)
     public ReactiveRedisTemplate<String, McpSession> reactiveMcpSessionRedisTemplate(
             ReactiveRedisConnectionFactory connectionFactory,
+            McpSessionCodec sessionCodec,
+            McpSessionRedisSerializer sessionSerializer,
             @Value("${mcp.session.ttl:PT1H}") Duration sessionTtl) {
         
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.findAndRegisterModules();
-        
-        // Enable polymorphic type handling for McpSession
-        objectMapper.activateDefaultTyping(
-            objectMapper.getPolymorphicTypeValidator(),
-            ObjectMapper.DefaultTyping.NON_FINAL,
-            com.fasterxml.jackson.annotation.JsonTypeInfo.As.PROPERTY
-        );
-        
-        Jackson2JsonRedisSerializer<McpSession> jsonSerializer =
-            new Jackson2JsonRedisSerializer<>(objectMapper, McpSession.class);
-        
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
         
         RedisSerializationContext<String, McpSession> context = RedisSerializationContext
             .<String, McpSession>newSerializationContext(stringSerializer)
             .key(stringSerializer)
-            .value(jsonSerializer)
+            .value(sessionSerializer)
             .hashKey(stringSerializer)
-            .hashValue(jsonSerializer)
+            .hashValue(sessionSerializer)
             .build();
         
-        log.info("Created ReactiveRedisTemplate for McpSession with TTL: {}", sessionTtl);
+        log.info("Created ReactiveRedisTemplate for McpSession with TTL: {}, codec: {}",
+            sessionTtl, sessionCodec.getClass().getSimpleName());
         return new ReactiveRedisTemplate<>(connectionFactory, context);
     }
     
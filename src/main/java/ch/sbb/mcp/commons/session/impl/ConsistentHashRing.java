@@ -0,0 +1,60 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring with virtual nodes.
+ *
+ * <p>Each node is placed on the ring {@code virtualNodesPerNode} times, at the hashes of
+ * {@code "<name>#<i>"}. A key belongs to the first position at or after its own hash. Adding or
+ * removing one of {@code n} nodes therefore only moves about {@code 1/n} of the keys. Hashes are
+ * FNV-1a over the UTF-8 bytes followed by a 64-bit finalizer, so every instance computes the same
+ * placement.</p>
+ *
+ * @param <T> node type
+ */
+final class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+    /**
+     * @param nodes nodes by unique, stable name (e.g. {@code host:port})
+     * @param virtualNodesPerNode positions per node; more positions spread keys more evenly
+     */
+    ConsistentHashRing(Map<String, T> nodes, int virtualNodesPerNode) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one node");
+        }
+        if (virtualNodesPerNode < 1) {
+            throw new IllegalArgumentException("Virtual nodes per node must be at least 1: " + virtualNodesPerNode);
+        }
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodesPerNode; i++) {
+                ring.putIfAbsent(hash(name + '#' + i), node);
+            }
+        });
+    }
+
+    T nodeFor(String key) {
+        Map.Entry<Long, T> position = ring.ceilingEntry(hash(key));
+        return position != null ? position.getValue() : ring.firstEntry().getValue();
+    }
+
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        // FNV alone clusters similar keys; the finalizer spreads them over the whole ring
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
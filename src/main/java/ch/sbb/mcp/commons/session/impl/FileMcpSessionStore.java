@@ -0,0 +1,273 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
+import ch.sbb.mcp.commons.session.McpSessionId;
+import ch.sbb.mcp.commons.session.McpSessionStore;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * File-backed implementation of {@link McpSessionStore} for single-instance deployments that must
+ * keep sessions across restarts.
+ *
+ * <p>Sessions are held and served by an {@link InMemoryMcpSessionStore}, so reads, expiry and
+ * capacity limits behave exactly as there. In addition, every change is appended to a
+ * {@link SessionLog} of memory-mapped segment files in {@code mcp.session.file.directory}: the
+ * encoded session ({@link BinaryMcpSessionCodec}) on create, save and attribute updates, and small
+ * fixed-size records for touches and deletes. An append is a copy into mapped memory, so writes stay
+ * within the latency of the in-memory store.</p>
+ *
+ * <p>Sessions removed by expiry or eviction are logged as deletes like explicitly deleted ones. On
+ * startup the log is replayed, sessions that expired meanwhile are dropped, the rest are restored
+ * without applying the capacity limit again, and the log is compacted into a single snapshot. While
+ * running, the log is compacted every {@code mcp.session.file.compaction-interval} once at least
+ * half of it is superseded. The snapshot is encoded without blocking appends; sessions that cannot
+ * be encoded are left out of it and counted. Records survive a crash of the process; they are
+ * forced to disk on compaction and shutdown.</p>
+ *
+ * <p><strong>Activation:</strong> Set {@code mcp.session.store=file}. Like the in-memory store, this
+ * store is only created when no {@link RedisConnectionFactory} is available.</p>
+ *
+ * <p><strong>Limitations:</strong> Sessions are not shared across instances, and the directory
+ * must not be used by two instances at once. Attributes changed directly on an {@link McpSession}
+ * are only persisted with the next {@link #saveSession}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.session.store", havingValue = "file")
+@ConditionalOnMissingBean(RedisConnectionFactory.class)
+public class FileMcpSessionStore implements McpSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileMcpSessionStore.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** Log growth since the last compaction below which compaction is skipped. */
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private final InMemoryMcpSessionStore sessions;
+    private final SessionLog sessionLog;
+    private final McpSessionCodec codec = new BinaryMcpSessionCodec();
+    private final Counter writeFailures;
+    private final Counter snapshotSkipped;
+
+    /**
+     * Creates an unbounded store.
+     *
+     * @param directory directory of the session log
+     * @param ttl session time-to-live
+     * @param meterRegistry registry for session metrics
+     */
+    public FileMcpSessionStore(Path directory, Duration ttl, MeterRegistry meterRegistry) {
+        this(directory.toString(), ttl, 0, McpSessionEvictionPolicy.LRU, DEFAULT_SEGMENT_SIZE, meterRegistry);
+    }
+
+    @Autowired
+    public FileMcpSessionStore(
+            @Value("${mcp.session.file.directory:./mcp-sessions}") String directory,
+            @Value("${mcp.session.ttl:PT1H}") Duration ttl,
+            @Value("${mcp.session.max-sessions:1000}") int maxSessions,
+            @Value("${mcp.session.eviction-policy:LRU}") McpSessionEvictionPolicy evictionPolicy,
+            @Value("${mcp.session.file.segment-size:67108864}") int segmentSize,
+            MeterRegistry meterRegistry) {
+        this.sessions = new InMemoryMcpSessionStore(ttl, maxSessions, evictionPolicy, meterRegistry);
+        this.sessionLog = new SessionLog(Path.of(directory), segmentSize);
+
+        this.writeFailures = Counter.builder("mcp.sessions.file.write-failures")
+                .description("Session changes that could not be appended to the session log")
+                .tag("store", "file")
+                .register(meterRegistry);
+
+        this.snapshotSkipped = Counter.builder("mcp.sessions.file.snapshot-skipped")
+                .description("Sessions left out of a compaction snapshot because they could not be encoded")
+                .tag("store", "file")
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.sessions.file.log-bytes", sessionLog, SessionLog::bytes)
+                .description("Size of the session log, including superseded records")
+                .tag("store", "file")
+                .register(meterRegistry);
+
+        long started = System.nanoTime();
+        int recovered = recover(ttl);
+        sessions.setRemovalListener(this::persistDelete);
+        log.info("FileMcpSessionStore initialized in {} with TTL: {}, recovered {} sessions in {} ms",
+                directory, ttl, recovered, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Loads the unexpired sessions from the log and compacts it.
+     */
+    private int recover(Duration ttl) {
+        long oldestAccess = System.currentTimeMillis() - ttl.toMillis();
+        Collection<McpSession> recovered = sessionLog.replay(codec, oldestAccess).values();
+        recovered.forEach(sessions::restore);
+        compact();
+        return recovered.size();
+    }
+
+    /**
+     * Rewrites the session log as a snapshot of the live sessions.
+     *
+     * <p>Sessions are encoded before the log is locked; changes appended meanwhile are carried over
+     * after the snapshot. A session that cannot be encoded is left out and counted in
+     * {@code mcp.sessions.file.snapshot-skipped}: it stays available in memory, but is lost on restart
+     * unless it is saved again.</p>
+     */
+    public void compact() {
+        SessionLog.Position since = sessionLog.position();
+        List<byte[]> snapshot = new ArrayList<>();
+        for (McpSession session : sessions.snapshot()) {
+            try {
+                byte[] encoded = codec.encode(session);
+                if (encoded.length <= sessionLog.maxPayloadSize()) {
+                    snapshot.add(encoded);
+                    continue;
+                }
+                log.warn("Session {} left out of the snapshot: {} bytes exceed the segment size",
+                        session.sessionId(), encoded.length);
+            } catch (RuntimeException e) {
+                log.warn("Session {} left out of the snapshot: {}", session.sessionId(), e.getMessage());
+            }
+            snapshotSkipped.increment();
+        }
+        sessionLog.compact(since, snapshot);
+    }
+
+    /**
+     * Scheduled compaction, skipped while less than half of the log is superseded.
+     */
+    @Scheduled(fixedDelayString = "${mcp.session.file.compaction-interval:60000}")
+    public void compactIfNeeded() {
+        if (sessionLog.needsCompaction(MIN_COMPACTION_BYTES)) {
+            compact();
+        }
+    }
+
+    /**
+     * Scheduled cleanup of expired sessions; see {@link InMemoryMcpSessionStore#cleanupExpiredSessions()}.
+     */
+    @Scheduled(fixedDelayString = "${mcp.session.cleanup-interval:300000}")
+    public void cleanupExpiredSessions() {
+        sessions.cleanupExpiredSessions();
+    }
+
+    /**
+     * Writes the session log to disk and closes it.
+     */
+    @PreDestroy
+    public void close() {
+        sessionLog.close();
+    }
+
+    @Override
+    public Mono<McpSession> createSession() {
+        return sessions.createSession().doOnNext(this::persist);
+    }
+
+    @Override
+    public Mono<McpSession> getSession(String sessionId) {
+        return sessions.getSession(sessionId);
+    }
+
+    @Override
+    public Mono<Void> touchSession(String sessionId) {
+        return sessions.touchSession(sessionId)
+                .then(Mono.fromRunnable(() -> persistTouch(sessionId, System.currentTimeMillis())));
+    }
+
+    @Override
+    public Mono<Void> deleteSession(String sessionId) {
+        return sessions.deleteSession(sessionId)
+                .then(Mono.fromRunnable(() -> persistDelete(sessionId)));
+    }
+
+    @Override
+    public Mono<Boolean> isValidSession(String sessionId) {
+        return sessions.isValidSession(sessionId);
+    }
+
+    @Override
+    public Mono<McpSession> validateAndTouch(String sessionId) {
+        return sessions.validateAndTouch(sessionId)
+                .doOnNext(session -> persistTouch(sessionId, session.lastAccessedAt().get().toEpochMilli()));
+    }
+
+    @Override
+    public Mono<Long> getActiveSessionCount() {
+        return sessions.getActiveSessionCount();
+    }
+
+    @Override
+    public Mono<Void> saveSession(McpSession session) {
+        return sessions.saveSession(session).then(Mono.fromRunnable(() -> persist(session)));
+    }
+
+    @Override
+    public Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        Objects.requireNonNull(value, "Attribute value cannot be null");
+        return sessions.setAttribute(sessionId, key, value).flatMap(found -> persistIfFound(sessionId, found));
+    }
+
+    @Override
+    public Mono<Boolean> removeAttribute(String sessionId, String key) {
+        return sessions.removeAttribute(sessionId, key).flatMap(found -> persistIfFound(sessionId, found));
+    }
+
+    private Mono<Boolean> persistIfFound(String sessionId, boolean found) {
+        if (!found) {
+            return Mono.just(false);
+        }
+        return sessions.getSession(sessionId).doOnNext(this::persist).thenReturn(true);
+    }
+
+    private void persist(McpSession session) {
+        append(() -> sessionLog.put(codec.encode(session)));
+    }
+
+    private void persistDelete(String sessionId) {
+        if (McpSessionId.isValid(sessionId)) {
+            append(() -> sessionLog.delete(McpSessionId.parse(sessionId)));
+        }
+    }
+
+    private void persistTouch(String sessionId, long lastAccessMillis) {
+        if (McpSessionId.isValid(sessionId)) {
+            append(() -> sessionLog.touch(McpSessionId.parse(sessionId), lastAccessMillis));
+        }
+    }
+
+    /**
+     * Appends to the session log. A failed append is counted and logged but does not fail the
+     * operation, which has already been applied in memory.
+     */
+    private void append(Runnable write) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            writeFailures.increment();
+            log.error("Failed to append to session log: {}", e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package ch.sbb.mcp.commons.session.impl;
 
+import ch.sbb.mcp.commons.exception.McpException;
 import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
 import ch.sbb.mcp.commons.session.McpSessionStore;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -16,9 +20,14 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * In-memory implementation of {@link McpSessionStore} for single-instance deployments.
@@ -28,33 +37,89 @@ import java.util.concurrent.atomic.AtomicReference;
  * not available (fallback implementation).
  * 
  * <p><strong>Activation:</strong> This bean is created only when {@link RedisConnectionFactory}
- * is not available in the application context.
+ * is not available in the application context, unless {@code mcp.session.store=file} selects the
+ * {@link FileMcpSessionStore}.
+ * 
+ * <p><strong>Expiry:</strong> Sessions are tracked in a sharded, expiry-ordered
+ * {@link SessionExpiryIndex}. The cleanup job only visits sessions whose expiry bucket is due,
+ * so its cost scales with the number of expired sessions rather than the total. Touching a
+ * session is O(1) and does not allocate.
+ * 
+ * <p><strong>Capacity:</strong> When {@code mcp.session.max-sessions} is reached, expired
+ * sessions are purged first and then the {@link McpSessionEvictionPolicy} configured via
+ * {@code mcp.session.eviction-policy} either evicts a live session or rejects the new one with
+ * {@link McpException#sessionLimitReached(int)}. The limit is a soft bound: concurrent
+ * creations may overshoot it by at most the number of concurrent callers. LRU victims are
+ * taken from the expiry index and are therefore exact to one expiry bucket ({@code ttl / 64}).
  * 
  * <p><strong>Limitations:</strong>
  * <ul>
  *   <li>Sessions are not shared across multiple application instances</li>
  *   <li>Sessions are lost on application restart</li>
- *   <li>Memory usage grows with session count (bounded by TTL and cleanup)</li>
+ *   <li>Memory usage grows with session count (bounded by {@code max-sessions}, TTL and cleanup)</li>
  * </ul>
  * 
  * <p><strong>Performance:</strong> All operations complete in < 1ms (P99).
  */
 @Component
 @ConditionalOnMissingBean(RedisConnectionFactory.class)
+@ConditionalOnProperty(name = "mcp.session.store", havingValue = "memory", matchIfMissing = true)
 public class InMemoryMcpSessionStore implements McpSessionStore {
     
     private static final Logger log = LoggerFactory.getLogger(InMemoryMcpSessionStore.class);
+
+    /** Number of independently locked shards of the expiry index. */
+    private static final int EXPIRY_INDEX_SHARDS = 16;
     
-    private final ConcurrentHashMap<String, McpSession> sessions = new ConcurrentHashMap<>();
-    private final Duration ttl;
+    private final ConcurrentHashMap<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+    private final SessionExpiryIndex expiryIndex;
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final McpSessionEvictionPolicy evictionPolicy;
+    /** Creation order, maintained only for {@link McpSessionEvictionPolicy#OLDEST_FIRST}. */
+    private final ConcurrentSkipListSet<SessionEntry> creationOrder;
     private final Counter sessionsCreated;
     private final Counter sessionsExpired;
     private final Counter sessionsDeleted;
+    private final Counter sessionsEvicted;
+    private final Counter sessionsRejected;
+
+    /** Notified with the ID of every session removed by expiry or eviction. */
+    private volatile Consumer<String> removalListener = sessionId -> { };
+    
+    /**
+     * Creates an unbounded store.
+     *
+     * @param ttl session time-to-live
+     * @param meterRegistry registry for session metrics
+     */
+    public InMemoryMcpSessionStore(Duration ttl, MeterRegistry meterRegistry) {
+        this(ttl, 0, McpSessionEvictionPolicy.LRU, meterRegistry);
+    }
     
+    /**
+     * Creates a store holding at most {@code maxSessions} sessions.
+     *
+     * @param ttl session time-to-live
+     * @param maxSessions maximum number of sessions; {@code 0} or less disables the limit
+     * @param evictionPolicy policy applied when the limit is reached
+     * @param meterRegistry registry for session metrics
+     */
+    @Autowired
     public InMemoryMcpSessionStore(
             @Value("${mcp.session.ttl:PT1H}") Duration ttl,
+            @Value("${mcp.session.max-sessions:1000}") int maxSessions,
+            @Value("${mcp.session.eviction-policy:LRU}") McpSessionEvictionPolicy evictionPolicy,
             MeterRegistry meterRegistry) {
-        this.ttl = ttl;
+        this.ttlMillis = ttl.toMillis();
+        this.expiryIndex = new SessionExpiryIndex(ttl, EXPIRY_INDEX_SHARDS);
+        this.maxSessions = maxSessions;
+        this.evictionPolicy = evictionPolicy;
+        this.creationOrder = maxSessions > 0 && evictionPolicy == McpSessionEvictionPolicy.OLDEST_FIRST
+                ? new ConcurrentSkipListSet<>(Comparator
+                        .comparing(SessionEntry::createdAt)
+                        .thenComparing(SessionEntry::sessionId))
+                : null;
         
         // Register metrics
         this.sessionsCreated = Counter.builder("mcp.sessions.created")
@@ -72,18 +137,39 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
                 .tag("store", "in-memory")
                 .register(meterRegistry);
         
+        this.sessionsEvicted = Counter.builder("mcp.sessions.evicted")
+                .description("Total number of live sessions evicted to stay within max-sessions")
+                .tag("store", "in-memory")
+                .tag("policy", evictionPolicy.name())
+                .register(meterRegistry);
+        
+        this.sessionsRejected = Counter.builder("mcp.sessions.rejected")
+                .description("Total number of session creations rejected at max-sessions")
+                .tag("store", "in-memory")
+                .tag("policy", evictionPolicy.name())
+                .register(meterRegistry);
+        
         Gauge.builder("mcp.sessions.active", sessions, ConcurrentHashMap::size)
                 .description("Current number of active sessions")
                 .tag("store", "in-memory")
                 .register(meterRegistry);
         
-        log.info("InMemoryMcpSessionStore initialized with TTL: {}", ttl);
+        log.info("InMemoryMcpSessionStore initialized with TTL: {}, max sessions: {}, eviction policy: {}",
+                ttl, maxSessions > 0 ? maxSessions : "unbounded", evictionPolicy);
     }
     
     @Override
     public Mono<McpSession> createSession() {
+        return Mono.defer(() -> createSession(UUID.randomUUID().toString()));
+    }
+    
+    /**
+     * Creates a session with an ID chosen by the caller, for routing in {@link ShardedMcpSessionStore}.
+     */
+    Mono<McpSession> createSession(String sessionId) {
         return Mono.fromCallable(() -> {
-            String sessionId = UUID.randomUUID().toString();
+            ensureCapacity();
+            
             Instant now = Instant.now();
             
             McpSession session = new McpSession(
@@ -93,7 +179,7 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
                     new ConcurrentHashMap<>()
             );
             
-            sessions.put(sessionId, session);
+            store(session);
             sessionsCreated.increment();
             
             log.debug("Created session: {}", sessionId);
@@ -103,15 +189,18 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
     
     @Override
     public Mono<McpSession> getSession(String sessionId) {
-        return Mono.fromCallable(() -> sessions.get(sessionId));
+        return Mono.fromCallable(() -> {
+            SessionEntry entry = sessions.get(sessionId);
+            return entry != null ? entry.session() : null;
+        });
     }
     
     @Override
     public Mono<Void> touchSession(String sessionId) {
         return Mono.fromRunnable(() -> {
-            McpSession session = sessions.get(sessionId);
-            if (session != null) {
-                session.touch();
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry != null) {
+                entry.touch(System.currentTimeMillis());
                 log.trace("Touched session: {}", sessionId);
             }
         });
@@ -120,8 +209,9 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
     @Override
     public Mono<Void> deleteSession(String sessionId) {
         return Mono.fromRunnable(() -> {
-            McpSession removed = sessions.remove(sessionId);
+            SessionEntry removed = sessions.remove(sessionId);
             if (removed != null) {
+                release(removed);
                 sessionsDeleted.increment();
                 log.debug("Deleted session: {}", sessionId);
             }
@@ -131,16 +221,16 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
     @Override
     public Mono<Boolean> isValidSession(String sessionId) {
         return Mono.fromCallable(() -> {
-            McpSession session = sessions.get(sessionId);
-            if (session == null) {
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry == null) {
                 return false;
             }
             
-            if (session.isExpired(ttl)) {
+            if (entry.isExpired(System.currentTimeMillis(), ttlMillis)) {
                 // Remove expired session immediately
-                sessions.remove(sessionId);
-                sessionsExpired.increment();
-                log.debug("Session expired during validation: {}", sessionId);
+                if (expire(entry)) {
+                    log.debug("Session expired during validation: {}", sessionId);
+                }
                 return false;
             }
             
@@ -148,37 +238,105 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
         });
     }
     
+    @Override
+    public Mono<McpSession> validateAndTouch(String sessionId) {
+        return Mono.fromCallable(() -> {
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry == null) {
+                return null;
+            }
+            
+            long now = System.currentTimeMillis();
+            if (entry.isExpired(now, ttlMillis)) {
+                if (expire(entry)) {
+                    log.debug("Session expired during validation: {}", sessionId);
+                }
+                return null;
+            }
+            
+            entry.touch(now);
+            return entry.session();
+        });
+    }
+    
     @Override
     public Mono<Long> getActiveSessionCount() {
         return Mono.fromCallable(() -> (long) sessions.size());
     }
 
+    /**
+     * Returns the stored sessions, for snapshots in {@link FileMcpSessionStore}.
+     */
+    List<McpSession> snapshot() {
+        return sessions.values().stream().map(SessionEntry::session).toList();
+    }
+
+    /**
+     * Registers the listener notified when a session is removed by expiry or eviction rather than
+     * by {@link #deleteSession}, so that {@link FileMcpSessionStore} can record the removal.
+     */
+    void setRemovalListener(Consumer<String> listener) {
+        this.removalListener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * Stores a recovered session without applying the capacity limit, which was already enforced
+     * when the session was created.
+     */
+    void restore(McpSession session) {
+        store(session);
+    }
+
     @Override
     public Mono<Void> saveSession(McpSession session) {
         return Mono.fromRunnable(() -> {
-            sessions.put(session.sessionId(), session);
+            SessionEntry existing = sessions.get(session.sessionId());
+            if (existing != null && existing.session() == session) {
+                // Same instance: attributes are already live, only the access time may have moved
+                existing.touch(session.lastAccessedAt().get().toEpochMilli());
+            } else {
+                store(session);
+            }
             log.debug("Saved session manually: {}", session.sessionId());
         });
     }
-    
+
+    @Override
+    public Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        Objects.requireNonNull(value, "Attribute value cannot be null");
+        return Mono.fromCallable(() -> {
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry == null) {
+                return false;
+            }
+            entry.session().attributes().put(key, value);
+            return true;
+        });
+    }
+
+    @Override
+    public Mono<Boolean> removeAttribute(String sessionId, String key) {
+        return Mono.fromCallable(() -> {
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry == null) {
+                return false;
+            }
+            entry.session().attributes().remove(key);
+            return true;
+        });
+    }
+
     /**
      * Scheduled cleanup job to remove expired sessions.
      * 
      * <p>Runs every 5 minutes by default (configurable via {@code mcp.session.cleanup-interval}).
      * This prevents memory leaks from abandoned sessions that are never explicitly deleted.
+     * Only sessions in due expiry buckets are visited.
      */
     @Scheduled(fixedDelayString = "${mcp.session.cleanup-interval:300000}")
     public void cleanupExpiredSessions() {
         int initialSize = sessions.size();
-        int removed = 0;
-        
-        for (var entry : sessions.entrySet()) {
-            if (entry.getValue().isExpired(ttl)) {
-                sessions.remove(entry.getKey());
-                sessionsExpired.increment();
-                removed++;
-            }
-        }
+        int removed = expiryIndex.expire(System.currentTimeMillis(), this::expire);
         
         if (removed > 0) {
             log.info("Cleaned up {} expired sessions (total: {} -> {})", 
@@ -187,4 +345,77 @@ public class InMemoryMcpSessionStore implements McpSessionStore {
             log.debug("Cleanup job completed, no expired sessions found (total: {})", sessions.size());
         }
     }
+
+    /**
+     * Makes room for one more session according to the eviction policy.
+     *
+     * @throws McpException if the store is full and the policy is {@link McpSessionEvictionPolicy#REJECT_NEW}
+     */
+    private void ensureCapacity() {
+        if (maxSessions <= 0 || sessions.size() < maxSessions) {
+            return;
+        }
+        
+        // Expired sessions never count against the limit
+        expiryIndex.expire(System.currentTimeMillis(), this::expire);
+        
+        while (sessions.size() >= maxSessions) {
+            SessionEntry victim = switch (evictionPolicy) {
+                case LRU -> expiryIndex.pollEarliest();
+                case OLDEST_FIRST -> creationOrder.pollFirst();
+                case REJECT_NEW -> {
+                    sessionsRejected.increment();
+                    log.warn("Rejected new session, limit of {} sessions reached", maxSessions);
+                    throw McpException.sessionLimitReached(maxSessions);
+                }
+            };
+            if (victim == null) {
+                return;
+            }
+            if (sessions.remove(victim.sessionId(), victim)) {
+                release(victim);
+                sessionsEvicted.increment();
+                removalListener.accept(victim.sessionId());
+                log.debug("Evicted session ({}): {}", evictionPolicy, victim.sessionId());
+            }
+        }
+    }
+    
+    private void store(McpSession session) {
+        SessionEntry entry = new SessionEntry(session);
+        SessionEntry previous = sessions.put(session.sessionId(), entry);
+        if (previous != null) {
+            release(previous);
+        }
+        expiryIndex.schedule(entry);
+        if (creationOrder != null) {
+            creationOrder.add(entry);
+        }
+    }
+    
+    /**
+     * Marks an entry that is no longer in {@link #sessions} as removed. The expiry index
+     * drops it lazily; the creation order is updated eagerly so that it stays bounded.
+     */
+    private void release(SessionEntry entry) {
+        entry.markRemoved();
+        if (creationOrder != null) {
+            creationOrder.remove(entry);
+        }
+    }
+
+    /**
+     * Removes an expired entry unless it has been replaced or removed concurrently.
+     *
+     * @return true if this call removed the entry
+     */
+    private boolean expire(SessionEntry entry) {
+        if (sessions.remove(entry.sessionId(), entry)) {
+            release(entry);
+            sessionsExpired.increment();
+            removalListener.accept(entry.sessionId());
+            return true;
+        }
+        return false;
+    }
 }
@@ -1,30 +1,64 @@
 package ch.sbb.mcp.commons.session.impl;
 
+import ch.sbb.mcp.commons.exception.McpException;
 import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
+import ch.sbb.mcp.commons.session.McpSessionId;
 import ch.sbb.mcp.commons.session.McpSessionStore;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.JsonMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionRedisSerializer;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.reactor.retry.RetryOperator;
 import io.github.resilience4j.retry.Retry;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.Limit;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Redis-backed implementation of {@link McpSessionStore} for distributed deployments.
@@ -47,42 +81,310 @@ import java.util.concurrent.atomic.AtomicReference;
  *   <li>Comprehensive metrics and logging</li>
  * </ul>
  * 
+ * <p><strong>Session index:</strong> Session IDs are tracked in the sorted set
+ * {@code mcp:sessions:index:{<shard>}} of their shard (see {@link RedisSessionKeys}),
+ * scored by the time their TTL was last renewed, so a member is live while its score is within the
+ * TTL. {@link #getActiveSessionCount()} counts the live members with a read-only {@code ZCOUNT} per
+ * shard, in O(log N) instead of scanning the keyspace with {@code KEYS}. Expired members are removed
+ * in bounded batches by {@link #reconcileInBackground()}, so counting never writes. Touches renew
+ * the TTL and the index score in one script. Failures of the index never fail the session operation
+ * itself.
+ * 
+ * <p><strong>Capacity:</strong> When {@code mcp.session.redis.max-sessions} is positive, the live count
+ * is compared to the limit before a session is created. The limit applies to all instances sharing
+ * the Redis server, so it is opt-in (default {@code 0}, unbounded) rather than inheriting the
+ * per-instance {@code mcp.session.max-sessions}. The check runs under the circuit breaker and retry
+ * like every other Redis call; if it fails, the session is admitted. If the limit is reached, the
+ * least recently used sessions ({@link McpSessionEvictionPolicy#LRU LRU}) or the oldest sessions from
+ * the additional creation-time index {@code mcp:sessions:created:{<shard>}} ({@link McpSessionEvictionPolicy#OLDEST_FIRST
+ * OLDEST_FIRST}) are evicted, or the creation is rejected with {@link McpException#sessionLimitReached(int)}
+ * ({@link McpSessionEvictionPolicy#REJECT_NEW REJECT_NEW}). Victims are only taken from live sessions,
+ * never from expired members still waiting for the background trim. The check is not atomic across
+ * instances, so the limit is a soft bound.
+ * 
+ * <p><strong>Sharding:</strong> With {@code mcp.session.redis.shards} greater than 1, sessions and
+ * their index entries are spread over hash-tagged shards (see {@link RedisSessionKeys}) so that a
+ * Redis Cluster distributes them across its nodes while every script still touches a single slot.
+ * Counting, eviction and index updates of write-behind batches then run per shard, concurrently on
+ * the pipelined connection. For several independent Redis servers without clustering, see
+ * {@link ShardedMcpSessionStore}.
+ * 
+ * <p><strong>Near-cache:</strong> With {@code mcp.session.near-cache.enabled=true}, sessions read or
+ * written by this instance are kept in a bounded local {@link SessionNearCache} for
+ * {@code mcp.session.near-cache.ttl} (default 5s). {@link #getSession} and {@link #isValidSession}
+ * are answered locally on a hit. Writes and deletes publish the session ID on the
+ * {@value #INVALIDATION_CHANNEL} pub/sub channel, and every instance drops its cached copy on receipt.
+ * A pub/sub channel is used rather than keyspace notifications because it needs no server configuration.
+ * Sessions that expire in Redis without an explicit delete may therefore still be reported as valid
+ * for up to the near-cache TTL; the local cache is cleared whenever the subscription fails.
+ * 
+ * <p><strong>Write-behind touches:</strong> With {@code mcp.session.touch.write-behind=true},
+ * {@link #touchSession} only records the touch in a {@link SessionTouchCoalescer}. Pending renewals
+ * are flushed every {@code mcp.session.touch.flush-interval} (default 100ms) as batches of
+ * concurrent touch scripts, which Lettuce pipelines on its shared connection. A touch is
+ * skipped entirely while the session's TTL was renewed less than {@code mcp.session.touch.max-slack}
+ * ago (default 1m), so an active session may expire at most {@code max-slack + flush-interval}
+ * earlier than with a renewal on every request.
+ * 
+ * <p><strong>Layout:</strong> {@code mcp.session.redis.layout} selects how sessions are written.
+ * {@code value} (default) stores the whole encoded session as a string; every attribute change
+ * rewrites it. {@code hash} stores one hash field per attribute (see {@link RedisSessionHash}), so
+ * {@link #setAttribute} and {@link #removeAttribute} write only the changed field and concurrent
+ * updates of different attributes no longer overwrite each other. Reads accept both layouts, so the
+ * setting can be switched in a rolling deployment; a session is converted whenever it is saved.
+ * 
+ * <p><strong>Backfill:</strong> Sessions created, saved or deleted in the fallback store while Redis
+ * is unavailable are remembered and replayed to Redis by {@link #reconcile()} once it is reachable
+ * again, so they survive the outage instead of disappearing from the other instances' view. Until
+ * then this instance serves them from the fallback store.
+ * 
  * <p><strong>Performance:</strong> All operations complete in < 20ms (P99) under normal conditions.
  */
 @Component
 @Primary
 @ConditionalOnBean(ReactiveRedisConnectionFactory.class)
+@ConditionalOnMissingBean({ShardedMcpSessionStore.class, TieredMcpSessionStore.class})
 public class RedisMcpSessionStore implements McpSessionStore {
     
     private static final Logger log = LoggerFactory.getLogger(RedisMcpSessionStore.class);
-    private static final String KEY_PREFIX = "mcp:session:";
+    private static final String INVALIDATION_CHANNEL = "mcp:sessions:invalidate";
+    
+    /**
+     * Returns the session in either layout as alternating field names and values (see {@link RedisSessionHash}).
+     * KEYS: session key.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>("""
+            local kind = redis.call('TYPE', KEYS[1]).ok
+            if kind == 'hash' then
+                return redis.call('HGETALL', KEYS[1])
+            elseif kind == 'string' then
+                return {'', redis.call('GET', KEYS[1])}
+            end
+            return {}
+            """, List.class);
+    
+    /**
+     * Returns the session like {@link #READ_SCRIPT} and renews its TTL and index score in one round trip.
+     * KEYS: session key, index key. ARGV: TTL in ms, index score, session ID.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> VALIDATE_AND_TOUCH_SCRIPT = new DefaultRedisScript<>("""
+            local kind = redis.call('TYPE', KEYS[1]).ok
+            local reply
+            if kind == 'hash' then
+                reply = redis.call('HGETALL', KEYS[1])
+            elseif kind == 'string' then
+                reply = {'', redis.call('GET', KEYS[1])}
+            else
+                return {}
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            redis.call('ZADD', KEYS[2], ARGV[2], ARGV[3])
+            return reply
+            """, List.class);
+    
+    /**
+     * Renews the TTL and index score of an existing session in one round trip. Returns 1 if the
+     * session was renewed and 0 if it does not exist.
+     * KEYS: session key, index key. ARGV: TTL in ms, index score, session ID.
+     */
+    private static final RedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('PEXPIRE', KEYS[1], ARGV[1]) == 1 then
+                redis.call('ZADD', KEYS[2], ARGV[2], ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+    
+    /**
+     * Replaces the session with a hash and sets its TTL. Also converts a session stored in the value layout.
+     * KEYS: session key. ARGV: TTL in ms, followed by alternating field names and values.
+     */
+    private static final RedisScript<Long> WRITE_HASH_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+    
+    /**
+     * Sets (ARGV: field, value) or removes (ARGV: field) one field of a session hash.
+     * Returns 1 if done, 0 if the session does not exist and -1 if it is stored in the value layout.
+     */
+    private static final RedisScript<Long> ATTRIBUTE_SCRIPT = new DefaultRedisScript<>("""
+            local kind = redis.call('TYPE', KEYS[1]).ok
+            if kind ~= 'hash' then
+                return kind == 'none' and 0 or -1
+            end
+            if #ARGV > 1 then
+                redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            else
+                redis.call('HDEL', KEYS[1], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+    
+    /**
+     * Removes up to ARGV[2] members scored before ARGV[1] from both indexes of a shard and returns
+     * the number removed. KEYS: index key, creation index key.
+     */
+    private static final RedisScript<Long> TRIM_INDEX_SCRIPT = new DefaultRedisScript<>("""
+            local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #expired > 0 then
+                redis.call('ZREM', KEYS[1], unpack(expired))
+                redis.call('ZREM', KEYS[2], unpack(expired))
+            end
+            return #expired
+            """, Long.class);
+    
+    /** Maximum number of expired index members removed per shard and script call. */
+    private static final int INDEX_TRIM_BATCH_SIZE = 1000;
+    
+    /** Upper bound of trim script calls per shard and background run. */
+    private static final int MAX_INDEX_TRIM_BATCHES = 10;
+    
+    private static final RedisElementWriter<String> SCRIPT_ARGS_WRITER =
+            RedisElementWriter.from(StringRedisSerializer.UTF_8);
+    
+    private static final RedisElementWriter<byte[]> BINARY_ARGS_WRITER =
+            RedisElementWriter.from(RedisSerializer.byteArray());
+    
+    /** Reads each element of a multi-bulk script reply as raw bytes. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisElementReader<List> BINARY_REPLY_READER =
+            (RedisElementReader) RedisElementReader.from(RedisSerializer.byteArray());
+    
+    private static final RedisElementReader<Long> LONG_REPLY_READER =
+            RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+    
+    /** Maximum number of touch scripts in flight per write-behind batch. */
+    private static final int TOUCH_FLUSH_BATCH_SIZE = 256;
+    
+    /** Upper bound of evict-and-recount rounds per session creation. */
+    private static final int MAX_ADMISSION_ROUNDS = 3;
+    
+    /** Maximum number of sessions backfilled concurrently after an outage. */
+    private static final int BACKFILL_CONCURRENCY = 16;
+    
+    /** Pending replay of an operation that was served by the fallback store. */
+    private enum Backfill { WRITE, DELETE }
     
     private final ReactiveRedisTemplate<String, McpSession> redisTemplate;
     private final Duration ttl;
     private final CircuitBreaker circuitBreaker;
     private final Retry retry;
     private final InMemoryMcpSessionStore fallbackStore;
+    private final ReactiveStringRedisTemplate indexTemplate;
+    private final int maxSessions;
+    private final McpSessionEvictionPolicy evictionPolicy;
+    private final SessionNearCache nearCache;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Disposable invalidationSubscription;
+    private final SessionTouchCoalescer touchCoalescer;
+    private final Duration touchFlushInterval;
+    private volatile Disposable touchFlushSubscription;
+    private final RedisSessionHash sessionHash;
+    private final RedisSessionKeys keys;
+    private final boolean hashLayout;
+    private final Map<String, Backfill> backfill = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
     
     // Metrics
     private final Counter sessionsCreated;
+    private final Counter sessionsEvicted;
+    private final Counter sessionsRejected;
+    private final Counter nearCacheHits;
+    private final Counter touchesCoalesced;
+    private final Counter sessionsBackfilled;
     private final Counter redisHits;
     private final Counter redisMisses;
     private final Counter redisErrors;
     private final Timer redisLatency;
     
+    /**
+     * Creates a store without a session limit.
+     */
+    public RedisMcpSessionStore(
+            ReactiveRedisTemplate<String, McpSession> redisTemplate,
+            Duration ttl,
+            CircuitBreaker circuitBreaker,
+            Retry retry,
+            InMemoryMcpSessionStore fallbackStore,
+            MeterRegistry meterRegistry) {
+        this(redisTemplate, ttl, 0, McpSessionEvictionPolicy.LRU, false, Duration.ZERO, 0,
+                false, Duration.ZERO, Duration.ZERO, "value", 1,
+                new McpSessionRedisSerializer(new JsonMcpSessionCodec(), new BinaryMcpSessionCodec()),
+                circuitBreaker, retry, fallbackStore, meterRegistry);
+    }
+    
+    @Autowired
     public RedisMcpSessionStore(
             @Qualifier("reactiveMcpSessionRedisTemplate") ReactiveRedisTemplate<String, McpSession> redisTemplate,
             @Value("${mcp.session.ttl:PT1H}") Duration ttl,
+            @Value("${mcp.session.redis.max-sessions:0}") int maxSessions,
+            @Value("${mcp.session.eviction-policy:LRU}") McpSessionEvictionPolicy evictionPolicy,
+            @Value("${mcp.session.near-cache.enabled:false}") boolean nearCacheEnabled,
+            @Value("${mcp.session.near-cache.ttl:PT5S}") Duration nearCacheTtl,
+            @Value("${mcp.session.near-cache.max-size:10000}") int nearCacheMaxSize,
+            @Value("${mcp.session.touch.write-behind:false}") boolean touchWriteBehind,
+            @Value("${mcp.session.touch.flush-interval:PT0.1S}") Duration touchFlushInterval,
+            @Value("${mcp.session.touch.max-slack:PT1M}") Duration touchMaxSlack,
+            @Value("${mcp.session.redis.layout:value}") String layout,
+            @Value("${mcp.session.redis.shards:1}") int shards,
+            McpSessionRedisSerializer sessionSerializer,
             @Qualifier("sessionStoreCircuitBreaker") CircuitBreaker circuitBreaker,
             @Qualifier("sessionStoreRetry") Retry retry,
             InMemoryMcpSessionStore fallbackStore,
             MeterRegistry meterRegistry) {
+        this(redisTemplate, new ReactiveStringRedisTemplate(redisTemplate.getConnectionFactory()), ttl, maxSessions,
+                evictionPolicy, nearCacheEnabled, nearCacheTtl, nearCacheMaxSize, touchWriteBehind, touchFlushInterval,
+                touchMaxSlack, layout, shards, sessionSerializer, circuitBreaker, retry, fallbackStore, meterRegistry);
+    }
+    
+    /**
+     * Creates a store that maintains the session index and publishes invalidations with the given
+     * template, for tests.
+     */
+    RedisMcpSessionStore(
+            ReactiveRedisTemplate<String, McpSession> redisTemplate,
+            ReactiveStringRedisTemplate indexTemplate,
+            Duration ttl,
+            int maxSessions,
+            McpSessionEvictionPolicy evictionPolicy,
+            boolean nearCacheEnabled,
+            Duration nearCacheTtl,
+            int nearCacheMaxSize,
+            boolean touchWriteBehind,
+            Duration touchFlushInterval,
+            Duration touchMaxSlack,
+            String layout,
+            int shards,
+            McpSessionRedisSerializer sessionSerializer,
+            CircuitBreaker circuitBreaker,
+            Retry retry,
+            InMemoryMcpSessionStore fallbackStore,
+            MeterRegistry meterRegistry) {
         
         this.redisTemplate = redisTemplate;
         this.ttl = ttl;
         this.circuitBreaker = circuitBreaker;
         this.retry = retry;
         this.fallbackStore = fallbackStore;
+        this.indexTemplate = indexTemplate;
+        this.maxSessions = maxSessions;
+        this.evictionPolicy = evictionPolicy;
+        this.nearCache = nearCacheEnabled ? new SessionNearCache(nearCacheTtl, nearCacheMaxSize) : null;
+        this.touchCoalescer = touchWriteBehind ? new SessionTouchCoalescer(touchMaxSlack) : null;
+        this.touchFlushInterval = touchFlushInterval;
+        this.sessionHash = new RedisSessionHash(sessionSerializer);
+        this.keys = new RedisSessionKeys(shards);
+        this.hashLayout = switch (layout.toLowerCase(Locale.ROOT)) {
+            case "value" -> false;
+            case "hash" -> true;
+            default -> throw new IllegalArgumentException(
+                "Unknown mcp.session.redis.layout '" + layout + "', expected 'value' or 'hash'");
+        };
         
         // Register metrics
         this.sessionsCreated = Counter.builder("mcp.sessions.created")
@@ -90,6 +392,36 @@ public class RedisMcpSessionStore implements McpSessionStore {
                 .tag("store", "redis")
                 .register(meterRegistry);
         
+        this.sessionsEvicted = Counter.builder("mcp.sessions.evicted")
+                .description("Total number of live sessions evicted to stay within max-sessions")
+                .tag("store", "redis")
+                .tag("policy", evictionPolicy.name())
+                .register(meterRegistry);
+        
+        this.sessionsRejected = Counter.builder("mcp.sessions.rejected")
+                .description("Total number of session creations rejected at max-sessions")
+                .tag("store", "redis")
+                .tag("policy", evictionPolicy.name())
+                .register(meterRegistry);
+        
+        this.nearCacheHits = Counter.builder("mcp.sessions.near-cache.hits")
+                .description("Session lookups answered by the local near-cache")
+                .register(meterRegistry);
+        
+        this.touchesCoalesced = Counter.builder("mcp.sessions.touches.coalesced")
+                .description("Session touches absorbed locally without a Redis renewal")
+                .register(meterRegistry);
+        
+        this.sessionsBackfilled = Counter.builder("mcp.sessions.backfilled")
+                .description("Fallback session writes and deletes replayed to Redis after an outage")
+                .tag("store", "redis")
+                .register(meterRegistry);
+        
+        Gauge.builder("mcp.sessions.backfill.pending", backfill, Map::size)
+                .description("Fallback session writes and deletes waiting to be replayed to Redis")
+                .tag("store", "redis")
+                .register(meterRegistry);
+        
         this.redisHits = Counter.builder("mcp.sessions.redis.hits")
                 .description("Successful Redis operations")
                 .register(meterRegistry);
@@ -106,14 +438,228 @@ public class RedisMcpSessionStore implements McpSessionStore {
                 .description("Redis operation latency")
                 .register(meterRegistry);
         
-        log.info("RedisMcpSessionStore initialized with TTL: {}, Circuit Breaker: {}, Retry: {}",
-                ttl, circuitBreaker.getName(), retry.getName());
+        log.info("RedisMcpSessionStore initialized with TTL: {}, layout: {}, shards: {}, max sessions: {}, "
+                        + "eviction policy: {}, near-cache: {}, write-behind touches: {}, Circuit Breaker: {}, Retry: {}",
+                ttl, hashLayout ? "hash" : "value", shards, maxSessions > 0 ? maxSessions : "unbounded", evictionPolicy,
+                nearCacheEnabled ? nearCacheTtl : "disabled",
+                touchWriteBehind ? touchFlushInterval : "disabled",
+                circuitBreaker.getName(), retry.getName());
+        
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                reconcile().subscribe();
+            }
+        });
+    }
+    
+    /**
+     * Subscribes to session invalidations published by other instances when the near-cache is enabled.
+     */
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        if (nearCache == null) {
+            return;
+        }
+        invalidationSubscription = indexTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .map(message -> message.getMessage())
+                .doOnError(error -> {
+                    // Invalidations may be lost while disconnected
+                    nearCache.clear();
+                    log.warn("Session invalidation subscription failed, near-cache cleared: {}", error.getMessage());
+                })
+                .retryWhen(reactor.util.retry.Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::onInvalidation);
+        log.info("Subscribed to session invalidations on channel: {}", INVALIDATION_CHANNEL);
+    }
+    
+    @PreDestroy
+    public void unsubscribeFromInvalidations() {
+        Disposable subscription = invalidationSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+    
+    /**
+     * Starts the periodic flush of coalesced touches when write-behind touches are enabled.
+     */
+    @PostConstruct
+    public void startTouchFlusher() {
+        if (touchCoalescer == null) {
+            return;
+        }
+        touchFlushSubscription = Flux.interval(touchFlushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flushTouches(), 1)
+                .subscribe();
+    }
+    
+    /**
+     * Stops the flusher and writes out pending touches, waiting at most a few seconds.
+     */
+    @PreDestroy
+    public void stopTouchFlusher() {
+        Disposable subscription = touchFlushSubscription;
+        if (subscription == null) {
+            return;
+        }
+        subscription.dispose();
+        try {
+            flushTouches().block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush pending session touches on shutdown: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Renews the TTL of all sessions touched since the last flush.
+     *
+     * <p>Renewals that fail are queued again for the next flush. Never fails.</p>
+     *
+     * @return completes when the pending renewals have been written
+     */
+    public Mono<Void> flushTouches() {
+        if (touchCoalescer == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            touchCoalescer.prune();
+            List<String> sessionIds = touchCoalescer.drain();
+            if (sessionIds.isEmpty()) {
+                return Mono.empty();
+            }
+            return Flux.fromIterable(sessionIds)
+                    .buffer(TOUCH_FLUSH_BATCH_SIZE)
+                    .concatMap(this::renewBatch)
+                    .then();
+        });
+    }
+    
+    private Mono<Void> renewBatch(List<String> sessionIds) {
+        long now = System.currentTimeMillis();
+        return Flux.fromIterable(sessionIds)
+                .flatMap(sessionId -> renew(sessionId, now)
+                        .flatMap(renewed -> {
+                            if (renewed) {
+                                touchCoalescer.renewed(sessionId);
+                                return Mono.just(sessionId);
+                            }
+                            touchCoalescer.forget(sessionId);
+                            evictLocally(sessionId);
+                            return Mono.<String>empty();
+                        }), sessionIds.size())
+                .collectList()
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .doOnNext(renewed -> {
+                    redisHits.increment(renewed.size());
+                    redisMisses.increment(sessionIds.size() - renewed.size());
+                })
+                .then()
+                .onErrorResume(error -> {
+                    redisErrors.increment();
+                    log.warn("Failed to flush {} session touches, retrying with next flush: {}",
+                            sessionIds.size(), error.getMessage());
+                    sessionIds.forEach(touchCoalescer::record);
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Replays session writes and deletes that were served by the fallback store while Redis was
+     * unavailable.
+     * 
+     * <p>Runs automatically when the circuit breaker closes again and every
+     * {@code mcp.session.redis.reconcile-interval}. Sessions created in the fallback store are
+     * written to Redis with their current state and removed from the fallback store; sessions
+     * deleted in the fallback store are deleted from Redis. Failed replays stay pending for the next
+     * run. Never fails.</p>
+     * 
+     * @return the number of replayed operations; 0 if another run is in progress
+     */
+    public Mono<Long> reconcile() {
+        return Mono.defer(() -> {
+            if (backfill.isEmpty() || !reconciling.compareAndSet(false, true)) {
+                return Mono.just(0L);
+            }
+            List<Map.Entry<String, Backfill>> pending = List.copyOf(backfill.entrySet());
+            return Flux.fromIterable(pending)
+                    .flatMap(entry -> backfill(entry.getKey(), entry.getValue())
+                            .thenReturn(entry)
+                            .onErrorResume(error -> {
+                                log.debug("Failed to backfill session {}: {}", entry.getKey(), error.getMessage());
+                                return Mono.empty();
+                            }), BACKFILL_CONCURRENCY)
+                    .count()
+                    .doOnNext(replayed -> {
+                        if (replayed > 0) {
+                            sessionsBackfilled.increment(replayed);
+                            log.info("Backfilled {} of {} fallback session operations to Redis", replayed, pending.size());
+                        }
+                    })
+                    .doFinally(signal -> reconciling.set(false));
+        });
+    }
+    
+    /**
+     * Scheduled retry of {@link #reconcile()} for fallback writes that happened without the circuit
+     * breaker opening, or whose first replay failed. Also removes expired members from the session
+     * indexes (see {@link #trimIndexes()}).
+     */
+    @Scheduled(fixedDelayString = "${mcp.session.redis.reconcile-interval:30000}")
+    public void reconcileInBackground() {
+        if (!backfill.isEmpty()) {
+            reconcile().subscribe();
+        }
+        trimIndexes().subscribe();
+    }
+    
+    /**
+     * Removes members of expired sessions from the session indexes of every shard, in batches of
+     * {@value #INDEX_TRIM_BATCH_SIZE} and at most {@value #MAX_INDEX_TRIM_BATCHES} batches per shard
+     * and run, so that the indexes do not grow with sessions that expired without a delete. Never fails.
+     *
+     * @return the number of removed members
+     */
+    Mono<Long> trimIndexes() {
+        return Flux.range(0, keys.shards())
+                .flatMap(this::trimIndex)
+                .reduce(0L, Long::sum)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .doOnNext(removed -> {
+                    if (removed > 0) {
+                        log.debug("Removed {} expired members from the session index", removed);
+                    }
+                })
+                .onErrorResume(error -> {
+                    log.debug("Failed to trim the session index: {}", error.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+    
+    private Flux<Long> trimIndex(int shard) {
+        return Flux.defer(() -> {
+            List<String> indexKeys = List.of(keys.indexKey(shard), keys.creationIndexKey(shard));
+            List<String> args = List.of(
+                    Long.toString(System.currentTimeMillis() - ttl.toMillis()),
+                    Integer.toString(INDEX_TRIM_BATCH_SIZE));
+            Mono<Long> batch = Mono.defer(() -> indexTemplate.execute(TRIM_INDEX_SCRIPT, indexKeys, args).next());
+            return batch
+                    .expand(removed -> removed >= INDEX_TRIM_BATCH_SIZE ? batch : Mono.empty())
+                    .take(MAX_INDEX_TRIM_BATCHES);
+        });
     }
     
     @Override
     public Mono<McpSession> createSession() {
+        return Mono.defer(() -> createSession(UUID.randomUUID().toString()));
+    }
+    
+    /**
+     * Creates a session with an ID chosen by the caller, for routing in {@link ShardedMcpSessionStore}.
+     */
+    Mono<McpSession> createSession(String sessionId) {
         return Mono.fromCallable(() -> {
-                    String sessionId = UUID.randomUUID().toString();
                     Instant now = Instant.now();
                     
                     McpSession session = new McpSession(
@@ -125,10 +671,24 @@ public class RedisMcpSessionStore implements McpSessionStore {
                     
                     return session;
                 })
-                .flatMap(session -> 
-                    redisTemplate.opsForValue()
-                            .set(toKey(session.sessionId()), session, ttl)
+                .flatMap(session -> admit(0)
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(RetryOperator.of(retry))
+                    .onErrorResume(error -> {
+                        log.warn("Session limit check failed, admitting session: {}", error.getMessage());
+                        return Mono.just(true);
+                    })
+                    .flatMap(admitted -> admitted
+                            ? Mono.<Void>empty()
+                            : Mono.error(McpException.sessionLimitReached(maxSessions)))
+                    .then(Mono.defer(() -> write(session)
+                            .then(indexSession(session.sessionId(), session.createdAt()))
+                            .then(indexCreation(session))
                             .thenReturn(session)
+                            .doOnNext(created -> {
+                                cacheLocally(created);
+                                renewedLocally(created.sessionId());
+                            })
                             .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                             .transformDeferred(RetryOperator.of(retry))
                             .doOnSuccess(s -> {
@@ -142,19 +702,28 @@ public class RedisMcpSessionStore implements McpSessionStore {
                             })
                             .onErrorResume(error -> {
                                 log.warn("Falling back to in-memory store for session creation");
-                                return fallbackStore.createSession();
-                            })
+                                return fallbackStore.createSession()
+                                        .doOnNext(created -> recordBackfill(created.sessionId(), Backfill.WRITE));
+                            })))
                 );
     }
     
     @Override
     public Mono<McpSession> getSession(String sessionId) {
-        return redisTemplate.opsForValue()
-                .get(toKey(sessionId))
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.getSession(sessionId) : Mono.empty();
+        }
+        McpSession cached = fromNearCache(sessionId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return readSession(READ_SCRIPT, sessionId, List.of(toKey(sessionId)), List.of())
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .transformDeferred(RetryOperator.of(retry))
                 .doOnNext(session -> {
                     redisHits.increment();
+                    cacheLocally(session);
                     log.trace("Retrieved session from Redis: {}", sessionId);
                 })
                 .doOnSuccess(session -> {
@@ -174,7 +743,20 @@ public class RedisMcpSessionStore implements McpSessionStore {
     
     @Override
     public Mono<Void> touchSession(String sessionId) {
-        return redisTemplate.expire(toKey(sessionId), ttl)
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.touchSession(sessionId) : Mono.empty();
+        }
+        // Validates the ID before anything is recorded or sent
+        toKey(sessionId);
+        if (touchCoalescer != null) {
+            return Mono.fromRunnable(() -> {
+                if (!touchCoalescer.record(sessionId)) {
+                    touchesCoalesced.increment();
+                }
+            });
+        }
+        return Mono.defer(() -> renew(sessionId, System.currentTimeMillis()))
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .transformDeferred(RetryOperator.of(retry))
                 .doOnSuccess(renewed -> {
@@ -183,6 +765,7 @@ public class RedisMcpSessionStore implements McpSessionStore {
                         log.trace("Touched session in Redis: {}", sessionId);
                     } else {
                         redisMisses.increment();
+                        evictLocally(sessionId);
                         log.debug("Session not found when touching: {}", sessionId);
                     }
                 })
@@ -200,6 +783,11 @@ public class RedisMcpSessionStore implements McpSessionStore {
     @Override
     public Mono<Void> deleteSession(String sessionId) {
         return redisTemplate.delete(toKey(sessionId))
+                .doOnSuccess(deleted -> forgetTouches(sessionId))
+                .flatMap(deleted -> unindexSession(sessionId)
+                        .then(invalidate(sessionId))
+                        .then(settleBackfill(sessionId))
+                        .thenReturn(deleted))
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .transformDeferred(RetryOperator.of(retry))
                 .doOnSuccess(deleted -> {
@@ -217,12 +805,20 @@ public class RedisMcpSessionStore implements McpSessionStore {
                 .then()
                 .onErrorResume(error -> {
                     log.warn("Falling back to in-memory store for session deletion: {}", sessionId);
-                    return fallbackStore.deleteSession(sessionId);
+                    return fallbackStore.deleteSession(sessionId)
+                            .doOnSuccess(ignored -> recordBackfill(sessionId, Backfill.DELETE));
                 });
     }
     
     @Override
     public Mono<Boolean> isValidSession(String sessionId) {
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.isValidSession(sessionId) : Mono.just(false);
+        }
+        if (fromNearCache(sessionId) != null) {
+            return Mono.just(true);
+        }
         return redisTemplate.hasKey(toKey(sessionId))
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .transformDeferred(RetryOperator.of(retry))
@@ -239,6 +835,7 @@ public class RedisMcpSessionStore implements McpSessionStore {
                         redisHits.increment();
                     } else {
                         redisMisses.increment();
+                        evictLocally(sessionId);
                     }
                 })
                 .doOnError(error -> {
@@ -251,10 +848,75 @@ public class RedisMcpSessionStore implements McpSessionStore {
                 });
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Runs a Lua script that reads the session, renews its TTL and updates the capacity index,
+     * so validation costs one round trip. The script is sent by SHA ({@code EVALSHA}) and only
+     * loaded on the first {@code NOSCRIPT} reply. With both the near-cache and write-behind touches
+     * enabled, a cached session is returned without contacting Redis at all.
+     */
+    @Override
+    public Mono<McpSession> validateAndTouch(String sessionId) {
+        return validateAndTouch(sessionId, toKey(sessionId));
+    }
+    
+    @Override
+    public Mono<McpSession> validateAndTouch(McpSessionId sessionId) {
+        return validateAndTouch(sessionId.value(), keys.sessionKey(sessionId.value()));
+    }
+    
+    private Mono<McpSession> validateAndTouch(String sessionId, String key) {
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.validateAndTouch(sessionId) : Mono.empty();
+        }
+        if (touchCoalescer != null) {
+            McpSession cached = fromNearCache(sessionId);
+            if (cached != null) {
+                if (!touchCoalescer.record(sessionId)) {
+                    touchesCoalesced.increment();
+                }
+                return Mono.just(cached);
+            }
+        }
+        
+        String indexScore = Long.toString(System.currentTimeMillis());
+        return readSession(VALIDATE_AND_TOUCH_SCRIPT, sessionId, List.of(key, keys.indexKey(keys.shardOf(sessionId))),
+                        List.of(Long.toString(ttl.toMillis()), indexScore, sessionId))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry))
+                .doOnNext(session -> {
+                    redisHits.increment();
+                    cacheLocally(session);
+                    renewedLocally(sessionId);
+                    log.trace("Validated and touched session in Redis: {}", sessionId);
+                })
+                .doOnSuccess(session -> {
+                    if (session == null) {
+                        redisMisses.increment();
+                        evictLocally(sessionId);
+                    }
+                })
+                .doOnError(error -> {
+                    redisErrors.increment();
+                    log.error("Failed to validate and touch session in Redis: {}", sessionId, error);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Falling back to in-memory store for session validation: {}", sessionId);
+                    return fallbackStore.validateAndTouch(sessionId);
+                });
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Counts the live members of the session index with one read-only {@code ZCOUNT} per shard.
+     * Sessions created before the index existed are not counted until they are touched.
+     */
     @Override
     public Mono<Long> getActiveSessionCount() {
-        return redisTemplate.keys(KEY_PREFIX + "*")
-                .count()
+        return countLiveSessions()
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .doOnSuccess(count -> log.debug("Active session count from Redis: {}", count))
                 .doOnError(error -> {
@@ -269,14 +931,408 @@ public class RedisMcpSessionStore implements McpSessionStore {
 
     @Override
     public Mono<Void> saveSession(McpSession session) {
-        return redisTemplate.opsForValue()
-                .set(toKey(session.sessionId()), session, ttl)
+        return write(session)
+                .then(Mono.defer(() -> indexSession(session.sessionId(), Instant.now())))
+                .then(indexCreation(session))
+                .doOnSuccess(ignored -> {
+                    cacheLocally(session);
+                    renewedLocally(session.sessionId());
+                })
+                .then(Mono.defer(() -> publishInvalidation(session.sessionId())))
+                .then(Mono.defer(() -> settleBackfill(session.sessionId())))
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .transformDeferred(RetryOperator.of(retry))
                 .then()
                 .onErrorResume(error -> {
                     log.warn("Falling back to in-memory store for session save: {}", session.sessionId());
-                    return fallbackStore.saveSession(session);
+                    return fallbackStore.saveSession(session)
+                            .doOnSuccess(ignored -> recordBackfill(session.sessionId(), Backfill.WRITE));
+                });
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>In the hash layout only the attribute's field is written ({@code HSET}), atomically with a
+     * check that the session exists. In the value layout, and for sessions still stored in it, the
+     * whole session is read and written back.
+     */
+    @Override
+    public Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        Objects.requireNonNull(value, "Attribute value cannot be null");
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.setAttribute(sessionId, key, value) : Mono.just(false);
+        }
+        return updateAttribute(sessionId, key, value, () -> McpSessionStore.super.setAttribute(sessionId, key, value))
+                .onErrorResume(error -> {
+                    log.warn("Falling back to in-memory store for attribute update: {}", sessionId);
+                    return fallbackStore.setAttribute(sessionId, key, value)
+                            .doOnNext(found -> backfillIfFound(sessionId, found));
+                });
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>In the hash layout only the attribute's field is removed ({@code HDEL}); see
+     * {@link #setAttribute}.
+     */
+    @Override
+    public Mono<Boolean> removeAttribute(String sessionId, String key) {
+        Backfill pending = backfillOf(sessionId);
+        if (pending != null) {
+            return pending == Backfill.WRITE ? fallbackStore.removeAttribute(sessionId, key) : Mono.just(false);
+        }
+        return updateAttribute(sessionId, key, null, () -> McpSessionStore.super.removeAttribute(sessionId, key))
+                .onErrorResume(error -> {
+                    log.warn("Falling back to in-memory store for attribute removal: {}", sessionId);
+                    return fallbackStore.removeAttribute(sessionId, key)
+                            .doOnNext(found -> backfillIfFound(sessionId, found));
+                });
+    }
+    
+    /**
+     * Sets the attribute, or removes it if {@code value} is {@code null}, with a single field update
+     * where possible and {@code readModifyWrite} otherwise.
+     */
+    private Mono<Boolean> updateAttribute(String sessionId, String key, Object value,
+                                          Supplier<Mono<Boolean>> readModifyWrite) {
+        String sessionKey = toKey(sessionId);
+        if (!hashLayout) {
+            return readModifyWrite.get();
+        }
+        return Mono.defer(() -> {
+                    List<byte[]> args = value != null
+                            ? List.of(sessionHash.attributeField(key), sessionHash.attributeValue(value))
+                            : List.of(sessionHash.attributeField(key));
+                    return redisTemplate.execute(ATTRIBUTE_SCRIPT, List.of(sessionKey), args,
+                                    BINARY_ARGS_WRITER, LONG_REPLY_READER)
+                            .next();
+                })
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry))
+                .doOnError(error -> {
+                    redisErrors.increment();
+                    log.error("Failed to update attribute of session in Redis: {}", sessionId, error);
+                })
+                .flatMap(result -> {
+                    if (result < 0) {
+                        // Still stored in the value layout; saving converts it to a hash
+                        return readModifyWrite.get();
+                    }
+                    if (result == 0) {
+                        redisMisses.increment();
+                        evictLocally(sessionId);
+                        return Mono.just(false);
+                    }
+                    redisHits.increment();
+                    return invalidate(sessionId).thenReturn(true);
+                });
+    }
+    
+    /**
+     * Writes the whole session in the configured layout and sets its TTL.
+     */
+    private Mono<Void> write(McpSession session) {
+        String key = toKey(session.sessionId());
+        if (!hashLayout) {
+            return redisTemplate.opsForValue().set(key, session, ttl).then();
+        }
+        return Mono.defer(() -> {
+            List<byte[]> fields = sessionHash.fields(session);
+            List<byte[]> args = new ArrayList<>(fields.size() + 1);
+            args.add(RedisSessionHash.utf8(Long.toString(ttl.toMillis())));
+            args.addAll(fields);
+            return redisTemplate.execute(WRITE_HASH_SCRIPT, List.of(key), args, BINARY_ARGS_WRITER, LONG_REPLY_READER)
+                    .then();
+        });
+    }
+    
+    /**
+     * Runs a read script and decodes its reply in either layout. Emits empty if the session does not exist.
+     */
+    @SuppressWarnings("rawtypes")
+    private Mono<McpSession> readSession(RedisScript<List> script, String sessionId,
+                                         List<String> keys, List<String> args) {
+        Flux<?> reply = redisTemplate.execute(script, keys, args, SCRIPT_ARGS_WRITER, BINARY_REPLY_READER);
+        return reply.collectList()
+                .mapNotNull(elements -> sessionHash.read(sessionId, RedisSessionHash.flatten(elements)));
+    }
+    
+    /**
+     * Makes room for one more session according to the eviction policy.
+     *
+     * <p>While the live count reaches the limit, takes the lowest-scored live candidates of every
+     * shard's policy index (see {@link #victims}), and evicts the overall lowest-scored ones. A victim
+     * is only deleted by the caller that removed it from the index, so concurrent admissions do not
+     * evict the same session twice. Victims whose session key has already expired are not counted as
+     * evicted.</p>
+     *
+     * @param round number of eviction rounds already performed
+     * @return {@code true} once there is room, {@code false} if the policy rejects the session; a
+     *         rejection is a result rather than an error so that it does not trip the circuit breaker
+     */
+    private Mono<Boolean> admit(int round) {
+        if (maxSessions <= 0) {
+            return Mono.just(true);
+        }
+        
+        return countLiveSessions()
+                .flatMap(count -> {
+                    if (count < maxSessions) {
+                        return Mono.just(true);
+                    }
+                    if (evictionPolicy == McpSessionEvictionPolicy.REJECT_NEW) {
+                        sessionsRejected.increment();
+                        log.warn("Rejected new session, limit of {} sessions reached", maxSessions);
+                        return Mono.just(false);
+                    }
+                    if (round >= MAX_ADMISSION_ROUNDS) {
+                        return Mono.just(true);
+                    }
+                    long excess = count - maxSessions + 1;
+                    ReactiveZSetOperations<String, String> index = indexTemplate.opsForZSet();
+                    return Flux.range(0, keys.shards())
+                            .flatMap(shard -> victims(shard, excess))
+                            .sort(Comparator.comparingDouble(RedisMcpSessionStore::scoreOf))
+                            .take(excess)
+                            .map(ZSetOperations.TypedTuple::getValue)
+                            .flatMap(victim -> index.remove(victimIndex(keys.shardOf(victim)), victim)
+                                    .filter(removed -> removed > 0)
+                                    .flatMap(removed -> redisTemplate.delete(keys.sessionKey(victim)))
+                                    .flatMap(deleted -> unindexSession(victim)
+                                            .then(invalidate(victim))
+                                            .thenReturn(deleted)))
+                            .reduce(0L, Long::sum)
+                            .doOnNext(evicted -> {
+                                if (evicted > 0) {
+                                    sessionsEvicted.increment(evicted);
+                                    log.debug("Evicted {} session(s) ({})", evicted, evictionPolicy);
+                                }
+                            })
+                            .then(Mono.defer(() -> admit(round + 1)));
+                });
+    }
+    
+    private McpSession fromNearCache(String sessionId) {
+        if (nearCache == null || sessionId == null) {
+            return null;
+        }
+        McpSession cached = nearCache.get(sessionId);
+        if (cached != null) {
+            nearCacheHits.increment();
+        }
+        return cached;
+    }
+    
+    private void cacheLocally(McpSession session) {
+        if (nearCache != null) {
+            nearCache.put(session);
+        }
+    }
+    
+    private void evictLocally(String sessionId) {
+        if (nearCache != null) {
+            nearCache.invalidate(sessionId);
+        }
+    }
+    
+    /**
+     * Drops the local copy of a session and tells other instances to do the same. Never fails.
+     */
+    private Mono<Void> invalidate(String sessionId) {
+        evictLocally(sessionId);
+        return publishInvalidation(sessionId);
+    }
+    
+    /**
+     * Tells other instances to drop their copy of a session. Never fails.
+     */
+    private Mono<Void> publishInvalidation(String sessionId) {
+        if (nearCache == null) {
+            return Mono.empty();
+        }
+        return indexTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + '|' + sessionId)
+                .then()
+                .onErrorResume(error -> {
+                    log.debug("Failed to publish invalidation for session {}: {}", sessionId, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+    
+    private void onInvalidation(String message) {
+        int separator = message.indexOf('|');
+        boolean ownMessage = separator == instanceId.length() && message.startsWith(instanceId);
+        if (!ownMessage) {
+            nearCache.invalidate(message.substring(separator + 1));
+        }
+    }
+    
+    private void renewedLocally(String sessionId) {
+        if (touchCoalescer != null) {
+            touchCoalescer.renewed(sessionId);
+        }
+    }
+    
+    private void forgetTouches(String sessionId) {
+        if (touchCoalescer != null) {
+            touchCoalescer.forget(sessionId);
+        }
+    }
+    
+    private Backfill backfillOf(String sessionId) {
+        return backfill.isEmpty() || sessionId == null ? null : backfill.get(sessionId);
+    }
+    
+    private void recordBackfill(String sessionId, Backfill action) {
+        backfill.put(sessionId, action);
+        log.debug("Session {} queued for backfill ({})", sessionId, action);
+    }
+    
+    private void backfillIfFound(String sessionId, Boolean found) {
+        if (Boolean.TRUE.equals(found)) {
+            recordBackfill(sessionId, Backfill.WRITE);
+        }
+    }
+    
+    /**
+     * Forgets a pending backfill after the session was written to or deleted from Redis directly,
+     * together with its now redundant fallback copy.
+     */
+    private Mono<Void> settleBackfill(String sessionId) {
+        if (backfillOf(sessionId) == null || backfill.remove(sessionId) == null) {
+            return Mono.empty();
+        }
+        return fallbackStore.deleteSession(sessionId);
+    }
+    
+    /**
+     * Replays one pending fallback write or delete against Redis, then forgets it unless it was
+     * recorded again in the meantime.
+     */
+    private Mono<Void> backfill(String sessionId, Backfill action) {
+        Mono<Void> replay = action == Backfill.WRITE
+                ? fallbackStore.getSession(sessionId)
+                        .flatMap(session -> write(session)
+                                .then(indexSession(sessionId, session.lastAccessedAt().get()))
+                                .then(indexCreation(session)))
+                : redisTemplate.delete(keys.sessionKey(sessionId)).then(unindexSession(sessionId));
+        return replay
+                .then(invalidate(sessionId))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .then(Mono.defer(() -> backfill.remove(sessionId, action) && action == Backfill.WRITE
+                        ? fallbackStore.deleteSession(sessionId)
+                        : Mono.<Void>empty()));
+    }
+    
+    /**
+     * Returns the {@code count} lowest-scored members of a shard's policy index that belong to live
+     * sessions. Expired members are left at the bottom of the indexes until the background trim
+     * removes them; evicting them would free nothing. The access index is filtered by score; the
+     * creation index is not scored by liveness, so the members of expired sessions are trimmed from
+     * both indexes first.
+     */
+    private Flux<ZSetOperations.TypedTuple<String>> victims(int shard, long count) {
+        ReactiveZSetOperations<String, String> index = indexTemplate.opsForZSet();
+        if (evictionPolicy != McpSessionEvictionPolicy.OLDEST_FIRST) {
+            return Flux.defer(() -> index.rangeByScoreWithScores(keys.indexKey(shard), liveScores(),
+                    Limit.limit().count((int) Math.min(count, Integer.MAX_VALUE))));
+        }
+        return trimIndex(shard)
+                .thenMany(Flux.defer(() -> index.rangeWithScores(keys.creationIndexKey(shard),
+                        Range.closed(0L, count - 1))));
+    }
+    
+    /**
+     * Returns the range of access index scores of live sessions, i.e. renewed within the TTL.
+     */
+    private Range<Double> liveScores() {
+        return Range.rightUnbounded(Range.Bound.inclusive((double) (System.currentTimeMillis() - ttl.toMillis())));
+    }
+    
+    private String victimIndex(int shard) {
+        return evictionPolicy == McpSessionEvictionPolicy.OLDEST_FIRST
+                ? keys.creationIndexKey(shard)
+                : keys.indexKey(shard);
+    }
+    
+    private static double scoreOf(ZSetOperations.TypedTuple<String> member) {
+        Double score = member.getScore();
+        return score != null ? score : Double.MAX_VALUE;
+    }
+    
+    /**
+     * Counts the live sessions in the index without writing. The shards are counted concurrently.
+     */
+    private Mono<Long> countLiveSessions() {
+        return Mono.defer(() -> {
+            Range<Double> live = liveScores();
+            return Flux.range(0, keys.shards())
+                    .flatMap(shard -> indexTemplate.opsForZSet().count(keys.indexKey(shard), live))
+                    .reduce(0L, Long::sum);
+        });
+    }
+    
+    /**
+     * Renews the TTL and index score of an existing session in one round trip.
+     *
+     * @return whether the session exists
+     */
+    private Mono<Boolean> renew(String sessionId, long atMillis) {
+        String shardIndex = keys.indexKey(keys.shardOf(sessionId));
+        return indexTemplate.execute(TOUCH_SCRIPT, List.of(keys.sessionKey(sessionId), shardIndex),
+                        List.of(Long.toString(ttl.toMillis()), Long.toString(atMillis), sessionId))
+                .next()
+                .map(renewed -> renewed > 0);
+    }
+    
+    /**
+     * Records the renewal of a session in the session index. Never fails.
+     */
+    private Mono<Void> indexSession(String sessionId, Instant at) {
+        return indexTemplate.opsForZSet()
+                .add(keys.indexKey(keys.shardOf(sessionId)), sessionId, at.toEpochMilli())
+                .then()
+                .onErrorResume(error -> {
+                    log.debug("Failed to index session {}: {}", sessionId, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Records the creation time of a session in the creation index, if the eviction policy uses it.
+     * Never fails.
+     */
+    private Mono<Void> indexCreation(McpSession session) {
+        if (maxSessions <= 0 || evictionPolicy != McpSessionEvictionPolicy.OLDEST_FIRST) {
+            return Mono.empty();
+        }
+        return indexTemplate.opsForZSet()
+                .add(keys.creationIndexKey(keys.shardOf(session.sessionId())), session.sessionId(),
+                        session.createdAt().toEpochMilli())
+                .then()
+                .onErrorResume(error -> {
+                    log.debug("Failed to index creation of session {}: {}", session.sessionId(), error.getMessage());
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Removes a session from both indexes. Never fails.
+     */
+    private Mono<Void> unindexSession(String sessionId) {
+        int shard = keys.shardOf(sessionId);
+        Mono<Long> creation = maxSessions > 0 && evictionPolicy == McpSessionEvictionPolicy.OLDEST_FIRST
+                ? indexTemplate.opsForZSet().remove(keys.creationIndexKey(shard), sessionId)
+                : Mono.just(0L);
+        return indexTemplate.opsForZSet()
+                .remove(keys.indexKey(shard), sessionId)
+                .then(creation)
+                .then()
+                .onErrorResume(error -> {
+                    log.debug("Failed to unindex session {}: {}", sessionId, error.getMessage());
+                    return Mono.empty();
                 });
     }
     
@@ -287,22 +1343,11 @@ public class RedisMcpSessionStore implements McpSessionStore {
      * to prevent Redis command injection attacks.
      * 
      * @param sessionId the session ID to convert
-     * @return Redis key with prefix
+     * @return Redis key with prefix (and hash tag, if sharded)
      * @throws IllegalArgumentException if session ID is not a valid UUID format
      */
     private String toKey(String sessionId) {
-        if (sessionId == null || sessionId.isBlank()) {
-            throw new IllegalArgumentException("Session ID cannot be null or empty");
-        }
-        
-        // Validate UUID format (lowercase hex with hyphens: xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx)
-        // This prevents Redis command injection via malicious session IDs
-        if (!sessionId.matches("^[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}$")) {
-            throw new IllegalArgumentException(
-                "Invalid session ID format. Expected UUID format: " + sessionId
-            );
-        }
-        
-        return KEY_PREFIX + sessionId;
+        // Lowercase hex with hyphens only; prevents Redis command injection via malicious session IDs
+        return keys.sessionKey(McpSessionId.requireValid(sessionId));
     }
 }
@@ -0,0 +1,136 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.codec.McpSessionRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Maps sessions to and from the fields of the Redis hash session layout.
+ *
+ * <p><strong>Layout:</strong> the session key holds a hash with the fields {@value #CREATED_AT_FIELD}
+ * and {@value #LAST_ACCESSED_AT_FIELD} (ISO-8601 instants) and one field per attribute, named
+ * {@value #ATTRIBUTE_PREFIX}{@code <name>} and encoded with
+ * {@link McpSessionRedisSerializer#serializeAttribute(Object)}. The session ID is not stored; it
+ * is part of the key.</p>
+ *
+ * <p>The read scripts of {@link RedisMcpSessionStore} return a session as a flat list of
+ * alternating field names and values. A session stored in the value layout is returned as the
+ * single pair ({@value #VALUE_FIELD}, payload), so both layouts are read through {@link #read}.</p>
+ */
+final class RedisSessionHash {
+
+    static final String CREATED_AT_FIELD = "createdAt";
+    static final String LAST_ACCESSED_AT_FIELD = "lastAccessedAt";
+    static final String ATTRIBUTE_PREFIX = "attr:";
+    static final String VALUE_FIELD = "";
+
+    private final McpSessionRedisSerializer serializer;
+
+    RedisSessionHash(McpSessionRedisSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Encodes a session as alternating field names and values.
+     */
+    List<byte[]> fields(McpSession session) {
+        // Snapshot: the attribute map may change concurrently while encoding
+        Object[] attributes = session.attributes().entrySet().toArray();
+        List<byte[]> fields = new ArrayList<>(4 + 2 * attributes.length);
+        fields.add(utf8(CREATED_AT_FIELD));
+        fields.add(utf8(session.createdAt().toString()));
+        fields.add(utf8(LAST_ACCESSED_AT_FIELD));
+        fields.add(utf8(session.lastAccessedAt().get().toString()));
+        for (Object element : attributes) {
+            Map.Entry<?, ?> attribute = (Map.Entry<?, ?>) element;
+            fields.add(attributeField((String) attribute.getKey()));
+            fields.add(attributeValue(attribute.getValue()));
+        }
+        return fields;
+    }
+
+    byte[] attributeField(String key) {
+        return utf8(ATTRIBUTE_PREFIX + key);
+    }
+
+    byte[] attributeValue(Object value) {
+        return serializer.serializeAttribute(value);
+    }
+
+    /**
+     * Decodes a script reply in either layout.
+     *
+     * @param sessionId the ID of the session the reply belongs to
+     * @param reply alternating field names and values; empty if the session does not exist
+     * @return the session, or {@code null} if the reply is empty
+     * @throws SerializationException if the reply is malformed
+     */
+    McpSession read(String sessionId, List<byte[]> reply) {
+        if (reply.isEmpty()) {
+            return null;
+        }
+        if (reply.size() % 2 != 0) {
+            throw new SerializationException("Odd number of elements in session hash reply: " + reply.size());
+        }
+        if (reply.size() == 2 && reply.get(0).length == 0) {
+            return serializer.deserialize(reply.get(1));
+        }
+
+        Instant createdAt = null;
+        Instant lastAccessedAt = null;
+        ConcurrentHashMap<String, Object> attributes = new ConcurrentHashMap<>(Math.max(16, reply.size()));
+        try {
+            for (int i = 0; i < reply.size(); i += 2) {
+                String field = new String(reply.get(i), StandardCharsets.UTF_8);
+                byte[] value = reply.get(i + 1);
+                if (field.startsWith(ATTRIBUTE_PREFIX)) {
+                    Object attribute = serializer.deserializeAttribute(value);
+                    // ConcurrentHashMap rejects null values; a null attribute is equivalent to an absent one
+                    if (attribute != null) {
+                        attributes.put(field.substring(ATTRIBUTE_PREFIX.length()), attribute);
+                    }
+                } else if (CREATED_AT_FIELD.equals(field)) {
+                    createdAt = Instant.parse(new String(value, StandardCharsets.UTF_8));
+                } else if (LAST_ACCESSED_AT_FIELD.equals(field)) {
+                    lastAccessedAt = Instant.parse(new String(value, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (DateTimeException e) {
+            throw new SerializationException("Malformed timestamp in session hash: " + sessionId, e);
+        }
+        if (createdAt == null || lastAccessedAt == null) {
+            throw new SerializationException("Incomplete session hash: " + sessionId);
+        }
+        return new McpSession(sessionId, createdAt, new AtomicReference<>(lastAccessedAt), attributes);
+    }
+
+    /**
+     * Normalizes a script reply that the driver emitted either as one nested list or element by element.
+     */
+    static List<byte[]> flatten(List<?> reply) {
+        List<byte[]> flat = new ArrayList<>(reply.size());
+        for (Object element : reply) {
+            if (element instanceof List<?> nested) {
+                for (Object value : nested) {
+                    flat.add((byte[]) value);
+                }
+            } else if (element instanceof byte[] value) {
+                flat.add(value);
+            }
+        }
+        return flat;
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package ch.sbb.mcp.commons.session.impl;
+
+/**
+ * Redis key layout of the session store, sharded with hash tags.
+ *
+ * <p>Every session is assigned to shard {@code floorMod(id.hashCode(), n)} and all keys of that
+ * shard carry the hash tag {@code {<shard>}}, including the only shard {@code {0}} of the default
+ * single-shard layout:</p>
+ * <pre>
+ * mcp:session:{3}:&lt;id&gt;
+ * mcp:sessions:index:{3}
+ * mcp:sessions:created:{3}
+ * </pre>
+ *
+ * <p>Redis Cluster maps all keys with the same tag to the same slot, so a session and the index
+ * entries of its shard can be updated by one script without a {@code CROSSSLOT} error, while the
+ * shards themselves spread across the cluster's nodes. The shard of a session depends only on its
+ * ID ({@link String#hashCode()} is specified by the language), so all instances agree on it.
+ * Changing the shard count moves every session to a different key; existing sessions are then no
+ * longer found. The same applies to sessions stored under the untagged keys of earlier versions
+ * ({@code mcp:session:<id>}); they are not migrated and simply expire.</p>
+ */
+final class RedisSessionKeys {
+
+    static final String SESSION_PREFIX = "mcp:session:";
+    static final String INDEX_KEY = "mcp:sessions:index";
+    static final String CREATION_INDEX_KEY = "mcp:sessions:created";
+
+    private final int shards;
+
+    RedisSessionKeys(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + shards);
+        }
+        this.shards = shards;
+    }
+
+    int shards() {
+        return shards;
+    }
+
+    int shardOf(String sessionId) {
+        return Math.floorMod(sessionId.hashCode(), shards);
+    }
+
+    /**
+     * Returns the session key. The session ID must already be validated.
+     */
+    String sessionKey(String sessionId) {
+        return SESSION_PREFIX + tag(shardOf(sessionId)) + ':' + sessionId;
+    }
+
+    String indexKey(int shard) {
+        return INDEX_KEY + ':' + tag(shard);
+    }
+
+    String creationIndexKey(int shard) {
+        return CREATION_INDEX_KEY + ':' + tag(shard);
+    }
+
+    private static String tag(int shard) {
+        return "{" + shard + "}";
+    }
+}
@@ -0,0 +1,83 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+
+import java.time.Instant;
+
+/**
+ * Store-side bookkeeping for a single {@link McpSession}.
+ *
+ * <p>Keeps the last access time as a primitive {@code long} so that touching a session is
+ * a single volatile write without allocating an {@link Instant}. The session's own
+ * {@code lastAccessedAt} reference is only brought up to date when the session is handed
+ * out (see {@link #session()}).</p>
+ *
+ * <p>Entries are also the elements of the {@link SessionExpiryIndex}; an entry that has been
+ * removed from its store is marked {@link #isRemoved() removed} and skipped lazily by the index.</p>
+ */
+final class SessionEntry {
+
+    private final McpSession session;
+    private volatile long lastAccessMillis;
+    private volatile boolean removed;
+
+    SessionEntry(McpSession session) {
+        this.session = session;
+        this.lastAccessMillis = session.lastAccessedAt().get().toEpochMilli();
+    }
+
+    String sessionId() {
+        return session.sessionId();
+    }
+
+    Instant createdAt() {
+        return session.createdAt();
+    }
+
+    /**
+     * Returns the session with its {@code lastAccessedAt} synchronized to the latest touch.
+     *
+     * @return the session
+     */
+    McpSession session() {
+        long millis = lastAccessMillis;
+        Instant current = session.lastAccessedAt().get();
+        if (current.toEpochMilli() < millis) {
+            session.lastAccessedAt().compareAndSet(current, Instant.ofEpochMilli(millis));
+        }
+        return session;
+    }
+
+    /**
+     * Records an access at the given time. Allocation-free.
+     *
+     * @param nowMillis current time in epoch milliseconds
+     */
+    void touch(long nowMillis) {
+        if (nowMillis > lastAccessMillis) {
+            lastAccessMillis = nowMillis;
+        }
+    }
+
+    /**
+     * Returns the effective last access time, also honoring direct
+     * {@link McpSession#touch()} calls made by holders of the session.
+     *
+     * @return last access time in epoch milliseconds
+     */
+    long lastAccessMillis() {
+        return Math.max(lastAccessMillis, session.lastAccessedAt().get().toEpochMilli());
+    }
+
+    boolean isExpired(long nowMillis, long ttlMillis) {
+        return nowMillis > lastAccessMillis() + ttlMillis;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+
+    void markRemoved() {
+        removed = true;
+    }
+}
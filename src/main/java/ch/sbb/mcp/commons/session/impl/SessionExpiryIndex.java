@@ -0,0 +1,194 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Sharded, expiry-ordered index of sessions used for O(expired) cleanup.
+ *
+ * <p>Sessions are placed in coarse time buckets keyed by their expiry time
+ * ({@code lastAccess + ttl}). A cleanup pass only drains buckets that are due, so its cost
+ * is proportional to the number of sessions that are expired or were due for re-checking,
+ * not to the total number of sessions.</p>
+ *
+ * <p>Touching a session does not move it between buckets (that would cost a lock and an
+ * allocation per request). Instead, entries are re-checked lazily when their bucket comes
+ * due: entries that were touched in the meantime are re-scheduled at their new expiry,
+ * which happens at most once per TTL period for a continuously active session. Entries
+ * removed from the store are skipped when their bucket is drained.</p>
+ *
+ * <p><strong>Thread Safety:</strong> Each shard is guarded by its own monitor, so concurrent
+ * session creation contends on {@code 1/shardCount} of the index.</p>
+ */
+final class SessionExpiryIndex {
+
+    /** Target number of buckets covering one TTL period. */
+    private static final int BUCKETS_PER_TTL = 64;
+
+    private final long ttlMillis;
+    private final long bucketMillis;
+    private final Shard[] shards;
+
+    /**
+     * Creates an index for sessions with the given TTL.
+     *
+     * @param ttl the session time-to-live
+     * @param shardCount number of independently locked shards (rounded up to a power of two)
+     */
+    SessionExpiryIndex(Duration ttl, int shardCount) {
+        this.ttlMillis = ttl.toMillis();
+        this.bucketMillis = Math.max(1L, ttlMillis / BUCKETS_PER_TTL);
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Schedules an entry at its current expiry time.
+     *
+     * @param entry the session entry
+     */
+    void schedule(SessionEntry entry) {
+        long bucket = Math.floorDiv(entry.lastAccessMillis() + ttlMillis, bucketMillis);
+        shardFor(entry).add(bucket, entry);
+    }
+
+    /**
+     * Drains all due buckets and hands expired entries to the given callback.
+     *
+     * <p>Entries that are no longer expired (touched since they were scheduled) are re-scheduled.
+     * Entries already removed from the store are dropped.</p>
+     *
+     * @param nowMillis current time in epoch milliseconds
+     * @param onExpired invoked for each expired entry; returns {@code true} if the entry was removed
+     * @return number of entries for which {@code onExpired} returned {@code true}
+     */
+    int expire(long nowMillis, Predicate<SessionEntry> onExpired) {
+        long dueBucket = Math.floorDiv(nowMillis, bucketMillis);
+        int expired = 0;
+
+        for (Shard shard : shards) {
+            List<SessionEntry> due = shard.drain(dueBucket);
+            for (SessionEntry entry : due) {
+                if (entry.isRemoved()) {
+                    continue;
+                }
+                if (entry.isExpired(nowMillis, ttlMillis)) {
+                    if (onExpired.test(entry)) {
+                        expired++;
+                    }
+                } else {
+                    schedule(entry);
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Removes and returns the live entry with the earliest expiry, i.e. the least recently
+     * accessed session, at bucket granularity.
+     *
+     * <p>Entries touched since they were scheduled are re-scheduled at their new expiry and
+     * removed entries are dropped while searching, exactly as during {@link #expire}.</p>
+     *
+     * @return the least recently accessed entry, or {@code null} if the index holds no live entries
+     */
+    SessionEntry pollEarliest() {
+        while (true) {
+            Shard earliest = null;
+            long earliestBucket = Long.MAX_VALUE;
+            for (Shard shard : shards) {
+                long bucket = shard.firstBucket();
+                if (bucket < earliestBucket) {
+                    earliestBucket = bucket;
+                    earliest = shard;
+                }
+            }
+            if (earliest == null) {
+                return null;
+            }
+
+            SessionEntry entry = earliest.poll(earliestBucket);
+            if (entry == null || entry.isRemoved()) {
+                continue;
+            }
+            if (Math.floorDiv(entry.lastAccessMillis() + ttlMillis, bucketMillis) > earliestBucket) {
+                schedule(entry);
+                continue;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Returns the number of scheduled entries, including removed entries not yet drained.
+     *
+     * @return the number of entries in the index
+     */
+    int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    private Shard shardFor(SessionEntry entry) {
+        int h = entry.sessionId().hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    private static final class Shard {
+
+        private final TreeMap<Long, ArrayList<SessionEntry>> buckets = new TreeMap<>();
+        private int size;
+
+        synchronized void add(long bucket, SessionEntry entry) {
+            buckets.computeIfAbsent(bucket, k -> new ArrayList<>()).add(entry);
+            size++;
+        }
+
+        synchronized List<SessionEntry> drain(long dueBucket) {
+            Map.Entry<Long, ArrayList<SessionEntry>> first = buckets.firstEntry();
+            if (first == null || first.getKey() > dueBucket) {
+                return List.of();
+            }
+
+            List<SessionEntry> due = new ArrayList<>();
+            while (first != null && first.getKey() <= dueBucket) {
+                due.addAll(buckets.pollFirstEntry().getValue());
+                first = buckets.firstEntry();
+            }
+            size -= due.size();
+            return due;
+        }
+
+        synchronized long firstBucket() {
+            return buckets.isEmpty() ? Long.MAX_VALUE : buckets.firstKey();
+        }
+
+        synchronized SessionEntry poll(long bucket) {
+            ArrayList<SessionEntry> entries = buckets.get(bucket);
+            if (entries == null) {
+                return null;
+            }
+            SessionEntry entry = entries.remove(entries.size() - 1);
+            if (entries.isEmpty()) {
+                buckets.remove(bucket);
+            }
+            size--;
+            return entry;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionId;
+import ch.sbb.mcp.commons.session.codec.McpSessionCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of session changes in memory-mapped segment files.
+ *
+ * <p>Each segment is a file of fixed size ({@code segment-<n>.log}) mapped into memory and filled
+ * with records:</p>
+ * <pre>
+ * int  payload length (&gt; 0)
+ * byte type: 1 = PUT, 2 = TOUCH, 3 = DELETE
+ * PUT:    encoded session
+ * TOUCH:  session ID (16 bytes), last access (epoch millis, 8 bytes)
+ * DELETE: session ID (16 bytes)
+ * </pre>
+ *
+ * <p>The length is written last, so a record torn by a crash reads as the zero-filled end of the
+ * segment. Appends are copies into the mapped buffer under a short lock; the operating system
+ * writes the pages back, so records survive a process crash but only reach the disk for certain
+ * after {@link #force()}. {@link #compact} writes a snapshot of the live sessions to a fresh segment,
+ * followed by the records appended since the snapshot was taken, and deletes all older segments.</p>
+ */
+final class SessionLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionLog.class);
+
+    static final byte PUT = 1;
+    static final byte TOUCH = 2;
+    static final byte DELETE = 3;
+
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+    private static final int ID_SIZE = 2 * Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Path> segments = new ArrayList<>();
+    private long nextSegment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    /** Bytes in all segments, and in the segments written by the last compaction. */
+    private long logBytes;
+    private long compactedBytes;
+
+    /**
+     * Opens the log, creating the directory if needed. Existing segments are kept for
+     * {@link #replay}; new records go to a new segment.
+     */
+    SessionLog(Path directory, int segmentSize) {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(SessionLog::isSegment)
+                        .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                        .forEach(segments::add);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open session log in " + directory, e);
+        }
+        this.nextSegment = segments.isEmpty() ? 0 : segmentNumber(segments.getLast()) + 1;
+    }
+
+    /**
+     * Replays all segments in order. Must be called before the first append.
+     *
+     * @param oldestAccessMillis sessions last accessed before this time have expired and are dropped
+     * @return the unexpired sessions in the log, with the latest touch applied
+     */
+    Map<String, McpSession> replay(McpSessionCodec codec, long oldestAccessMillis) {
+        Map<String, McpSession> sessions = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Path segment : segments) {
+                logBytes += replay(segment, codec, sessions);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // A later touch may renew a session, so expiry is only decided once the whole log is applied
+        sessions.values().removeIf(session -> session.lastAccessedAt().get().toEpochMilli() < oldestAccessMillis);
+        return sessions;
+    }
+
+    private long replay(Path segment, McpSessionCodec codec, Map<String, McpSession> sessions) {
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer records = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            readRecords(records, (type, payload) -> apply(type, payload, codec, sessions));
+            return records.position();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stopped replaying damaged session log segment {}: {}", segment, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Reads complete records from the buffer's position up to its limit, leaving the position after
+     * the last complete record.
+     */
+    private static void readRecords(ByteBuffer records, RecordVisitor visitor) {
+        while (records.remaining() >= HEADER_SIZE) {
+            int start = records.position();
+            int length = records.getInt();
+            if (length <= 0 || length > records.remaining() - 1) {
+                records.position(start);
+                break;
+            }
+            byte type = records.get();
+            byte[] payload = new byte[length];
+            records.get(payload);
+            visitor.accept(type, payload);
+        }
+    }
+
+    private static void apply(byte type, byte[] payload, McpSessionCodec codec, Map<String, McpSession> sessions) {
+        switch (type) {
+            case PUT -> {
+                McpSession session = codec.decode(payload);
+                sessions.put(session.sessionId(), session);
+            }
+            case TOUCH -> {
+                McpSession session = sessions.get(readId(payload));
+                if (session != null) {
+                    session.lastAccessedAt().set(Instant.ofEpochMilli(readLong(payload, ID_SIZE)));
+                }
+            }
+            case DELETE -> sessions.remove(readId(payload));
+            default -> throw new IllegalStateException("Unknown session log record type: " + type);
+        }
+    }
+
+    void put(byte[] encodedSession) {
+        lock.lock();
+        try {
+            append(PUT, encodedSession);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void touch(McpSessionId sessionId, long lastAccessMillis) {
+        byte[] payload = new byte[ID_SIZE + Long.BYTES];
+        writeId(payload, sessionId);
+        writeLong(payload, ID_SIZE, lastAccessMillis);
+        lock.lock();
+        try {
+            append(TOUCH, payload);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void delete(McpSessionId sessionId) {
+        byte[] payload = new byte[ID_SIZE];
+        writeId(payload, sessionId);
+        lock.lock();
+        try {
+            append(DELETE, payload);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the end of the log, to be passed to {@link #compact} with a snapshot taken afterwards.
+     */
+    Position position() {
+        lock.lock();
+        try {
+            return buffer != null
+                    ? new Position(segmentNumber(segments.getLast()), buffer.position())
+                    : new Position(nextSegment, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the largest payload that fits into a segment.
+     */
+    int maxPayloadSize() {
+        return segmentSize - HEADER_SIZE;
+    }
+
+    /**
+     * Rewrites the log as one PUT record per live session, followed by the records appended since
+     * {@code since}, and deletes all older segments.
+     *
+     * <p>The snapshot is encoded by the caller before this call, so appends are only blocked while
+     * the records are copied. An oversized snapshot record is rejected before the log is changed.</p>
+     *
+     * @param since the log position returned by {@link #position()} before the snapshot was taken
+     * @param snapshot the encoded live sessions, each at most {@link #maxPayloadSize()} bytes
+     */
+    void compact(Position since, Collection<byte[]> snapshot) {
+        for (byte[] session : snapshot) {
+            if (session.length > maxPayloadSize()) {
+                throw new IllegalArgumentException("Session record of " + (HEADER_SIZE + session.length)
+                        + " bytes exceeds the segment size of " + segmentSize);
+            }
+        }
+        lock.lock();
+        try {
+            List<Path> obsolete = List.copyOf(segments);
+            List<byte[]> tailPayloads = new ArrayList<>();
+            List<Byte> tailTypes = new ArrayList<>();
+            RecordVisitor tail = (type, payload) -> {
+                tailTypes.add(type);
+                tailPayloads.add(payload);
+            };
+            for (Path segment : obsolete) {
+                long number = segmentNumber(segment);
+                if (number >= since.segment()) {
+                    readSince(segment, number == since.segment() ? since.offset() : 0, tail);
+                }
+            }
+
+            roll();
+            long before = logBytes;
+            for (byte[] session : snapshot) {
+                append(PUT, session);
+            }
+            for (int i = 0; i < tailPayloads.size(); i++) {
+                append(tailTypes.get(i), tailPayloads.get(i));
+            }
+            buffer.force();
+            for (Path segment : obsolete) {
+                Files.deleteIfExists(segment);
+                segments.remove(segment);
+            }
+            compactedBytes = logBytes - before;
+            logBytes = compactedBytes;
+            log.debug("Compacted session log to {} bytes in {}", compactedBytes, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact session log in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the records of a segment from an offset; the current segment is read up to its write position.
+     */
+    private void readSince(Path segment, int offset, RecordVisitor visitor) throws IOException {
+        if (buffer != null && segment.equals(segments.getLast())) {
+            ByteBuffer records = buffer.duplicate();
+            records.limit(buffer.position()).position(offset);
+            readRecords(records, visitor);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer records = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            records.position(Math.min(offset, records.limit()));
+            readRecords(records, visitor);
+        }
+    }
+
+    /**
+     * Returns whether at least half of the log consists of superseded records, given that it has
+     * grown by at least {@code minBytes} since the last compaction.
+     */
+    boolean needsCompaction(long minBytes) {
+        lock.lock();
+        try {
+            long garbage = logBytes - compactedBytes;
+            return garbage >= minBytes && logBytes >= 2 * compactedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long bytes() {
+        lock.lock();
+        try {
+            return logBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the mapped pages of the current segment to disk.
+     */
+    void force() {
+        lock.lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeSegment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(byte type, byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException(
+                    "Session record of " + recordSize + " bytes exceeds the segment size of " + segmentSize);
+        }
+        if (buffer == null || buffer.remaining() < recordSize) {
+            roll();
+        }
+        int start = buffer.position();
+        buffer.put(start + Integer.BYTES, type);
+        buffer.put(start + HEADER_SIZE, payload);
+        // Length last: a torn record keeps length 0 and ends the segment on replay
+        buffer.putInt(start, payload.length);
+        buffer.position(start + recordSize);
+        logBytes += recordSize;
+    }
+
+    private void roll() {
+        closeSegment();
+        Path segment = directory.resolve(SEGMENT_PREFIX + String.format("%020d", nextSegment++) + SEGMENT_SUFFIX);
+        try {
+            channel = FileChannel.open(segment,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segments.add(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create session log segment " + segment, e);
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close session log segment: {}", e.getMessage());
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    /**
+     * A position in the log: segment number and byte offset within the segment.
+     */
+    record Position(long segment, int offset) {}
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void accept(byte type, byte[] payload);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void writeId(byte[] target, McpSessionId sessionId) {
+        UUID uuid = sessionId.toUuid();
+        writeLong(target, 0, uuid.getMostSignificantBits());
+        writeLong(target, Long.BYTES, uuid.getLeastSignificantBits());
+    }
+
+    private static String readId(byte[] source) {
+        return new UUID(readLong(source, 0), readLong(source, Long.BYTES)).toString();
+    }
+
+    private static void writeLong(byte[] target, int offset, long value) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            target[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] source, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (source[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,93 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, short-lived local cache of sessions held in front of a remote store.
+ *
+ * <p>Entries expire after a fixed time-to-live that is much shorter than the session TTL, so a
+ * session removed remotely without an invalidation message is served from the cache for at most
+ * that long. Explicit invalidations (see {@link #invalidate(String)}) remove entries immediately.</p>
+ *
+ * <p>The cache never grows beyond {@code maxSize} entries; when full, an arbitrary entry is dropped
+ * to make room. Expired entries are removed lazily on access.</p>
+ *
+ * <p><strong>Thread Safety:</strong> All operations are lock-free and safe for concurrent use.</p>
+ */
+final class SessionNearCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+
+    SessionNearCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, System::nanoTime);
+    }
+
+    SessionNearCache(Duration ttl, int maxSize, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = Math.max(1, maxSize);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the cached session if present and not older than the cache TTL.
+     *
+     * @param sessionId the session ID
+     * @return the cached session, or {@code null} on a miss
+     */
+    McpSession get(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.cachedAtNanos >= ttlNanos) {
+            entries.remove(sessionId, entry);
+            return null;
+        }
+        return entry.session;
+    }
+
+    /**
+     * Caches a session, dropping an arbitrary entry if the cache is full.
+     *
+     * @param session the session to cache
+     */
+    void put(McpSession session) {
+        if (entries.size() >= maxSize && !entries.containsKey(session.sessionId())) {
+            Iterator<String> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        entries.put(session.sessionId(), new Entry(session, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Removes a session from the cache.
+     *
+     * @param sessionId the session ID
+     */
+    void invalidate(String sessionId) {
+        entries.remove(sessionId);
+    }
+
+    /**
+     * Removes all sessions, e.g. when invalidation messages may have been missed.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry(McpSession session, long cachedAtNanos) {}
+}
@@ -0,0 +1,104 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects session touches locally so that TTL renewals can be written behind in batches.
+ *
+ * <p>A touch is only queued if the session's TTL was not renewed within the last
+ * {@code maxSlack}; repeated touches of a session between two flushes collapse into a single
+ * pending renewal. The remaining TTL of an active session therefore never drops below
+ * {@code ttl - maxSlack - flushInterval}, which bounds how much earlier it can expire compared
+ * to renewing on every request.</p>
+ *
+ * <p><strong>Thread Safety:</strong> All operations are lock-free and safe for concurrent use.</p>
+ */
+final class SessionTouchCoalescer {
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> lastRenewed = new ConcurrentHashMap<>();
+    private final long maxSlackMillis;
+    private final LongSupplier clock;
+    private volatile long lastPrunedMillis;
+
+    SessionTouchCoalescer(Duration maxSlack) {
+        this(maxSlack, System::currentTimeMillis);
+    }
+
+    SessionTouchCoalescer(Duration maxSlack, LongSupplier clock) {
+        this.maxSlackMillis = maxSlack.toMillis();
+        this.clock = clock;
+        this.lastPrunedMillis = clock.getAsLong();
+    }
+
+    /**
+     * Records a touch.
+     *
+     * @param sessionId the session ID
+     * @return {@code true} if a renewal is now pending, {@code false} if it was skipped because
+     *         the TTL was renewed recently
+     */
+    boolean record(String sessionId) {
+        Long renewedAt = lastRenewed.get(sessionId);
+        if (renewedAt != null && clock.getAsLong() - renewedAt < maxSlackMillis) {
+            return false;
+        }
+        pending.add(sessionId);
+        return true;
+    }
+
+    /**
+     * Removes and returns all pending renewals.
+     *
+     * @return the IDs of sessions whose TTL should be renewed
+     */
+    List<String> drain() {
+        List<String> drained = new ArrayList<>(pending.size());
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Records that the TTL of a session was renewed in the store (by a flush, or by writing the session).
+     *
+     * @param sessionId the session ID
+     */
+    void renewed(String sessionId) {
+        lastRenewed.put(sessionId, clock.getAsLong());
+    }
+
+    /**
+     * Forgets a session that no longer exists.
+     *
+     * @param sessionId the session ID
+     */
+    void forget(String sessionId) {
+        pending.remove(sessionId);
+        lastRenewed.remove(sessionId);
+    }
+
+    /**
+     * Drops renewal timestamps that no longer suppress touches. Runs at most once per {@code maxSlack}.
+     */
+    void prune() {
+        long now = clock.getAsLong();
+        if (now - lastPrunedMillis < maxSlackMillis) {
+            return;
+        }
+        lastPrunedMillis = now;
+        lastRenewed.values().removeIf(renewedAt -> now - renewedAt >= maxSlackMillis);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,175 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionId;
+import ch.sbb.mcp.commons.session.McpSessionStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link McpSessionStore} that spreads sessions over several independent stores with client-side
+ * consistent hashing.
+ *
+ * <p>Intended for plain multi-node Redis setups without Redis Cluster: each node is a
+ * {@link RedisMcpSessionStore} connected to its own server. (With Redis Cluster, use a single
+ * {@link RedisMcpSessionStore} with {@code mcp.session.redis.shards} instead.) A session is owned by
+ * the node that its ID maps to on a {@link ConsistentHashRing}; new session IDs are generated here
+ * and created directly on their owner. Adding or removing one of {@code n} nodes only orphans about
+ * {@code 1/n} of the sessions.</p>
+ *
+ * <p>Nodes may also be {@link InMemoryMcpSessionStore}s, e.g. as stand-ins in tests. Limits such as
+ * {@code max-sessions} apply per node. {@link #getActiveSessionCount()} queries all nodes
+ * concurrently and sums the counts.</p>
+ *
+ * <p><strong>Usage:</strong> Declare this store as a bean; {@link RedisMcpSessionStore} then backs
+ * off. The node stores must not be beans themselves: this store starts and stops their background
+ * tasks (near-cache invalidations, write-behind touches).</p>
+ * <pre>
+ * &#64;Bean
+ * public ShardedMcpSessionStore mcpSessionStore(...) {
+ *     return new ShardedMcpSessionStore(Map.of(
+ *         "redis-a:6379", new RedisMcpSessionStore(templateA, ttl, circuitBreaker, retry, fallbackA, registry),
+ *         "redis-b:6379", new RedisMcpSessionStore(templateB, ttl, circuitBreaker, retry, fallbackB, registry)));
+ * }
+ * </pre>
+ */
+public class ShardedMcpSessionStore implements McpSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedMcpSessionStore.class);
+
+    /** Ring positions per node; 160 keeps the load within a few percent of even. */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final ConsistentHashRing<McpSessionStore> ring;
+    private final List<McpSessionStore> nodes;
+
+    /**
+     * @param nodes node stores by unique, stable name (e.g. {@code host:port}); the name determines
+     *              the node's ring positions, so it must not change between deployments
+     */
+    public ShardedMcpSessionStore(Map<String, ? extends McpSessionStore> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param nodes node stores by unique, stable name
+     * @param virtualNodesPerNode ring positions per node
+     * @throws IllegalArgumentException if there are no nodes or a node is of an unsupported type
+     */
+    public ShardedMcpSessionStore(Map<String, ? extends McpSessionStore> nodes, int virtualNodesPerNode) {
+        nodes.forEach((name, node) -> {
+            if (!(node instanceof RedisMcpSessionStore) && !(node instanceof InMemoryMcpSessionStore)) {
+                throw new IllegalArgumentException("Unsupported node store '" + name + "': " + node.getClass().getName());
+            }
+        });
+        this.ring = new ConsistentHashRing<>(new LinkedHashMap<String, McpSessionStore>(nodes), virtualNodesPerNode);
+        this.nodes = List.copyOf(nodes.values());
+        log.info("ShardedMcpSessionStore initialized with nodes: {}", nodes.keySet());
+    }
+
+    /**
+     * Starts the background tasks of the Redis nodes.
+     */
+    @PostConstruct
+    public void start() {
+        for (McpSessionStore node : nodes) {
+            if (node instanceof RedisMcpSessionStore redis) {
+                redis.subscribeToInvalidations();
+                redis.startTouchFlusher();
+            }
+        }
+    }
+
+    /**
+     * Stops the background tasks of the Redis nodes, flushing pending touches.
+     */
+    @PreDestroy
+    public void stop() {
+        for (McpSessionStore node : nodes) {
+            if (node instanceof RedisMcpSessionStore redis) {
+                redis.stopTouchFlusher();
+                redis.unsubscribeFromInvalidations();
+            }
+        }
+    }
+
+    @Override
+    public Mono<McpSession> createSession() {
+        return Mono.defer(() -> {
+            String sessionId = UUID.randomUUID().toString();
+            return switch (nodeFor(sessionId)) {
+                case RedisMcpSessionStore redis -> redis.createSession(sessionId);
+                case InMemoryMcpSessionStore memory -> memory.createSession(sessionId);
+                default -> Mono.error(new IllegalStateException("Unsupported node store"));
+            };
+        });
+    }
+
+    @Override
+    public Mono<McpSession> getSession(String sessionId) {
+        return nodeFor(sessionId).getSession(sessionId);
+    }
+
+    @Override
+    public Mono<Void> touchSession(String sessionId) {
+        return nodeFor(sessionId).touchSession(sessionId);
+    }
+
+    @Override
+    public Mono<Void> deleteSession(String sessionId) {
+        return nodeFor(sessionId).deleteSession(sessionId);
+    }
+
+    @Override
+    public Mono<Boolean> isValidSession(String sessionId) {
+        return nodeFor(sessionId).isValidSession(sessionId);
+    }
+
+    @Override
+    public Mono<McpSession> validateAndTouch(String sessionId) {
+        return nodeFor(sessionId).validateAndTouch(sessionId);
+    }
+
+    @Override
+    public Mono<McpSession> validateAndTouch(McpSessionId sessionId) {
+        return ring.nodeFor(sessionId.value()).validateAndTouch(sessionId);
+    }
+
+    @Override
+    public Mono<Long> getActiveSessionCount() {
+        return Flux.fromIterable(nodes)
+                .flatMap(McpSessionStore::getActiveSessionCount)
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Void> saveSession(McpSession session) {
+        return nodeFor(session.sessionId()).saveSession(session);
+    }
+
+    @Override
+    public Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        return nodeFor(sessionId).setAttribute(sessionId, key, value);
+    }
+
+    @Override
+    public Mono<Boolean> removeAttribute(String sessionId, String key) {
+        return nodeFor(sessionId).removeAttribute(sessionId, key);
+    }
+
+    private McpSessionStore nodeFor(String sessionId) {
+        if (sessionId == null) {
+            throw new IllegalArgumentException("Session ID cannot be null or empty");
+        }
+        return ring.nodeFor(sessionId);
+    }
+}
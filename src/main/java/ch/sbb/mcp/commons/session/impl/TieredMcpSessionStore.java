@@ -0,0 +1,351 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionId;
+import ch.sbb.mcp.commons.session.McpSessionStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-tier {@link McpSessionStore}: a local {@link InMemoryMcpSessionStore} (L1) in front of a shared
+ * remote store (L2), typically a {@link RedisMcpSessionStore}.
+ *
+ * <p>Reads are answered from L1; on a miss the session is loaded from L2 and kept in L1. Writes are
+ * applied to L1 and replicated to L2 asynchronously: each write records the session in a bounded map
+ * of pending replications, which is flushed every {@code replicationInterval} (default 100ms).
+ * Pending replications of the same session are merged (the latest save or delete wins, a touch never
+ * supersedes either), and a save always sends the current L1 state. When the map is full, writes of further
+ * sessions are replicated synchronously instead of being dropped. Replications that fail are retried
+ * with the next flush; with a {@link RedisMcpSessionStore} as L2, writes that end up in its fallback
+ * store during an outage are backfilled once Redis recovers (see {@link RedisMcpSessionStore#reconcile()}).</p>
+ *
+ * <p>A pending save is replicated from L1 when it is flushed, so a session that expired in or was
+ * evicted from L1 before the flush is not replicated; such saves are logged and counted in
+ * {@code mcp.sessions.replication.lost}. L1 must therefore be unbounded, or hold clearly more sessions
+ * than are written per replication interval.</p>
+ *
+ * <p>Sessions reach other instances only after replication, and changes made by other instances are
+ * not seen while a session is in L1. This store is therefore meant for deployments with session
+ * affinity (sticky routing by {@code Mcp-Session-Id}), where L2 is needed for failover and restarts
+ * rather than for sharing. {@link #getActiveSessionCount()} is answered by L2.</p>
+ *
+ * <p><strong>Usage:</strong> Declare this store as a bean; {@link RedisMcpSessionStore} then backs
+ * off. Like the nodes of a {@link ShardedMcpSessionStore}, the L2 store must not be a bean itself:
+ * this store starts and stops its background tasks.</p>
+ * <pre>
+ * &#64;Bean
+ * public TieredMcpSessionStore mcpSessionStore(...) {
+ *     return new TieredMcpSessionStore(
+ *         new InMemoryMcpSessionStore(ttl, registry),
+ *         new RedisMcpSessionStore(template, ttl, circuitBreaker, retry, fallback, registry),
+ *         registry);
+ * }
+ * </pre>
+ */
+public class TieredMcpSessionStore implements McpSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredMcpSessionStore.class);
+
+    public static final int DEFAULT_MAX_PENDING_REPLICATIONS = 10_000;
+    public static final Duration DEFAULT_REPLICATION_INTERVAL = Duration.ofMillis(100);
+
+    /** Maximum number of L2 operations in flight per flush. */
+    private static final int REPLICATION_CONCURRENCY = 64;
+
+    /**
+     * Pending replication of a session. The latest save or delete supersedes whatever is pending,
+     * as both replicate the complete state; a touch never supersedes either of them.
+     */
+    enum Replication {
+        TOUCH, SAVE, DELETE;
+
+        static Replication merge(Replication pending, Replication next) {
+            return next == TOUCH ? pending : next;
+        }
+    }
+
+    private final InMemoryMcpSessionStore local;
+    private final McpSessionStore remote;
+    private final int maxPendingReplications;
+    private final Duration replicationInterval;
+    private final Map<String, Replication> pending = new ConcurrentHashMap<>();
+    private volatile Disposable replicationSubscription;
+
+    private final Counter replicated;
+    private final Counter replicationFailures;
+    private final Counter lostReplications;
+    private final Counter synchronousReplications;
+
+    public TieredMcpSessionStore(InMemoryMcpSessionStore local, McpSessionStore remote, MeterRegistry meterRegistry) {
+        this(local, remote, DEFAULT_MAX_PENDING_REPLICATIONS, DEFAULT_REPLICATION_INTERVAL, meterRegistry);
+    }
+
+    /**
+     * @param local L1 store, private to this instance
+     * @param remote L2 store shared by all instances
+     * @param maxPendingReplications sessions with pending replication before writes are replicated synchronously
+     * @param replicationInterval time between flushes of pending replications
+     * @param meterRegistry registry for replication metrics
+     */
+    public TieredMcpSessionStore(
+            InMemoryMcpSessionStore local,
+            McpSessionStore remote,
+            int maxPendingReplications,
+            Duration replicationInterval,
+            MeterRegistry meterRegistry) {
+        if (maxPendingReplications < 1) {
+            throw new IllegalArgumentException("Max pending replications must be at least 1: " + maxPendingReplications);
+        }
+        this.local = Objects.requireNonNull(local, "local");
+        this.remote = Objects.requireNonNull(remote, "remote");
+        this.maxPendingReplications = maxPendingReplications;
+        this.replicationInterval = replicationInterval;
+
+        this.replicated = Counter.builder("mcp.sessions.replication.replicated")
+                .description("Session writes replicated from the local to the remote tier")
+                .tag("store", "tiered")
+                .register(meterRegistry);
+
+        this.replicationFailures = Counter.builder("mcp.sessions.replication.failures")
+                .description("Session replications that failed and were queued again")
+                .tag("store", "tiered")
+                .register(meterRegistry);
+
+        this.lostReplications = Counter.builder("mcp.sessions.replication.lost")
+                .description("Pending session saves not replicated because the session had left the local tier")
+                .tag("store", "tiered")
+                .register(meterRegistry);
+
+        this.synchronousReplications = Counter.builder("mcp.sessions.replication.synchronous")
+                .description("Session writes replicated synchronously because the replication queue was full")
+                .tag("store", "tiered")
+                .register(meterRegistry);
+
+        Gauge.builder("mcp.sessions.replication.pending", pending, Map::size)
+                .description("Sessions with a replication pending")
+                .tag("store", "tiered")
+                .register(meterRegistry);
+
+        log.info("TieredMcpSessionStore initialized with remote store: {}, replication interval: {}, max pending: {}",
+                remote.getClass().getSimpleName(), replicationInterval, maxPendingReplications);
+    }
+
+    /**
+     * Starts the background tasks of the remote store and the periodic replication.
+     */
+    @PostConstruct
+    public void start() {
+        switch (remote) {
+            case RedisMcpSessionStore redis -> {
+                redis.subscribeToInvalidations();
+                redis.startTouchFlusher();
+            }
+            case ShardedMcpSessionStore sharded -> sharded.start();
+            default -> { }
+        }
+        replicationSubscription = Flux.interval(replicationInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    /**
+     * Stops the replication, flushing pending replications, and the remote store's background tasks.
+     */
+    @PreDestroy
+    public void stop() {
+        Disposable subscription = replicationSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        try {
+            flush().block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush pending session replications on shutdown: {}", e.getMessage());
+        }
+        switch (remote) {
+            case RedisMcpSessionStore redis -> {
+                redis.stopTouchFlusher();
+                redis.unsubscribeFromInvalidations();
+            }
+            case ShardedMcpSessionStore sharded -> sharded.stop();
+            default -> { }
+        }
+    }
+
+    /**
+     * Replicates all pending writes to the remote store. Failed replications are queued again.
+     * Never fails.
+     *
+     * @return completes when the pending replications have been attempted
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty()) {
+                return Mono.empty();
+            }
+            List<String> sessionIds = List.copyOf(pending.keySet());
+            return Flux.fromIterable(sessionIds)
+                    .flatMap(this::replicatePending, REPLICATION_CONCURRENCY)
+                    .then();
+        });
+    }
+
+    private Mono<Void> replicatePending(String sessionId) {
+        Replication replication = pending.remove(sessionId);
+        if (replication == null) {
+            return Mono.empty();
+        }
+        return apply(sessionId, replication)
+                .doOnNext(applied -> {
+                    if (applied) {
+                        replicated.increment();
+                    }
+                })
+                .onErrorResume(error -> {
+                    replicationFailures.increment();
+                    // Writes queued meanwhile are newer than the failed one
+                    pending.merge(sessionId, replication, (newer, failed) -> Replication.merge(failed, newer));
+                    log.debug("Failed to replicate session {} ({}), retrying with next flush: {}",
+                            sessionId, replication, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Applies a replication to the remote store.
+     *
+     * @return whether it was applied; {@code false} for a save of a session no longer in the local store
+     */
+    private Mono<Boolean> apply(String sessionId, Replication replication) {
+        return switch (replication) {
+            case TOUCH -> remote.touchSession(sessionId).thenReturn(true);
+            case SAVE -> local.getSession(sessionId)
+                    .flatMap(session -> remote.saveSession(session).thenReturn(true))
+                    .switchIfEmpty(Mono.fromSupplier(() -> {
+                        lostReplications.increment();
+                        log.warn("Session {} left the local store before its save was replicated; "
+                                + "the remote store keeps its previous state", sessionId);
+                        return false;
+                    }));
+            case DELETE -> remote.deleteSession(sessionId).thenReturn(true);
+        };
+    }
+
+    /**
+     * Queues a replication, or applies it right away if the queue is full.
+     */
+    private Mono<Void> replicate(String sessionId, Replication replication) {
+        return Mono.defer(() -> {
+            if (pending.size() < maxPendingReplications || pending.containsKey(sessionId)) {
+                pending.merge(sessionId, replication, Replication::merge);
+                return Mono.empty();
+            }
+            synchronousReplications.increment();
+            return apply(sessionId, replication).then();
+        });
+    }
+
+    /**
+     * Keeps a session loaded from the remote store in the local store.
+     */
+    private Mono<McpSession> adopt(McpSession session) {
+        return local.saveSession(session).thenReturn(session);
+    }
+
+    private boolean deletedLocally(String sessionId) {
+        return pending.get(sessionId) == Replication.DELETE;
+    }
+
+    @Override
+    public Mono<McpSession> createSession() {
+        return local.createSession()
+                .flatMap(session -> replicate(session.sessionId(), Replication.SAVE).thenReturn(session));
+    }
+
+    @Override
+    public Mono<McpSession> getSession(String sessionId) {
+        McpSessionId.requireValid(sessionId);
+        return local.getSession(sessionId)
+                .switchIfEmpty(Mono.defer(() -> deletedLocally(sessionId)
+                        ? Mono.empty()
+                        : remote.getSession(sessionId).flatMap(this::adopt)));
+    }
+
+    @Override
+    public Mono<Void> touchSession(String sessionId) {
+        McpSessionId.requireValid(sessionId);
+        return local.touchSession(sessionId).then(replicate(sessionId, Replication.TOUCH));
+    }
+
+    @Override
+    public Mono<Void> deleteSession(String sessionId) {
+        McpSessionId.requireValid(sessionId);
+        return local.deleteSession(sessionId).then(replicate(sessionId, Replication.DELETE));
+    }
+
+    @Override
+    public Mono<Boolean> isValidSession(String sessionId) {
+        McpSessionId.requireValid(sessionId);
+        return local.isValidSession(sessionId)
+                .flatMap(valid -> valid || deletedLocally(sessionId)
+                        ? Mono.just(valid)
+                        : remote.isValidSession(sessionId));
+    }
+
+    @Override
+    public Mono<McpSession> validateAndTouch(String sessionId) {
+        McpSessionId.requireValid(sessionId);
+        return local.validateAndTouch(sessionId)
+                .flatMap(session -> replicate(sessionId, Replication.TOUCH).thenReturn(session))
+                .switchIfEmpty(Mono.defer(() -> deletedLocally(sessionId)
+                        ? Mono.empty()
+                        : remote.validateAndTouch(sessionId).flatMap(this::adopt)));
+    }
+
+    @Override
+    public Mono<Long> getActiveSessionCount() {
+        return remote.getActiveSessionCount();
+    }
+
+    @Override
+    public Mono<Void> saveSession(McpSession session) {
+        return local.saveSession(session).then(replicate(session.sessionId(), Replication.SAVE));
+    }
+
+    @Override
+    public Mono<Boolean> setAttribute(String sessionId, String key, Object value) {
+        Objects.requireNonNull(value, "Attribute value cannot be null");
+        return getSession(sessionId)
+                .flatMap(session -> local.setAttribute(sessionId, key, value))
+                .flatMap(found -> replicateIfFound(sessionId, found))
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Boolean> removeAttribute(String sessionId, String key) {
+        return getSession(sessionId)
+                .flatMap(session -> local.removeAttribute(sessionId, key))
+                .flatMap(found -> replicateIfFound(sessionId, found))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Boolean> replicateIfFound(String sessionId, boolean found) {
+        return found ? replicate(sessionId, Replication.SAVE).thenReturn(true) : Mono.just(false);
+    }
+}
@@ -1,5 +1,6 @@
 package ch.sbb.mcp.commons.client;
 
+import ch.sbb.mcp.commons.ratelimit.SimpleRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -55,6 +56,10 @@ class BaseApiClientTest {
         public <T> Mono<T> testWithRetry(Mono<T> op, int retries) {
             return withRetry(op, retries);
         }
+
+        public <T> Mono<T> testWithRateLimit(Mono<T> op, SimpleRateLimiter rateLimiter, Duration maxWait) {
+            return withRateLimit(op, rateLimiter, maxWait);
+        }
         
         @Override
         public boolean isRetryableError(Throwable error) {
@@ -126,4 +131,25 @@ class BaseApiClientTest {
 
         assertEquals(3, counter.get());
     }
+
+    @Test
+    void withRateLimit_ShouldDelayBurstsAndRejectBeyondMaxWait() {
+        java.util.concurrent.atomic.AtomicInteger counter = new java.util.concurrent.atomic.AtomicInteger();
+        Mono<String> upstream = Mono.fromSupplier(() -> "call-" + counter.incrementAndGet());
+        SimpleRateLimiter rateLimiter = new SimpleRateLimiter(1, Duration.ofMillis(100));
+
+        // The first call passes, the second waits for the next token
+        StepVerifier.create(apiClient.testWithRateLimit(upstream, rateLimiter, Duration.ofSeconds(1)))
+            .expectNext("call-1")
+            .verifyComplete();
+        StepVerifier.create(apiClient.testWithRateLimit(upstream, rateLimiter, Duration.ofSeconds(1)))
+            .expectNext("call-2")
+            .verifyComplete();
+
+        // A call that would have to wait longer is rejected without reaching the upstream
+        StepVerifier.create(apiClient.testWithRateLimit(upstream, rateLimiter, Duration.ofMillis(1)))
+            .expectErrorMatches(e -> e == SimpleRateLimiter.RATE_LIMIT_EXCEEDED)
+            .verify(Duration.ofSeconds(5));
+        assertEquals(2, counter.get());
+    }
 }
@@ -0,0 +1,308 @@
+package ch.sbb.mcp.commons.controller;
+
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.exception.McpException;
+import ch.sbb.mcp.commons.handler.McpResourceHandler;
+import ch.sbb.mcp.commons.prompts.McpPromptHandler;
+import ch.sbb.mcp.commons.protocol.McpRequest;
+import ch.sbb.mcp.commons.protocol.McpResponse;
+import ch.sbb.mcp.commons.registry.McpToolRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("BaseMcpController Tests")
+class BaseMcpControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private McpToolRegistry toolRegistry;
+    private TestController controller;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBeansOfType(McpTool.class)).thenReturn(Map.of());
+        toolRegistry = new McpToolRegistry(context);
+        toolRegistry.init();
+        toolRegistry.registerTool(tool("getStation", "{\"type\":\"object\"}"));
+        controller = new TestController(toolRegistry, objectMapper, 4);
+    }
+
+    @Test
+    @DisplayName("tools/list should embed the pre-rendered payload as raw JSON")
+    void toolsList_ShouldEmbedCachedPayload() throws Exception {
+        // When
+        McpResponse response = controller.processRequest(new McpRequest("2.0", 7, "tools/list", Map.of())).block();
+        String json = objectMapper.writeValueAsString(response);
+
+        // Then
+        assertNotNull(response);
+        assertSame(toolRegistry.getToolsListPayload().asRawValue(), response.result());
+        assertTrue(json.contains("\"result\":" + toolRegistry.getToolsListPayload().json()));
+        assertEquals(1, objectMapper.readTree(json).path("result").path("tools").size());
+    }
+
+    @Test
+    @DisplayName("REST tools endpoint should return cached bytes with ETag and honor If-None-Match")
+    void listToolsRestConditional_ShouldSupportConditionalRequests() {
+        // When
+        ResponseEntity<Object> first = controller.listToolsRestConditional(null).block();
+
+        // Then
+        assertNotNull(first);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertSame(toolRegistry.getToolsListPayload().bytes(), first.getBody());
+        String etag = first.getHeaders().getETag();
+        assertEquals(toolRegistry.getToolsListPayload().etag(), etag);
+
+        // When
+        ResponseEntity<Object> notModified = controller.listToolsRestConditional(etag).block();
+
+        // Then
+        assertNotNull(notModified);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+
+        // When - tool set changes
+        toolRegistry.registerTool(tool("searchPlaces", "{}"));
+        ResponseEntity<Object> changed = controller.listToolsRestConditional(etag).block();
+
+        // Then
+        assertNotNull(changed);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("REST tools endpoints should delegate to an overridden handleToolsList")
+    void listToolsRest_ShouldDelegateToHandleToolsList() {
+        // Given
+        TestController custom = new TestController(toolRegistry, objectMapper, 4) {
+            @Override
+            protected Mono<McpResponse> handleToolsList(McpRequest request) {
+                return Mono.just(McpResponse.success(request.id(), Map.of("tools", List.of("custom"))));
+            }
+        };
+
+        // When
+        Map<String, Object> tools = controller.listToolsRest().block();
+        ResponseEntity<Object> customResponse = custom.listToolsRestConditional(null).block();
+        McpResponse customList = custom.processRequest(new McpRequest("2.0", 1, "tools/list", Map.of())).block();
+
+        // Then
+        assertNotNull(tools);
+        assertEquals(toolRegistry.listTools(), tools.get("tools"));
+        assertNotNull(customResponse);
+        assertEquals(Map.of("tools", List.of("custom")), customResponse.getBody());
+        assertEquals(toolRegistry.getToolsListPayload().etag(), customResponse.getHeaders().getETag());
+        assertNotNull(customList);
+        assertEquals(Map.of("tools", List.of("custom")), customList.result());
+    }
+
+    @Test
+    @DisplayName("Should return responses in request order")
+    void processBatch_ShouldPreserveOrder() {
+        // Given - the first call is the slowest
+        List<McpRequest> batch = List.of(
+            toolsCall(1, "slow"),
+            toolsCall(2, "fast"),
+            new McpRequest("2.0", 3, "initialize", Map.of())
+        );
+
+        // When
+        List<McpResponse> responses = controller.processBatch(batch).block();
+
+        // Then
+        assertNotNull(responses);
+        assertEquals(List.of(1, 2, 3), responses.stream().map(McpResponse::id).toList());
+        assertEquals("slow", responses.get(0).result());
+        assertEquals("fast", responses.get(1).result());
+    }
+
+    @Test
+    @DisplayName("Should dispatch entries concurrently up to the configured parallelism")
+    void processBatch_ShouldDispatchConcurrently() {
+        // Given
+        List<McpRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(toolsCall(i, "slow"));
+        }
+
+        // When
+        controller.processBatch(batch).block();
+
+        // Then
+        assertEquals(4, controller.maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Should isolate a failing entry from the rest of the batch")
+    void processBatch_WithFailingEntry_ShouldIsolateError() {
+        // Given
+        List<McpRequest> batch = List.of(
+            toolsCall(1, "fast"),
+            toolsCall(2, "explode"),
+            toolsCall(3, "throw"),
+            new McpRequest("2.0", 4, "unknown/method", null),
+            toolsCall(5, "shed")
+        );
+
+        // When
+        List<McpResponse> responses = controller.processBatch(batch).block();
+
+        // Then
+        assertNotNull(responses);
+        assertEquals(5, responses.size());
+        assertEquals("fast", responses.get(0).result());
+        assertEquals(McpResponse.McpError.INTERNAL_ERROR, responses.get(1).error().code());
+        assertEquals(McpResponse.McpError.INTERNAL_ERROR, responses.get(2).error().code());
+        assertEquals(McpResponse.McpError.METHOD_NOT_FOUND, responses.get(3).error().code());
+        assertEquals(McpResponse.McpError.SERVER_OVERLOADED, responses.get(4).error().code());
+        assertEquals(Map.of("errorCode", "OVERLOADED"), responses.get(4).error().data());
+    }
+
+    @Test
+    @DisplayName("Should omit responses for notifications")
+    void processBatch_WithNotifications_ShouldOmitResponses() {
+        // Given
+        List<McpRequest> batch = List.of(
+            new McpRequest("2.0", null, "initialize", Map.of()),
+            toolsCall(2, "fast")
+        );
+
+        // When
+        List<McpResponse> responses = controller.processBatch(batch).block();
+
+        // Then
+        assertNotNull(responses);
+        assertEquals(1, responses.size());
+        assertEquals(2, responses.get(0).id());
+    }
+
+    @Test
+    @DisplayName("Should answer unparseable entries with invalid request errors")
+    void processBatch_WithNullEntry_ShouldReturnInvalidRequest() {
+        // When
+        List<McpResponse> responses = controller.processBatch(Arrays.asList(null, toolsCall(2, "fast"))).block();
+
+        // Then
+        assertNotNull(responses);
+        assertEquals(2, responses.size());
+        assertEquals(McpResponse.McpError.INVALID_REQUEST, responses.get(0).error().code());
+        assertNull(responses.get(0).id());
+    }
+
+    @Test
+    @DisplayName("Should reject empty and oversized batches")
+    void processBatch_WithInvalidSize_ShouldReturnSingleError() {
+        List<McpResponse> empty = controller.processBatch(List.of()).block();
+        assertNotNull(empty);
+        assertEquals(1, empty.size());
+        assertEquals(McpResponse.McpError.INVALID_REQUEST, empty.get(0).error().code());
+
+        List<McpRequest> oversized = new ArrayList<>();
+        for (int i = 0; i <= BaseMcpController.DEFAULT_MAX_BATCH_SIZE; i++) {
+            oversized.add(toolsCall(i, "fast"));
+        }
+        List<McpResponse> rejected = controller.processBatch(oversized).block();
+        assertNotNull(rejected);
+        assertEquals(1, rejected.size());
+        assertEquals(McpResponse.McpError.INVALID_REQUEST, rejected.get(0).error().code());
+    }
+
+    @Test
+    @DisplayName("Should route JSON arrays to batch and objects to single processing")
+    void processPayload_ShouldHandleBothForms() throws Exception {
+        // When
+        Object single = controller.processPayload(objectMapper.readTree(
+            "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\"}")).block();
+        Object batch = controller.processPayload(objectMapper.readTree(
+            "[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\"}, 42]")).block();
+        Object invalid = controller.processPayload(objectMapper.readTree("\"hello\"")).block();
+
+        // Then
+        assertInstanceOf(McpResponse.class, single);
+        assertInstanceOf(List.class, batch);
+        List<?> responses = (List<?>) batch;
+        assertEquals(2, responses.size());
+        assertNotNull(((McpResponse) responses.get(0)).result());
+        assertEquals(McpResponse.McpError.INVALID_REQUEST, ((McpResponse) responses.get(1)).error().code());
+        assertEquals(McpResponse.McpError.INVALID_REQUEST, ((McpResponse) invalid).error().code());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static McpTool<String> tool(String name, String inputSchema) {
+        McpTool<String> tool = mock(McpTool.class);
+        when(tool.name()).thenReturn(name);
+        when(tool.summary()).thenReturn(name);
+        when(tool.description()).thenReturn(name);
+        when(tool.inputSchema()).thenReturn(inputSchema);
+        return tool;
+    }
+
+    private static McpRequest toolsCall(Object id, String name) {
+        return new McpRequest("2.0", id, "tools/call", Map.of("name", name));
+    }
+
+    /**
+     * Controller whose tools/call echoes the tool name, with configurable latency and failures.
+     */
+    static class TestController extends BaseMcpController {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        private final int parallelism;
+
+        TestController(McpToolRegistry toolRegistry, ObjectMapper objectMapper, int parallelism) {
+            super(toolRegistry, mock(McpResourceHandler.class), mock(McpPromptHandler.class), objectMapper);
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected Mono<McpResponse> handleToolsCall(McpRequest request) {
+            @SuppressWarnings("unchecked")
+            String name = (String) ((Map<String, Object>) request.params()).get("name");
+            return switch (name) {
+                case "throw" -> throw new IllegalStateException("synchronous failure");
+                case "explode" -> Mono.error(new IllegalStateException("asynchronous failure"));
+                case "shed" -> Mono.error(new McpException("Overloaded", HttpStatus.SERVICE_UNAVAILABLE, "OVERLOADED"));
+                case "slow" -> Mono.fromRunnable(() -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .then(Mono.delay(Duration.ofMillis(50)))
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .thenReturn(McpResponse.success(request.id(), name));
+                default -> Mono.just(McpResponse.success(request.id(), name));
+            };
+        }
+
+        @Override
+        protected int getMaxBatchParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        protected String getServerName() {
+            return "test-server";
+        }
+
+        @Override
+        protected String getServerVersion() {
+            return "1.0.0";
+        }
+    }
+}
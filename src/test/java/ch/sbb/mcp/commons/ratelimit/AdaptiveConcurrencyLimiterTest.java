@@ -0,0 +1,156 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import ch.sbb.mcp.commons.core.McpError;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    @DisplayName("Should shed calls beyond the limit and free slots when calls terminate")
+    void execute_BeyondLimit_ShouldShed() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 2, 1, 10, 0.9, meterRegistry);
+        Disposable first = limiter.execute(Mono.never()).subscribe();
+        Disposable second = limiter.execute(Mono.never()).subscribe();
+
+        // When/Then
+        StepVerifier.create(limiter.execute(Mono.just("third")))
+                .expectErrorMatches(e -> e instanceof McpException mcp
+                        && "OVERLOADED".equals(mcp.getErrorCode())
+                        && mcp.getStatus() == HttpStatus.SERVICE_UNAVAILABLE)
+                .verify();
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, meterRegistry.get("mcp.concurrency.rejections")
+                .tag("limiter", "journey-service").functionCounter().count());
+
+        first.dispose();
+        second.dispose();
+        assertEquals(0, limiter.getInFlight());
+        StepVerifier.create(limiter.execute(Mono.just("fourth")))
+                .expectNext("fourth")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should grow the limit by one while latency stays at the baseline and the limit is used")
+    void onSample_LowLatency_ShouldIncreaseAdditively() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 10, 1, 200, 0.9);
+
+        // When
+        limiter.onSample(5 * MILLIS, 10, false);
+        limiter.onSample(5 * MILLIS, 11, false);
+
+        // Then
+        assertEquals(12, limiter.getLimit());
+
+        // And an idle limiter does not grow
+        limiter.onSample(5 * MILLIS, 1, false);
+        assertEquals(12, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency rises above the baseline")
+    void onSample_HighLatency_ShouldDecrease() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 20, 1, 200, 0.9);
+        limiter.onSample(5 * MILLIS, 20, false);
+        assertEquals(21, limiter.getLimit());
+
+        // When - ten times the baseline latency means most calls are queued
+        limiter.onSample(50 * MILLIS, 21, false);
+
+        // Then
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should cut the limit multiplicatively on overload, never below the minimum")
+    void onSample_Overload_ShouldBackOff() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 20, 5, 200, 0.5);
+
+        // When
+        limiter.onSample(5 * MILLIS, 20, true);
+
+        // Then
+        assertEquals(10, limiter.getLimit());
+        for (int i = 0; i < 5; i++) {
+            limiter.onSample(5 * MILLIS, 1, true);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off when a call fails with an overload error")
+    void execute_OverloadError_ShouldBackOff() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 10, 1, 200, 0.9);
+        McpException unavailable = new McpException("Backend unavailable", HttpStatus.SERVICE_UNAVAILABLE, "API_ERROR");
+
+        // When
+        StepVerifier.create(limiter.execute(Mono.error(unavailable)))
+                .expectError(McpException.class)
+                .verify();
+
+        // Then
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should back off when a call returns an overload failure")
+    void execute_OverloadFailureResult_ShouldBackOff() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("journey-service", 10, 1, 200, 0.9);
+        McpResult<String> unavailable = McpResult.failure(
+                new McpError(McpError.ErrorCode.SERVICE_UNAVAILABLE, "Backend unavailable", null, true));
+        McpResult<String> notFound = McpResult.failure(
+                new McpError(McpError.ErrorCode.NOT_FOUND, "No such station", null, false));
+
+        // When
+        StepVerifier.create(limiter.execute(Mono.just(unavailable))).expectNext(unavailable).verifyComplete();
+        StepVerifier.create(limiter.execute(Mono.just(notFound))).expectNext(notFound).verifyComplete();
+
+        // Then
+        assertEquals(9, limiter.getLimit());
+        assertTrue(AdaptiveConcurrencyLimiter.isOverloadResult(McpResult.failure(
+                new McpError(McpError.ErrorCode.RATE_LIMITED, "Too many", null, true))));
+        assertFalse(AdaptiveConcurrencyLimiter.isOverloadResult(McpResult.success("Bern")));
+    }
+
+    @Test
+    @DisplayName("Should recognize overload errors through their causes")
+    void isOverload_ShouldInspectCauses() {
+        assertTrue(AdaptiveConcurrencyLimiter.isOverload(new TimeoutException()));
+        assertTrue(AdaptiveConcurrencyLimiter.isOverload(
+                new RuntimeException(new McpException("Too many", HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED"))));
+        assertFalse(AdaptiveConcurrencyLimiter.isOverload(
+                new McpException("Not found", HttpStatus.NOT_FOUND, "NOT_FOUND")));
+        assertFalse(AdaptiveConcurrencyLimiter.isOverload(new IllegalStateException()));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid limits")
+    void constructor_InvalidLimits_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 10, 0, 20, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 10, 5, 4, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 10, 1, 20, 1.0));
+    }
+}
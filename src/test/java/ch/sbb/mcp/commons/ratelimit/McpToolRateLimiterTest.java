@@ -0,0 +1,154 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import ch.sbb.mcp.commons.config.McpToolRateLimitConfig;
+import ch.sbb.mcp.commons.config.McpToolRateLimitConfig.Limit;
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.exception.McpException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("McpToolRateLimiter Tests")
+class McpToolRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+
+    private McpToolRateLimitConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new McpToolRateLimitConfig();
+        config.setEnabled(true);
+    }
+
+    @Test
+    @DisplayName("Should throttle an expensive tool without throttling others")
+    void tryAcquire_WithToolLimit_ShouldOnlyThrottleThatTool() {
+        // Given
+        config.getTools().put("findTrips", new Limit(1, PERIOD));
+        McpToolRateLimiter rateLimiter = new McpToolRateLimiter(config);
+        McpTool<?> findTrips = tool("findTrips", "routing");
+        McpTool<?> getStation = tool("getStation", "stations");
+
+        // When/Then
+        assertNull(rateLimiter.tryAcquire(findTrips, Optional.empty()));
+        McpException rejection = rateLimiter.tryAcquire(findTrips, Optional.empty());
+        assertNotNull(rejection);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejection.getStatus());
+        assertEquals("RATE_LIMIT_EXCEEDED", rejection.getErrorCode());
+        assertTrue(rejection.getMessage().contains("findTrips"));
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(rateLimiter.tryAcquire(getStation, Optional.empty()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the global token when a narrower limit rejects")
+    void tryAcquire_RejectedByToolLimit_ShouldNotUseGlobalBudget() {
+        // Given
+        config.setGlobal(new Limit(2, PERIOD));
+        config.getTools().put("findTrips", new Limit(1, PERIOD));
+        McpToolRateLimiter rateLimiter = new McpToolRateLimiter(config);
+        McpTool<?> findTrips = tool("findTrips", "routing");
+        McpTool<?> getStation = tool("getStation", "stations");
+
+        // When - the second findTrips call is rejected by its tool limit
+        assertNull(rateLimiter.tryAcquire(findTrips, Optional.empty()));
+        assertNotNull(rateLimiter.tryAcquire(findTrips, Optional.empty()));
+
+        // Then - one global token is left for getStation, then the global limit applies
+        assertNull(rateLimiter.tryAcquire(getStation, Optional.empty()));
+        McpException rejection = rateLimiter.tryAcquire(getStation, Optional.empty());
+        assertNotNull(rejection);
+        assertTrue(rejection.getMessage().startsWith("Global"));
+    }
+
+    @Test
+    @DisplayName("Should share a category limit between the tools of the category")
+    void tryAcquire_WithCategoryLimit_ShouldShareBudget() {
+        // Given
+        config.getCategories().put("routing", new Limit(2, PERIOD));
+        McpToolRateLimiter rateLimiter = new McpToolRateLimiter(config);
+
+        // When/Then
+        assertNull(rateLimiter.tryAcquire(tool("findTrips", "routing"), Optional.empty()));
+        assertNull(rateLimiter.tryAcquire(tool("findRoute", "routing"), Optional.empty()));
+        assertNotNull(rateLimiter.tryAcquire(tool("findTrips", "routing"), Optional.empty()));
+        assertNull(rateLimiter.tryAcquire(tool("getStation", "stations"), Optional.empty()));
+    }
+
+    @Test
+    @DisplayName("Should limit each session separately and ignore invocations without session")
+    void tryAcquire_WithSessionLimit_ShouldLimitPerSession() {
+        // Given
+        config.setSession(new Limit(1, PERIOD));
+        McpToolRateLimiter rateLimiter = new McpToolRateLimiter(config);
+        McpTool<?> getStation = tool("getStation", "stations");
+
+        // When/Then
+        assertNull(rateLimiter.tryAcquire(getStation, Optional.of("session-1")));
+        assertNotNull(rateLimiter.tryAcquire(getStation, Optional.of("session-1")));
+        assertNull(rateLimiter.tryAcquire(getStation, Optional.of("session-2")));
+        assertNull(rateLimiter.tryAcquire(getStation, Optional.empty()));
+    }
+
+    @Test
+    @DisplayName("Should apply the default tool limit to each tool without own limit")
+    void tryAcquire_WithToolDefault_ShouldLimitEachToolSeparately() {
+        // Given
+        config.setToolDefault(new Limit(1, PERIOD));
+        config.getTools().put("findTrips", new Limit(3, PERIOD));
+        McpToolRateLimiter rateLimiter = new McpToolRateLimiter(config);
+
+        // When/Then
+        assertNull(rateLimiter.tryAcquire(tool("getStation", "stations"), Optional.empty()));
+        assertNotNull(rateLimiter.tryAcquire(tool("getStation", "stations"), Optional.empty()));
+        assertNull(rateLimiter.tryAcquire(tool("getWeather", "general"), Optional.empty()));
+        for (int i = 0; i < 3; i++) {
+            assertNull(rateLimiter.tryAcquire(tool("findTrips", "routing"), Optional.empty()));
+        }
+    }
+
+    private static McpTool<String> tool(String name, String category) {
+        return new McpTool<>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String summary() {
+                return name;
+            }
+
+            @Override
+            public String description() {
+                return name;
+            }
+
+            @Override
+            public String inputSchema() {
+                return "{}";
+            }
+
+            @Override
+            public Mono<String> invoke(Map<String, Object> arguments) {
+                return Mono.just(name);
+            }
+
+            @Override
+            public String category() {
+                return category;
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package ch.sbb.mcp.commons.ratelimit;
+
+import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("RedisRateLimiter Tests")
+class RedisRateLimiterTest {
+
+    private ReactiveStringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should serve leased tokens locally and ask Redis again once the lease is used up")
+    void tryAcquire_LeasedTokens_ShouldBeServedLocally() {
+        // Given - Redis grants a lease of 3 tokens, then none
+        doReturn(Flux.just(3L), Flux.just(0L)).when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 10, Duration.ofSeconds(1), 3, meterRegistry);
+
+        // When/Then
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(true).verifyComplete();
+        }
+        verify(redisTemplate, times(1)).execute(any(), anyList(), anyList());
+
+        StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(false).verifyComplete();
+        verify(redisTemplate, times(2)).execute(any(), anyList(), anyList());
+        assertEquals(2.0, meterRegistry.get("mcp.ratelimit.leases").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should throw the rate limit exception when Redis grants no tokens")
+    void checkRateLimit_NoTokensGranted_ShouldThrow() {
+        // Given
+        doReturn(Flux.just(0L)).when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 10, Duration.ofSeconds(1), 5, meterRegistry);
+
+        // When/Then
+        McpException exception = assertThrows(McpException.class, () -> rateLimiter.checkRateLimit("client1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        assertEquals("RATE_LIMIT_EXCEEDED", exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Should not block a non-blocking thread while a lease is drawn")
+    void checkRateLimit_NonBlockingThread_ShouldDecideLocally() {
+        // Given - Redis never answers
+        doReturn(Flux.never()).when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 1, Duration.ofSeconds(10), 5, meterRegistry);
+        Mono<Void> check = Mono.<Void>fromRunnable(() -> rateLimiter.checkRateLimit("client1"))
+                .subscribeOn(Schedulers.parallel());
+
+        // When/Then
+        StepVerifier.create(check).verifyComplete();
+        StepVerifier.create(check).expectError(McpException.class).verify();
+        assertEquals(2.0, meterRegistry.get("mcp.ratelimit.fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop used-up leases automatically as new clients are leased")
+    void tryAcquire_ManyClients_ShouldEvictUsedUpLeases() {
+        // Given - every lease is a single token
+        doReturn(Flux.just(1L)).when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 10, Duration.ofSeconds(1), 1, meterRegistry);
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            assertTrue(rateLimiter.tryAcquire("client-" + i).block());
+        }
+
+        // Then
+        assertTrue(rateLimiter.getLeasedClients() < 1024, "leased clients: " + rateLimiter.getLeasedClients());
+    }
+
+    @Test
+    @DisplayName("Should draw new leases for concurrent callers that found the shared lease used up")
+    void tryAcquire_ConcurrentCallers_ShouldOnlyBeLimitedByRedis() {
+        // Given - the first lease is pending while three callers wait for it; every lease is one token
+        Sinks.One<Long> firstLease = Sinks.one();
+        doReturn(firstLease.asMono().flux(), Flux.just(1L), Flux.just(1L), Flux.just(0L))
+                .when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 10, Duration.ofSeconds(1), 1, meterRegistry);
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client1").subscribe(results::add);
+        }
+        verify(redisTemplate, times(1)).execute(any(), anyList(), anyList());
+
+        // When
+        firstLease.tryEmitValue(1L);
+
+        // Then - all callers got a token, and only an empty bucket limits
+        assertEquals(List.of(true, true, true), results);
+        verify(redisTemplate, times(3)).execute(any(), anyList(), anyList());
+        StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should fall back to a local limit when Redis is unavailable")
+    void tryAcquire_RedisUnavailable_ShouldUseLocalLimit() {
+        // Given
+        doReturn(Flux.error(new RedisConnectionFailureException("Connection refused")))
+                .when(redisTemplate).execute(any(), anyList(), anyList());
+        RedisRateLimiter rateLimiter = new RedisRateLimiter("test", redisTemplate, 2, Duration.ofSeconds(10), 5, meterRegistry);
+
+        // When/Then
+        StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(true).verifyComplete();
+        StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(true).verifyComplete();
+        StepVerifier.create(rateLimiter.tryAcquire("client1")).expectNext(false).verifyComplete();
+        assertEquals(3.0, meterRegistry.get("mcp.ratelimit.fallback").counter().count());
+    }
+}
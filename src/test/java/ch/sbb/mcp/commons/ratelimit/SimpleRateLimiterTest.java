@@ -1,11 +1,14 @@
 package ch.sbb.mcp.commons.ratelimit;
 
 import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import reactor.test.StepVerifier;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -167,6 +170,39 @@ class SimpleRateLimiterTest {
         }
     }
 
+    @Nested
+    @DisplayName("Non-Throwing Acquisition Tests")
+    class TryAcquireTests {
+
+        @Test
+        @DisplayName("tryAcquire should report exhaustion without throwing")
+        void tryAcquire_ExceedsLimit_ShouldReturnFalse() {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(rateLimiter.tryAcquire("client1"));
+            }
+
+            assertFalse(rateLimiter.tryAcquire("client1"));
+            assertTrue(rateLimiter.isRateLimited("client1"));
+        }
+
+        @Test
+        @DisplayName("Should refill one token per interval without a burst on top")
+        void tryAcquire_AfterOneInterval_ShouldRefillOneToken() throws InterruptedException {
+            // Given
+            SimpleRateLimiter fastRefillLimiter = new SimpleRateLimiter(3, Duration.ofMillis(200));
+            for (int i = 0; i < 3; i++) {
+                fastRefillLimiter.tryAcquire("client1");
+            }
+
+            // When
+            Thread.sleep(250);
+
+            // Then
+            assertTrue(fastRefillLimiter.tryAcquire("client1"));
+            assertFalse(fastRefillLimiter.tryAcquire("client1"));
+        }
+    }
+
     @Nested
     @DisplayName("Clear Operations Tests")
     class ClearOperationsTests {
@@ -215,6 +251,50 @@ class SimpleRateLimiterTest {
         }
     }
 
+    @Nested
+    @DisplayName("Bucket Eviction Tests")
+    class BucketEvictionTests {
+
+        @Test
+        @DisplayName("Should drop only buckets that have been full for a refill interval")
+        void evictIdleBuckets_ShouldDropRefilledBucketsOnly() throws InterruptedException {
+            // Given - client1 is refilled quickly, client2 has a long backlog
+            SimpleRateLimiter fastRefillLimiter = new SimpleRateLimiter(1, Duration.ofMillis(50));
+            SimpleRateLimiter slowRefillLimiter = new SimpleRateLimiter(1, Duration.ofMinutes(1));
+            fastRefillLimiter.checkRateLimit("client1");
+            slowRefillLimiter.checkRateLimit("client2");
+
+            // When
+            Thread.sleep(150);
+
+            // Then
+            assertEquals(1, fastRefillLimiter.evictIdleBuckets());
+            assertEquals(0, fastRefillLimiter.getTrackedClients());
+            assertEquals(0, slowRefillLimiter.evictIdleBuckets());
+            assertTrue(slowRefillLimiter.isRateLimited("client2"));
+        }
+
+        @Test
+        @DisplayName("Should cap the number of tracked clients and count evictions")
+        void checkRateLimit_ManyClients_ShouldStayWithinCap() {
+            // Given
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            SimpleRateLimiter boundedLimiter =
+                    new SimpleRateLimiter("test", 5, Duration.ofMinutes(1), 3, meterRegistry);
+
+            // When
+            for (int i = 0; i < 10; i++) {
+                boundedLimiter.checkRateLimit("client" + i);
+            }
+
+            // Then
+            assertEquals(3, boundedLimiter.getTrackedClients());
+            assertEquals(3.0, meterRegistry.get("mcp.ratelimit.clients").gauge().value());
+            assertEquals(7.0, meterRegistry.get("mcp.ratelimit.evictions")
+                    .tag("reason", "capacity").functionCounter().count());
+        }
+    }
+
     @Nested
     @DisplayName("Thread Safety Tests")
     class ThreadSafetyTests {
@@ -340,4 +420,91 @@ class SimpleRateLimiterTest {
             assertDoesNotThrow(() -> fastRefillLimiter.checkRateLimit("client1"));
         }
     }
+
+    @Nested
+    @DisplayName("Reactive Acquisition Tests")
+    class AcquireTests {
+
+        @Test
+        @DisplayName("Should emit the shared rejection instead of failing")
+        void acquire_WhenExhausted_ShouldEmitRejectedPermit() {
+            // Given
+            SimpleRateLimiter singleTokenLimiter = new SimpleRateLimiter(1, Duration.ofSeconds(10));
+
+            // When/Then
+            StepVerifier.create(singleTokenLimiter.acquire("client1"))
+                    .expectNext(Permit.GRANTED)
+                    .verifyComplete();
+            StepVerifier.create(singleTokenLimiter.acquire("client1"))
+                    .expectNextMatches(permit -> permit == Permit.REJECTED)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should delay a request until its token is due")
+        void acquire_WithinMaxWait_ShouldDelayUntilTokenIsDue() {
+            // Given
+            SimpleRateLimiter singleTokenLimiter = new SimpleRateLimiter(1, Duration.ofMillis(100));
+            singleTokenLimiter.checkRateLimit("client1");
+
+            // When/Then
+            StepVerifier.create(singleTokenLimiter.acquire("client1", Duration.ofSeconds(1)))
+                    .assertNext(permit -> {
+                        assertTrue(permit.granted());
+                        assertTrue(permit.waited().toMillis() > 0);
+                        assertTrue(permit.waited().toMillis() <= 100);
+                    })
+                    .verifyComplete();
+            assertEquals(0, singleTokenLimiter.getWaiters());
+        }
+
+        @Test
+        @DisplayName("Should reject when the token is not due within the max wait")
+        void acquire_BeyondMaxWait_ShouldReject() {
+            // Given
+            SimpleRateLimiter singleTokenLimiter = new SimpleRateLimiter(1, Duration.ofSeconds(10));
+            singleTokenLimiter.checkRateLimit("client1");
+
+            // When/Then
+            StepVerifier.create(singleTokenLimiter.acquire("client1", Duration.ofMillis(100)))
+                    .expectNext(Permit.REJECTED)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should reject when too many callers are waiting")
+        void acquire_WhenWaitQueueIsFull_ShouldReject() {
+            // Given - one caller waiting for the next token
+            SimpleRateLimiter singleTokenLimiter = new SimpleRateLimiter(1, Duration.ofMillis(200));
+            singleTokenLimiter.checkRateLimit("client1");
+            StepVerifier.create(singleTokenLimiter.acquire("client1", Duration.ofSeconds(1), 1))
+                    .expectSubscription()
+                    .then(() -> {
+                        assertEquals(1, singleTokenLimiter.getWaiters());
+
+                        // When/Then
+                        StepVerifier.create(singleTokenLimiter.acquire("client1", Duration.ofSeconds(1), 1))
+                                .expectNext(Permit.REJECTED)
+                                .verifyComplete();
+                    })
+                    .assertNext(permit -> assertTrue(permit.granted()))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should throw the preallocated exception without stack trace")
+        void checkRateLimit_WhenExceeded_ShouldThrowPreallocatedException() {
+            // Given
+            SimpleRateLimiter singleTokenLimiter = new SimpleRateLimiter(1, Duration.ofSeconds(10));
+            singleTokenLimiter.checkRateLimit("client1");
+
+            // When
+            McpException exception = assertThrows(McpException.class,
+                () -> singleTokenLimiter.checkRateLimit("client1"));
+
+            // Then
+            assertSame(SimpleRateLimiter.RATE_LIMIT_EXCEEDED, exception);
+            assertEquals(0, exception.getStackTrace().length);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.config.McpToolBulkheadConfig;
+import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.core.McpToolBulkhead;
+import ch.sbb.mcp.commons.exception.McpException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("McpToolBulkheads Tests")
+class McpToolBulkheadsTest {
+
+    private McpToolBulkheadConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new McpToolBulkheadConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should queue invocations over the limit and run them when a slot is released")
+    void execute_OverLimit_ShouldQueueThenRejectWhenQueueIsFull() {
+        // Given
+        config.getTools().put("findTrips", new McpToolBulkheadConfig.Limits(1, 1, Duration.ofSeconds(10)));
+        McpToolBulkheads bulkheads = new McpToolBulkheads(config, meterRegistry);
+        McpTool<String> tool = new TestTool("findTrips");
+        Sinks.One<String> firstResult = Sinks.one();
+        AtomicInteger secondStarted = new AtomicInteger();
+
+        // When
+        Disposable first = bulkheads.execute(tool, firstResult.asMono()).subscribe();
+        Disposable second = bulkheads.execute(tool, Mono.fromCallable(secondStarted::incrementAndGet)).subscribe();
+
+        // Then
+        assertEquals(1, bulkheads.getActive("findTrips"));
+        assertEquals(1, bulkheads.getQueued("findTrips"));
+        assertEquals(0, secondStarted.get());
+        McpException rejection = assertThrows(McpException.class,
+                () -> bulkheads.execute(tool, Mono.just("third")).block());
+        assertEquals("BULKHEAD_FULL", rejection.getErrorCode());
+
+        firstResult.tryEmitValue("done");
+        assertEquals(1, secondStarted.get());
+        assertEquals(0, bulkheads.getActive("findTrips"));
+        assertEquals(0, bulkheads.getQueued("findTrips"));
+        assertEquals(1, meterRegistry.get("mcp.tool.bulkhead.rejections")
+                .tags("tool", "findTrips", "reason", "full").functionCounter().count());
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    @DisplayName("Should reject a queued invocation after the queue timeout")
+    void execute_QueuedTooLong_ShouldTimeOut() {
+        // Given
+        config.getTools().put("findTrips", new McpToolBulkheadConfig.Limits(1, 1, Duration.ofMillis(50)));
+        McpToolBulkheads bulkheads = new McpToolBulkheads(config, meterRegistry);
+        McpTool<String> tool = new TestTool("findTrips");
+        Disposable first = bulkheads.execute(tool, Mono.never()).subscribe();
+
+        // When/Then
+        StepVerifier.create(bulkheads.execute(tool, Mono.just("second")))
+                .expectErrorMatches(e -> e instanceof McpException mcp && "BULKHEAD_TIMEOUT".equals(mcp.getErrorCode()))
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0, bulkheads.getQueued("findTrips"));
+
+        // And cancelling the running invocation frees its slot
+        first.dispose();
+        assertEquals(0, bulkheads.getActive("findTrips"));
+    }
+
+    @Test
+    @DisplayName("Should take limits from the annotation and leave other tools unlimited")
+    void execute_WithAnnotation_ShouldApplyAnnotatedLimits() {
+        // Given
+        McpToolBulkheads bulkheads = new McpToolBulkheads(config, meterRegistry);
+        McpTool<String> annotated = new AnnotatedTool();
+        McpTool<String> unlimited = new TestTool("getStation");
+        Disposable first = bulkheads.execute(annotated, Mono.never()).subscribe();
+
+        // When/Then
+        assertThrows(McpException.class, () -> bulkheads.execute(annotated, Mono.just("second")).block());
+        for (int i = 0; i < 5; i++) {
+            bulkheads.execute(unlimited, Mono.never()).subscribe();
+        }
+        assertEquals(0, bulkheads.getActive("getStation"));
+        assertNull(meterRegistry.find("mcp.tool.bulkhead.active").tag("tool", "getStation").gauge());
+        first.dispose();
+    }
+
+    private static class TestTool implements McpTool<String> {
+
+        private final String name;
+
+        TestTool(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String summary() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public String inputSchema() {
+            return "{}";
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments) {
+            return Mono.just(name);
+        }
+    }
+
+    @McpToolBulkhead(maxConcurrent = 1)
+    private static class AnnotatedTool extends TestTool {
+
+        AnnotatedTool() {
+            super("searchPlaces");
+        }
+    }
+}
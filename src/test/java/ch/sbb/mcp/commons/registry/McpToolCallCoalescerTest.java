@@ -0,0 +1,199 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.core.McpTool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("McpToolCallCoalescer Tests")
+class McpToolCallCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private McpToolCallCoalescer coalescer;
+    private AtomicInteger invocations;
+    private Sinks.One<String> upstream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new McpToolCallCoalescer(meterRegistry);
+        invocations = new AtomicInteger();
+        upstream = Sinks.one();
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight invocation between identical concurrent calls")
+    void execute_ConcurrentIdenticalCalls_ShouldInvokeOnce() {
+        // Given
+        McpTool<String> tool = new TestTool("getStation", false);
+        List<Object> results = new ArrayList<>();
+
+        // When
+        coalescer.execute(tool, Map.of("id", 8507000, "lang", "de"), Optional.empty(), this::invoke)
+                .subscribe(results::add);
+        coalescer.execute(tool, Map.of("lang", "de", "id", 8507000L), Optional.of("session-2"), this::invoke)
+                .subscribe(results::add);
+
+        // Then
+        assertEquals(1, invocations.get());
+        assertEquals(1, coalescer.getInFlight());
+        upstream.tryEmitValue("Bern");
+        assertEquals(List.of("Bern", "Bern"), results);
+        assertEquals(0, coalescer.getInFlight());
+        assertEquals(1, meterRegistry.get("mcp.tool.coalesced").functionCounter().count());
+
+        // And a later call invokes the tool again
+        upstream = Sinks.one();
+        coalescer.execute(tool, Map.of("id", 8507000, "lang", "de"), Optional.empty(), this::invoke).subscribe();
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    @DisplayName("Should deliver an error to every caller and not keep the failed invocation")
+    void execute_Error_ShouldReachAllCallers() {
+        // Given
+        McpTool<String> tool = new TestTool("getStation", false);
+        Mono<?> first = coalescer.execute(tool, Map.of("id", 1), Optional.empty(), this::invoke);
+        Mono<?> second = coalescer.execute(tool, Map.of("id", 1), Optional.empty(), this::invoke);
+        AtomicInteger errors = new AtomicInteger();
+        first.subscribe(result -> { }, error -> errors.incrementAndGet());
+        second.subscribe(result -> { }, error -> errors.incrementAndGet());
+
+        // When
+        upstream.tryEmitError(new IllegalStateException("down"));
+
+        // Then
+        assertEquals(2, errors.get());
+        assertEquals(1, invocations.get());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should keep the shared invocation running when its callers cancel")
+    void execute_CallersCancel_ShouldNotCancelInvocation() {
+        // Given
+        McpTool<String> tool = new TestTool("getStation", false);
+        AtomicInteger cancellations = new AtomicInteger();
+        Disposable first = coalescer.execute(tool, Map.of("id", 1), Optional.empty(),
+                () -> invoke().doOnCancel(cancellations::incrementAndGet)).subscribe();
+
+        // When
+        first.dispose();
+        List<Object> results = new ArrayList<>();
+        coalescer.execute(tool, Map.of("id", 1), Optional.empty(), this::invoke).subscribe(results::add);
+        upstream.tryEmitValue("Bern");
+
+        // Then
+        assertEquals(0, cancellations.get());
+        assertEquals(1, invocations.get());
+        assertEquals(List.of("Bern"), results);
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should not coalesce state-modifying tools, different arguments or different sessions of session-aware tools")
+    void execute_NotIdentical_ShouldInvokeSeparately() {
+        // Given
+        McpTool<String> stateModifying = new TestTool("bookTicket", true);
+        McpTool<String> readOnly = new TestTool("getStation", false);
+        McpTool<String> sessionAware = new SessionAwareTool();
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            coalescer.execute(stateModifying, Map.of("id", 1), Optional.empty(), this::invoke).subscribe();
+        }
+        coalescer.execute(readOnly, Map.of("id", 1), Optional.empty(), this::invoke).subscribe();
+        coalescer.execute(readOnly, Map.of("id", 2), Optional.empty(), this::invoke).subscribe();
+        coalescer.execute(sessionAware, Map.of("id", 1), Optional.of("session-1"), this::invoke).subscribe();
+        coalescer.execute(sessionAware, Map.of("id", 1), Optional.of("session-2"), this::invoke).subscribe();
+        coalescer.execute(sessionAware, Map.of("id", 1), Optional.of("session-2"), this::invoke).subscribe();
+
+        // Then
+        assertEquals(6, invocations.get());
+        assertEquals(4, coalescer.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should complete callers of a synchronous invocation")
+    void execute_SynchronousInvocation_ShouldComplete() {
+        // Given
+        McpTool<String> tool = new TestTool("getStation", false);
+
+        // When/Then
+        StepVerifier.create(coalescer.execute(tool, Map.of(), Optional.empty(), () -> Mono.just("Bern")))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    private Mono<?> invoke() {
+        invocations.incrementAndGet();
+        return upstream.asMono();
+    }
+
+    private static class TestTool implements McpTool<String> {
+
+        private final String name;
+        private final boolean stateModifying;
+
+        TestTool(String name, boolean stateModifying) {
+            this.name = name;
+            this.stateModifying = stateModifying;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String summary() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public String inputSchema() {
+            return "{}";
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments) {
+            return Mono.just(name);
+        }
+
+        @Override
+        public boolean isStateModifying() {
+            return stateModifying;
+        }
+    }
+
+    private static class SessionAwareTool extends TestTool {
+
+        SessionAwareTool() {
+            super("getProgress", false);
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments, Optional<String> sessionId) {
+            return Mono.just(sessionId.orElse("none"));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.core.McpError;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.ratelimit.SimpleRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("McpToolMetrics Tests")
+class McpToolMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private McpToolMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new McpToolMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should time successful invocations per tool")
+    void record_Success_ShouldTimeInvocation() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(metrics.record("getStation", Map.of(), Mono.just(McpResult.success("Bern"))))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        // Then
+        assertEquals(3, meterRegistry.get("mcp.tool.invocations")
+                .tags("tool", "getStation", "outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("mcp.tool.invocations")
+                .tags("tool", "getStation", "outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should count failures by error code")
+    void record_Failures_ShouldCountByErrorCode() {
+        // When
+        metrics.record("findTrips", Map.of(), Mono.just(McpResult.failure(McpError.timeout("Upstream timed out")))).block();
+        metrics.record("findTrips", Map.of(), Mono.error(new IllegalArgumentException("Missing origin")))
+                .onErrorResume(e -> Mono.empty()).block();
+        metrics.record("findTrips", Map.of(), Mono.error(SimpleRateLimiter.RATE_LIMIT_EXCEEDED))
+                .onErrorResume(e -> Mono.empty()).block();
+        metrics.record("findTrips", Map.of(), Mono.error(new IllegalStateException("Bug")))
+                .onErrorResume(e -> Mono.empty()).block();
+
+        // Then
+        for (String code : new String[] {"TIMEOUT", "INVALID_INPUT", "RATE_LIMITED", "INTERNAL_ERROR"}) {
+            assertEquals(1, meterRegistry.get("mcp.tool.errors")
+                    .tags("tool", "findTrips", "code", code).counter().count(), code);
+        }
+        assertEquals(4, meterRegistry.get("mcp.tool.invocations")
+                .tags("tool", "findTrips", "outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should track invocations in flight")
+    void record_Pending_ShouldCountInFlight() {
+        // Given
+        Sinks.One<String> result = Sinks.one();
+        Disposable subscription = metrics.record("getStation", Map.of(), result.asMono()).subscribe();
+
+        // Then
+        assertEquals(1, meterRegistry.get("mcp.tool.in-flight").tag("tool", "getStation").gauge().value());
+        result.tryEmitValue("Bern");
+        assertEquals(0, meterRegistry.get("mcp.tool.in-flight").tag("tool", "getStation").gauge().value());
+        subscription.dispose();
+    }
+
+    @Test
+    @DisplayName("Should record payload sizes only when enabled")
+    void record_WithPayloadSizes_ShouldRecordJsonSizes() {
+        // Given
+        McpToolMetrics sizingMetrics = new McpToolMetrics(meterRegistry, new ObjectMapper(), true);
+
+        // When
+        sizingMetrics.record("getStation", Map.of("query", "Bern"), Mono.just(McpResult.success("Bern"))).block();
+
+        // Then - {"query":"Bern"} and "Bern"
+        assertEquals(16, meterRegistry.get("mcp.tool.arguments.size").tag("tool", "getStation").summary().totalAmount());
+        assertEquals(6, meterRegistry.get("mcp.tool.response.size").tag("tool", "getStation").summary().totalAmount());
+        metrics.record("getWeather", Map.of(), Mono.just("sunny")).block();
+        assertNull(meterRegistry.find("mcp.tool.arguments.size").tag("tool", "getWeather").summary());
+    }
+}
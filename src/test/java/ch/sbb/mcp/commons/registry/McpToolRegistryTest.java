@@ -1,15 +1,25 @@
 package ch.sbb.mcp.commons.registry;
 
+import ch.sbb.mcp.commons.config.McpToolBulkheadConfig;
+import ch.sbb.mcp.commons.config.McpToolCacheConfig;
+import ch.sbb.mcp.commons.config.McpToolRateLimitConfig;
 import ch.sbb.mcp.commons.core.McpTool;
+import ch.sbb.mcp.commons.exception.McpException;
+import ch.sbb.mcp.commons.ratelimit.McpToolRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.context.ApplicationContext;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -107,6 +117,113 @@ class McpToolRegistryTest {
         assertThrows(IllegalArgumentException.class, result::block);
     }
 
+    @Test
+    @DisplayName("Should reject invocations over the rate limit without invoking the tool")
+    void invokeTool_OverRateLimit_ShouldRejectWithoutInvoking() {
+        // Given
+        McpTool<String> mockTool = createMockTool("testTool", "Test", "Test tool", "{}");
+        Map<String, Object> args = Map.of();
+        when(mockTool.invoke(args, Optional.of("session-1"))).thenReturn(Mono.just("result"));
+        McpToolRateLimitConfig config = new McpToolRateLimitConfig();
+        config.setSession(new McpToolRateLimitConfig.Limit(1, Duration.ofMinutes(1)));
+
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) Map.of("testTool", mockTool));
+        when(mockContext.getBeansOfType(McpToolRateLimiter.class))
+            .thenReturn(Map.of("rateLimiter", new McpToolRateLimiter(config)));
+        registry.init();
+
+        // When
+        Object first = registry.invokeTool("testTool", args, Optional.of("session-1")).block();
+        Mono<?> second = registry.invokeTool("testTool", args, Optional.of("session-1"));
+
+        // Then
+        assertEquals("result", first);
+        McpException exception = assertThrows(McpException.class, second::block);
+        assertEquals("RATE_LIMIT_EXCEEDED", exception.getErrorCode());
+        verify(mockTool, times(1)).invoke(args, Optional.of("session-1"));
+    }
+
+    @Test
+    @DisplayName("Should take rate limit permits on subscription, not on assembly")
+    void invokeTool_NotSubscribed_ShouldNotTakePermit() {
+        // Given
+        McpTool<String> mockTool = createMockTool("testTool", "Test", "Test tool", "{}");
+        Map<String, Object> args = Map.of();
+        when(mockTool.invoke(args, Optional.of("session-1"))).thenReturn(Mono.just("result"));
+        McpToolRateLimitConfig config = new McpToolRateLimitConfig();
+        config.setSession(new McpToolRateLimitConfig.Limit(1, Duration.ofMinutes(1)));
+
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) Map.of("testTool", mockTool));
+        when(mockContext.getBeansOfType(McpToolRateLimiter.class))
+            .thenReturn(Map.of("rateLimiter", new McpToolRateLimiter(config)));
+        registry.init();
+
+        // When - an invocation is assembled but never subscribed
+        registry.invokeTool("testTool", args, Optional.of("session-1"));
+
+        // Then
+        assertEquals("result", registry.invokeTool("testTool", args, Optional.of("session-1")).block());
+    }
+
+    @Test
+    @DisplayName("Should apply the adaptive limit inside the bulkhead")
+    void invokeTool_WithBulkheadAndAdaptiveLimit_ShouldOnlyLimitToolCalls() {
+        // Given
+        McpTool<String> mockTool = createMockTool("findTrips", "Trips", "Find trips", "{}");
+        Sinks.One<String> firstResult = Sinks.one();
+        when(mockTool.invoke(anyMap())).thenReturn(firstResult.asMono(), Mono.just("second"));
+        McpToolBulkheadConfig bulkheadConfig = new McpToolBulkheadConfig();
+        bulkheadConfig.getTools().put("findTrips", new McpToolBulkheadConfig.Limits(1, 1, Duration.ofSeconds(10)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        McpToolConcurrencyLimits limits = new McpToolConcurrencyLimits(20, 1, 200, 0.9, meterRegistry);
+
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) Map.of("findTrips", mockTool));
+        when(mockContext.getBeansOfType(McpToolBulkheads.class))
+            .thenReturn(Map.of("bulkheads", new McpToolBulkheads(bulkheadConfig, meterRegistry)));
+        when(mockContext.getBeansOfType(McpToolConcurrencyLimits.class)).thenReturn(Map.of("limits", limits));
+        registry.init();
+
+        // When - one call runs, one waits in the bulkhead queue and one is rejected by the bulkhead
+        Disposable first = registry.invokeTool("findTrips", Map.of()).subscribe();
+        Disposable second = registry.invokeTool("findTrips", Map.of()).subscribe();
+        McpException rejection = assertThrows(McpException.class,
+            () -> registry.invokeTool("findTrips", Map.of()).block());
+
+        // Then - only the running call is in flight and the rejection did not cut the limit
+        assertEquals("BULKHEAD_FULL", rejection.getErrorCode());
+        assertEquals(1, limits.limiter("findTrips").getInFlight());
+        assertEquals(20, limits.limiter("findTrips").getLimit());
+
+        firstResult.tryEmitValue("first");
+        assertEquals(0, limits.limiter("findTrips").getInFlight());
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer repeated invocations from the result cache")
+    void invokeTool_WithResultCache_ShouldInvokeToolOnce() {
+        // Given
+        McpTool<String> mockTool = createMockTool("getStation", "Station", "Get station", "{}");
+        when(mockTool.invoke(anyMap())).thenReturn(Mono.just("Bern"));
+        McpToolCacheConfig config = new McpToolCacheConfig();
+        config.getTtl().put("getStation", Duration.ofMinutes(5));
+
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) Map.of("getStation", mockTool));
+        when(mockContext.getBeansOfType(McpToolResultCache.class))
+            .thenReturn(Map.of("resultCache", new McpToolResultCache(config, new SimpleMeterRegistry())));
+        registry.init();
+
+        // When
+        Object first = registry.invokeTool("getStation", Map.of("id", 8507000, "lang", "de")).block();
+        Object second = registry.invokeTool("getStation", Map.of("lang", "de", "id", 8507000L)).block();
+
+        // Then
+        assertEquals("Bern", first);
+        assertEquals("Bern", second);
+        verify(mockTool, times(1)).invoke(anyMap());
+    }
+
     @Test
     @DisplayName("Should correctly identify registered tools")
     void hasTool_ShouldReturnCorrectStatus() {
@@ -174,6 +291,70 @@ class McpToolRegistryTest {
         assertEquals(jsonSchema, toolInfo.inputSchema());
     }
 
+    @Test
+    @DisplayName("Should render tools/list payload once and reuse it")
+    void getToolsListPayload_ShouldBeCachedUntilToolSetChanges() {
+        // Given
+        Map<String, McpTool<?>> toolBeans = Map.of(
+            "tool1", createMockTool("getStation", "Get station", "Retrieves station info", "{\"type\":\"object\"}")
+        );
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) toolBeans);
+        registry.init();
+
+        // When
+        McpToolRegistry.ToolsListPayload first = registry.getToolsListPayload();
+        McpToolRegistry.ToolsListPayload second = registry.getToolsListPayload();
+
+        // Then
+        assertSame(first, second);
+        assertSame(first.tools(), registry.listTools());
+        assertTrue(first.json().startsWith("{\"tools\":[{"));
+        assertTrue(first.json().contains("\"name\":\"getStation\""));
+        assertTrue(first.json().contains("\"inputSchema\":{\"type\":\"object\"}"));
+        assertArrayEquals(first.json().getBytes(java.nio.charset.StandardCharsets.UTF_8), first.bytes());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+    }
+
+    @Test
+    @DisplayName("Should invalidate tools/list payload when tools are registered or removed")
+    void registerAndUnregister_ShouldInvalidatePayload() {
+        // Given
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn(Map.of());
+        registry.init();
+        McpToolRegistry.ToolsListPayload empty = registry.getToolsListPayload();
+
+        // When
+        registry.registerTool(createMockTool("newTool", "New", "New tool", "{}"));
+        McpToolRegistry.ToolsListPayload withTool = registry.getToolsListPayload();
+
+        // Then
+        assertTrue(registry.hasTool("newTool"));
+        assertEquals(1, registry.listTools().size());
+        assertNotEquals(empty.etag(), withTool.etag());
+
+        // When
+        assertTrue(registry.unregisterTool("newTool"));
+        assertFalse(registry.unregisterTool("newTool"));
+
+        // Then
+        assertFalse(registry.hasTool("newTool"));
+        assertEquals(empty.etag(), registry.getToolsListPayload().etag());
+    }
+
+    @Test
+    @DisplayName("Should list tools ordered by name for a stable payload")
+    void listTools_ShouldBeOrderedByName() {
+        // Given
+        Map<String, McpTool<?>> toolBeans = new HashMap<>();
+        toolBeans.put("b", createMockTool("zeta", "Z", "Z tool", "{}"));
+        toolBeans.put("a", createMockTool("alpha", "A", "A tool", "{}"));
+        when(mockContext.getBeansOfType(McpTool.class)).thenReturn((Map) toolBeans);
+        registry.init();
+
+        // Then
+        assertEquals(List.of("alpha", "zeta"), registry.listTools().stream().map(McpToolRegistry.ToolInfo::name).toList());
+    }
+
     // Helper method to create mock tools
     private McpTool<String> createMockTool(String name, String summary, String description, String inputSchema) {
         McpTool<String> tool = mock(McpTool.class);
@@ -0,0 +1,253 @@
+package ch.sbb.mcp.commons.registry;
+
+import ch.sbb.mcp.commons.config.McpToolCacheConfig;
+import ch.sbb.mcp.commons.core.BaseMcpTool;
+import ch.sbb.mcp.commons.core.McpResult;
+import ch.sbb.mcp.commons.core.McpTool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("McpToolResultCache Tests")
+class McpToolResultCacheTest {
+
+    private McpToolCacheConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger invocations;
+
+    @BeforeEach
+    void setUp() {
+        config = new McpToolCacheConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        invocations = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should answer invocations with equivalent arguments from the cache")
+    void execute_EquivalentArguments_ShouldHit() {
+        // Given
+        config.getTtl().put("getStation", Duration.ofMinutes(5));
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        McpTool<String> tool = new TestTool("getStation", false);
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("id", 8507000);
+        first.put("filter", Map.of("types", List.of("train", "bus"), "radius", 2.0));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("filter", Map.of("radius", new BigDecimal("2.00"), "types", List.of("train", "bus")));
+        second.put("id", 8507000L);
+
+        // When/Then
+        assertEquals(1, cache.execute(tool, first, Optional.empty(), this::invoke).block());
+        assertEquals(1, cache.execute(tool, second, Optional.empty(), this::invoke).block());
+        assertEquals(2, cache.execute(tool, Map.of("id", 8507001), Optional.empty(), this::invoke).block());
+
+        assertEquals(2, invocations.get());
+        assertEquals(2, cache.size());
+        assertEquals(1, meterRegistry.get("mcp.tool.cache.requests")
+                .tags("tool", "getStation", "result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("mcp.tool.cache.requests")
+                .tags("tool", "getStation", "result", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should never cache state-modifying tools or tools without a TTL")
+    void execute_NotCacheable_ShouldAlwaysInvoke() {
+        // Given
+        config.setDefaultTtl(Duration.ofMinutes(5));
+        config.getTtl().put("searchPlaces", Duration.ZERO);
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        List<McpTool<String>> tools = List.of(new TestTool("bookTicket", true), new TestTool("searchPlaces", false));
+
+        // When
+        for (McpTool<String> tool : tools) {
+            cache.execute(tool, Map.of("q", "Bern"), Optional.empty(), this::invoke).block();
+            cache.execute(tool, Map.of("q", "Bern"), Optional.empty(), this::invoke).block();
+        }
+
+        // Then
+        assertEquals(4, invocations.get());
+        assertEquals(0, cache.size());
+        assertNull(meterRegistry.find("mcp.tool.cache.requests").tag("tool", "bookTicket").counter());
+    }
+
+    @Test
+    @DisplayName("Should not cache failed or empty invocations")
+    void execute_ErrorOrEmpty_ShouldNotCache() {
+        // Given
+        config.setDefaultTtl(Duration.ofMinutes(5));
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        McpTool<String> tool = new TestTool("getStation", false);
+
+        // When
+        StepVerifier.create(cache.execute(tool, Map.of("id", 1), Optional.empty(),
+                        () -> Mono.error(new IllegalStateException("down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(cache.execute(tool, Map.of("id", 2), Optional.empty(), Mono::empty)).verifyComplete();
+
+        // Then
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should not cache failures returned by a BaseMcpTool")
+    void execute_FailureResult_ShouldNotCache() {
+        // Given
+        config.setDefaultTtl(Duration.ofMinutes(5));
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        FailingTool tool = new FailingTool();
+
+        Map<String, Object> arguments = Map.of("id", 1);
+
+        // When
+        Object first = cache.execute(tool, arguments, Optional.empty(), () -> tool.invoke(arguments)).block();
+        Object second = cache.execute(tool, arguments, Optional.empty(), () -> tool.invoke(arguments)).block();
+
+        // Then
+        assertInstanceOf(McpResult.Failure.class, first);
+        assertInstanceOf(McpResult.Failure.class, second);
+        assertEquals(2, tool.invocations.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should key results of session-aware tools by session")
+    void execute_SessionAwareTool_ShouldKeyBySession() {
+        // Given
+        config.setDefaultTtl(Duration.ofMinutes(5));
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        McpTool<String> sessionAware = new SessionAwareTool();
+        McpTool<String> readOnly = new TestTool("getStation", false);
+
+        // When/Then
+        assertEquals(1, cache.execute(sessionAware, Map.of(), Optional.of("session-1"), this::invoke).block());
+        assertEquals(2, cache.execute(sessionAware, Map.of(), Optional.of("session-2"), this::invoke).block());
+        assertEquals(1, cache.execute(sessionAware, Map.of(), Optional.of("session-1"), this::invoke).block());
+        assertEquals(3, cache.execute(readOnly, Map.of(), Optional.of("session-1"), this::invoke).block());
+        assertEquals(3, cache.execute(readOnly, Map.of(), Optional.of("session-2"), this::invoke).block());
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    @DisplayName("Should drop cached results on clear")
+    void clear_ShouldDropResults() {
+        // Given
+        config.setDefaultTtl(Duration.ofMinutes(5));
+        McpToolResultCache cache = new McpToolResultCache(config, meterRegistry);
+        McpTool<String> tool = new TestTool("getStation", false);
+        cache.execute(tool, Map.of(), Optional.empty(), this::invoke).block();
+
+        // When
+        cache.clear();
+
+        // Then
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.execute(tool, Map.of(), Optional.empty(), this::invoke).block());
+    }
+
+    private Mono<?> invoke() {
+        return Mono.fromCallable(invocations::incrementAndGet);
+    }
+
+    private static class TestTool implements McpTool<String> {
+
+        private final String name;
+        private final boolean stateModifying;
+
+        TestTool(String name, boolean stateModifying) {
+            this.name = name;
+            this.stateModifying = stateModifying;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String summary() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public String inputSchema() {
+            return "{}";
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments) {
+            return Mono.just(name);
+        }
+
+        @Override
+        public boolean isStateModifying() {
+            return stateModifying;
+        }
+    }
+
+    private static class SessionAwareTool extends TestTool {
+
+        SessionAwareTool() {
+            super("getProgress", false);
+        }
+
+        @Override
+        public Mono<String> invoke(Map<String, Object> arguments, Optional<String> sessionId) {
+            return Mono.just(sessionId.orElse("none"));
+        }
+    }
+
+    private static class FailingTool extends BaseMcpTool<Integer, String> {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @Override
+        public String name() {
+            return "getStation";
+        }
+
+        @Override
+        public String summary() {
+            return "getStation";
+        }
+
+        @Override
+        public String description() {
+            return "getStation";
+        }
+
+        @Override
+        public String inputSchema() {
+            return "{}";
+        }
+
+        @Override
+        protected Integer validateAndParse(Map<String, Object> args) {
+            return (Integer) args.get("id");
+        }
+
+        @Override
+        protected Mono<String> executeInternal(Integer input) {
+            invocations.incrementAndGet();
+            return Mono.error(new IllegalStateException("upstream unavailable"));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ch.sbb.mcp.commons.registry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TinyLfuCache Tests")
+class TinyLfuCacheTest {
+
+    @Test
+    @DisplayName("Should treat entries as absent once their TTL has passed")
+    void get_AfterTtl_ShouldMiss() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, now::get);
+        cache.put("short", "a", 100);
+        cache.put("long", "b", 1_000);
+
+        // When
+        now.set(100);
+
+        // Then
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("long"));
+
+        // And a new value restarts the TTL
+        cache.put("short", "c", 100);
+        assertEquals("c", cache.get("short"));
+    }
+
+    @Test
+    @DisplayName("Should keep frequently requested entries during a scan of one-off keys")
+    void put_ScanOfOneOffKeys_ShouldKeepHotEntries() {
+        // Given
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, i, Long.MAX_VALUE / 2);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i, cache.get("hot-" + i));
+            }
+        }
+
+        // When - each one-off key is looked up once and then cached, as on a miss
+        for (int i = 0; i < 1_000; i++) {
+            assertNull(cache.get("scan-" + i));
+            cache.put("scan-" + i, i, Long.MAX_VALUE / 2);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.evictions() >= 950);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, cache.get("hot-" + i), "hot-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove all entries on clear")
+    void clear_ShouldRemoveAllEntries() {
+        // Given
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put("key-" + i, "value", 1_000_000_000L);
+            cache.get("key-" + i);
+        }
+
+        // When
+        cache.clear();
+
+        // Then
+        assertEquals(0, cache.size());
+        assertNull(cache.get("key-0"));
+        cache.put("key-0", "again", 1_000_000_000L);
+        assertEquals("again", cache.get("key-0"));
+    }
+}
@@ -0,0 +1,75 @@
+package ch.sbb.mcp.commons.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("McpSessionId Tests")
+class McpSessionIdTest {
+
+    @Test
+    @DisplayName("Should parse a lowercase UUID into its 128-bit value")
+    void shouldParseUuid() {
+        UUID uuid = UUID.randomUUID();
+
+        McpSessionId sessionId = McpSessionId.parse(uuid.toString());
+
+        assertThat(sessionId.toUuid()).isEqualTo(uuid);
+        assertThat(sessionId.value()).isSameAs(sessionId.toString()).isEqualTo(uuid.toString());
+        assertThat(sessionId).isEqualTo(McpSessionId.of(uuid)).hasSameHashCodeAs(McpSessionId.of(uuid));
+    }
+
+    @Test
+    @DisplayName("Should agree with the previous regular expression")
+    void shouldMatchRegexValidation() {
+        String regex = "^[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}$";
+        String[] candidates = {
+            "a1b2c3d4-e5f6-7890-abcd-ef1234567890",
+            "00000000-0000-0000-0000-000000000000",
+            "ffffffff-ffff-ffff-ffff-ffffffffffff",
+            "a1b2c3d4-e5f6-7890-abcd-ef123456789g",
+            "a1b2c3d4e-5f6-7890-abcd-ef1234567890",
+            "a1b2c3d4-e5f6-7890-abcd-ef1234567890\n",
+        };
+
+        for (String candidate : candidates) {
+            assertThat(McpSessionId.isValid(candidate)).as(candidate).isEqualTo(candidate.matches(regex));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject malformed session IDs")
+    void shouldRejectMalformedIds() {
+        String[] candidates = {
+            null,
+            "",
+            "   ",
+            "not-a-uuid",
+            "abc\r\nDEL mcp:session:*\r\n",
+            "AAAAAAAA-BBBB-CCCC-DDDD-EEEEEEEEEEEE",
+            "12345678-1234-1234-1234-12345678901",
+            "12345678-1234-1234-1234-1234567890123",
+            "xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx",
+        };
+
+        for (String candidate : candidates) {
+            assertThat(McpSessionId.isValid(candidate)).as(candidate).isFalse();
+            assertThatThrownBy(() -> McpSessionId.parse(candidate))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Should generate distinct random IDs that validate")
+    void shouldGenerateRandomIds() {
+        McpSessionId first = McpSessionId.random();
+        McpSessionId second = McpSessionId.random();
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(McpSessionId.isValid(first.value())).isTrue();
+    }
+}
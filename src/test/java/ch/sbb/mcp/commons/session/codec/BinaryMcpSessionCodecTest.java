@@ -0,0 +1,155 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BinaryMcpSessionCodec Tests")
+class BinaryMcpSessionCodecTest {
+
+    private final BinaryMcpSessionCodec codec = new BinaryMcpSessionCodec();
+
+    @Test
+    @DisplayName("Should round-trip session metadata and every registered attribute type")
+    void shouldRoundTripAllSupportedTypes() {
+        // Given
+        McpSession session = session();
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("from", "Bern");
+        nested.put("legs", List.of(1, 2L, "three"));
+        nested.put("missing", null);
+        session.attributes().put(McpSession.INITIALIZED_ATTRIBUTE, true);
+        session.attributes().put("disabled", false);
+        session.attributes().put("byte", (byte) -7);
+        session.attributes().put("short", (short) 1234);
+        session.attributes().put("int", Integer.MIN_VALUE);
+        session.attributes().put("long", Long.MAX_VALUE);
+        session.attributes().put("float", 1.5f);
+        session.attributes().put("double", -0.25d);
+        session.attributes().put("string", "Zürich HB ✓");
+        session.attributes().put("instant", Instant.parse("2026-03-01T08:15:30.123456789Z"));
+        session.attributes().put("bigInteger", new BigInteger("123456789012345678901234567890"));
+        session.attributes().put("bigDecimal", new BigDecimal("-12.3400"));
+        session.attributes().put("bytes", new byte[] {0, 1, (byte) 0xFF});
+        session.attributes().put("nested", nested);
+
+        // When
+        McpSession decoded = codec.decode(codec.encode(session));
+
+        // Then
+        assertThat(decoded.sessionId()).isEqualTo(session.sessionId());
+        assertThat(decoded.createdAt()).isEqualTo(session.createdAt());
+        assertThat(decoded.lastAccessedAt().get()).isEqualTo(session.lastAccessedAt().get());
+        assertThat(decoded.isInitialized()).isTrue();
+        assertThat(decoded.attributes())
+                .containsEntry("disabled", false)
+                .containsEntry("byte", (byte) -7)
+                .containsEntry("short", (short) 1234)
+                .containsEntry("int", Integer.MIN_VALUE)
+                .containsEntry("long", Long.MAX_VALUE)
+                .containsEntry("float", 1.5f)
+                .containsEntry("double", -0.25d)
+                .containsEntry("string", "Zürich HB ✓")
+                .containsEntry("instant", Instant.parse("2026-03-01T08:15:30.123456789Z"))
+                .containsEntry("bigInteger", new BigInteger("123456789012345678901234567890"))
+                .containsEntry("bigDecimal", new BigDecimal("-12.3400"))
+                .containsEntry("nested", nested);
+        assertThat((byte[]) decoded.getAttribute("bytes")).containsExactly(0, 1, (byte) 0xFF);
+    }
+
+    @Test
+    @DisplayName("Should produce a much smaller payload than the JSON codec")
+    void shouldBeSmallerThanJson() {
+        // Given
+        McpSession session = session();
+        session.setInitialized();
+        session.attributes().put("clientName", "journey-planner");
+        session.attributes().put("requestCount", 42);
+
+        // When
+        byte[] binary = codec.encode(session);
+        byte[] json = new JsonMcpSessionCodec().encode(session);
+
+        // Then
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    @DisplayName("Should recognize only binary payloads")
+    void shouldRecognizeBinaryPayloads() {
+        McpSession session = session();
+
+        assertThat(codec.canDecode(codec.encode(session))).isTrue();
+        assertThat(codec.canDecode(new JsonMcpSessionCodec().encode(session))).isFalse();
+        assertThat(codec.canDecode(new byte[0])).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject attribute types outside the registry")
+    void shouldRejectUnsupportedTypes() {
+        McpSession session = session();
+        session.attributes().put("set", Set.of("a"));
+
+        assertThatThrownBy(() -> codec.encode(session))
+                .isInstanceOf(McpSessionCodecException.class)
+                .hasMessageContaining("Unsupported session attribute type");
+    }
+
+    @Test
+    @DisplayName("Should fail cleanly on truncated or corrupted payloads")
+    void shouldRejectMalformedPayloads() {
+        McpSession session = session();
+        session.attributes().put("string", "value");
+        byte[] encoded = codec.encode(session);
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(McpSessionCodecException.class);
+
+        byte[] wrongVersion = encoded.clone();
+        wrongVersion[1] = 99;
+        assertThatThrownBy(() -> codec.decode(wrongVersion))
+                .isInstanceOf(McpSessionCodecException.class)
+                .hasMessageContaining("version");
+
+        byte[] hugeLength = {BinaryMcpSessionCodec.MAGIC, BinaryMcpSessionCodec.VERSION, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        assertThatThrownBy(() -> codec.decode(hugeLength))
+                .isInstanceOf(McpSessionCodecException.class);
+    }
+
+    @Test
+    @DisplayName("Should round-trip single attribute values")
+    void shouldRoundTripAttributes() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("legs", List.of(1, "two"));
+
+        assertThat(codec.decodeAttribute(codec.encodeAttribute("Zürich HB"))).isEqualTo("Zürich HB");
+        assertThat(codec.decodeAttribute(codec.encodeAttribute(42L))).isEqualTo(42L);
+        assertThat(codec.decodeAttribute(codec.encodeAttribute(nested))).isEqualTo(nested);
+        assertThat(codec.canDecodeAttribute(codec.encodeAttribute(true))).isTrue();
+        assertThat(codec.canDecodeAttribute(new JsonMcpSessionCodec().encodeAttribute(true))).isFalse();
+    }
+
+    private static McpSession session() {
+        Instant created = Instant.parse("2026-03-01T08:00:00Z");
+        return new McpSession(
+                UUID.randomUUID().toString(),
+                created,
+                new AtomicReference<>(created.plusSeconds(90)),
+                new ConcurrentHashMap<>());
+    }
+}
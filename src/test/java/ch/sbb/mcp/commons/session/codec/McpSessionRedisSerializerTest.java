@@ -0,0 +1,101 @@
+package ch.sbb.mcp.commons.session.codec;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("McpSessionRedisSerializer Tests")
+class McpSessionRedisSerializerTest {
+
+    private final JsonMcpSessionCodec json = new JsonMcpSessionCodec();
+    private final BinaryMcpSessionCodec binary = new BinaryMcpSessionCodec();
+
+    @Test
+    @DisplayName("Should write with the configured codec")
+    void shouldWriteWithConfiguredCodec() {
+        McpSessionRedisSerializer serializer = new McpSessionRedisSerializer(binary, json);
+
+        assertThat(binary.canDecode(serializer.serialize(session()))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should read legacy JSON sessions after switching to the binary codec")
+    void shouldReadLegacyJsonAfterMigration() {
+        // Given - written by an instance still using the JSON codec
+        McpSession legacy = session();
+        byte[] stored = new McpSessionRedisSerializer(json, binary).serialize(legacy);
+
+        // When - read by an instance already writing binary
+        McpSession read = new McpSessionRedisSerializer(binary, json).deserialize(stored);
+
+        // Then
+        assertThat(read.sessionId()).isEqualTo(legacy.sessionId());
+        assertThat(read.isInitialized()).isTrue();
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should read binary sessions on instances still writing JSON")
+    void shouldReadBinaryBeforeMigration() {
+        McpSession session = session();
+        byte[] stored = new McpSessionRedisSerializer(binary, json).serialize(session);
+
+        McpSession read = new McpSessionRedisSerializer(json, binary).deserialize(stored);
+
+        assertThat(read.sessionId()).isEqualTo(session.sessionId());
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should map null and empty payloads to null")
+    void shouldHandleNullPayloads() {
+        McpSessionRedisSerializer serializer = new McpSessionRedisSerializer(binary, json);
+
+        assertThat(serializer.serialize(null)).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject payloads no codec recognizes")
+    void shouldRejectUnknownPayloads() {
+        McpSessionRedisSerializer serializer = new McpSessionRedisSerializer(binary, json);
+
+        assertThatThrownBy(() -> serializer.deserialize("not a session".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("Should read attributes written by either codec")
+    void shouldReadAttributesOfBothFormats() {
+        McpSessionRedisSerializer jsonWriter = new McpSessionRedisSerializer(json, binary);
+        McpSessionRedisSerializer binaryWriter = new McpSessionRedisSerializer(binary, json);
+        Instant now = Instant.parse("2026-03-01T08:15:30Z");
+
+        assertThat(binaryWriter.deserializeAttribute(jsonWriter.serializeAttribute("journey-planner")))
+                .isEqualTo("journey-planner");
+        assertThat(binaryWriter.deserializeAttribute(jsonWriter.serializeAttribute(42))).isEqualTo(42);
+        assertThat(jsonWriter.deserializeAttribute(binaryWriter.serializeAttribute(now))).isEqualTo(now);
+        assertThatThrownBy(() -> binaryWriter.deserializeAttribute(new byte[] {'x'}))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static McpSession session() {
+        Instant now = Instant.now();
+        McpSession session = new McpSession(
+                UUID.randomUUID().toString(), now, new AtomicReference<>(now), new ConcurrentHashMap<>());
+        session.setInitialized();
+        session.attributes().put("clientName", "journey-planner");
+        return session;
+    }
+}
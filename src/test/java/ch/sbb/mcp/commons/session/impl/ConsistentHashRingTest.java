@@ -0,0 +1,85 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConsistentHashRing Tests")
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    @DisplayName("Should spread keys evenly over the nodes")
+    void shouldSpreadKeysEvenly() {
+        // Given
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c", "d"), 160);
+
+        // When
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor(UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+
+        // Then - each node within 20% of its fair share
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count ->
+                assertThat(count).isBetween((int) (KEYS / 4 * 0.8), (int) (KEYS / 4 * 1.2)));
+    }
+
+    @Test
+    @DisplayName("Should only move keys to a newly added node")
+    void shouldMoveFewKeysWhenAddingNode() {
+        // Given
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes("a", "b", "c"), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes("a", "b", "c", "d"), 160);
+
+        // When
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = UUID.randomUUID().toString();
+            String owner = after.nodeFor(key);
+            if (!owner.equals(before.nodeFor(key))) {
+                assertThat(owner).isEqualTo("d");
+                moved++;
+            }
+        }
+
+        // Then - roughly a quarter of the keys
+        assertThat(moved).isBetween(KEYS / 8, KEYS * 3 / 8);
+    }
+
+    @Test
+    @DisplayName("Should place keys independently of the node insertion order")
+    void shouldBeDeterministic() {
+        ConsistentHashRing<String> forward = new ConsistentHashRing<>(nodes("a", "b", "c"), 16);
+        ConsistentHashRing<String> backward = new ConsistentHashRing<>(nodes("c", "b", "a"), 16);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "session-" + i;
+            assertThat(forward.nodeFor(key)).isEqualTo(backward.nodeFor(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an empty ring")
+    void shouldRejectEmptyRing() {
+        assertThatThrownBy(() -> new ConsistentHashRing<>(Map.of(), 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<String, String> nodes(String... names) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String name : names) {
+            nodes.put(name, name);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,187 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
+import ch.sbb.mcp.commons.session.McpSessionId;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileMcpSessionStore Tests")
+class FileMcpSessionStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<FileMcpSessionStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(FileMcpSessionStore::close);
+    }
+
+    @Test
+    @DisplayName("Should recover sessions, attributes and deletions after a restart")
+    void shouldRecoverSessionsAfterRestart() {
+        // Given
+        FileMcpSessionStore sessionStore = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+        McpSession kept = sessionStore.createSession().block();
+        McpSession deleted = sessionStore.createSession().block();
+        sessionStore.setAttribute(kept.sessionId(), "clientName", "journey-planner").block();
+        sessionStore.deleteSession(deleted.sessionId()).block();
+        sessionStore.close();
+
+        // When
+        FileMcpSessionStore restarted = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+
+        // Then
+        StepVerifier.create(restarted.validateAndTouch(kept.sessionId()))
+                .assertNext(session -> assertThat(session.getAttribute("clientName")).isEqualTo("journey-planner"))
+                .verifyComplete();
+        StepVerifier.create(restarted.getSession(deleted.sessionId())).verifyComplete();
+        assertThat(restarted.getActiveSessionCount().block()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and compact them into one")
+    void shouldRollAndCompactSegments() throws IOException {
+        // Given - records for 200 sessions do not fit into one 4 KiB segment
+        FileMcpSessionStore sessionStore = open(4096);
+        List<String> sessionIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sessionIds.add(sessionStore.createSession().block().sessionId());
+        }
+        assertThat(segmentCount()).isGreaterThan(1);
+
+        // When
+        for (String sessionId : sessionIds.subList(0, 190)) {
+            sessionStore.deleteSession(sessionId).block();
+        }
+        sessionStore.compact();
+        sessionStore.close();
+
+        // Then
+        assertThat(segmentCount()).isEqualTo(1);
+        FileMcpSessionStore restarted = open(4096);
+        assertThat(restarted.getActiveSessionCount().block()).isEqualTo(10);
+        for (String sessionId : sessionIds.subList(190, 200)) {
+            StepVerifier.create(restarted.isValidSession(sessionId)).expectNext(true).verifyComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore a record torn by a crash")
+    void shouldIgnoreTornRecords() throws IOException {
+        // Given
+        FileMcpSessionStore sessionStore = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+        McpSession session = sessionStore.createSession().block();
+        sessionStore.close();
+        Files.write(directory.resolve("segment-00000000000000009999.log"), new byte[] {0, 0, 0, 42, 1, 7});
+
+        // When
+        FileMcpSessionStore restarted = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+
+        // Then
+        StepVerifier.create(restarted.getSession(session.sessionId()))
+                .assertNext(found -> assertThat(found.sessionId()).isEqualTo(session.sessionId()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should not restore evicted sessions and not evict while recovering")
+    void shouldLogEvictionsAndRecoverWithoutEvicting() {
+        // Given - the third session evicts the least recently used one
+        FileMcpSessionStore sessionStore = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE, 2, new SimpleMeterRegistry());
+        McpSession evicted = sessionStore.createSession().block();
+        McpSession first = sessionStore.createSession().block();
+        McpSession second = sessionStore.createSession().block();
+        sessionStore.close();
+
+        // When - restarted with a lower limit
+        FileMcpSessionStore restarted = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE, 1, new SimpleMeterRegistry());
+
+        // Then
+        StepVerifier.create(restarted.getSession(evicted.sessionId())).verifyComplete();
+        StepVerifier.create(restarted.isValidSession(first.sessionId())).expectNext(true).verifyComplete();
+        StepVerifier.create(restarted.isValidSession(second.sessionId())).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should leave sessions that cannot be encoded out of the snapshot")
+    void shouldSkipUnencodableSessionsOnCompaction() throws IOException {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FileMcpSessionStore sessionStore = open(4096, 0, meterRegistry);
+        McpSession unencodable = sessionStore.createSession().block();
+        McpSession kept = sessionStore.createSession().block();
+        unencodable.attributes().put("connection", new Object());
+
+        // When
+        sessionStore.compact();
+        sessionStore.close();
+
+        // Then
+        assertThat(segmentCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("mcp.sessions.file.snapshot-skipped").counter().count()).isEqualTo(1);
+        FileMcpSessionStore restarted = open(4096);
+        StepVerifier.create(restarted.isValidSession(kept.sessionId())).expectNext(true).verifyComplete();
+        StepVerifier.create(restarted.getSession(unencodable.sessionId())).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should keep records appended after the snapshot was taken")
+    void shouldCarryOverRecordsAppendedDuringCompaction() {
+        // Given
+        BinaryMcpSessionCodec codec = new BinaryMcpSessionCodec();
+        FileMcpSessionStore sessionStore = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+        McpSession deleted = sessionStore.createSession().block();
+        McpSession created = sessionStore.createSession().block();
+        sessionStore.close();
+        SessionLog sessionLog = new SessionLog(directory, FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+        sessionLog.replay(codec, 0);
+        sessionLog.put(codec.encode(deleted));
+
+        // When - the snapshot misses a later create and still contains a later delete
+        SessionLog.Position since = sessionLog.position();
+        sessionLog.put(codec.encode(created));
+        sessionLog.delete(McpSessionId.parse(deleted.sessionId()));
+        sessionLog.compact(since, List.of(codec.encode(deleted)));
+        sessionLog.close();
+
+        // Then
+        FileMcpSessionStore restarted = open(FileMcpSessionStore.DEFAULT_SEGMENT_SIZE);
+        StepVerifier.create(restarted.getSession(deleted.sessionId())).verifyComplete();
+        StepVerifier.create(restarted.isValidSession(created.sessionId())).expectNext(true).verifyComplete();
+    }
+
+    private FileMcpSessionStore open(int segmentSize) {
+        return open(segmentSize, 0, new SimpleMeterRegistry());
+    }
+
+    private FileMcpSessionStore open(int segmentSize, int maxSessions, SimpleMeterRegistry meterRegistry) {
+        FileMcpSessionStore sessionStore = new FileMcpSessionStore(directory.toString(), Duration.ofMinutes(10),
+                maxSessions, McpSessionEvictionPolicy.LRU, segmentSize, meterRegistry);
+        stores.add(sessionStore);
+        return sessionStore;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
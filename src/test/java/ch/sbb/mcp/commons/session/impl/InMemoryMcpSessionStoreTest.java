@@ -1,6 +1,8 @@
 package ch.sbb.mcp.commons.session.impl;
 
+import ch.sbb.mcp.commons.exception.McpException;
 import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -219,6 +222,186 @@ class InMemoryMcpSessionStoreTest {
                 .verifyComplete();
     }
     
+    @Test
+    @DisplayName("Should keep touched sessions and remove only expired ones during cleanup")
+    void shouldKeepTouchedSessionsDuringCleanup() throws InterruptedException {
+        InMemoryMcpSessionStore shortTtlStore = new InMemoryMcpSessionStore(
+                Duration.ofMillis(200),
+                meterRegistry
+        );
+
+        McpSession idle = shortTtlStore.createSession().block();
+        McpSession active = shortTtlStore.createSession().block();
+
+        Thread.sleep(120);
+        shortTtlStore.touchSession(active.sessionId()).block();
+        Thread.sleep(120);
+
+        shortTtlStore.cleanupExpiredSessions();
+
+        StepVerifier.create(shortTtlStore.getSession(idle.sessionId()))
+                .verifyComplete();
+        StepVerifier.create(shortTtlStore.isValidSession(active.sessionId()))
+                .expectNext(true)
+                .verifyComplete();
+        assertThat(meterRegistry.counter("mcp.sessions.expired", "store", "in-memory").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should validate, touch and return a valid session in one call")
+    void shouldValidateAndTouchSession() throws InterruptedException {
+        // Given
+        McpSession created = sessionStore.createSession().block();
+        Instant createdAccess = created.lastAccessedAt().get();
+        Thread.sleep(10);
+        
+        // When / Then
+        StepVerifier.create(sessionStore.validateAndTouch(created.sessionId()))
+                .assertNext(session -> {
+                    assertThat(session.sessionId()).isEqualTo(created.sessionId());
+                    assertThat(session.lastAccessedAt().get()).isAfter(createdAccess);
+                })
+                .verifyComplete();
+    }
+    
+    @Test
+    @DisplayName("Should return empty from validateAndTouch for unknown or expired sessions")
+    void shouldNotReturnUnknownOrExpiredSessionFromValidateAndTouch() throws InterruptedException {
+        // Given
+        InMemoryMcpSessionStore shortTtlStore = new InMemoryMcpSessionStore(
+                Duration.ofMillis(50),
+                meterRegistry
+        );
+        McpSession expired = shortTtlStore.createSession().block();
+        Thread.sleep(100);
+        
+        // When / Then
+        StepVerifier.create(shortTtlStore.validateAndTouch("non-existent-id"))
+                .verifyComplete();
+        StepVerifier.create(shortTtlStore.validateAndTouch(expired.sessionId()))
+                .verifyComplete();
+        StepVerifier.create(shortTtlStore.getActiveSessionCount())
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should set and remove a single attribute of a stored session")
+    void shouldSetAndRemoveAttribute() {
+        // Given
+        McpSession session = sessionStore.createSession().block();
+        
+        // When
+        StepVerifier.create(sessionStore.setAttribute(session.sessionId(), "clientName", "journey-planner"))
+                .expectNext(true)
+                .verifyComplete();
+        
+        // Then
+        StepVerifier.create(sessionStore.getSession(session.sessionId()))
+                .assertNext(stored -> assertThat(stored.getAttribute("clientName")).isEqualTo("journey-planner"))
+                .verifyComplete();
+        
+        StepVerifier.create(sessionStore.removeAttribute(session.sessionId(), "clientName"))
+                .expectNext(true)
+                .verifyComplete();
+        assertThat(sessionStore.getSession(session.sessionId()).block().getAttribute("clientName")).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should report unknown sessions when updating attributes")
+    void shouldNotUpdateAttributesOfUnknownSession() {
+        StepVerifier.create(sessionStore.setAttribute("non-existent-id", "key", "value"))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(sessionStore.removeAttribute("non-existent-id", "key"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used session when max sessions is reached (LRU)")
+    void shouldEvictLeastRecentlyUsedSession() throws InterruptedException {
+        // Given - 10ms expiry buckets, room for two sessions
+        InMemoryMcpSessionStore boundedStore = new InMemoryMcpSessionStore(
+                Duration.ofMillis(640), 2, McpSessionEvictionPolicy.LRU, meterRegistry);
+        McpSession first = boundedStore.createSession().block();
+        McpSession second = boundedStore.createSession().block();
+        Thread.sleep(30);
+        boundedStore.touchSession(first.sessionId()).block();
+
+        // When
+        McpSession third = boundedStore.createSession().block();
+
+        // Then
+        StepVerifier.create(boundedStore.getSession(second.sessionId())).verifyComplete();
+        assertThat(boundedStore.getSession(first.sessionId()).block()).isNotNull();
+        assertThat(boundedStore.getSession(third.sessionId()).block()).isNotNull();
+        assertThat(meterRegistry.counter("mcp.sessions.evicted", "store", "in-memory", "policy", "LRU").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest session regardless of activity (OLDEST_FIRST)")
+    void shouldEvictOldestSession() throws InterruptedException {
+        // Given
+        InMemoryMcpSessionStore boundedStore = new InMemoryMcpSessionStore(
+                Duration.ofSeconds(10), 2, McpSessionEvictionPolicy.OLDEST_FIRST, meterRegistry);
+        McpSession oldest = boundedStore.createSession().block();
+        Thread.sleep(5);
+        McpSession newer = boundedStore.createSession().block();
+        boundedStore.touchSession(oldest.sessionId()).block();
+
+        // When
+        boundedStore.createSession().block();
+
+        // Then
+        StepVerifier.create(boundedStore.getSession(oldest.sessionId())).verifyComplete();
+        assertThat(boundedStore.getSession(newer.sessionId()).block()).isNotNull();
+        StepVerifier.create(boundedStore.getActiveSessionCount())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject new sessions when max sessions is reached (REJECT_NEW)")
+    void shouldRejectNewSessionWhenFull() {
+        // Given
+        InMemoryMcpSessionStore boundedStore = new InMemoryMcpSessionStore(
+                Duration.ofSeconds(10), 1, McpSessionEvictionPolicy.REJECT_NEW, meterRegistry);
+        McpSession existing = boundedStore.createSession().block();
+
+        // When / Then
+        StepVerifier.create(boundedStore.createSession())
+                .expectErrorSatisfies(error -> {
+                    assertThat(error).isInstanceOf(McpException.class);
+                    assertThat(((McpException) error).getErrorCode()).isEqualTo("SESSION_LIMIT_REACHED");
+                })
+                .verify();
+        assertThat(boundedStore.getSession(existing.sessionId()).block()).isNotNull();
+        assertThat(meterRegistry.counter("mcp.sessions.rejected", "store", "in-memory", "policy", "REJECT_NEW").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should purge expired sessions before applying the eviction policy")
+    void shouldPurgeExpiredSessionsBeforeRejecting() throws InterruptedException {
+        // Given
+        InMemoryMcpSessionStore boundedStore = new InMemoryMcpSessionStore(
+                Duration.ofMillis(100), 1, McpSessionEvictionPolicy.REJECT_NEW, meterRegistry);
+        boundedStore.createSession().block();
+        Thread.sleep(150);
+
+        // When / Then
+        StepVerifier.create(boundedStore.createSession())
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(meterRegistry.counter("mcp.sessions.expired", "store", "in-memory").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.counter("mcp.sessions.rejected", "store", "in-memory", "policy", "REJECT_NEW").count())
+                .isZero();
+    }
+
     @Test
     @DisplayName("Should increment metrics on session creation")
     void shouldIncrementMetricsOnSessionCreation() {
@@ -0,0 +1,518 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.exception.McpException;
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.McpSessionEvictionPolicy;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.JsonMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionRedisSerializer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RedisMcpSessionStore Tests")
+class RedisMcpSessionStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final String INVALIDATION_CHANNEL = "mcp:sessions:invalidate";
+
+    private final McpSessionRedisSerializer serializer =
+            new McpSessionRedisSerializer(new JsonMcpSessionCodec(), new BinaryMcpSessionCodec());
+    private final RedisSessionHash sessionHash = new RedisSessionHash(serializer);
+    private final RedisSessionKeys keys = new RedisSessionKeys(1);
+
+    private ReactiveRedisTemplate<String, McpSession> redisTemplate;
+    private ReactiveValueOperations<String, McpSession> valueOps;
+    private ReactiveStringRedisTemplate indexTemplate;
+    private ReactiveZSetOperations<String, String> zSet;
+    private CircuitBreaker circuitBreaker;
+    private InMemoryMcpSessionStore fallbackStore;
+    private SimpleMeterRegistry meterRegistry;
+
+    private String layout;
+    private int shards;
+    private int maxSessions;
+    private McpSessionEvictionPolicy evictionPolicy;
+    private boolean nearCache;
+    private boolean writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveRedisTemplate.class);
+        valueOps = mock(ReactiveValueOperations.class);
+        indexTemplate = mock(ReactiveStringRedisTemplate.class);
+        zSet = mock(ReactiveZSetOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(indexTemplate.opsForZSet()).thenReturn(zSet);
+        when(indexTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenReturn(Mono.just(true));
+        when(zSet.remove(anyString(), any())).thenReturn(Mono.just(1L));
+        when(zSet.count(anyString(), any())).thenReturn(Mono.just(0L));
+
+        circuitBreaker = CircuitBreaker.ofDefaults("sessionStore");
+        fallbackStore = new InMemoryMcpSessionStore(TTL, new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+
+        layout = "value";
+        shards = 1;
+        maxSessions = 0;
+        evictionPolicy = McpSessionEvictionPolicy.LRU;
+        nearCache = false;
+        writeBehind = false;
+    }
+
+    @Test
+    @DisplayName("Should read a session with one read script on its key")
+    void shouldReadSessionWithReadScript() {
+        // Given
+        McpSession session = session();
+        doReturn(Flux.fromIterable(sessionHash.fields(session)))
+                .when(redisTemplate).execute(any(), anyList(), anyList(), any(), any());
+        RedisMcpSessionStore store = store();
+
+        // When
+        McpSession read = store.getSession(session.sessionId()).block();
+
+        // Then
+        assertThat(read.sessionId()).isEqualTo(session.sessionId());
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+        ArgumentCaptor<RedisScript<?>> script = scriptCaptor();
+        ArgumentCaptor<List<String>> scriptKeys = listCaptor();
+        verify(redisTemplate).execute(script.capture(), scriptKeys.capture(), anyList(), any(), any());
+        assertThat(script.getValue().getScriptAsString()).contains("HGETALL").doesNotContain("PEXPIRE");
+        assertThat(scriptKeys.getValue()).containsExactly(keys.sessionKey(session.sessionId()));
+        assertThat(meterRegistry.get("mcp.sessions.redis.hits").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should read and renew a session and its index score with one script")
+    void shouldValidateAndTouchWithOneScript() {
+        // Given
+        McpSession session = session();
+        doReturn(Flux.fromIterable(sessionHash.fields(session)))
+                .when(redisTemplate).execute(any(), anyList(), anyList(), any(), any());
+        RedisMcpSessionStore store = store();
+
+        // When
+        McpSession read = store.validateAndTouch(session.sessionId()).block();
+
+        // Then
+        assertThat(read.sessionId()).isEqualTo(session.sessionId());
+        ArgumentCaptor<RedisScript<?>> script = scriptCaptor();
+        ArgumentCaptor<List<String>> scriptKeys = listCaptor();
+        ArgumentCaptor<List<String>> args = listCaptor();
+        verify(redisTemplate).execute(script.capture(), scriptKeys.capture(), args.capture(), any(), any());
+        assertThat(script.getValue().getScriptAsString()).contains("HGETALL", "PEXPIRE", "ZADD");
+        assertThat(scriptKeys.getValue())
+                .containsExactly(keys.sessionKey(session.sessionId()), keys.indexKey(0));
+        assertThat(args.getValue()).hasSize(3);
+        assertThat(args.getValue().get(0)).isEqualTo(Long.toString(TTL.toMillis()));
+        assertThat(args.getValue().get(2)).isEqualTo(session.sessionId());
+    }
+
+    @Test
+    @DisplayName("Should write the hash layout with one script and index the session")
+    void shouldWriteHashWithOneScript() {
+        // Given
+        layout = "hash";
+        McpSession session = session();
+        doReturn(Flux.just(1L)).when(redisTemplate).execute(any(), anyList(), anyList(), any(), any());
+        RedisMcpSessionStore store = store();
+
+        // When
+        store.saveSession(session).block();
+
+        // Then
+        ArgumentCaptor<RedisScript<?>> script = scriptCaptor();
+        ArgumentCaptor<List<byte[]>> args = listCaptor();
+        verify(redisTemplate).execute(script.capture(), eq(List.of(keys.sessionKey(session.sessionId()))),
+                args.capture(), any(), any());
+        assertThat(script.getValue().getScriptAsString()).contains("DEL", "HSET", "PEXPIRE");
+        assertThat(new String(args.getValue().get(0), StandardCharsets.UTF_8)).isEqualTo(Long.toString(TTL.toMillis()));
+        verify(zSet).add(eq(keys.indexKey(0)), eq(session.sessionId()), anyDouble());
+        verify(valueOps, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should map the attribute script results and rewrite sessions still in the value layout")
+    void shouldHandleAttributeScriptResults() {
+        // Given
+        layout = "hash";
+        McpSession session = session();
+        RedisMcpSessionStore store = store();
+
+        // When/Then - updated in place
+        answerScripts(1L, session);
+        assertThat(store.setAttribute(session.sessionId(), "requestCount", 7).block()).isTrue();
+        verify(redisTemplate, times(1)).execute(any(), anyList(), anyList(), any(), any());
+
+        // When/Then - not found
+        answerScripts(0L, session);
+        assertThat(store.removeAttribute(session.sessionId(), "requestCount").block()).isFalse();
+
+        // When/Then - stored as a value: read, modify and write back as a hash
+        answerScripts(-1L, session);
+        assertThat(store.setAttribute(session.sessionId(), "requestCount", 7).block()).isTrue();
+        ArgumentCaptor<RedisScript<?>> scripts = scriptCaptor();
+        verify(redisTemplate, times(5)).execute(scripts.capture(), anyList(), anyList(), any(), any());
+        assertThat(scripts.getAllValues().get(3).getScriptAsString()).contains("HGETALL");
+        assertThat(scripts.getAllValues().get(4).getScriptAsString()).contains("unpack(ARGV, 2)");
+    }
+
+    @Test
+    @DisplayName("Should renew the TTL and the index score of a touched session in one round trip")
+    void shouldTouchWithOneScript() {
+        // Given
+        String sessionId = UUID.randomUUID().toString();
+        doReturn(Flux.just(1L), Flux.just(0L)).when(indexTemplate).execute(any(), anyList(), anyList());
+        RedisMcpSessionStore store = store();
+
+        // When
+        store.touchSession(sessionId).block();
+        store.touchSession(sessionId).block();
+
+        // Then
+        ArgumentCaptor<RedisScript<?>> script = scriptCaptor();
+        ArgumentCaptor<List<String>> scriptKeys = listCaptor();
+        ArgumentCaptor<List<String>> args = listCaptor();
+        verify(indexTemplate, times(2)).execute(script.capture(), scriptKeys.capture(), args.capture());
+        assertThat(script.getValue().getScriptAsString()).contains("PEXPIRE", "ZADD");
+        assertThat(scriptKeys.getValue()).containsExactly(keys.sessionKey(sessionId), keys.indexKey(0));
+        assertThat(args.getValue().get(2)).isEqualTo(sessionId);
+        verify(redisTemplate, never()).expire(anyString(), any());
+        verify(zSet, never()).add(anyString(), anyString(), anyDouble());
+        assertThat(meterRegistry.get("mcp.sessions.redis.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mcp.sessions.redis.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count live sessions of all shards without writing")
+    void shouldCountLiveSessionsReadOnly() {
+        // Given
+        shards = 2;
+        RedisSessionKeys sharded = new RedisSessionKeys(2);
+        when(zSet.count(eq(sharded.indexKey(0)), any())).thenReturn(Mono.just(3L));
+        when(zSet.count(eq(sharded.indexKey(1)), any())).thenReturn(Mono.just(4L));
+        RedisMcpSessionStore store = store();
+
+        // When/Then
+        StepVerifier.create(store.getActiveSessionCount()).expectNext(7L).verifyComplete();
+        verify(indexTemplate, never()).execute(any(), anyList(), anyList());
+        verify(zSet, never()).remove(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should trim expired index members in batches until a batch is not full")
+    void shouldTrimIndexesInBatches() {
+        // Given
+        doReturn(Flux.just(1000L), Flux.just(5L)).when(indexTemplate).execute(any(), anyList(), anyList());
+        RedisMcpSessionStore store = store();
+
+        // When/Then
+        StepVerifier.create(store.trimIndexes()).expectNext(1005L).verifyComplete();
+        ArgumentCaptor<RedisScript<?>> script = scriptCaptor();
+        ArgumentCaptor<List<String>> scriptKeys = listCaptor();
+        verify(indexTemplate, times(2)).execute(script.capture(), scriptKeys.capture(), anyList());
+        assertThat(script.getValue().getScriptAsString()).contains("ZRANGEBYSCORE", "ZREM");
+        assertThat(scriptKeys.getValue()).containsExactly(keys.indexKey(0), keys.creationIndexKey(0));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used live session, not expired members left in the index")
+    void shouldEvictLeastRecentlyUsedLiveSession() {
+        // Given - at the limit, then one below after the eviction; an expired member is still at the bottom
+        maxSessions = 2;
+        String expired = UUID.randomUUID().toString();
+        String victim = UUID.randomUUID().toString();
+        when(zSet.count(anyString(), any())).thenReturn(Mono.just(2L), Mono.just(1L));
+        when(zSet.rangeWithScores(anyString(), any()))
+                .thenReturn(Flux.just(ZSetOperations.TypedTuple.of(expired, 1.0)));
+        when(zSet.rangeByScoreWithScores(eq(keys.indexKey(0)), any(), any()))
+                .thenReturn(Flux.just(ZSetOperations.TypedTuple.of(victim, (double) System.currentTimeMillis())));
+        RedisMcpSessionStore store = store();
+        long now = System.currentTimeMillis();
+
+        // When
+        McpSession created = store.createSession().block();
+
+        // Then
+        ArgumentCaptor<Range<Double>> live = rangeCaptor();
+        verify(zSet).rangeByScoreWithScores(eq(keys.indexKey(0)), live.capture(), any());
+        assertThat(live.getValue().getLowerBound().getValue().orElseThrow())
+                .isGreaterThanOrEqualTo((double) (now - TTL.toMillis()));
+        verify(zSet, times(2)).remove(keys.indexKey(0), victim);
+        verify(redisTemplate).delete(keys.sessionKey(victim));
+        verify(redisTemplate, never()).delete(keys.sessionKey(expired));
+        verify(valueOps).set(eq(keys.sessionKey(created.sessionId())), any(), eq(TTL));
+        assertThat(meterRegistry.get("mcp.sessions.evicted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should trim expired members before evicting the oldest session")
+    void shouldTrimBeforeEvictingOldestSession() {
+        // Given
+        maxSessions = 2;
+        evictionPolicy = McpSessionEvictionPolicy.OLDEST_FIRST;
+        String victim = UUID.randomUUID().toString();
+        when(zSet.count(anyString(), any())).thenReturn(Mono.just(2L), Mono.just(1L));
+        doReturn(Flux.just(3L)).when(indexTemplate).execute(any(), anyList(), anyList());
+        when(zSet.rangeWithScores(eq(keys.creationIndexKey(0)), any()))
+                .thenReturn(Flux.just(ZSetOperations.TypedTuple.of(victim, 1.0)));
+        RedisMcpSessionStore store = store();
+
+        // When
+        store.createSession().block();
+
+        // Then
+        InOrder order = inOrder(indexTemplate, zSet);
+        order.verify(indexTemplate).execute(any(), eq(List.of(keys.indexKey(0), keys.creationIndexKey(0))), anyList());
+        order.verify(zSet).rangeWithScores(eq(keys.creationIndexKey(0)), any());
+        verify(redisTemplate).delete(keys.sessionKey(victim));
+        assertThat(meterRegistry.get("mcp.sessions.evicted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a new session at the limit without counting a Redis failure")
+    void shouldRejectNewSessionOutsideCircuitBreaker() {
+        // Given
+        maxSessions = 1;
+        evictionPolicy = McpSessionEvictionPolicy.REJECT_NEW;
+        when(zSet.count(anyString(), any())).thenReturn(Mono.just(1L));
+        RedisMcpSessionStore store = store();
+
+        // When/Then
+        StepVerifier.create(store.createSession())
+                .expectErrorSatisfies(error -> assertThat(((McpException) error).getErrorCode())
+                        .isEqualTo("SESSION_LIMIT_REACHED"))
+                .verify();
+        verify(valueOps, never()).set(anyString(), any(), any(Duration.class));
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+        assertThat(meterRegistry.get("mcp.sessions.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should admit a new session when the limit check fails")
+    void shouldAdmitWhenLimitCheckFails() {
+        // Given
+        maxSessions = 1;
+        evictionPolicy = McpSessionEvictionPolicy.REJECT_NEW;
+        when(zSet.count(anyString(), any())).thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        RedisMcpSessionStore store = store();
+
+        // When
+        McpSession created = store.createSession().block();
+
+        // Then
+        verify(valueOps).set(eq(keys.sessionKey(created.sessionId())), any(), eq(TTL));
+        assertThat(fallbackStore.getSession(created.sessionId()).blockOptional()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should publish invalidations and drop sessions invalidated by other instances")
+    void shouldWireNearCacheInvalidations() {
+        // Given
+        nearCache = true;
+        McpSession session = session();
+        doReturn(Flux.fromIterable(sessionHash.fields(session)))
+                .when(redisTemplate).execute(any(), anyList(), anyList(), any(), any());
+        Sinks.Many<ReactiveSubscription.Message<String, String>> channel = Sinks.many().multicast().directBestEffort();
+        doReturn(channel.asFlux()).when(indexTemplate).listenToChannel(INVALIDATION_CHANNEL);
+        RedisMcpSessionStore store = store();
+        store.subscribeToInvalidations();
+
+        // When - read twice, the second time from the near-cache
+        store.getSession(session.sessionId()).block();
+        store.getSession(session.sessionId()).block();
+
+        // Then
+        verify(redisTemplate, times(1)).execute(any(), anyList(), anyList(), any(), any());
+        assertThat(meterRegistry.get("mcp.sessions.near-cache.hits").counter().count()).isEqualTo(1);
+
+        // When - another instance changed the session
+        channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(INVALIDATION_CHANNEL,
+                "other-instance|" + session.sessionId()));
+        store.getSession(session.sessionId()).block();
+
+        // Then
+        verify(redisTemplate, times(2)).execute(any(), anyList(), anyList(), any(), any());
+
+        // When - this instance saves the session
+        store.saveSession(session).block();
+
+        // Then
+        verify(indexTemplate).convertAndSend(eq(INVALIDATION_CHANNEL), endsWith("|" + session.sessionId()));
+        store.unsubscribeFromInvalidations();
+    }
+
+    @Test
+    @DisplayName("Should renew write-behind touches in one flush and skip recently renewed sessions")
+    void shouldFlushWriteBehindTouches() {
+        // Given
+        writeBehind = true;
+        String sessionId = UUID.randomUUID().toString();
+        doReturn(Flux.just(1L)).when(indexTemplate).execute(any(), anyList(), anyList());
+        RedisMcpSessionStore store = store();
+
+        // When
+        store.touchSession(sessionId).block();
+        store.touchSession(sessionId).block();
+
+        // Then - nothing sent until the flush
+        verify(indexTemplate, never()).execute(any(), anyList(), anyList());
+        store.flushTouches().block();
+        verify(indexTemplate, times(1)).execute(any(), eq(List.of(keys.sessionKey(sessionId), keys.indexKey(0))),
+                anyList());
+
+        // And a touch right after the renewal is absorbed
+        store.touchSession(sessionId).block();
+        store.flushTouches().block();
+        verify(indexTemplate, times(1)).execute(any(), anyList(), anyList());
+        assertThat(meterRegistry.get("mcp.sessions.touches.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve sessions created during an outage from the fallback and backfill them to Redis")
+    void shouldBackfillFallbackSessions() {
+        // Given
+        RedisMcpSessionStore store = store();
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        McpSession created = store.createSession().block();
+
+        // Then
+        verify(valueOps, never()).set(anyString(), any(), any(Duration.class));
+        assertThat(store.getSession(created.sessionId()).block()).isNotNull();
+        verify(redisTemplate, never()).execute(any(), anyList(), anyList(), any(), any());
+        assertThat(meterRegistry.get("mcp.sessions.backfill.pending").gauge().value()).isEqualTo(1);
+
+        // When - Redis is reachable again; closing the circuit breaker starts the reconcile
+        circuitBreaker.transitionToClosedState();
+        store.reconcile().block();
+
+        // Then
+        verify(valueOps).set(eq(keys.sessionKey(created.sessionId())), any(), eq(TTL));
+        verify(zSet).add(eq(keys.indexKey(0)), eq(created.sessionId()), anyDouble());
+        assertThat(fallbackStore.getSession(created.sessionId()).blockOptional()).isEmpty();
+        assertThat(meterRegistry.get("mcp.sessions.backfill.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("mcp.sessions.backfilled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hide sessions deleted during an outage and delete them from Redis on reconcile")
+    void shouldBackfillFallbackDeletes() {
+        // Given
+        String sessionId = UUID.randomUUID().toString();
+        when(redisTemplate.delete(keys.sessionKey(sessionId)))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("down")), Mono.just(1L));
+        RedisMcpSessionStore store = store();
+
+        // When
+        store.deleteSession(sessionId).block();
+
+        // Then
+        assertThat(store.isValidSession(sessionId).block()).isFalse();
+        verify(redisTemplate, never()).hasKey(anyString());
+
+        // When
+        store.reconcile().block();
+
+        // Then
+        verify(redisTemplate, times(2)).delete(keys.sessionKey(sessionId));
+        verify(zSet).remove(keys.indexKey(0), sessionId);
+        assertThat(meterRegistry.get("mcp.sessions.backfill.pending").gauge().value()).isZero();
+    }
+
+    private RedisMcpSessionStore store() {
+        return new RedisMcpSessionStore(redisTemplate, indexTemplate, TTL, maxSessions, evictionPolicy,
+                nearCache, Duration.ofMinutes(1), 100, writeBehind, Duration.ofMillis(100), Duration.ofMinutes(1),
+                layout, shards, serializer, circuitBreaker,
+                Retry.of("sessionStore", RetryConfig.custom().maxAttempts(1).build()),
+                fallbackStore, meterRegistry);
+    }
+
+    /**
+     * Answers the binary scripts by their source: the attribute script with {@code attributeResult},
+     * read scripts with {@code session} and the hash write with 1.
+     */
+    private void answerScripts(long attributeResult, McpSession session) {
+        doAnswer(invocation -> {
+            String script = invocation.<RedisScript<?>>getArgument(0).getScriptAsString();
+            if (script.contains("HDEL")) {
+                return Flux.just(attributeResult);
+            }
+            if (script.contains("HGETALL")) {
+                return Flux.fromIterable(sessionHash.fields(session));
+            }
+            return Flux.just(1L);
+        }).when(redisTemplate).execute(any(), anyList(), anyList(), any(), any());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<RedisScript<?>> scriptCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(RedisScript.class);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<Range<Double>> rangeCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(Range.class);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+
+    private static McpSession session() {
+        Instant now = Instant.now();
+        ConcurrentHashMap<String, Object> attributes = new ConcurrentHashMap<>();
+        attributes.put("clientName", "journey-planner");
+        return new McpSession(UUID.randomUUID().toString(), now, new AtomicReference<>(now), attributes);
+    }
+}
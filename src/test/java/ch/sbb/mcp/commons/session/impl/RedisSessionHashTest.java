@@ -0,0 +1,103 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import ch.sbb.mcp.commons.session.codec.BinaryMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.JsonMcpSessionCodec;
+import ch.sbb.mcp.commons.session.codec.McpSessionRedisSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RedisSessionHash Tests")
+class RedisSessionHashTest {
+
+    private final McpSessionRedisSerializer serializer =
+            new McpSessionRedisSerializer(new BinaryMcpSessionCodec(), new JsonMcpSessionCodec());
+    private final RedisSessionHash sessionHash = new RedisSessionHash(serializer);
+
+    @Test
+    @DisplayName("Should round-trip a session through hash fields")
+    void shouldRoundTripHashFields() {
+        // Given
+        McpSession session = session();
+
+        // When
+        McpSession read = sessionHash.read(session.sessionId(), sessionHash.fields(session));
+
+        // Then
+        assertThat(read.sessionId()).isEqualTo(session.sessionId());
+        assertThat(read.createdAt()).isEqualTo(session.createdAt());
+        assertThat(read.lastAccessedAt().get()).isEqualTo(session.lastAccessedAt().get());
+        assertThat(read.isInitialized()).isTrue();
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should apply a single attribute field written after the session")
+    void shouldReadPartiallyUpdatedHash() {
+        // Given - the session as stored, plus one HSET of a new attribute
+        McpSession session = session();
+        List<byte[]> reply = new ArrayList<>(sessionHash.fields(session));
+        reply.add(sessionHash.attributeField("requestCount"));
+        reply.add(sessionHash.attributeValue(7));
+
+        // When
+        McpSession read = sessionHash.read(session.sessionId(), reply);
+
+        // Then
+        assertThat(read.getAttribute("requestCount")).isEqualTo(7);
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should read sessions stored in the value layout")
+    void shouldReadValueLayout() {
+        McpSession session = session();
+        List<byte[]> reply = List.of(new byte[0], serializer.serialize(session));
+
+        McpSession read = sessionHash.read(session.sessionId(), reply);
+
+        assertThat(read.sessionId()).isEqualTo(session.sessionId());
+        assertThat(read.getAttribute("clientName")).isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should treat an empty reply as a missing session and reject incomplete hashes")
+    void shouldHandleMissingAndIncompleteHashes() {
+        assertThat(sessionHash.read(UUID.randomUUID().toString(), List.of())).isNull();
+
+        List<byte[]> incomplete = List.of(sessionHash.attributeField("clientName"), sessionHash.attributeValue("x"));
+        assertThatThrownBy(() -> sessionHash.read(UUID.randomUUID().toString(), incomplete))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("Should flatten nested and element-wise script replies alike")
+    void shouldFlattenReplies() {
+        byte[] field = RedisSessionHash.utf8("createdAt");
+        byte[] value = RedisSessionHash.utf8("2026-03-01T08:00:00Z");
+
+        assertThat(RedisSessionHash.flatten(List.of(List.of(field, value)))).containsExactly(field, value);
+        assertThat(RedisSessionHash.flatten(List.of(field, value))).containsExactly(field, value);
+    }
+
+    private static McpSession session() {
+        Instant created = Instant.parse("2026-03-01T08:00:00Z");
+        McpSession session = new McpSession(
+                UUID.randomUUID().toString(), created, new AtomicReference<>(created.plusSeconds(30)),
+                new ConcurrentHashMap<>());
+        session.setInitialized();
+        session.attributes().put("clientName", "journey-planner");
+        return session;
+    }
+}
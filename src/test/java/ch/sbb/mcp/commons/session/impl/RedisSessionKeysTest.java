@@ -0,0 +1,49 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RedisSessionKeys Tests")
+class RedisSessionKeysTest {
+
+    private static final String SESSION_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Test
+    @DisplayName("Should hash-tag the keys of a single shard so that they share one cluster slot")
+    void shouldTagKeysWithSingleShard() {
+        RedisSessionKeys keys = new RedisSessionKeys(1);
+
+        assertThat(keys.shardOf(SESSION_ID)).isZero();
+        assertThat(keys.sessionKey(SESSION_ID)).isEqualTo("mcp:session:{0}:" + SESSION_ID);
+        assertThat(keys.indexKey(0)).isEqualTo("mcp:sessions:index:{0}");
+        assertThat(keys.creationIndexKey(0)).isEqualTo("mcp:sessions:created:{0}");
+    }
+
+    @Test
+    @DisplayName("Should tag a session key and its shard's indexes with the same hash tag")
+    void shouldShareHashTagWithinShard() {
+        RedisSessionKeys keys = new RedisSessionKeys(16);
+
+        for (int i = 0; i < 100; i++) {
+            String sessionId = UUID.randomUUID().toString();
+            int shard = keys.shardOf(sessionId);
+            String tag = "{" + shard + "}";
+
+            assertThat(shard).isBetween(0, 15);
+            assertThat(keys.sessionKey(sessionId)).isEqualTo("mcp:session:" + tag + ":" + sessionId);
+            assertThat(keys.indexKey(shard)).isEqualTo("mcp:sessions:index:" + tag);
+            assertThat(keys.creationIndexKey(shard)).isEqualTo("mcp:sessions:created:" + tag);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject fewer than one shard")
+    void shouldRejectInvalidShardCount() {
+        assertThatThrownBy(() -> new RedisSessionKeys(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SessionExpiryIndex Tests")
+class SessionExpiryIndexTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final Duration TTL = Duration.ofMinutes(60);
+
+    @Test
+    @DisplayName("Should only hand out entries whose expiry has passed")
+    void expire_ShouldOnlyVisitDueEntries() {
+        SessionExpiryIndex index = new SessionExpiryIndex(TTL, 4);
+        SessionEntry old = entry("old", T0);
+        SessionEntry fresh = entry("fresh", T0 + TTL.toMillis());
+        index.schedule(old);
+        index.schedule(fresh);
+
+        List<String> visited = new ArrayList<>();
+        int expired = index.expire(T0 + TTL.toMillis() + 1, e -> visited.add(e.sessionId()));
+
+        assertThat(expired).isEqualTo(1);
+        assertThat(visited).containsExactly("old");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should re-schedule entries touched after being scheduled")
+    void expire_ShouldRescheduleTouchedEntries() {
+        SessionExpiryIndex index = new SessionExpiryIndex(TTL, 4);
+        SessionEntry active = entry("active", T0);
+        index.schedule(active);
+
+        active.touch(T0 + TTL.toMillis() / 2);
+        List<String> visited = new ArrayList<>();
+
+        assertThat(index.expire(T0 + TTL.toMillis() + 1, e -> visited.add(e.sessionId()))).isZero();
+        assertThat(visited).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        // Expires one TTL after the last touch
+        assertThat(index.expire(T0 + TTL.toMillis() / 2 + TTL.toMillis() + 1, e -> visited.add(e.sessionId())))
+                .isEqualTo(1);
+        assertThat(visited).containsExactly("active");
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop removed entries without handing them out")
+    void expire_ShouldSkipRemovedEntries() {
+        SessionExpiryIndex index = new SessionExpiryIndex(TTL, 4);
+        SessionEntry deleted = entry("deleted", T0);
+        index.schedule(deleted);
+        deleted.markRemoved();
+
+        List<String> visited = new ArrayList<>();
+
+        assertThat(index.expire(T0 + 2 * TTL.toMillis(), e -> visited.add(e.sessionId()))).isZero();
+        assertThat(visited).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should poll the least recently accessed live entry")
+    void pollEarliest_ShouldReturnLeastRecentlyUsed() {
+        SessionExpiryIndex index = new SessionExpiryIndex(TTL, 4);
+        SessionEntry first = entry("first", T0);
+        SessionEntry second = entry("second", T0 + 1_000);
+        SessionEntry deleted = entry("deleted", T0 - 1_000);
+        index.schedule(first);
+        index.schedule(second);
+        index.schedule(deleted);
+        deleted.markRemoved();
+
+        // "first" was scheduled earliest but touched since
+        first.touch(T0 + TTL.toMillis() / 2);
+
+        assertThat(index.pollEarliest()).isSameAs(second);
+        assertThat(index.pollEarliest()).isSameAs(first);
+        assertThat(index.pollEarliest()).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Touch should not allocate a new Instant until the session is read")
+    void touch_ShouldDeferInstantUntilRead() {
+        SessionEntry entry = entry("lazy", T0);
+        Instant before = entry.session().lastAccessedAt().get();
+
+        entry.touch(T0 + 5_000);
+
+        assertThat(entry.lastAccessMillis()).isEqualTo(T0 + 5_000);
+        assertThat(entry.session().lastAccessedAt().get()).isEqualTo(Instant.ofEpochMilli(T0 + 5_000));
+        assertThat(before).isEqualTo(Instant.ofEpochMilli(T0));
+    }
+
+    private static SessionEntry entry(String id, long lastAccessMillis) {
+        Instant instant = Instant.ofEpochMilli(lastAccessMillis);
+        return new SessionEntry(new McpSession(id, instant, new AtomicReference<>(instant), new ConcurrentHashMap<>()));
+    }
+}
@@ -0,0 +1,85 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SessionNearCache Tests")
+class SessionNearCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(5);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @Test
+    @DisplayName("Should return cached sessions until the cache TTL has passed")
+    void get_ShouldHonourTtl() {
+        SessionNearCache cache = new SessionNearCache(TTL, 10, clock::get);
+        McpSession session = session("a");
+        cache.put(session);
+
+        clock.addAndGet(TTL.toNanos() - 1);
+        assertThat(cache.get("a")).isSameAs(session);
+
+        clock.addAndGet(1);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop invalidated sessions immediately")
+    void invalidate_ShouldRemoveEntry() {
+        SessionNearCache cache = new SessionNearCache(TTL, 10, clock::get);
+        cache.put(session("a"));
+        cache.put(session("b"));
+
+        cache.invalidate("a");
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNotNull();
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should never grow beyond the maximum size")
+    void put_ShouldStayBounded() {
+        SessionNearCache cache = new SessionNearCache(TTL, 3, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(session("s" + i));
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("s9")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should refresh an existing entry without evicting others")
+    void put_ShouldReplaceExistingEntry() {
+        SessionNearCache cache = new SessionNearCache(TTL, 2, clock::get);
+        cache.put(session("a"));
+        cache.put(session("b"));
+        McpSession replacement = session("a");
+
+        cache.put(replacement);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isSameAs(replacement);
+        assertThat(cache.get("b")).isNotNull();
+    }
+
+    private static McpSession session(String id) {
+        Instant now = Instant.now();
+        return new McpSession(id, now, new AtomicReference<>(now), new ConcurrentHashMap<>());
+    }
+}
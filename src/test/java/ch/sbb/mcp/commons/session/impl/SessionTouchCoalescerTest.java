@@ -0,0 +1,74 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SessionTouchCoalescer Tests")
+class SessionTouchCoalescerTest {
+
+    private static final Duration MAX_SLACK = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    @DisplayName("Should collapse repeated touches into one pending renewal")
+    void record_ShouldCoalesceTouches() {
+        SessionTouchCoalescer coalescer = new SessionTouchCoalescer(MAX_SLACK, clock::get);
+
+        assertThat(coalescer.record("a")).isTrue();
+        assertThat(coalescer.record("a")).isTrue();
+        assertThat(coalescer.record("b")).isTrue();
+
+        assertThat(coalescer.drain()).containsExactlyInAnyOrder("a", "b");
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip touches while the last renewal is within the max slack")
+    void record_ShouldSkipRecentlyRenewedSessions() {
+        SessionTouchCoalescer coalescer = new SessionTouchCoalescer(MAX_SLACK, clock::get);
+        coalescer.renewed("a");
+
+        clock.addAndGet(MAX_SLACK.toMillis() - 1);
+        assertThat(coalescer.record("a")).isFalse();
+        assertThat(coalescer.drain()).isEmpty();
+
+        clock.addAndGet(1);
+        assertThat(coalescer.record("a")).isTrue();
+        assertThat(coalescer.drain()).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("Should drop pending renewals of forgotten sessions")
+    void forget_ShouldRemovePendingRenewal() {
+        SessionTouchCoalescer coalescer = new SessionTouchCoalescer(MAX_SLACK, clock::get);
+        coalescer.record("a");
+        coalescer.renewed("b");
+
+        coalescer.forget("a");
+        coalescer.forget("b");
+
+        assertThat(coalescer.drain()).isEmpty();
+        assertThat(coalescer.record("b")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should prune renewal timestamps that no longer suppress touches")
+    void prune_ShouldForgetStaleRenewals() {
+        SessionTouchCoalescer coalescer = new SessionTouchCoalescer(MAX_SLACK, clock::get);
+        coalescer.renewed("stale");
+        clock.addAndGet(MAX_SLACK.toMillis() / 2);
+        coalescer.renewed("recent");
+
+        clock.addAndGet(MAX_SLACK.toMillis() / 2);
+        coalescer.prune();
+
+        assertThat(coalescer.record("stale")).isTrue();
+        assertThat(coalescer.record("recent")).isFalse();
+    }
+}
@@ -0,0 +1,89 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ShardedMcpSessionStore Tests")
+class ShardedMcpSessionStoreTest {
+
+    private final Map<String, InMemoryMcpSessionStore> nodes = new LinkedHashMap<>();
+    private ShardedMcpSessionStore sessionStore;
+
+    @BeforeEach
+    void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        for (String name : new String[] {"node-a", "node-b", "node-c"}) {
+            nodes.put(name, new InMemoryMcpSessionStore(Duration.ofMinutes(10), meterRegistry));
+        }
+        sessionStore = new ShardedMcpSessionStore(nodes);
+    }
+
+    @Test
+    @DisplayName("Should store each session on exactly one node and route lookups to it")
+    void shouldRouteSessionsToTheirOwner() {
+        // Given
+        for (int i = 0; i < 60; i++) {
+            sessionStore.createSession().block();
+        }
+        McpSession session = sessionStore.createSession().block();
+
+        // When / Then
+        StepVerifier.create(sessionStore.validateAndTouch(session.sessionId()))
+                .assertNext(found -> assertThat(found.sessionId()).isEqualTo(session.sessionId()))
+                .verifyComplete();
+        long owners = nodes.values().stream()
+                .filter(node -> node.getSession(session.sessionId()).blockOptional().isPresent())
+                .count();
+        assertThat(owners).isEqualTo(1);
+        assertThat(nodes.values()).allSatisfy(node ->
+                assertThat(node.getActiveSessionCount().block()).isPositive());
+    }
+
+    @Test
+    @DisplayName("Should sum the active session counts of all nodes")
+    void shouldSumActiveSessionCounts() {
+        for (int i = 0; i < 25; i++) {
+            sessionStore.createSession().block();
+        }
+
+        StepVerifier.create(sessionStore.getActiveSessionCount())
+                .expectNext(25L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should route attribute updates and deletions to the owning node")
+    void shouldRouteWrites() {
+        McpSession session = sessionStore.createSession().block();
+
+        StepVerifier.create(sessionStore.setAttribute(session.sessionId(), "clientName", "journey-planner"))
+                .expectNext(true)
+                .verifyComplete();
+        assertThat(sessionStore.getSession(session.sessionId()).block().getAttribute("clientName"))
+                .isEqualTo("journey-planner");
+
+        sessionStore.deleteSession(session.sessionId()).block();
+        StepVerifier.create(sessionStore.isValidSession(session.sessionId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject null session IDs")
+    void shouldRejectNullSessionId() {
+        assertThatThrownBy(() -> sessionStore.getSession(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,156 @@
+package ch.sbb.mcp.commons.session.impl;
+
+import ch.sbb.mcp.commons.session.McpSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static ch.sbb.mcp.commons.session.impl.TieredMcpSessionStore.Replication.DELETE;
+import static ch.sbb.mcp.commons.session.impl.TieredMcpSessionStore.Replication.SAVE;
+import static ch.sbb.mcp.commons.session.impl.TieredMcpSessionStore.Replication.TOUCH;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TieredMcpSessionStore Tests")
+class TieredMcpSessionStoreTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InMemoryMcpSessionStore local;
+    private InMemoryMcpSessionStore remote;
+    private TieredMcpSessionStore sessionStore;
+
+    @BeforeEach
+    void setUp() {
+        local = new InMemoryMcpSessionStore(Duration.ofMinutes(10), meterRegistry);
+        remote = new InMemoryMcpSessionStore(Duration.ofMinutes(10), meterRegistry);
+        sessionStore = new TieredMcpSessionStore(local, remote, 100, Duration.ofHours(1), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should create sessions locally and replicate them on flush")
+    void shouldReplicateCreatedSessionsOnFlush() {
+        // Given
+        McpSession session = sessionStore.createSession().block();
+
+        // Then - served locally before replication
+        assertThat(local.getSession(session.sessionId()).block()).isSameAs(session);
+        assertThat(remote.getSession(session.sessionId()).blockOptional()).isEmpty();
+
+        // When
+        sessionStore.flush().block();
+
+        // Then
+        assertThat(remote.getSession(session.sessionId()).block().sessionId()).isEqualTo(session.sessionId());
+        assertThat(meterRegistry.get("mcp.sessions.replication.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load sessions missing locally from the remote store and keep them")
+    void shouldAdoptRemoteSessions() {
+        // Given - created by another instance
+        McpSession session = remote.createSession().block();
+
+        // When / Then
+        StepVerifier.create(sessionStore.validateAndTouch(session.sessionId()))
+                .assertNext(found -> assertThat(found.sessionId()).isEqualTo(session.sessionId()))
+                .verifyComplete();
+        assertThat(local.getSession(session.sessionId()).blockOptional()).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should hide deleted sessions before the delete is replicated")
+    void shouldHidePendingDeletes() {
+        // Given
+        McpSession session = sessionStore.createSession().block();
+        sessionStore.flush().block();
+
+        // When
+        sessionStore.deleteSession(session.sessionId()).block();
+
+        // Then
+        StepVerifier.create(sessionStore.getSession(session.sessionId())).verifyComplete();
+        StepVerifier.create(sessionStore.isValidSession(session.sessionId())).expectNext(false).verifyComplete();
+        assertThat(remote.getSession(session.sessionId()).blockOptional()).isPresent();
+
+        sessionStore.flush().block();
+        assertThat(remote.getSession(session.sessionId()).blockOptional()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replace an unreplicated delete by a later save")
+    void shouldReplaceDeleteBySave() {
+        // Given
+        McpSession session = sessionStore.createSession().block();
+        sessionStore.flush().block();
+        sessionStore.deleteSession(session.sessionId()).block();
+
+        // When
+        sessionStore.saveSession(session).block();
+
+        // Then
+        StepVerifier.create(sessionStore.isValidSession(session.sessionId())).expectNext(true).verifyComplete();
+        sessionStore.flush().block();
+        assertThat(remote.getSession(session.sessionId()).blockOptional()).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should replicate the current attributes with the next flush")
+    void shouldReplicateAttributeUpdates() {
+        McpSession session = sessionStore.createSession().block();
+
+        StepVerifier.create(sessionStore.setAttribute(session.sessionId(), "clientName", "journey-planner"))
+                .expectNext(true)
+                .verifyComplete();
+        sessionStore.flush().block();
+
+        assertThat(remote.getSession(session.sessionId()).block().getAttribute("clientName"))
+                .isEqualTo("journey-planner");
+    }
+
+    @Test
+    @DisplayName("Should count a pending save as lost when the session left the local store")
+    void shouldCountSaveOfEvictedSessionAsLost() {
+        // Given
+        McpSession session = sessionStore.createSession().block();
+
+        // When - evicted from the local store before the save is replicated
+        local.deleteSession(session.sessionId()).block();
+        sessionStore.flush().block();
+
+        // Then
+        assertThat(remote.getSession(session.sessionId()).blockOptional()).isEmpty();
+        assertThat(meterRegistry.get("mcp.sessions.replication.lost").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mcp.sessions.replication.replicated").counter().count()).isZero();
+        assertThat(meterRegistry.get("mcp.sessions.replication.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replicate synchronously when the replication queue is full")
+    void shouldReplicateSynchronouslyWhenQueueIsFull() {
+        // Given
+        TieredMcpSessionStore bounded = new TieredMcpSessionStore(local, remote, 1, Duration.ofHours(1), meterRegistry);
+        McpSession queued = bounded.createSession().block();
+
+        // When
+        McpSession overflow = bounded.createSession().block();
+
+        // Then
+        assertThat(remote.getSession(queued.sessionId()).blockOptional()).isEmpty();
+        assertThat(remote.getSession(overflow.sessionId()).blockOptional()).isPresent();
+        assertThat(meterRegistry.get("mcp.sessions.replication.synchronous").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let the latest save or delete win and never let touches supersede them")
+    void shouldMergePendingReplications() {
+        assertThat(TieredMcpSessionStore.Replication.merge(TOUCH, SAVE)).isEqualTo(SAVE);
+        assertThat(TieredMcpSessionStore.Replication.merge(SAVE, TOUCH)).isEqualTo(SAVE);
+        assertThat(TieredMcpSessionStore.Replication.merge(SAVE, DELETE)).isEqualTo(DELETE);
+        assertThat(TieredMcpSessionStore.Replication.merge(DELETE, SAVE)).isEqualTo(SAVE);
+        assertThat(TieredMcpSessionStore.Replication.merge(DELETE, TOUCH)).isEqualTo(DELETE);
+    }
+}